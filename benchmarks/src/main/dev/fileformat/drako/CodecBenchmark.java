@@ -0,0 +1,64 @@
+package dev.fileformat.drako;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+/**
+ *  End to end encode and decode of the synthetic models at every compression level.
+ *  Meshes go through the edgebreaker(or the sequential encoder without compression), the scanned
+ *  point cloud goes through the kd-tree encoder.
+ *  The default sizes keep a full run short, larger models up to 50M elements can be selected with
+ *  -p elements=10000000,50000000, they need a larger heap than the forked default.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class CodecBenchmark
+{    
+    @Param({"sphere", "terrain", "cad", "scan"})
+    public String shape;
+    @Param({"1000", "100000", "1000000"})
+    public int elements;
+    @Param({"NO_COMPRESSION", "FAST", "STANDARD", "OPTIMAL"})
+    public DracoCompressionLevel level;
+    private DracoPointCloud model;
+    private DracoEncodeOptions options;
+    private byte[] encoded;
+    @Setup(Level.Trial)
+    public void setup()
+        throws DrakoException
+    {
+        this.model = MeshGenerator.generate(shape, elements);
+        this.options = new DracoEncodeOptions();
+        options.setCompressionLevel(level);
+        this.encoded = Draco.encode(model, options);
+    }
+    
+    @Benchmark
+    public byte[] encode()
+        throws DrakoException
+    {
+        return Draco.encode(model, options);
+    }
+    
+    @Benchmark
+    public DracoPointCloud decode()
+        throws DrakoException
+    {
+        return Draco.decode(encoded);
+    }
+    
+}
@@ -0,0 +1,168 @@
+package dev.fileformat.drako;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+/**
+ *  Edgebreaker connectivity coding of large meshes, and the per face bookkeeping it does
+ *  with the boxed collections next to {@link dev.fileformat.drako.BitList} and {@link dev.fileformat.drako.IntIntMap}.
+ *  The visited faces are marked in traversal order and the split symbols are looked up for
+ *  every neighbor face, like the encoder does.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class EdgeBreakerBenchmark
+{    
+    @Param({"10000000"})
+    public int faces;
+    @Param({"STANDARD", "PREDICTIVE", "VALENCE"})
+    public DracoEdgeBreakerMethod method;
+    private DracoMesh mesh;
+    private DracoEncodeOptions options;
+    private byte[] encoded;
+    /**
+     *  Face visiting order, a shuffled window over the face ids.
+     *
+     */
+    private int[] order;
+    /**
+     *  Faces that carry a split symbol, about one in a hundred.
+     *
+     */
+    private int[] splitFaces;
+    @Setup(Level.Trial)
+    public void setup()
+        throws DrakoException
+    {
+        this.mesh = MeshGenerator.grid(faces);
+        this.options = new DracoEncodeOptions();
+        options.setCompressionLevel(DracoCompressionLevel.STANDARD);
+        options.setEdgeBreakerMethod(method);
+        this.encoded = Draco.encode(mesh, options);
+        int numFaces = mesh.getNumFaces();
+        Random random = new Random(numFaces);
+        this.order = new int[numFaces];
+        for (int i = 0; i < numFaces; i++)
+        {
+            order[i] = i;
+        }
+        
+        for (int i = 0; i < numFaces; i++)
+        {
+            // Swap within a small window, the traversal moves between neighbor faces.
+            int j = Math.min(numFaces - 1, i + random.nextInt(64));
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        
+        this.splitFaces = new int[numFaces / 100];
+        for (int i = 0; i < splitFaces.length; i++)
+        {
+            splitFaces[i] = random.nextInt(numFaces);
+        }
+        
+    }
+    
+    @Benchmark
+    public byte[] encode()
+        throws DrakoException
+    {
+        return Draco.encode(mesh, options);
+    }
+    
+    @Benchmark
+    public DracoPointCloud decode()
+        throws DrakoException
+    {
+        return Draco.decode(encoded);
+    }
+    
+    @Benchmark
+    public int boxedCollections()
+    {
+        int numFaces = order.length;
+        ArrayList<Boolean> visitedFaces = new ArrayList<Boolean>();
+        for (int i = 0; i < numFaces; i++)
+        {
+            visitedFaces.add(false);
+        }
+        
+        HashMap<Integer, Integer> faceToSplitSymbolMap = new HashMap<Integer, Integer>();
+        for (int i = 0; i < splitFaces.length; i++)
+        {
+            faceToSplitSymbolMap.put(splitFaces[i], i);
+        }
+        
+        int ret = 0;
+        for (int i = 0; i < numFaces; i++)
+        {
+            int face = order[i];
+            visitedFaces.set(face, true);
+            int neighbor = face + 1 < numFaces ? face + 1 : 0;
+            if (!visitedFaces.get(neighbor))
+            {
+                Integer symbol = faceToSplitSymbolMap.get(neighbor);
+                if (symbol != null)
+                {
+                    ret += symbol;
+                }
+                
+            }
+            
+        }
+        
+        return ret;
+    }
+    
+    @Benchmark
+    public int primitiveCollections()
+    {
+        int numFaces = order.length;
+        BitList visitedFaces = new BitList();
+        visitedFaces.assign(numFaces, false);
+        IntIntMap faceToSplitSymbolMap = new IntIntMap();
+        for (int i = 0; i < splitFaces.length; i++)
+        {
+            faceToSplitSymbolMap.put(splitFaces[i], i);
+        }
+        
+        int ret = 0;
+        for (int i = 0; i < numFaces; i++)
+        {
+            int face = order[i];
+            visitedFaces.set(face, true);
+            int neighbor = face + 1 < numFaces ? face + 1 : 0;
+            if (!visitedFaces.get(neighbor))
+            {
+                int symbol = faceToSplitSymbolMap.get(neighbor, -1);
+                if (symbol != -1)
+                {
+                    ret += symbol;
+                }
+                
+            }
+            
+        }
+        
+        return ret;
+    }
+    
+}
@@ -0,0 +1,84 @@
+package dev.fileformat.drako;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+/**
+ *  Growth of the encoder output buffer, the uncompressed encoder writes every face index
+ *  and attribute value through EncoderBuffer so the output size is roughly 20 bytes per triangle.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class EncoderBufferBenchmark
+{    
+    @Param({"1000000", "10000000"})
+    public int triangles;
+    private DracoMesh mesh;
+    private ByteArrayPool pool;
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        this.mesh = MeshGenerator.grid(triangles);
+        this.pool = new ByteArrayPool(4, Integer.MAX_VALUE);
+    }
+    
+    /**
+     *  Appends the face indices one int at a time, as the sequential encoder does.
+     *
+     */
+    @Benchmark
+    public int appendIndices()
+    {
+        EncoderBuffer buffer = new EncoderBuffer();
+        IntList indices = mesh.getIndices();
+        for (int i = 0; i < indices.getCount(); i++)
+        {
+            buffer.encode(indices.get(i));
+        }
+        
+        return buffer.getBytes();
+    }
+    
+    /**
+     *  Same as appendIndices, but the storage is reused between invocations.
+     *
+     */
+    @Benchmark
+    public int appendIndicesPooled()
+    {
+        EncoderBuffer buffer = new EncoderBuffer(pool);
+        IntList indices = mesh.getIndices();
+        for (int i = 0; i < indices.getCount(); i++)
+        {
+            buffer.encode(indices.get(i));
+        }
+        
+        int ret = buffer.getBytes();
+        buffer.release();
+        return ret;
+    }
+    
+    @Benchmark
+    public byte[] encodeUncompressed()
+        throws DrakoException
+    {
+        DracoEncodeOptions opt = new DracoEncodeOptions();
+        opt.setCompressionLevel(DracoCompressionLevel.NO_COMPRESSION);
+        return Draco.encode(mesh, opt);
+    }
+    
+}
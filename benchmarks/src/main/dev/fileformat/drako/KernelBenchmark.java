@@ -0,0 +1,193 @@
+package dev.fileformat.drako;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+/**
+ *  The hot loops of the codec in isolation: entropy coding, corner table construction,
+ *  quantization and the parallelogram prediction, all on the terrain grid of about |elements| triangles.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class KernelBenchmark
+{    
+    @Param({"1000", "100000", "1000000"})
+    public int elements;
+    private DracoMesh mesh;
+    private IntSpan symbols;
+    private byte[] rawSymbols;
+    private byte[] interleavedSymbols;
+    private DracoEncodeOptions options;
+    private Int2D faces;
+    private AttributeQuantizationTransform quantization;
+    private PointAttribute portable;
+    private MeshPredictionSchemeParallelogram parallelogram;
+    private IntSpan portableValues;
+    private IntSpan corrections;
+    private IntSpan reconstructed;
+    @Setup(Level.Trial)
+    public void setup()
+        throws DrakoException
+    {
+        this.mesh = MeshGenerator.terrain(elements);
+        // Small values are much more frequent than large ones, like prediction corrections.
+        Random random = new Random(elements);
+        int numSymbols = mesh.getNumFaces() * 3;
+        this.symbols = IntSpan.wrap(new int[numSymbols]);
+        for (int i = 0; i < numSymbols; i++)
+        {
+            symbols.put(i, Math.min(4000, (int)Math.abs(random.nextGaussian() * 20.0)));
+        }
+        
+        this.options = new DracoEncodeOptions();
+        DracoEncodeOptions raw = new DracoEncodeOptions();
+        // Force the raw scheme so every symbol goes through the rANS coder.
+        raw.setSymbolEncodingMethod(1);
+        EncoderBuffer buffer = new EncoderBuffer();
+        Encoding.encodeSymbols(symbols, numSymbols, 1, raw, buffer);
+        this.rawSymbols = new byte[buffer.getBytes()];
+        System.arraycopy(buffer.getData(), 0, rawSymbols, 0, buffer.getBytes());
+        raw.setRAnsLanes(4);
+        buffer = new EncoderBuffer();
+        Encoding.encodeSymbols(symbols, numSymbols, 1, raw, buffer);
+        this.interleavedSymbols = new byte[buffer.getBytes()];
+        System.arraycopy(buffer.getData(), 0, interleavedSymbols, 0, buffer.getBytes());
+        
+        IntList indices = mesh.getIndices();
+        this.faces = new Int2D(mesh.getNumFaces(), 3, indices.toArray());
+        
+        PointAttribute positions = mesh.getNamedAttribute(AttributeType.POSITION);
+        this.quantization = new AttributeQuantizationTransform();
+        quantization.computeParameters(positions, 14);
+        this.portable = quantization.initTransformedAttribute(positions, mesh.getNumPoints());
+        quantization.generatePortableAttribute(positions, mesh.getNumPoints(), portable);
+        
+        // Predict the vertices in their natural order, each from the left most corner of the vertex.
+        CornerTable table = new CornerTable();
+        table.initialize(faces);
+        int numVertices = table.getNumVertices();
+        int[] vertexToData = new int[numVertices];
+        IntList dataToCorner = new IntList();
+        for (int v = 0; v < numVertices; v++)
+        {
+            vertexToData[v] = v;
+            dataToCorner.add(table.leftMostCorner(v));
+        }
+        
+        MeshPredictionSchemeData data = new MeshPredictionSchemeData(mesh, table, dataToCorner, vertexToData);
+        this.parallelogram = new MeshPredictionSchemeParallelogram(portable, new PredictionSchemeWrapTransform(), data);
+        int numValues = numVertices * 3;
+        this.portableValues = portable.getAddress(0).asIntSpan().slice(0, numValues);
+        this.corrections = IntSpan.wrap(new int[numValues]);
+        this.reconstructed = IntSpan.wrap(new int[numValues]);
+        parallelogram.computeCorrectionValues(portableValues, corrections, numValues, 3, null);
+    }
+    
+    /**
+     *  RAnsDecoder.read over all symbols, including the small cost of building the lookup table.
+     *
+     */
+    @Benchmark
+    public int ransRead()
+        throws DrakoException
+    {
+        DecoderBuffer buffer = this.symbolBuffer();
+        buffer.decodeU8();
+        RAnsSymbolDecoder decoder = new RAnsSymbolDecoder(0xff & buffer.decodeU8());
+        decoder.create(buffer);
+        decoder.startDecoding(buffer);
+        int sum = 0;
+        for (int i = 0; i < symbols.size(); i++)
+        {
+            sum += decoder.decodeSymbol();
+        }
+        
+        decoder.endDecoding();
+        return sum;
+    }
+    
+    @Benchmark
+    public IntSpan decodeSymbols()
+        throws DrakoException
+    {
+        IntSpan out = IntSpan.wrap(new int[symbols.size()]);
+        Decoding.decodeSymbols(symbols.size(), 1, this.symbolBuffer(), out);
+        return out;
+    }
+    
+    /**
+     *  Same symbols as decodeSymbols coded with 4 interleaved rANS states.
+     *
+     */
+    @Benchmark
+    public IntSpan decodeSymbolsInterleaved()
+        throws DrakoException
+    {
+        IntSpan out = IntSpan.wrap(new int[symbols.size()]);
+        DecoderBuffer buffer = new DecoderBuffer(interleavedSymbols);
+        buffer.setBitstreamVersion(22);
+        Decoding.decodeSymbols(symbols.size(), 1, buffer, out);
+        return out;
+    }
+    
+    @Benchmark
+    public int encodeSymbols()
+        throws DrakoException
+    {
+        EncoderBuffer buffer = new EncoderBuffer();
+        Encoding.encodeSymbols(symbols, symbols.size(), 1, options, buffer);
+        return buffer.getBytes();
+    }
+    
+    private DecoderBuffer symbolBuffer()
+    {
+        DecoderBuffer buffer = new DecoderBuffer(rawSymbols);
+        buffer.setBitstreamVersion(22);
+        return buffer;
+    }
+    
+    @Benchmark
+    public int cornerTableInitialize()
+    {
+        CornerTable table = new CornerTable();
+        table.initialize(faces);
+        return table.getNumVertices();
+    }
+    
+    @Benchmark
+    public PointAttribute generatePortableAttribute()
+    {
+        quantization.generatePortableAttribute(mesh.getNamedAttribute(AttributeType.POSITION), mesh.getNumPoints(), portable);
+        return portable;
+    }
+    
+    @Benchmark
+    public IntSpan parallelogramCorrections()
+    {
+        parallelogram.computeCorrectionValues(portableValues, corrections, portableValues.size(), 3, null);
+        return corrections;
+    }
+    
+    @Benchmark
+    public IntSpan parallelogramOriginalValues()
+    {
+        parallelogram.computeOriginalValues(corrections, reconstructed, corrections.size(), 3, null);
+        return reconstructed;
+    }
+    
+}
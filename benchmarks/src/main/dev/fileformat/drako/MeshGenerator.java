@@ -0,0 +1,259 @@
+package dev.fileformat.drako;
+import java.util.Random;
+/**
+ *  Synthetic geometry used by the benchmarks.
+ *  Sizes are approximate, the generators round to the nearest regular layout.
+ *
+ */
+final class MeshGenerator
+{    
+    /**
+     *  Generate the named model with about |elements| triangles, or points for "scan".
+     *
+     * @param shape One of "sphere", "terrain", "cad" or "scan"
+     */
+    public static DracoPointCloud generate(String shape, int elements)
+    {
+        switch(shape)
+        {
+            case "sphere":
+                return MeshGenerator.sphere(elements);
+            case "terrain":
+                return MeshGenerator.terrain(elements);
+            case "cad":
+                return MeshGenerator.cad(elements);
+            case "scan":
+                return MeshGenerator.scan(elements);
+            default:
+                throw new IllegalArgumentException("Unknown shape " + shape);
+        }
+        
+    }
+    
+    /**
+     *  Generate a regular grid with a smooth height field, about |numTriangles| triangles.
+     *
+     */
+    public static DracoMesh grid(int numTriangles)
+    {
+        int cells = Math.max(1, (int)Math.sqrt(numTriangles / 2.0));
+        int side = cells + 1;
+        float[] positions = new float[side * side * 3];
+        for (int y = 0,  p = 0; y < side; y++)
+        {
+            for (int x = 0; x < side; x++)
+            {
+                positions[p++] = x;
+                positions[p++] = y;
+                positions[p++] = (float)(Math.sin(x * 0.05) * Math.cos(y * 0.05) * 10.0);
+            }
+            
+        }
+        
+        return MeshGenerator.mesh(positions, MeshGenerator.gridIndices(cells, cells, 0));
+    }
+    
+    /**
+     *  Terrain grid with texture coordinates, about |numTriangles| triangles.
+     *
+     */
+    public static DracoMesh terrain(int numTriangles)
+    {
+        DracoMesh mesh = MeshGenerator.grid(numTriangles);
+        int side = (int)Math.round(Math.sqrt(mesh.getNumPoints()));
+        float[] uv = new float[side * side * 2];
+        for (int y = 0,  p = 0; y < side; y++)
+        {
+            for (int x = 0; x < side; x++)
+            {
+                uv[p++] = x / (float)(side - 1);
+                uv[p++] = y / (float)(side - 1);
+            }
+            
+        }
+        
+        mesh.addAttribute(MeshGenerator.attribute(AttributeType.TEX_COORD, 2, uv));
+        return mesh;
+    }
+    
+    /**
+     *  UV sphere with normals and texture coordinates, about |numTriangles| triangles.
+     *  The vertices along the texture seam and at the poles are duplicated.
+     *
+     */
+    public static DracoMesh sphere(int numTriangles)
+    {
+        int rings = Math.max(2, (int)Math.sqrt(numTriangles / 4.0));
+        int segments = rings * 2;
+        int numVertices = (rings + 1) * (segments + 1);
+        float[] positions = new float[numVertices * 3];
+        float[] normals = new float[numVertices * 3];
+        float[] uv = new float[numVertices * 2];
+        for (int r = 0,  p = 0,  t = 0; r <= rings; r++)
+        {
+            double theta = Math.PI * r / rings;
+            for (int s = 0; s <= segments; s++)
+            {
+                double phi = 2.0 * Math.PI * s / segments;
+                float nx = (float)(Math.sin(theta) * Math.cos(phi));
+                float ny = (float)Math.cos(theta);
+                float nz = (float)(Math.sin(theta) * Math.sin(phi));
+                normals[p] = nx;
+                positions[p++] = nx * 100.0f;
+                normals[p] = ny;
+                positions[p++] = ny * 100.0f;
+                normals[p] = nz;
+                positions[p++] = nz * 100.0f;
+                uv[t++] = s / (float)segments;
+                uv[t++] = r / (float)rings;
+            }
+            
+        }
+        
+        DracoMesh mesh = MeshGenerator.mesh(positions, MeshGenerator.gridIndices(segments, rings, 0));
+        mesh.addAttribute(MeshGenerator.attribute(AttributeType.NORMAL, 3, normals));
+        mesh.addAttribute(MeshGenerator.attribute(AttributeType.TEX_COORD, 2, uv));
+        return mesh;
+    }
+    
+    /**
+     *  CAD-like assembly of subdivided boxes, about |numTriangles| triangles.
+     *  Every box side has its own vertices, so the positions are split along the hard edges
+     *  where the flat normals and the texture charts change.
+     *
+     */
+    public static DracoMesh cad(int numTriangles)
+    {
+        int cells = Math.max(1, Math.min(16, (int)Math.sqrt(numTriangles / 12.0)));
+        int boxes = Math.max(1, numTriangles / (12 * cells * cells));
+        int columns = (int)Math.ceil(Math.sqrt(boxes));
+        int side = cells + 1;
+        int verticesPerBox = 6 * side * side;
+        float[] positions = new float[boxes * verticesPerBox * 3];
+        float[] normals = new float[boxes * verticesPerBox * 3];
+        float[] uv = new float[boxes * verticesPerBox * 2];
+        int[] indices = new int[boxes * 6 * cells * cells * 6];
+        int p = 0;
+        int t = 0;
+        int i = 0;
+        for (int b = 0; b < boxes; b++)
+        {
+            float ox = (b % columns) * 30.0f;
+            float oy = (b / columns) * 30.0f;
+            // Vary the proportions so the boxes don't quantize to the same values.
+            float[] size = {10.0f + (b % 7), 10.0f + (b % 5) * 2.0f, 5.0f + (b % 3) * 4.0f};
+            for (int f = 0; f < 6; f++)
+            {
+                int axis = f / 2;
+                float sign = (f % 2) == 0 ? -1.0f : 1.0f;
+                int u = (axis + 1) % 3;
+                int v = (axis + 2) % 3;
+                int first = p / 3;
+                for (int y = 0; y < side; y++)
+                {
+                    for (int x = 0; x < side; x++)
+                    {
+                        float[] pos = new float[3];
+                        pos[axis] = sign * size[axis] * 0.5f;
+                        pos[u] = (x / (float)cells - 0.5f) * size[u];
+                        pos[v] = (y / (float)cells - 0.5f) * size[v];
+                        for (int c = 0; c < 3; c++)
+                        {
+                            normals[p] = c == axis ? sign : 0.0f;
+                            positions[p++] = pos[c] + (c == 0 ? ox : c == 1 ? oy : 0.0f);
+                        }
+                        
+                        uv[t++] = (f + x / (float)cells) / 6.0f;
+                        uv[t++] = y / (float)cells;
+                    }
+                    
+                }
+                
+                int[] face = MeshGenerator.gridIndices(cells, cells, first);
+                System.arraycopy(face, 0, indices, i, face.length);
+                i += face.length;
+            }
+            
+        }
+        
+        DracoMesh mesh = MeshGenerator.mesh(positions, indices);
+        mesh.addAttribute(MeshGenerator.attribute(AttributeType.NORMAL, 3, normals));
+        mesh.addAttribute(MeshGenerator.attribute(AttributeType.TEX_COORD, 2, uv));
+        return mesh;
+    }
+    
+    /**
+     *  Scanned point cloud, |numPoints| noisy samples of a height field with estimated normals.
+     *
+     */
+    public static DracoPointCloud scan(int numPoints)
+    {
+        Random random = new Random(numPoints);
+        float[] positions = new float[numPoints * 3];
+        float[] normals = new float[numPoints * 3];
+        for (int i = 0,  p = 0; i < numPoints; i++)
+        {
+            double x = random.nextDouble() * 100.0;
+            double y = random.nextDouble() * 100.0;
+            double z = Math.sin(x * 0.1) * Math.cos(y * 0.1) * 10.0;
+            double dx = -Math.cos(x * 0.1) * Math.cos(y * 0.1);
+            double dy = Math.sin(x * 0.1) * Math.sin(y * 0.1);
+            double length = Math.sqrt(dx * dx + dy * dy + 1.0);
+            normals[p] = (float)(dx / length);
+            positions[p++] = (float)x;
+            normals[p] = (float)(dy / length);
+            positions[p++] = (float)y;
+            normals[p] = (float)(1.0 / length);
+            positions[p++] = (float)(z + random.nextGaussian() * 0.05);
+        }
+        
+        DracoPointCloud pc = new DracoPointCloud();
+        pc.addAttribute(MeshGenerator.attribute(AttributeType.POSITION, 3, positions));
+        pc.addAttribute(MeshGenerator.attribute(AttributeType.NORMAL, 3, normals));
+        pc.setNumPoints(numPoints);
+        return pc;
+    }
+    
+    /**
+     *  Two triangles per cell of a |width| x |height| grid of vertices starting at |first|.
+     *
+     */
+    static int[] gridIndices(int width, int height, int first)
+    {
+        int side = width + 1;
+        int[] indices = new int[width * height * 6];
+        for (int y = 0,  p = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                int v = first + y * side + x;
+                indices[p++] = v;
+                indices[p++] = v + 1;
+                indices[p++] = v + side;
+                indices[p++] = v + 1;
+                indices[p++] = v + side + 1;
+                indices[p++] = v + side;
+            }
+            
+        }
+        
+        return indices;
+    }
+    
+    static DracoMesh mesh(float[] positions, int[] indices)
+    {
+        DracoMesh mesh = new DracoMesh();
+        mesh.addAttribute(MeshGenerator.attribute(AttributeType.POSITION, 3, positions));
+        mesh.getIndices().addRange(indices);
+        mesh.setNumPoints(positions.length / 3);
+        return mesh;
+    }
+    
+    static PointAttribute attribute(int type, int components, float[] values)
+    {
+        byte[] bytes = new byte[values.length * 4];
+        Unsafe.toByteArray(values, 0, values.length, bytes, 0);
+        return new PointAttribute(type, DataType.FLOAT32, components, false, -1, 0, new DataBuffer(bytes));
+    }
+    
+}
@@ -19,7 +19,7 @@ abstract class MeshPredictionScheme extends PredictionScheme
         return true;
     }
     
-    protected static void getParallelogramEntries(int ci, ICornerTable table, int[] vertexToDataMap, int[] oppEntry, int[] nextEntry, int[] prevEntry)
+    protected static void getParallelogramEntries(int ci, FlatCornerTable table, int[] vertexToDataMap, int[] oppEntry, int[] nextEntry, int[] prevEntry)
     {
         // One vertex of the input |table| correspond to exactly one attribute value
         // entry. The |table| can be either CornerTable for per-vertex attributes,
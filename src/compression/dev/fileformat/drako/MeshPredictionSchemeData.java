@@ -15,6 +15,7 @@ class MeshPredictionSchemeData
      *
      */
     IntList dataToCornerMap;
+    private FlatCornerTable flatTable;
     public MeshPredictionSchemeData(DracoMesh mesh, ICornerTable table, IntList dataToCornerMap, int[] vertexToDataMap)
     {
         this.mesh = mesh;
@@ -28,4 +29,18 @@ class MeshPredictionSchemeData
         return cornerTable;
     }
     
+    /**
+     *  Gets the connectivity of the corner table for the prediction loops, the view is created on first use.
+     *
+     */
+    public FlatCornerTable getFlatTable()
+    {
+        if (flatTable == null)
+        {
+            this.flatTable = cornerTable.toFlatTable();
+        }
+        
+        return flatTable;
+    }
+    
 }
@@ -19,7 +19,7 @@ class MeshPredictionSchemeMultiParallelogram extends MeshPredictionScheme
         final int[] ref1 = new int[1];
         final int[] ref2 = new int[1];
         this.transform_.initializeEncoding(inData, numComponents);
-        ICornerTable table = this.meshData.getCornerTable();
+        FlatCornerTable table = this.meshData.getFlatTable();
         int[] vertexToDataMap = this.meshData.vertexToDataMap;
         IntSpan predVals = IntSpan.wrap(new int[numComponents]);
         
@@ -114,7 +114,7 @@ class MeshPredictionSchemeMultiParallelogram extends MeshPredictionScheme
         IntSpan parallelogramPredVals = IntSpan.wrap(new int[numComponents]);
         
         this.transform_.computeOriginalValue(predVals, inCorr, outData);
-        ICornerTable table = this.meshData.getCornerTable();
+        FlatCornerTable table = this.meshData.getFlatTable();
         int[] vertexToDataMap = this.meshData.vertexToDataMap;
         int cornerMapSize = this.meshData.dataToCornerMap.getCount();
         for (int p = 1; p < cornerMapSize; ++p)
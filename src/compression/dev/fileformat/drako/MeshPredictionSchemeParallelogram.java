@@ -33,7 +33,7 @@ class MeshPredictionSchemeParallelogram extends MeshPredictionScheme
     {
         this.transform_.initializeEncoding(inData, numComponents);
         IntSpan predVals = IntSpan.wrap(new int[numComponents]);
-        ICornerTable table = this.meshData.getCornerTable();
+        FlatCornerTable table = this.meshData.getFlatTable();
         int[] vertexToDataMap = this.meshData.vertexToDataMap;
         for (int p = this.meshData.dataToCornerMap.getCount() - 1; p > 0; --p)
         {
@@ -100,7 +100,7 @@ class MeshPredictionSchemeParallelogram extends MeshPredictionScheme
     public void computeOriginalValues(IntSpan inCorr, IntSpan outData, int size, int numComponents, int[] entryToPointIdMap)
     {
         this.transform_.initializeDecoding(numComponents);
-        ICornerTable table = this.meshData.getCornerTable();
+        FlatCornerTable table = this.meshData.getFlatTable();
         int[] vertexToDataMap = this.meshData.vertexToDataMap;
         IntSpan predVals = IntSpan.wrap(new int[numComponents]);
         
@@ -131,24 +131,14 @@ class MeshPredictionSchemeParallelogram extends MeshPredictionScheme
     // Function returns false when the prediction couldn't be computed, e.g. because
     // not all entry points were available.
     // 
-    public static boolean computeParallelogramPrediction(int data_entry_id, int ci, ICornerTable table, int[] vertex_to_data_map, IntSpan in_data, int num_components, IntSpan out_prediction)
+    public static boolean computeParallelogramPrediction(int data_entry_id, int ci, FlatCornerTable table, int[] vertex_to_data_map, IntSpan in_data, int num_components, IntSpan out_prediction)
     {
         int oci = table.opposite(ci);
-        final int[] ref0 = new int[1];
-        final int[] ref1 = new int[1];
-        final int[] ref2 = new int[1];
         if (oci == CornerTable.K_INVALID_CORNER_INDEX)
             return false;
-        int vert_opp = 0;
-        int vert_next = 0;
-        int vert_prev = 0;
-        ref0[0] = vert_opp;
-        ref1[0] = vert_next;
-        ref2[0] = vert_prev;
-        MeshPredictionScheme.getParallelogramEntries(oci, table, vertex_to_data_map, ref0, ref1, ref2);
-        vert_opp = ref0[0];
-        vert_next = ref1[0];
-        vert_prev = ref2[0];
+        int vert_opp = vertex_to_data_map[table.vertex(oci)];
+        int vert_next = vertex_to_data_map[table.vertex(table.next(oci))];
+        int vert_prev = vertex_to_data_map[table.vertex(table.previous(oci))];
         if (vert_opp < data_entry_id && (vert_next < data_entry_id) && (vert_prev < data_entry_id))
         {
             int v_opp_off = vert_opp * num_components;
@@ -144,14 +144,14 @@ class MeshPredictionSchemeTexCoords extends MeshPredictionScheme
     
     private void computePredictedValue(boolean isEncoder, int cornerId, IntSpan data, int dataId)
     {
-        int nextCornerId = this.meshData.getCornerTable().next(cornerId);
-        int prevCornerId = this.meshData.getCornerTable().previous(cornerId);
+        int nextCornerId = this.meshData.getFlatTable().next(cornerId);
+        int prevCornerId = this.meshData.getFlatTable().previous(cornerId);
         int nextDataId;
         int prevDataId;
         int nextVertId;
         int prevVertId;
-        nextVertId = this.meshData.getCornerTable().vertex(nextCornerId);
-        prevVertId = this.meshData.getCornerTable().vertex(prevCornerId);
+        nextVertId = this.meshData.getFlatTable().vertex(nextCornerId);
+        prevVertId = this.meshData.getFlatTable().vertex(prevCornerId);
         
         nextDataId = this.meshData.vertexToDataMap[nextVertId];
         prevDataId = this.meshData.vertexToDataMap[prevVertId];
@@ -45,14 +45,14 @@ class MeshPredictionSchemeTexCoordsPortablePredictor
     // 
     public boolean computePredictedValue(boolean is_encoder_t, int corner_id, IntSpan data, int data_id)
     {
-        int next_corner_id = mesh_data_.getCornerTable().next(corner_id);
-        int prev_corner_id = mesh_data_.getCornerTable().previous(corner_id);
+        int next_corner_id = mesh_data_.getFlatTable().next(corner_id);
+        int prev_corner_id = mesh_data_.getFlatTable().previous(corner_id);
         int next_data_id;
         int prev_data_id;
         int next_vert_id;
         int prev_vert_id;
-        next_vert_id = mesh_data_.getCornerTable().vertex(next_corner_id);
-        prev_vert_id = mesh_data_.getCornerTable().vertex(prev_corner_id);
+        next_vert_id = mesh_data_.getFlatTable().vertex(next_corner_id);
+        prev_vert_id = mesh_data_.getFlatTable().vertex(prev_corner_id);
         
         next_data_id = mesh_data_.vertexToDataMap[next_vert_id];
         prev_data_id = mesh_data_.vertexToDataMap[prev_vert_id];
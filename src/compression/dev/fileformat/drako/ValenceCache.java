@@ -1,4 +1,5 @@
 package dev.fileformat.drako;
+import java.util.concurrent.ForkJoinPool;
 // ValenceCache provides support for the caching of valences off of some kind of
 // CornerTable 'type' of class.
 // No valences should be queried before Caching is
@@ -65,6 +66,22 @@ class ValenceCache
     
     public void cacheValences()
     {
+        this.cacheValences(null);
+    }
+    
+    /**
+     *  Collects the valences, the valences of large meshes are computed on |pool|.
+     *
+     */
+    public void cacheValences(ForkJoinPool pool)
+    {
+        if (vertex_valence_cache_32_bit_ == null && CornerTableBuilder.isParallel(pool, table_.getNumCorners()))
+        {
+            int[] valences = new int[table_.getNumVertices()];
+            new CornerTableBuilder().computeValences(table_, valences, pool);
+            this.vertex_valence_cache_32_bit_ = valences;
+        }
+        
         if (vertex_valence_cache_32_bit_ == null)
         {
             int vertex_count = table_.getNumVertices();
@@ -110,7 +127,7 @@ class ValenceCache
         //DRACO_DCHECK_EQ(vertex_valence_cache_32_bit_.Length, table_.NumVertices);
         if (v == -1 || (v >= table_.getNumVertices()))
             return -1;
-        return this.confidentValenceFromCacheC(v);
+        return this.confidentValenceFromCacheV(v);
     }
     
     // Clear the cache of valences and deallocate the memory.
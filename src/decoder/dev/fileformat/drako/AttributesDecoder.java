@@ -92,6 +92,19 @@ abstract class AttributesDecoder
         this.transformAttributesToOriginalFormat();
     }
     
+    /**
+     *  Reads the data of the attributes but defers computing their values to {@link #decodeDeferredAttribute(int)}
+     *  and {@link #transformAttributeToOriginalFormat(int)}, so they can be completed on other threads.
+     *  Returns false if the decoder can't defer and the attributes were decoded completely.
+     *
+     */
+    public boolean decodeAttributesDeferred(DecoderBuffer buffer)
+        throws DrakoException
+    {
+        this.decodeAttributes(buffer);
+        return false;
+    }
+    
     protected abstract void decodePortableAttributes(DecoderBuffer buffer)
         throws DrakoException;
     
@@ -122,6 +135,49 @@ abstract class AttributesDecoder
     
     public abstract PointAttribute getPortableAttribute(int attId);
     
+    /**
+     *  Completes the portable values of an attribute whose decoding was deferred, either because it was not requested
+     *  and a requested attribute predicts from it, or because it's computed on another thread.
+     *
+     */
+    public void decodeDeferredAttribute(int attId)
+        throws DrakoException
+    {
+    }
+    
+    /**
+     *  Transforms the portable values of a deferred attribute to its original format.
+     *
+     */
+    public void transformAttributeToOriginalFormat(int attId)
+        throws DrakoException
+    {
+    }
+    
+    /**
+     *  Returns the number of attributes the prediction of given attribute depends on.
+     *
+     */
+    public int numParentAttributes(int attId)
+    {
+        return 0;
+    }
+    
+    public int getParentAttributeId(int attId, int i)
+    {
+        return -1;
+    }
+    
+    /**
+     *  Returns true if the i-th attribute was requested by the load options.
+     *
+     */
+    protected boolean isAttributeRequested(int i)
+    {
+        DracoLoadOptions options = pointCloudDecoder.options;
+        return options == null || options.isRequested(pointCloud.attribute(pointAttributeIds[i]));
+    }
+    
     protected int getLocalIdForPointAttribute(int point_attribute_id)
     {
         int id_map_size = point_attribute_to_local_id_map_.getCount();
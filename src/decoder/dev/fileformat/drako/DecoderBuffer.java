@@ -1,6 +1,7 @@
 package dev.fileformat.drako;
 import dev.fileformat.drako.BitUtils;
 import dev.fileformat.drako.Struct;
+import java.nio.ByteBuffer;
 final class DecoderBuffer
 {    
     private final BitDecoder bitDecoder = new BitDecoder();
@@ -9,6 +10,8 @@ final class DecoderBuffer
     private int length;
     private BytePointer data = new BytePointer();
     private byte[] tmp;
+    private DecoderWorkspace workspace;
+    private DracoDictionary dictionary;
     public int getBitstreamVersion()
     {
         return this.bitstreamVersion;
@@ -20,12 +23,51 @@ final class DecoderBuffer
     }
     
     private int bitstreamVersion;
+    /**
+     *  Working memory shared by the decoders reading this buffer, null when every decode allocates its own.
+     *
+     */
+    public DecoderWorkspace getWorkspace()
+    {
+        return workspace;
+    }
+    
+    public void setWorkspace(DecoderWorkspace value)
+    {
+        this.workspace = value;
+    }
+    
+    /**
+     *  Dictionary of the probability tables the symbol streams may refer to, null when the file doesn't use one.
+     *
+     */
+    public DracoDictionary getDictionary()
+    {
+        return dictionary;
+    }
+    
+    public void setDictionary(DracoDictionary value)
+    {
+        this.dictionary = value;
+    }
+    
     public DecoderBuffer(byte[] data)
     {
         this.$initFields$();
         this.initialize(new BytePointer(data), data.length);
     }
     
+    /**
+     *  Decode from the remaining bytes of the buffer without copying them into the heap.
+     *
+     * @param data source buffer, its position and limit are not modified.
+     */
+    public DecoderBuffer(ByteBuffer data)
+    {
+        this.$initFields$();
+        this.initialize(new BytePointer(data), data.remaining());
+    }
+    
     private DecoderBuffer(BytePointer data, int length)
     {
         this.$initFields$();
@@ -50,6 +92,8 @@ final class DecoderBuffer
         this.length = src.length;
         this.data.copyFrom(src.data);
         this.setBitstreamVersion(src.getBitstreamVersion());
+        this.workspace = src.workspace;
+        this.dictionary = src.dictionary;
     }
     
     public DecoderBuffer clone()
@@ -78,6 +122,8 @@ final class DecoderBuffer
         int length = this.length - this.pos - offset;
         DecoderBuffer ret = new DecoderBuffer(BytePointer.add(data, pos + offset), length);
         ret.setBitstreamVersion(this.getBitstreamVersion());
+        ret.workspace = workspace;
+        ret.dictionary = dictionary;
         return ret;
     }
     
@@ -143,19 +189,28 @@ final class DecoderBuffer
     
     public boolean decode(int[] values)
     {
-        int bytes = values.length * 4;
-        
-        if (!this.remainingIsEnough(bytes))
+        return this.decode(values, values.length);
+    }
+    
+    /**
+     *  Decodes |count| little-endian 32 bits integers into values.
+     *
+     */
+    public boolean decode(int[] values, int count)
+    {
+        return this.decode(values, 0, count);
+    }
+    
+    /**
+     *  Decodes |count| little-endian 32 bits integers into values from |offset|.
+     *
+     */
+    public boolean decode(int[] values, int offset, int count)
+    {
+        if (!this.remainingIsEnough(4L * count))
             return false;
-        int n = data.getOffset() + pos;
-        byte[] buf = data.getBaseData();
-        for (int i = 0; i < values.length; i++)
-        {
-            values[i] = Unsafe.getLE32(buf, n);
-            n += 4;
-            pos += 4;
-        }
-        
+        data.toInt32ArrayLE(pos, values, offset, count);
+        pos += 4 * count;
         return true;
     }
     
@@ -173,6 +228,115 @@ final class DecoderBuffer
         return true;
     }
     
+    /**
+     *  Decodes |count| unsigned bytes into values from |offset|.
+     *
+     */
+    public boolean decodeU8(int[] values, int offset, int count)
+    {
+        if (!this.remainingIsEnough(count))
+            return false;
+        data.toUInt8Array(pos, values, offset, count);
+        pos += count;
+        return true;
+    }
+    
+    /**
+     *  Decodes |count| little-endian unsigned 16 bits integers into values from |offset|.
+     *
+     */
+    public boolean decodeU16(int[] values, int offset, int count)
+    {
+        if (!this.remainingIsEnough(2L * count))
+            return false;
+        data.toUInt16ArrayLE(pos, values, offset, count);
+        pos += 2 * count;
+        return true;
+    }
+    
+    /**
+     *  Decodes |count| varint encoded unsigned 32 bits integers into values from |offset|,
+     *  the bits beyond the 32nd are dropped like {@link Decoding#decodeVarintU32(DecoderBuffer)} does.
+     *
+     */
+    public void decodeVarintsU32(int[] values, int offset, int count)
+        throws DrakoException
+    {
+        byte[] base = data.getBaseData();
+        int baseOffset = data.getOffset();
+        int p = pos;
+        int i = offset;
+        if (base != null)
+        {
+            // Unrolled while the longest varint of 5 bytes fits, without bounds checks.
+            int q = baseOffset + p;
+            int end = baseOffset + length - 5;
+            for (; i < offset + count && (q <= end); i++)
+            {
+                int b = base[q++];
+                int value = b & 0x7f;
+                if (b < 0)
+                {
+                    b = base[q++];
+                    value |= (b & 0x7f) << 7;
+                    if (b < 0)
+                    {
+                        b = base[q++];
+                        value |= (b & 0x7f) << 14;
+                        if (b < 0)
+                        {
+                            b = base[q++];
+                            value |= (b & 0x7f) << 21;
+                            if (b < 0)
+                            {
+                                b = base[q++];
+                                value |= b << 28;
+                                while (b < 0)
+                                {
+                                    if (q >= baseOffset + length)
+                                        throw DracoUtils.failed();
+                                    b = base[q++];
+                                }
+                                
+                            }
+                            
+                        }
+                        
+                    }
+                    
+                }
+                
+                values[i] = value;
+            }
+            
+            p = q - baseOffset;
+        }
+        
+        for (; i < offset + count; i++)
+        {
+            int value = 0;
+            int shift = 0;
+            int b;
+            do
+            {
+                if (p >= length)
+                    throw DracoUtils.failed();
+                b = base != null ? base[baseOffset + p] : data.get(p);
+                p++;
+                if (shift < 32)
+                {
+                    value |= (b & 0x7f) << shift;
+                }
+                
+                shift += 7;
+            }
+            while ((b & 0x80) != 0);
+            values[i] = value;
+        }
+        
+        this.pos = p;
+    }
+    
     public boolean decode(byte[] buf)
     {
         return this.decode(buf, 0, buf.length);
@@ -252,6 +416,11 @@ final class DecoderBuffer
         return length >= (pos + size);
     }
     
+    private boolean remainingIsEnough(long size)
+    {
+        return length >= (pos + size);
+    }
+    
     public boolean peek(byte[] result, int size)
     {
         if (data.isOverflow(pos + size))
@@ -280,6 +449,18 @@ final class DecoderBuffer
         return true;
     }
     
+    /**
+     *  Decodes up to 32 bits, returns 0 when called outside of
+     *  StartBitDecoding and EndBitDecoding.
+     *
+     */
+    public int decodeLeastSignificantBits32(int nbits)
+    {
+        if (!bitMode)
+            return 0;
+        return bitDecoder.getBits(nbits);
+    }
+    
     @Override
     public String toString()
     {
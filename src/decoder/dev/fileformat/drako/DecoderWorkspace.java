@@ -0,0 +1,208 @@
+package dev.fileformat.drako;
+/**
+ *  Working memory that is kept between decodes by a {@link dev.fileformat.drako.DracoDecoder}.
+ *  The workspace travels with the {@link dev.fileformat.drako.DecoderBuffer}, decoders that find one
+ *  take their temporary tables from it instead of allocating new ones.
+ *  Arrays returned by the getters may be larger than requested and their content is undefined.
+ *
+ */
+final class DecoderWorkspace
+{    
+    private CornerTable cornerTable;
+    private IntList activeCornerStack;
+    private IntList invalidVertices;
+    private IntIntMap topologySplitActiveCorners;
+    private boolean[] vertexHoles;
+    private int[] vertexToPointMap;
+    private int[] cornerToPointMap;
+    private IntList pointToCornerMap;
+    private int[] symbols;
+    private long[] lookupTable;
+    private RAnsTableCache tableCache;
+    /**
+     *  The corner table of the edgebreaker decoder, the caller is expected to reset it.
+     *
+     */
+    public CornerTable getCornerTable()
+    {
+        if (cornerTable == null)
+        {
+            this.cornerTable = new CornerTable();
+        }
+        
+        return cornerTable;
+    }
+    
+    public IntList getActiveCornerStack()
+    {
+        if (activeCornerStack == null)
+        {
+            this.activeCornerStack = new IntList();
+        }
+        
+        activeCornerStack.clear();
+        return activeCornerStack;
+    }
+    
+    public IntList getInvalidVertices()
+    {
+        if (invalidVertices == null)
+        {
+            this.invalidVertices = new IntList();
+        }
+        
+        invalidVertices.clear();
+        return invalidVertices;
+    }
+    
+    public IntIntMap getTopologySplitActiveCorners()
+    {
+        if (topologySplitActiveCorners == null)
+        {
+            this.topologySplitActiveCorners = new IntIntMap();
+        }
+        
+        topologySplitActiveCorners.clear();
+        return topologySplitActiveCorners;
+    }
+    
+    public IntList getPointToCornerMap()
+    {
+        if (pointToCornerMap == null)
+        {
+            this.pointToCornerMap = new IntList();
+        }
+        
+        pointToCornerMap.clear();
+        return pointToCornerMap;
+    }
+    
+    public boolean[] getVertexHoles(int size)
+    {
+        if (vertexHoles == null || (vertexHoles.length < size))
+        {
+            this.vertexHoles = new boolean[DecoderWorkspace.grow(vertexHoles == null ? 0 : vertexHoles.length, size)];
+        }
+        
+        return vertexHoles;
+    }
+    
+    public int[] getVertexToPointMap(int size)
+    {
+        this.vertexToPointMap = DecoderWorkspace.ensure(vertexToPointMap, size);
+        return vertexToPointMap;
+    }
+    
+    public int[] getCornerToPointMap(int size)
+    {
+        this.cornerToPointMap = DecoderWorkspace.ensure(cornerToPointMap, size);
+        return cornerToPointMap;
+    }
+    
+    /**
+     *  Scratch storage for entropy decoded symbols.
+     *
+     */
+    public int[] getSymbols(int size)
+    {
+        this.symbols = DecoderWorkspace.ensure(symbols, size);
+        return symbols;
+    }
+    
+    /**
+     *  Scratch storage for the rANS lookup table, only one rANS decoder uses it at a time.
+     *
+     */
+    public long[] getLookupTable(int size)
+    {
+        if (lookupTable == null || (lookupTable.length < size))
+        {
+            this.lookupTable = new long[DecoderWorkspace.grow(lookupTable == null ? 0 : lookupTable.length, size)];
+        }
+        
+        return lookupTable;
+    }
+    
+    /**
+     *  Lookup tables of the rANS decoders, the cached tables outlive {@link #reset()} so the next decodes can reuse them.
+     *
+     */
+    public RAnsTableCache getTableCache()
+    {
+        if (tableCache == null)
+        {
+            this.tableCache = new RAnsTableCache();
+        }
+        
+        return tableCache;
+    }
+    
+    /**
+     *  Clears the content left by the previous decode but keeps the allocated capacity.
+     *
+     */
+    public void reset()
+    {
+        if (cornerTable != null)
+        {
+            cornerTable.reset(0, 0);
+        }
+        
+        if (activeCornerStack != null)
+        {
+            activeCornerStack.clear();
+        }
+        
+        if (invalidVertices != null)
+        {
+            invalidVertices.clear();
+        }
+        
+        if (topologySplitActiveCorners != null)
+        {
+            topologySplitActiveCorners.clear();
+        }
+        
+        if (pointToCornerMap != null)
+        {
+            pointToCornerMap.clear();
+        }
+        
+    }
+    
+    /**
+     *  Drops all retained memory.
+     *
+     */
+    public void release()
+    {
+        this.cornerTable = null;
+        this.activeCornerStack = null;
+        this.invalidVertices = null;
+        this.topologySplitActiveCorners = null;
+        this.vertexHoles = null;
+        this.vertexToPointMap = null;
+        this.cornerToPointMap = null;
+        this.pointToCornerMap = null;
+        this.symbols = null;
+        this.lookupTable = null;
+        this.tableCache = null;
+    }
+    
+    private static int[] ensure(int[] array, int size)
+    {
+        if (array != null && (array.length >= size))
+            return array;
+        return new int[DecoderWorkspace.grow(array == null ? 0 : array.length, size)];
+    }
+    
+    private static int grow(int oldSize, int size)
+    {
+        // Grow geometrically so a slowly increasing series of inputs doesn't reallocate every time.
+        long newSize = Math.max((long)size, oldSize + (oldSize >> 1));
+        if (newSize > (Integer.MAX_VALUE - 8))
+            return size;
+        return (int)newSize;
+    }
+    
+}
@@ -2,6 +2,12 @@ package dev.fileformat.drako;
 import dev.fileformat.drako.IntSpan;
 class Decoding
 {    
+    /**
+     *  Symbols are decoded in chunks of this size, large enough to amortize the call
+     *  and small enough to stay in the L1 cache.
+     *
+     */
+    private static final int SYMBOL_CHUNK_SIZE = 1024;
     static void decodeSymbols(int numValues, int numComponents, DecoderBuffer srcBuffer, IntSpan outValues)
         throws DrakoException
     {
@@ -10,50 +16,51 @@ class Decoding
         if (numValues == 0)
             return;
         byte scheme = srcBuffer.decodeU8();
+        // Interleaved streams keep log2 of the number of rANS lanes in the high bits.
+        int numLanes = 1 << ((0xff & scheme) >>> RAnsBitCodec.SCHEME_LANES_SHIFT);
+        if (numLanes > RAnsBitCodec.MAX_RANS_LANES)
+            throw DracoUtils.failed();
+        scheme &= (byte)((1 << RAnsBitCodec.SCHEME_LANES_SHIFT) - 1);
         if (scheme == 0)
         {
-            Decoding.decodeTaggedSymbols(numValues, numComponents, srcBuffer, outValues);
+            Decoding.decodeTaggedSymbols(numValues, numComponents, numLanes, srcBuffer, outValues);
         }
         else if (scheme == 1)
         {
-            Decoding.decodeRawSymbols(numValues, srcBuffer, outValues);
+            Decoding.decodeRawSymbols(numValues, numLanes, srcBuffer, outValues);
         }
         else
             throw DracoUtils.failed();
     }
     
-    static boolean decodeTaggedSymbols(int numValues, int numComponents, DecoderBuffer srcBuffer, IntSpan outValues)
+    static boolean decodeTaggedSymbols(int numValues, int numComponents, int numLanes, DecoderBuffer srcBuffer, IntSpan outValues)
         throws DrakoException
     {
         RAnsSymbolDecoder tagDecoder = new RAnsSymbolDecoder(5);
-        final int[] ref0 = new int[1];
         tagDecoder.create(srcBuffer);
         
-        tagDecoder.startDecoding(srcBuffer);
+        tagDecoder.startDecoding(srcBuffer, numLanes);
         
         if (numValues > 0 && (tagDecoder.getNumSymbols() == 0))
             throw DracoUtils.failed();
         // Wrong number of symbols.
         long tmp = srcBuffer.startBitDecoding(false);
         int valueId = 0;
-        for (int i = 0; i < numValues; i += numComponents)
+        int numTags = (numValues + numComponents - 1) / numComponents;
+        int[] bitLengths = new int[Math.min(numTags, SYMBOL_CHUNK_SIZE)];
+        for (int t = 0; t < numTags; t += bitLengths.length)
         {
-            int bitLength = tagDecoder.decodeSymbol();
-            // Decode the actual value.
-            for (int j = 0; j < numComponents; ++j)
+            int count = Math.min(bitLengths.length, numTags - t);
+            tagDecoder.decodeSymbols(bitLengths, count);
+            for (int k = 0; k < count; ++k)
             {
-                int val;
-                if (!srcBuffer.decodeLeastSignificantBits32(bitLength, ref0))
+                int bitLength = bitLengths[k];
+                // Decode the actual value.
+                for (int j = 0; j < numComponents; ++j)
                 {
-                    val = ref0[0];
-                    throw DracoUtils.failed();
-                }
-                else
-                {
-                    val = ref0[0];
+                    outValues.put(valueId++, srcBuffer.decodeLeastSignificantBits32(bitLength));
                 }
                 
-                outValues.put(valueId++, val);
             }
             
         }
@@ -63,7 +70,7 @@ class Decoding
         return true;
     }
     
-    static void decodeRawSymbols(int numValues, DecoderBuffer srcBuffer, IntSpan outValues)
+    static void decodeRawSymbols(int numValues, int numLanes, DecoderBuffer srcBuffer, IntSpan outValues)
         throws DrakoException
     {
         byte maxBitLength = srcBuffer.decodeU8();
@@ -74,11 +81,13 @@ class Decoding
             throw DracoUtils.failed();
         // Wrong number of symbols.
         
-        decoder.startDecoding(srcBuffer);
-        for (int i = 0; i < numValues; ++i)
+        decoder.startDecoding(srcBuffer, numLanes);
+        int[] values = new int[Math.min(numValues, SYMBOL_CHUNK_SIZE)];
+        for (int i = 0; i < numValues; i += values.length)
         {
-            int value = decoder.decodeSymbol();
-            outValues.put(i, value);
+            int count = Math.min(values.length, numValues - i);
+            decoder.decodeSymbols(values, count);
+            outValues.put(i, values, 0, count);
         }
         
         decoder.endDecoding();
@@ -112,23 +121,21 @@ class Decoding
     public static int decodeVarintU32(DecoderBuffer buffer)
         throws DrakoException
     {
-        byte in_ = buffer.decodeU8();
-        int out_val;
-        
-        if ((0xff & in_ & (1 << 7)) != 0)
-        {
-            // Next byte is available, decode it first.
-            out_val = Decoding.decodeVarintU32(buffer);
-            // Append decoded info from this byte.
-            out_val <<= 7;
-            out_val |= (int)(0xff & in_ & ((1 << 7) - 1));
-        }
-        else
+        int out_val = 0;
+        int shift = 0;
+        byte in_;
+        do
         {
-            // Last byte reached
-            out_val = 0xff & in_;
+            in_ = buffer.decodeU8();
+            // Bits beyond the 32nd are dropped.
+            if (shift < 32)
+            {
+                out_val |= (in_ & ((1 << 7) - 1)) << shift;
+            }
+            
+            shift += 7;
         }
-        
+        while ((in_ & (1 << 7)) != 0);
         return out_val;
     }
     
@@ -158,24 +165,21 @@ class Decoding
     public static long decodeVarintU64(DecoderBuffer buffer)
         throws DrakoException
     {
-        byte in_ = buffer.decodeU8();
-        long out_val;
-        
-        if ((0xff & in_ & (1 << 7)) != 0)
+        long out_val = 0L;
+        int shift = 0;
+        byte in_;
+        do
         {
-            // Next byte is available, decode it first.
+            in_ = buffer.decodeU8();
+            // Bits beyond the 64th are dropped.
+            if (shift < 64)
+            {
+                out_val |= (long)(in_ & ((1 << 7) - 1)) << shift;
+            }
             
-            out_val = Decoding.decodeVarintU64(buffer);
-            // Append decoded info from this byte.
-            out_val <<= 7L;
-            out_val |= 0xffffffffl & (int)(0xff & in_ & ((1 << 7) - 1));
-        }
-        else
-        {
-            // Last byte reached
-            out_val = 0xff & in_;
+            shift += 7;
         }
-        
+        while ((in_ & (1 << 7)) != 0);
         return out_val;
     }
     
@@ -1,7 +0,0 @@
-package dev.fileformat.drako;
-class DracoLoadOptions
-{    
-    public boolean skipAttributeTransform = false;
-    public boolean flipTextureCoordinateV = true;
-    
-}
@@ -190,7 +190,11 @@ class KdTreeAttributesDecoder extends AttributesDecoder
                 int[] unsigned_val = new int[att.getComponentsCount()];
                 int[] signed_val = new int[att.getComponentsCount()];
                 // Values are stored as unsigned in the attribute, make them signed again.
-                if (att.getDataType() == DataType.INT32)
+                if (!this.isAttributeRequested(i))
+                {
+                    // The attribute is dropped after decoding.
+                }
+                else if (att.getDataType() == DataType.INT32)
                 {
                     this.transformAttributeBackToSignedType_int(att, num_processed_signed_components);
                 }
@@ -211,8 +215,10 @@ class KdTreeAttributesDecoder extends AttributesDecoder
                 AttributeQuantizationTransform transform = attribute_quantization_transforms_.get(num_processed_quantized_attributes);
                 
                 num_processed_quantized_attributes++;
+                if (!this.isAttributeRequested(i))
+                    continue;
                 
-                if (this.getDecoder().options.skipAttributeTransform)
+                if (this.getDecoder().options.getSkipAttributeTransform())
                 {
                     // Attribute transform should not be performed. In this case, we replace
                     // the output geometry attribute with the portable attribute.
@@ -7,6 +7,7 @@ package dev.fileformat.drako;
 abstract class MeshDecoder extends PointCloudDecoder
 {    
     private DracoMesh mesh;
+    private int numEncodedFaces;
     public MeshDecoder()
     {
         super(EncodedGeometryType.TRIANGULAR_MESH);
@@ -33,6 +34,20 @@ abstract class MeshDecoder extends PointCloudDecoder
         super.decode(header, inBuffer, outMesh, decodeData);
     }
     
+    /**
+     *  Number of faces stored in the connectivity section, known before the connectivity is decoded.
+     *
+     */
+    public int getNumEncodedFaces()
+    {
+        return numEncodedFaces;
+    }
+    
+    protected void setNumEncodedFaces(int value)
+    {
+        this.numEncodedFaces = value;
+    }
+    
     /**
      *  Returns the base connectivity of the decoded mesh (or nullptr if it is not
      *  initialized).
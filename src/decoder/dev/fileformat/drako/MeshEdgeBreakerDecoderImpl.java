@@ -1,8 +1,8 @@
 package dev.fileformat.drako;
-import dev.fileformat.drako.AsposeUtils;
 import dev.fileformat.drako.Struct;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 /**
  *  Implementation of the edgebreaker decoder that decodes data encoded with the
  *  MeshEdgeBreakerEncoderImpl class. The implementation of the decoder is based
@@ -91,7 +91,7 @@ class MeshEdgeBreakerDecoderImpl implements IMeshEdgeBreakerDecoderImpl
      *  Configuration of the initial face for each mesh component.
      *
      */
-    private ArrayList<Boolean> initFaceConfigurations;
+    private BitList initFaceConfigurations;
     /**
      *  Initial corner for each traversal.
      *
@@ -122,17 +122,22 @@ class MeshEdgeBreakerDecoderImpl implements IMeshEdgeBreakerDecoderImpl
      *  Array for marking visited faces.
      *
      */
-    private ArrayList<Boolean> visitedFaces;
+    private BitList visitedFaces;
     /**
      *  Array for marking visited vertices.
      *
      */
-    private ArrayList<Boolean> visitedVerts;
+    private BitList visitedVerts;
     /**
      *  Array for marking vertices on open boundaries.
      *
      */
     private boolean[] isVertHole;
+    /**
+     *  Number of used entries in isVertHole, the array may be larger when it comes from a workspace.
+     *
+     */
+    private int maxNumVertices;
     /**
      *  The number of new vertices added by the encoder (because of non-manifold
      *  vertices on the input mesh).
@@ -146,7 +151,7 @@ class MeshEdgeBreakerDecoderImpl implements IMeshEdgeBreakerDecoderImpl
      *  parent vertex id of the encoded mesh.
      *
      */
-    private HashMap<Integer, Integer> newToParentVertexMap;
+    private IntIntMap newToParentVertexMap;
     /**
      *  The number of vertices that were encoded (can be different from the number
      *  of vertices of the input mesh).
@@ -251,6 +256,13 @@ class MeshEdgeBreakerDecoderImpl implements IMeshEdgeBreakerDecoderImpl
             traversalMethod = encoded;
         }
         
+        if (decoder.probeOnly)
+        {
+            // The sequencer needs the decoded connectivity, probing only reads the attribute descriptors.
+            decoder.setAttributesDecoder(attDecoderId, new SequentialAttributeDecodersController(null));
+            return;
+        }
+        
         DracoMesh mesh = decoder.getMesh();
         PointsSequencer sequencer;
         
@@ -356,6 +368,7 @@ class MeshEdgeBreakerDecoderImpl implements IMeshEdgeBreakerDecoderImpl
         
         if ((0xffffffffl & numEncodedVertices) > (numFaces * 3))
             throw DracoUtils.failed();
+        decoder.setNumEncodedFaces(numFaces);
         byte numAttributeData = decoder.getBuffer().decodeU8();
         int numEncodedSymbols;
         if (decoder.getBitstreamVersion() < 20)
@@ -391,7 +404,8 @@ class MeshEdgeBreakerDecoderImpl implements IMeshEdgeBreakerDecoderImpl
         
         // Decode topology (connectivity).
         vertexTraversalLength.clear();
-        this.cornerTable = new CornerTable();
+        DecoderWorkspace workspace = decoder.getBuffer().getWorkspace();
+        this.cornerTable = workspace != null ? workspace.getCornerTable() : new CornerTable();
         processedCornerIds.clear();
         processedCornerIds.setCapacity(numFaces);
         processedConnectivityCorners.clear();
@@ -410,7 +424,11 @@ class MeshEdgeBreakerDecoderImpl implements IMeshEdgeBreakerDecoderImpl
         this.attributeData = new AttributeData[0xff & numAttributeData];
         
         
-        cornerTable.reset(numFaces, (int)(numEncodedVertices + numEncodedSplitSymbols));
+        if (!decoder.probeOnly)
+        {
+            cornerTable.reset(numFaces, (int)(numEncodedVertices + numEncodedSplitSymbols));
+        }
+        
         
         // Add one attribute data for each attribute decoder.
         for (int i = 0; i < attributeData.length; i++)
@@ -424,10 +442,15 @@ class MeshEdgeBreakerDecoderImpl implements IMeshEdgeBreakerDecoderImpl
         // be marked as non hole vertices. We need to allocate the array larger
         // because split symbols can create extra vertices during the decoding
         // process (these extra vertices are then eliminated during deduplication).
-        this.isVertHole = new boolean[numEncodedVertices + numEncodedSplitSymbols];
-        for (int i = 0; i < isVertHole.length; i++)
+        this.maxNumVertices = numEncodedVertices + numEncodedSplitSymbols;
+        if (!decoder.probeOnly)
         {
-            isVertHole[i] = true;
+            this.isVertHole = workspace != null ? workspace.getVertexHoles(maxNumVertices) : new boolean[maxNumVertices];
+            for (int i = 0; i < maxNumVertices; i++)
+            {
+                isVertHole[i] = true;
+            }
+            
         }
         
         int topologySplitDecodedBytes = -1;
@@ -461,6 +484,20 @@ class MeshEdgeBreakerDecoderImpl implements IMeshEdgeBreakerDecoderImpl
         traversalDecoder.setNumEncodedVertices((int)(numEncodedVertices + numEncodedSplitSymbols));
         traversalDecoder.setNumAttributeData(0xff & numAttributeData);
         DecoderBuffer traversalEndBuffer = traversalDecoder.start();
+        if (decoder.probeOnly)
+        {
+            // Only the position of the attribute section is needed, the number of points
+            // stays unknown because it's a result of the connectivity decoding.
+            decoder.setBuffer(traversalEndBuffer.subBuffer(0));
+            if (decoder.getBitstreamVersion() < 22)
+            {
+                decoder.getBuffer().advance(topologySplitDecodedBytes);
+            }
+            
+            decoder.getPointCloud().setNumPoints(-1);
+            return;
+        }
+        
         int numConnectivityVerts = this.decodeConnectivity(numEncodedSymbols);
         if (numConnectivityVerts == -1)
             throw DracoUtils.failed();
@@ -504,18 +541,13 @@ class MeshEdgeBreakerDecoderImpl implements IMeshEdgeBreakerDecoderImpl
         
         // Decode attribute connectivity.
         // Prepare data structure for decoding non-position attribute connectivites.
+        ForkJoinPool pool = decoder.options == null ? null : decoder.options.getConnectivityPool();
         for (int i = 0; i < attributeData.length; ++i)
         {
             attributeData[i].connectivityData = new MeshAttributeCornerTable(cornerTable);
-            IntList corners = attributeData[i].attributeSeamCorners;
-            for (int j = 0; j < corners.getCount(); j++)
-            {
-                int c = corners.get(j);
-                attributeData[i].connectivityData.addSeamEdge(c);
-            }
-            
+            attributeData[i].connectivityData.addSeamEdges(attributeData[i].attributeSeamCorners, pool);
             // Recompute vertices from the newly added seam edges.
-            attributeData[i].connectivityData.recomputeVertices(null, null);
+            attributeData[i].connectivityData.recomputeVertices(null, null, pool);
         }
         
         
@@ -560,14 +592,24 @@ class MeshEdgeBreakerDecoderImpl implements IMeshEdgeBreakerDecoderImpl
         // Note that at this point we have one point id for each corner of the
         // mesh so there is cornerTable.numCorners() point ids.
         decoder.getMesh().setNumFaces(cornerTable.getNumFaces());
+        DecoderWorkspace workspace = decoder.getBuffer().getWorkspace();
         int[] face = new int[3];
         
         if (attributeData.length == 0)
         {
             int numPoints = 0;
             int[] vertexToPointMap;
-            vertexToPointMap = new int[cornerTable.getNumVertices()];
-            DracoUtils.fill(vertexToPointMap, -1);
+            if (workspace != null)
+            {
+                vertexToPointMap = workspace.getVertexToPointMap(cornerTable.getNumVertices());
+                Arrays.fill(vertexToPointMap, 0, cornerTable.getNumVertices(), -1);
+            }
+            else
+            {
+                vertexToPointMap = new int[cornerTable.getNumVertices()];
+                DracoUtils.fill(vertexToPointMap, -1);
+            }
+            
             // Add faces.
             for (int f = 0; f < decoder.getMesh().getNumFaces(); ++f)
             {
@@ -592,8 +634,20 @@ class MeshEdgeBreakerDecoderImpl implements IMeshEdgeBreakerDecoderImpl
             return true;
         }
         
-        IntList pointToCornerMap = new IntList();
-        int[] cornerToPointMap = new int[cornerTable.getNumCorners()];// A3DUtils.NewArray<int>(cornerTable.NumCorners, 0);
+        IntList pointToCornerMap;
+        int[] cornerToPointMap;
+        if (workspace != null)
+        {
+            pointToCornerMap = workspace.getPointToCornerMap();
+            cornerToPointMap = workspace.getCornerToPointMap(cornerTable.getNumCorners());
+            Arrays.fill(cornerToPointMap, 0, cornerTable.getNumCorners(), 0);
+        }
+        else
+        {
+            pointToCornerMap = new IntList();
+            cornerToPointMap = new int[cornerTable.getNumCorners()];// A3DUtils.NewArray<int>(cornerTable.NumCorners, 0);
+        }
+        
         
         for (int v = 0; v < cornerTable.getNumVertices(); ++v)
         {
@@ -717,7 +771,7 @@ class MeshEdgeBreakerDecoderImpl implements IMeshEdgeBreakerDecoderImpl
         
         if ((0xffffffffl & numTopologySplits) > 0)
         {
-            if ((0xffffffffl & numTopologySplits) > cornerTable.getNumFaces())
+            if ((0xffffffffl & numTopologySplits) > decoder.getNumEncodedFaces())
                 return -1;
             
             if (decoder.getBitstreamVersion() < 12)
@@ -820,13 +874,12 @@ class MeshEdgeBreakerDecoderImpl implements IMeshEdgeBreakerDecoderImpl
     
     private int decodeConnectivity(int numSymbols)
     {
-        IntList activeCornerStack = new IntList();
-        HashMap<Integer, Integer> topologySplitActiveCorners = new HashMap<Integer, Integer>();
+        DecoderWorkspace workspace = decoder.getBuffer().getWorkspace();
+        IntList activeCornerStack = workspace != null ? workspace.getActiveCornerStack() : new IntList();
+        IntIntMap topologySplitActiveCorners = workspace != null ? workspace.getTopologySplitActiveCorners() : new IntIntMap();
         boolean removeInvalidVertices = attributeData.length == 0;
-        IntList invalidVertices = new IntList();
-        int maxNumVertices = isVertHole.length;
+        IntList invalidVertices = workspace != null ? workspace.getInvalidVertices() : new IntList();
         int numFaces = 0;
-        final Integer[] ref3 = new Integer[1];
         final byte[] ref5 = new byte[1];
         final int[] ref6 = new int[1];
         for (int symbolId = 0; symbolId < numSymbols; ++symbolId)
@@ -949,17 +1002,12 @@ class MeshEdgeBreakerDecoderImpl implements IMeshEdgeBreakerDecoderImpl
                     return -1;
                 int corner_b = activeCornerStack.get(activeCornerStack.getCount() - 1);
                 activeCornerStack.removeAt(activeCornerStack.getCount() - 1);
-                int tmp;
-                if (AsposeUtils.tryGetValue(topologySplitActiveCorners, symbolId, ref3))
+                int tmp = topologySplitActiveCorners.get(symbolId, -1);
+                if (tmp != -1)
                 {
-                    tmp = ref3[0] == null ? 0 : ref3[0];
                     // Topology split event. Move the retrieved edge to the stack.
                     activeCornerStack.add(tmp);
                 }
-                else
-                {
-                    tmp = ref3[0] == null ? 0 : ref3[0];
-                }
                 
                 
                 if (activeCornerStack.getCount() == 0)
@@ -1039,7 +1087,7 @@ class MeshEdgeBreakerDecoderImpl implements IMeshEdgeBreakerDecoderImpl
                 {
                     split_edge = ref5[0];
                     encoderSplitSymbolId = ref6[0];
-                    if (encoderSplitSymbolId < 0)
+                    if (encoderSplitSymbolId < 0 || (encoderSplitSymbolId >= numSymbols))
                         return -1;
                     // Wrong split symbol id.
                     int act_top_corner = activeCornerStack.getBack();
@@ -1313,15 +1361,15 @@ class MeshEdgeBreakerDecoderImpl implements IMeshEdgeBreakerDecoderImpl
             vertexTraversalLength = new IntList();
             topologySplitData = new ArrayList<TopologySplitEventData>();
             holeEventData = new ArrayList<HoleEventData>();
-            initFaceConfigurations = new ArrayList<Boolean>();
+            initFaceConfigurations = new BitList();
             initCorners = new IntList();
             vertexIdMap = new IntList();
             lastSymbolId = -1;
             lastVertId = -1;
             lastFaceId = -1;
-            visitedFaces = new ArrayList<Boolean>();
-            visitedVerts = new ArrayList<Boolean>();
-            newToParentVertexMap = new HashMap<Integer, Integer>();
+            visitedFaces = new BitList();
+            visitedVerts = new BitList();
+            newToParentVertexMap = new IntIntMap();
             processedCornerIds = new IntList();
             processedConnectivityCorners = new IntList();
             posEncodingData = new MeshAttributeIndicesEncodingData();
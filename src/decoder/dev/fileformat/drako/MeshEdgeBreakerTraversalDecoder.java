@@ -76,17 +76,10 @@ class MeshEdgeBreakerTraversalDecoder implements ITraversalDecoder
     @Override
     public int decodeSymbol()
     {
-        int s;
-        final int[] ref0 = new int[1];
-        final int[] ref1 = new int[1];
-        symbol_buffer_.decodeLeastSignificantBits32(1, ref0);
-        s = ref0[0];
-        int symbol = s;
-        if (symbol == EdgeBreakerTopologyBitPattern.C)
-            return symbol;
-        int symbolSuffix;
-        symbol_buffer_.decodeLeastSignificantBits32(2, ref1);
-        symbolSuffix = ref1[0];
+        int s = symbol_buffer_.decodeLeastSignificantBits32(1);
+        if (s == EdgeBreakerTopologyBitPattern.C)
+            return s;
+        int symbolSuffix = symbol_buffer_.decodeLeastSignificantBits32(2);
         s |= symbolSuffix << 1;
         return s;
     }
@@ -2,6 +2,11 @@ package dev.fileformat.drako;
 import dev.fileformat.drako.IntSpan;
 class MeshSequentialDecoder extends MeshDecoder
 {    
+    /**
+     *  Number of indices scanned at a time when the raw connectivity is skipped.
+     *
+     */
+    private static final int RAW_INDICES_CHUNK = 4096;
     @Override
     protected void decodeConnectivity()
         throws DrakoException
@@ -19,84 +24,127 @@ class MeshSequentialDecoder extends MeshDecoder
             numPoints = Decoding.decodeVarintU32(this.buffer);
         }
         
+        this.setNumEncodedFaces(numFaces);
         byte connectivityMethod = this.getBuffer().decodeU8();
-        if (connectivityMethod == 0)
+        if (this.probeOnly)
         {
-            this.decodeAndDecompressIndices(numFaces);
-        }
-        else if ((0xffffffffl & numPoints) < 256)
-        {
-            int[] face = new int[3];
-            for (int i = 0; i < (0xffffffffl & numFaces); ++i)
-            {
-                for (int j = 0; j < 3; ++j)
-                {
-                    byte val = this.buffer.decodeU8();
-                    face[j] = 0xff & val;
-                }
-                
-                this.getMesh().addFace(face);
-            }
-            
-        }
-        else if ((0xffffffffl & numPoints) < (1 << 16))
-        {
-            int[] face = new int[3];
-            for (int i = 0; i < (0xffffffffl & numFaces); ++i)
-            {
-                for (int j = 0; j < 3; ++j)
-                {
-                    short val = this.getBuffer().decodeU16();
-                    face[j] = 0xffff & val;
-                }
-                
-                this.getMesh().addFace(face);
-            }
-            
+            this.skipIndices(numFaces, numPoints, connectivityMethod);
         }
-        else if (this.getMesh().getNumPoints() < (1 << 21) && (this.getBitstreamVersion() >= 22))
+        else if (connectivityMethod == 0)
         {
-            int[] face = new int[3];
-            for (int i = 0; i < (0xffffffffl & numFaces); ++i)
-            {
-                for (int j = 0; j < 3; ++j)
-                {
-                    int val = Decoding.decodeVarintU32(this.buffer);
-                    face[j] = val;
-                }
-                
-                this.getMesh().addFace(face);
-            }
-            
+            this.decodeAndDecompressIndices(numFaces);
         }
         else
         {
-            int[] face = new int[3];
-            for (int i = 0; i < (0xffffffffl & numFaces); ++i)
-            {
-                for (int j = 0; j < 3; ++j)
-                {
-                    int val = this.getBuffer().decodeI32();
-                    face[j] = val;
-                }
-                
-                this.getMesh().addFace(face);
-            }
-            
+            this.decodeRawIndices(numFaces, numPoints);
         }
         
         this.getPointCloud().setNumPoints(numPoints);
     }
     
+    /**
+     *  Decodes the face indices that were stored without compression.
+     *  The indices are decoded with a single bulk read of the buffer straight into the mesh's index list.
+     *
+     */
+    private void decodeRawIndices(int numFaces, int numPoints)
+        throws DrakoException
+    {
+        if ((0xffffffffl & numFaces) > (Integer.MAX_VALUE / 3))
+            throw DracoUtils.failed();
+        int numIndices = numFaces * 3;
+        int indexBytes = this.getRawIndexBytes(numPoints);
+        // Every index takes at least a byte, a truncated buffer fails before the index list grows.
+        if ((long)numIndices * Math.max(1, indexBytes) > this.getBuffer().getRemainingSize())
+            throw DracoUtils.failed();
+        IntList indices = this.getMesh().getIndices();
+        int start = indices.getCount();
+        indices.resize(start + numIndices);
+        boolean ok = true;
+        switch(indexBytes)
+        {
+            case 1:
+                ok = this.getBuffer().decodeU8(indices.data, start, numIndices);
+                break;
+            case 2:
+                ok = this.getBuffer().decodeU16(indices.data, start, numIndices);
+                break;
+            case 4:
+                ok = this.getBuffer().decode(indices.data, start, numIndices);
+                break;
+            default:
+                this.getBuffer().decodeVarintsU32(indices.data, start, numIndices);
+                break;
+        }
+        
+        if (!ok)
+            throw DracoUtils.failed();
+    }
+    
+    /**
+     *  Returns the number of bytes taken by each raw index, 0 when the indices are varints.
+     *
+     */
+    private int getRawIndexBytes(int numPoints)
+    {
+        if ((0xffffffffl & numPoints) < 256)
+            return 1;
+        if ((0xffffffffl & numPoints) < (1 << 16))
+            return 2;
+        // The number of points isn't set on the mesh yet, like the reference decoder every
+        // 2.2 stream is read with varints.
+        if (this.getMesh().getNumPoints() < (1 << 21) && (this.getBitstreamVersion() >= 22))
+            return 0;
+        return 4;
+    }
+    
     @Override
     protected void createAttributesDecoder(int attrDecoderId)
         throws DrakoException
     {
-        
+    
         // Always create the basic attribute decoder.
         this.setAttributesDecoder(attrDecoderId, new SequentialAttributeDecodersController(new LinearSequencer(this.getPointCloud().getNumPoints())));
     }
     
+    /**
+     *  Moves the buffer past the face indices without building the faces.
+     *  Entropy coded indices have no stored size so they still have to be decoded.
+     *
+     */
+    private void skipIndices(int numFaces, int numPoints, byte connectivityMethod)
+        throws DrakoException
+    {
+        if ((0xffffffffl & numFaces) > (Integer.MAX_VALUE / 3))
+            throw DracoUtils.failed();
+        int numIndices = numFaces * 3;
+        if (connectivityMethod == 0)
+        {
+            DecoderWorkspace workspace = this.getBuffer().getWorkspace();
+            int[] symbols = workspace != null ? workspace.getSymbols(numIndices) : new int[numIndices];
+            Decoding.decodeSymbols(numIndices, 1, this.getBuffer(), IntSpan.wrap(symbols, 0, numIndices));
+            return;
+        }
+        
+        int indexBytes = this.getRawIndexBytes(numPoints);
+        if (indexBytes == 0)
+        {
+            // Varints have to be scanned.
+            int[] chunk = new int[Math.min(numIndices, RAW_INDICES_CHUNK)];
+            for (int i = 0; i < numIndices; i += chunk.length)
+            {
+                this.getBuffer().decodeVarintsU32(chunk, 0, Math.min(chunk.length, numIndices - i));
+            }
+            
+            return;
+        }
+        
+        long bytes = (long)indexBytes * numIndices;
+        if (bytes > this.getBuffer().getRemainingSize())
+            throw DracoUtils.failed();
+        this.getBuffer().advance((int)bytes);
+    }
+    
     /**
      *  Decodes face indices that were compressed with an entropy code.
      *  Returns false on error.
@@ -105,7 +153,8 @@ class MeshSequentialDecoder extends MeshDecoder
     void decodeAndDecompressIndices(int numFaces)
         throws DrakoException
     {
-        IntSpan indicesBuffer = IntSpan.wrap(new int[numFaces * 3]);
+        DecoderWorkspace workspace = this.getBuffer().getWorkspace();
+        IntSpan indicesBuffer = workspace != null ? IntSpan.wrap(workspace.getSymbols(numFaces * 3), 0, numFaces * 3) : IntSpan.wrap(new int[numFaces * 3]);
         Decoding.decodeSymbols(numFaces * 3, 1, this.getBuffer(), indicesBuffer);
         int lastIndexValue = 0;
         int vertexIndex = 0;
@@ -1,5 +1,9 @@
 package dev.fileformat.drako;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 abstract class PointCloudDecoder
 {    
     protected DecoderBuffer buffer;
@@ -7,6 +11,12 @@ abstract class PointCloudDecoder
     protected AttributesDecoder[] attributesDecoders;
     protected int geometryType;
     DracoLoadOptions options;
+    /**
+     *  When set only the sections in front of the attribute descriptors are read,
+     *  the connectivity is skipped where the bitstream allows it, used by {@link dev.fileformat.drako.Draco#probe(byte[])}.
+     *
+     */
+    boolean probeOnly;
     // Map between attribute id and decoder id.
     // 
     private int[] attributeToDecoderMap;
@@ -43,6 +53,15 @@ abstract class PointCloudDecoder
         this.buffer = buffer;
         this.pointCloud = result;
         this.setBitstreamVersion(header.version);
+        if ((0xffff & header.flags & ~DracoHeader.KNOWN_FLAGS) != 0)
+            throw DracoUtils.failed();
+        if ((header.flags & DracoHeader.DICTIONARY_FLAG_MASK) != 0)
+        {
+            DracoDictionary dictionary = options != null ? options.getDictionary(header.dictionaryId) : null;
+            // Without the dictionary, the streams that don't use its tables can still be decoded.
+            buffer.setDictionary(dictionary != null ? dictionary : new DracoDictionary(header.dictionaryId));
+        }
+        
         if (header.version >= 13 && ((0xffff & header.flags & (short)DracoHeader.METADATA_FLAG_MASK) == DracoHeader.METADATA_FLAG_MASK))
         {
             this.decodeMetadata();
@@ -51,6 +70,18 @@ abstract class PointCloudDecoder
         this.initializeDecoder();
         this.decodeGeometryData();
         this.decodePointAttributes(decodeData);
+        if (decodeData && (options != null) && options.hasRequestedAttributes())
+        {
+            // Drop the attributes that were only decoded to reach the requested ones.
+            boolean[] keep = new boolean[pointCloud.getNumAttributes()];
+            for (int i = 0; i < keep.length; ++i)
+            {
+                keep[i] = options.isRequested(pointCloud.attribute(i));
+            }
+            
+            pointCloud.retainAttributes(keep);
+        }
+        
     }
     
     private void decodeMetadata()
@@ -148,7 +179,7 @@ abstract class PointCloudDecoder
     
     protected abstract void createAttributesDecoder(int attrDecoderId)
         throws DrakoException;
-    
+        
     protected void onAttributesDecoded()
     {
     }
@@ -156,11 +187,207 @@ abstract class PointCloudDecoder
     protected void decodeAllAttributes()
         throws DrakoException
     {
-        for (AttributesDecoder dec : attributesDecoders)
+        int numDecoders = attributesDecoders.length;
+        if (options != null && options.hasRequestedAttributes())
+        {
+            // Attribute data has no stored size, so the decoders in front of the last requested attribute
+            // still need to read their data, the decoders behind it are never read.
+            numDecoders = 0;
+            for (int i = 0; i < attributesDecoders.length; ++i)
+            {
+                for (int j = 0; j < attributesDecoders[i].getNumAttributes(); ++j)
+                {
+                    if (options.isRequested(pointCloud.attribute(attributesDecoders[i].getAttributeId(j))))
+                    {
+                        numDecoders = i + 1;
+                    }
+                    
+                }
+                
+            }
+            
+        }
+        
+        Executor executor = options == null ? null : options.getAttributeDecodingExecutor();
+        if (executor != null)
+        {
+            this.decodeAllAttributesConcurrently(numDecoders, executor);
+            return;
+        }
+        
+        for (int i = 0; i < numDecoders; ++i)
+        {
+            attributesDecoders[i].decodeAttributes(buffer);
+        }
+        
+    }
+    
+    /**
+     *  Reads the data of all decoders in order on the calling thread, then computes the values of the attributes
+     *  on the executor, an attribute starts once the attributes its prediction depends on are computed.
+     *  The transform of an attribute waits for the attributes that predict from it, as they read its portable values.
+     *
+     */
+    private void decodeAllAttributesConcurrently(int numDecoders, Executor executor)
+        throws DrakoException
+    {
+        boolean[] deferredDecoders = new boolean[numDecoders];
+        for (int i = 0; i < numDecoders; ++i)
+        {
+            deferredDecoders[i] = attributesDecoders[i].decodeAttributesDeferred(buffer);
+        }
+        
+        int numAttributes = pointCloud.getNumAttributes();
+        CompletableFuture<?>[] computeTasks = new CompletableFuture<?>[numAttributes];
+        boolean[] visiting = new boolean[numAttributes];
+        for (int i = 0; i < numDecoders; ++i)
+        {
+            if (!deferredDecoders[i])
+                continue;
+            for (int j = 0; j < attributesDecoders[i].getNumAttributes(); ++j)
+            {
+                int attId = attributesDecoders[i].getAttributeId(j);
+                if (options.isRequested(pointCloud.attribute(attId)))
+                {
+                    this.scheduleCompute(attId, deferredDecoders, computeTasks, visiting, executor);
+                }
+                
+            }
+            
+        }
+        
+        
+        // Attributes that were computed because a requested attribute predicts from them.
+        ArrayList<ArrayList<CompletableFuture<?>>> dependents = new ArrayList<ArrayList<CompletableFuture<?>>>();
+        for (int attId = 0; attId < numAttributes; ++attId)
+        {
+            dependents.add(new ArrayList<CompletableFuture<?>>());
+        }
+        
+        for (int attId = 0; attId < numAttributes; ++attId)
+        {
+            if (computeTasks[attId] == null)
+                continue;
+            AttributesDecoder attDecoder = attributesDecoders[attributeToDecoderMap[attId]];
+            for (int p = 0; p < attDecoder.numParentAttributes(attId); ++p)
+            {
+                int parentId = attDecoder.getParentAttributeId(attId, p);
+                if (parentId >= 0)
+                {
+                    dependents.get(parentId).add(computeTasks[attId]);
+                }
+                
+            }
+            
+        }
+        
+        ArrayList<CompletableFuture<?>> tasks = new ArrayList<CompletableFuture<?>>();
+        for (int attId = 0; attId < numAttributes; ++attId)
+        {
+            if (computeTasks[attId] == null)
+                continue;
+            final int id = attId;
+            final AttributesDecoder attDecoder = attributesDecoders[attributeToDecoderMap[attId]];
+            ArrayList<CompletableFuture<?>> deps = dependents.get(attId);
+            deps.add(computeTasks[attId]);
+            tasks.add(CompletableFuture.allOf(deps.toArray(new CompletableFuture<?>[deps.size()])).thenRunAsync(new Runnable() {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        attDecoder.transformAttributeToOriginalFormat(id);
+                    }
+                    catch(DrakoException e)
+                    {
+                        throw new CompletionException(e);
+                    }
+                    
+                }
+                
+            }, executor));
+        }
+        
+        DrakoException error = null;
+        for (CompletableFuture<?> task : tasks)
+        {
+            try
+            {
+                task.join();
+            }
+            catch(CompletionException e)
+            {
+                if (e.getCause() instanceof DrakoException)
+                {
+                    // Keep draining so no task still writes to the point cloud when this returns.
+                    error = error != null ? error : (DrakoException)e.getCause();
+                    continue;
+                }
+                
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException)e.getCause();
+                throw e;
+            }
+            
+        }
+        
+        if (error != null)
+            throw error;
+    }
+    
+    private CompletableFuture<?> scheduleCompute(int attId, boolean[] deferredDecoders, CompletableFuture<?>[] computeTasks, boolean[] visiting, Executor executor)
+        throws DrakoException
+    {
+        if (attId < 0 || (attId >= computeTasks.length))
+            return CompletableFuture.completedFuture(null);
+        if (computeTasks[attId] != null)
+            return computeTasks[attId];
+        int decoderId = attributeToDecoderMap[attId];
+        if (decoderId >= deferredDecoders.length || !deferredDecoders[decoderId])
+            return CompletableFuture.completedFuture(null);
+        // A well formed stream never has cyclic prediction dependencies.
+        if (visiting[attId])
+            throw DracoUtils.failed();
+        visiting[attId] = true;
+        final AttributesDecoder attDecoder = attributesDecoders[decoderId];
+        final int id = attId;
+        int numParents = attDecoder.numParentAttributes(attId);
+        CompletableFuture<?>[] parents = new CompletableFuture<?>[numParents];
+        for (int p = 0; p < numParents; ++p)
         {
-            dec.decodeAttributes(buffer);
+            parents[p] = this.scheduleCompute(attDecoder.getParentAttributeId(attId, p), deferredDecoders, computeTasks, visiting, executor);
         }
         
+        CompletableFuture<?> task = CompletableFuture.allOf(parents).thenRunAsync(new Runnable() {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    attDecoder.decodeDeferredAttribute(id);
+                }
+                catch(DrakoException e)
+                {
+                    throw new CompletionException(e);
+                }
+                
+            }
+            
+        }, executor);
+        computeTasks[attId] = task;
+        return task;
+    }
+    
+    /**
+     *  Completes the portable values of an attribute that was deferred because it was not requested.
+     *
+     */
+    void decodeDeferredAttribute(int attId)
+        throws DrakoException
+    {
+        if (attId < 0 || (attId >= attributeToDecoderMap.length))
+            return;
+        attributesDecoders[attributeToDecoderMap[attId]].decodeDeferredAttribute(attId);
     }
     
     public DecoderBuffer getBuffer()
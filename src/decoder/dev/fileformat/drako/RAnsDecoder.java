@@ -1,7 +1,4 @@
 package dev.fileformat.drako;
-import dev.fileformat.drako.HashBuilder;
-import dev.fileformat.drako.Struct;
-import java.io.Serializable;
 /**
  *  Class for performing rANS decoding using a desired number of precision bits.
  *  The number of precision bits needs to be the same as with the RAnsEncoder
@@ -10,129 +7,29 @@ import java.io.Serializable;
  */
 class RAnsDecoder
 {    
-    static final class ransDecSym implements Struct<ransDecSym>, Serializable
-    {
-        int val;
-        int prob;
-        int cumProb;
-        public ransDecSym()
-        {
-        }
-        
-        private ransDecSym(ransDecSym other)
-        {
-            this.val = other.val;
-            this.prob = other.prob;
-            this.cumProb = other.cumProb;
-        }
-        
-        @Override
-        public ransDecSym clone()
-        {
-            return new ransDecSym(this);
-        }
-        
-        @Override
-        public void copyFrom(ransDecSym src)
-        {
-            if (src == null)
-                return;
-            this.val = src.val;
-            this.prob = src.prob;
-            this.cumProb = src.cumProb;
-        }
-        
-        static final long serialVersionUID = 1044714435L;
-        @Override
-        public int hashCode()
-        {
-            HashBuilder builder = new HashBuilder();
-            builder.hash(this.val);
-            builder.hash(this.prob);
-            builder.hash(this.cumProb);
-            return builder.hashCode();
-        }
-        
-        @Override
-        public boolean equals(Object obj)
-        {
-            if (!(obj instanceof ransDecSym))
-                return false;
-            ransDecSym rhs = (ransDecSym)obj;
-            if (this.val != rhs.val)
-                return false;
-            if (this.prob != rhs.prob)
-                return false;
-            if (this.cumProb != rhs.cumProb)
-                return false;
-            return true;
-        }
-        
-    }
-    
-    static final class ransSym implements Struct<ransSym>, Serializable
-    {
-        int prob;
-        int cumProb;
-        public ransSym()
-        {
-        }
-        
-        private ransSym(ransSym other)
-        {
-            this.prob = other.prob;
-            this.cumProb = other.cumProb;
-        }
-        
-        @Override
-        public ransSym clone()
-        {
-            return new ransSym(this);
-        }
-        
-        @Override
-        public void copyFrom(ransSym src)
-        {
-            if (src == null)
-                return;
-            this.prob = src.prob;
-            this.cumProb = src.cumProb;
-        }
-        
-        static final long serialVersionUID = 31145064L;
-        @Override
-        public int hashCode()
-        {
-            HashBuilder builder = new HashBuilder();
-            builder.hash(this.prob);
-            builder.hash(this.cumProb);
-            return builder.hashCode();
-        }
-        
-        @Override
-        public boolean equals(Object obj)
-        {
-            if (!(obj instanceof ransSym))
-                return false;
-            ransSym rhs = (ransSym)obj;
-            if (this.prob != rhs.prob)
-                return false;
-            if (this.cumProb != rhs.cumProb)
-                return false;
-            return true;
-        }
-        
-    }
-    
     private static final int IO_BASE = 256;
+    private static final long SLOT_MASK = 0xFFFFF;
+    private static final int MAX_SYMBOL = 0xFFFFFF;
     private int ransPrecisionBits;
     private int ransPrecision;
     private int lRansBase;
-    private int[] lutTable;
-    private ransSym[] probabilityTable;
+    /**
+     *  One entry per slot of the precision range, packed as
+     *  symbol(bits 40-63) | slot - cumProb(bits 20-39) | prob - 1(bits 0-19),
+     *  so decoding a symbol takes a single table load.
+     *
+     */
+    private long[] lutTable;
     private BytePointer buf = new BytePointer();
     private int bufOffset;
     private int state;
+    private int numLanes = 1;
+    private int lane;
+    /**
+     *  States of the lanes when the stream has more than one lane, |state| is unused then.
+     *
+     */
+    private int[] states;
     public RAnsDecoder(int ransPrecisionBits)
     {
         this.ransPrecisionBits = ransPrecisionBits;
@@ -147,12 +44,51 @@ class RAnsDecoder
      *
      */
     public int readInit(BytePointer buf, int offset)
+    {
+        return this.readInit(buf, offset, 1);
+    }
+    
+    /**
+     *  Same as above for a stream encoded with |numLanes| interleaved states, numLanes is a power of two.
+     *  The states are stored at the end of the stream, lane 0 last.
+     *
+     */
+    public int readInit(BytePointer buf, int offset, int numLanes)
     {
         buf = buf == null ? new BytePointer() : buf.clone();
+        this.buf.copyFrom(buf);
+        this.bufOffset = offset;
+        this.numLanes = numLanes;
+        this.lane = 0;
+        if (numLanes > 1 && (states == null || (states.length != numLanes)))
+        {
+            this.states = new int[numLanes];
+        }
+        
+        for (int i = 0; i < numLanes; ++i)
+        {
+            if (this.readState() != 0)
+                return 1;
+            if (numLanes > 1)
+            {
+                states[i] = this.state;
+            }
+            
+        }
+        
+        return 0;
+    }
+    
+    /**
+     *  Reads the state that ends at bufOffset.
+     *
+     */
+    private int readState()
+    {
+        int offset = this.bufOffset;
         int x;
         if (offset < 1)
             return 1;
-        this.buf.copyFrom(buf);
         x = (int)((0xff & buf.get(offset - 1)) >>> 6);
         if (x == 0)
         {
@@ -175,6 +111,8 @@ class RAnsDecoder
         }
         else if (x == 3)
         {
+            if (offset < 4)
+                return 1;
             this.bufOffset = offset - 4;
             this.state = buf.toUInt32LE(offset - 4) & 0x3FFFFFFF;
         }
@@ -188,7 +126,15 @@ class RAnsDecoder
     
     public boolean readEnd()
     {
-        return this.state == lRansBase;
+        if (numLanes == 1)
+            return this.state == lRansBase;
+        for (int i = 0; i < numLanes; ++i)
+        {
+            if (states[i] != lRansBase)
+                return false;
+        }
+        
+        return true;
     }
     
     public boolean readerHasError()
@@ -198,21 +144,152 @@ class RAnsDecoder
     
     public int read()
     {
-        int rem;
-        int quo;
-        ransDecSym sym = new ransDecSym();
+        if (numLanes > 1)
+            return this.readInterleaved();
         while ((0xffffffffl & this.state) < lRansBase && (this.bufOffset > 0))
         {
             this.state = (int)(this.state * IO_BASE + (0xff & this.buf.get(--this.bufOffset)));
         }
         
-        // |ransPrecision| is a power of two compile time constant, and the below
-        // division and modulo are going to be optimized by the compiler.
-        quo = (int)(this.state / ransPrecision);
-        rem = (int)(this.state % ransPrecision);
-        this.fetchSym(sym, rem);
-        this.state = (int)(quo * sym.prob + rem - sym.cumProb);
-        return sym.val;
+        long sym = lutTable[this.state & (ransPrecision - 1)];
+        this.state = (this.state >>> ransPrecisionBits) * (int)((sym & SLOT_MASK) + 1) + (int)((sym >>> 20) & SLOT_MASK);
+        return (int)(sym >>> 40);
+    }
+    
+    /**
+     *  Decodes |count| symbols to |out| starting at |offset|, same as calling {@link #read()} |count| times.
+     *
+     */
+    public void read(int[] out, int offset, int count)
+    {
+        byte[] data = this.buf.getBaseData();
+        if (numLanes > 1)
+        {
+            this.readInterleaved(out, offset, count, data);
+            return;
+        }
+        
+        if (data == null)
+        {
+            for (int i = 0; i < count; ++i)
+            {
+                out[offset + i] = this.read();
+            }
+            
+            return;
+        }
+        
+        
+        // Work on locals so the loop keeps the decoder state in registers.
+        int base = this.buf.getOffset();
+        long[] lut = this.lutTable;
+        int precisionBits = this.ransPrecisionBits;
+        int mask = ransPrecision - 1;
+        int lower = lRansBase;
+        int x = this.state;
+        int pos = this.bufOffset;
+        for (int i = 0; i < count; ++i)
+        {
+            // The state stays below lRansBase * IO_BASE < 2^30, so the comparison doesn't need to be unsigned.
+            while (x < lower && (pos > 0))
+            {
+                x = (x << 8) | (0xff & data[base + --pos]);
+            }
+            
+            long sym = lut[x & mask];
+            x = (x >>> precisionBits) * (int)((sym & SLOT_MASK) + 1) + (int)((sym >>> 20) & SLOT_MASK);
+            out[offset + i] = (int)(sym >>> 40);
+        }
+        
+        this.state = x;
+        this.bufOffset = pos;
+    }
+    
+    private int readInterleaved()
+    {
+        int x = states[lane];
+        long sym = lutTable[x & (ransPrecision - 1)];
+        x = (x >>> ransPrecisionBits) * (int)((sym & SLOT_MASK) + 1) + (int)((sym >>> 20) & SLOT_MASK);
+        // Renormalize right away, the bytes that follow belong to the next lane.
+        while (x < lRansBase && (this.bufOffset > 0))
+        {
+            x = x * IO_BASE + (0xff & this.buf.get(--this.bufOffset));
+        }
+        
+        states[lane] = x;
+        this.lane = (lane + 1) & (numLanes - 1);
+        return (int)(sym >>> 40);
+    }
+    
+    private void readInterleaved(int[] out, int offset, int count, byte[] data)
+    {
+        int i = 0;
+        // Single steps until the next symbol belongs to lane 0.
+        for (; i < count && (lane != 0); ++i)
+        {
+            out[offset + i] = this.readInterleaved();
+        }
+        
+        if (data != null)
+        {
+            int base = this.buf.getOffset();
+            long[] lut = this.lutTable;
+            int precisionBits = this.ransPrecisionBits;
+            int mask = ransPrecision - 1;
+            int lower = lRansBase;
+            int n = numLanes;
+            int[] x = this.states;
+            int pos = this.bufOffset;
+            // The states never need more than 3 bytes after a symbol, so the groups can take their
+            // bytes without bounds checks until the stream is almost consumed.
+            int minPos = 3 * n;
+            int t1 = lower >>> 8;
+            int t2 = lower >>> 16;
+            for (; i <= count - n && (pos >= minPos); i += n)
+            {
+                // The lanes don't depend on each other, so the table lookups of a group overlap.
+                for (int l = 0; l < n; ++l)
+                {
+                    long sym = lut[x[l] & mask];
+                    x[l] = (x[l] >>> precisionBits) * (int)((sym & SLOT_MASK) + 1) + (int)((sym >>> 20) & SLOT_MASK);
+                    out[offset + i + l] = (int)(sym >>> 40);
+                }
+                
+                // The stream is consumed in lane order, the number of bytes of a lane only depends
+                // on its state, so the reads don't wait for the previous lane's bytes.
+                for (int l = 0; l < n; ++l)
+                {
+                    int v = x[l];
+                    int k = ((v - lower) >>> 31) + ((v - t1) >>> 31) + ((v - t2) >>> 31);
+                    int bytes = (0xff & data[base + pos - 1]) << 16 | (0xff & data[base + pos - 2]) << 8 | (0xff & data[base + pos - 3]);
+                    x[l] = (v << (k << 3)) | (bytes >>> ((3 - k) << 3));
+                    pos -= k;
+                }
+                
+            }
+            
+            this.bufOffset = pos;
+        }
+        
+        for (; i < count; ++i)
+        {
+            out[offset + i] = this.readInterleaved();
+        }
+        
+    }
+    
+    /**
+     *  Decode with a table built by {@link #buildLookupTable(int[], int)} of a decoder with the same precision.
+     *
+     */
+    void setLookupTable(long[] table)
+    {
+        this.lutTable = table;
+    }
+    
+    long[] getLookupTable()
+    {
+        return lutTable;
     }
     
     /**
@@ -222,22 +299,67 @@ class RAnsDecoder
      */
     public boolean buildLookupTable(int[] tokenProbs, int numSymbols)
     {
-        this.lutTable = new int[ransPrecision];
-        this.probabilityTable = (ransSym[])(MetaClasses.ransSym.newArray(numSymbols));
+        return this.buildLookupTable(tokenProbs, numSymbols, null);
+    }
+    
+    /**
+     *  Same as above, when a workspace is given the table is taken from its table cache if an identical
+     *  probability table was seen before, otherwise it's built and added to the cache.
+     *  Tables the cache doesn't accept are stored in the workspace's scratch memory.
+     *
+     */
+    public boolean buildLookupTable(int[] tokenProbs, int numSymbols, DecoderWorkspace workspace)
+    {
+        if (workspace == null)
+        {
+            this.lutTable = new long[ransPrecision];
+            return this.fillLookupTable(tokenProbs, numSymbols);
+        }
+        
+        RAnsTableCache cache = workspace.getTableCache();
+        if (!cache.accepts(ransPrecision))
+        {
+            this.lutTable = workspace.getLookupTable(ransPrecision);
+            return this.fillLookupTable(tokenProbs, numSymbols);
+        }
+        
+        long[] table = cache.find(ransPrecisionBits, tokenProbs, numSymbols);
+        if (table != null)
+        {
+            this.lutTable = table;
+            return true;
+        }
+        
+        this.lutTable = cache.reserve(ransPrecision);
+        if (!this.fillLookupTable(tokenProbs, numSymbols))
+        {
+            cache.discard(lutTable);
+            return false;
+        }
+        
+        cache.add(ransPrecisionBits, tokenProbs, numSymbols, lutTable);
+        return true;
+    }
+    
+    private boolean fillLookupTable(int[] tokenProbs, int numSymbols)
+    {
         int cumProb = 0;
         int actProb = 0;
         for (int i = 0; i < numSymbols; ++i)
         {
-            ransSym sym = new ransSym();
-            sym.prob = tokenProbs[i];
-            sym.cumProb = cumProb;
-            probabilityTable[i] = Struct.byVal(sym);
-            cumProb += tokenProbs[i];
+            int prob = tokenProbs[i];
+            cumProb += prob;
             if ((0xffffffffl & cumProb) > ransPrecision)
                 return false;
-            for (int j = actProb; j < (0xffffffffl & cumProb); ++j)
+            if (prob == 0)
+                continue;
+            // The packed entry has 24 bits for the symbol.
+            if (i > MAX_SYMBOL)
+                return false;
+            long entry = ((long)i << 40) | (prob - 1);
+            for (int j = actProb; j < cumProb; ++j)
             {
-                lutTable[j] = i;
+                lutTable[j] = entry | ((long)(j - actProb) << 20);
             }
             
             actProb = cumProb;
@@ -248,12 +370,4 @@ class RAnsDecoder
         return true;
     }
     
-    private void fetchSym(ransDecSym res, int rem)
-    {
-        int symbol = lutTable[rem];
-        res.val = symbol;
-        res.prob = probabilityTable[symbol].prob;
-        res.cumProb = probabilityTable[symbol].cumProb;
-    }
-    
 }
@@ -3,6 +3,7 @@ class RAnsSymbolDecoder extends RAnsBitCodec
 {    
     private int maxSymbolBitLength;
     private int maxSymbols;
+    private int ransPrecisionBits;
     private int ransPrecision;
     private int[] probabilityTable;
     private int numSymbols;
@@ -11,7 +12,7 @@ class RAnsSymbolDecoder extends RAnsBitCodec
     {
         this.maxSymbolBitLength = maxSymbolBitLength;
         this.maxSymbols = 1 << maxSymbolBitLength;
-        int ransPrecisionBits = RAnsBitCodec.computeRAnsPrecisionFromMaxSymbolBitLength(maxSymbolBitLength);
+        this.ransPrecisionBits = RAnsBitCodec.computeRAnsPrecisionFromMaxSymbolBitLength(maxSymbolBitLength);
         this.ransPrecision = 1 << ransPrecisionBits;
         this.ans = new RAnsDecoder(ransPrecisionBits);
     }
@@ -21,20 +22,51 @@ class RAnsSymbolDecoder extends RAnsBitCodec
     {
         if (buffer.getBitstreamVersion() == 0)
             throw DracoUtils.failed();
+        DracoDictionary dictionary = buffer.getDictionary();
+        if (dictionary != null)
+        {
+            // The table is either the n-th table of the dictionary(n + 1) or explicit(0).
+            int index = Decoding.decodeVarintU32(buffer);
+            if (index != 0)
+            {
+                DracoDictionary.Table table = dictionary.getTable(index - 1);
+                if (table == null || (table.precisionBits != ransPrecisionBits))
+                    throw DracoUtils.failed();
+                this.probabilityTable = table.probabilities;
+                this.numSymbols = table.numSymbols;
+                ans.setLookupTable(table.getLookupTable());
+                return;
+            }
+            
+        }
+        
+        this.probabilityTable = RAnsSymbolDecoder.decodeProbabilities(buffer);
+        this.numSymbols = probabilityTable.length;
+        if (numSymbols == 0)
+            return;
+        if (!ans.buildLookupTable(probabilityTable, numSymbols, buffer.getWorkspace()))
+            throw DracoUtils.failed();
+    }
+    
+    /**
+     *  Reads a probability table written by {@link dev.fileformat.drako.RAnsSymbolEncoder#encodeProbabilities(int[], int, EncoderBuffer)}.
+     *
+     */
+    static int[] decodeProbabilities(DecoderBuffer buffer)
+        throws DrakoException
+    {
+        int numSymbols;
         // Decode the number of alphabet symbols.
         if (buffer.getBitstreamVersion() < 20)
         {
-            this.numSymbols = buffer.decodeI32();
+            numSymbols = buffer.decodeI32();
         }
         else
         {
-            int n = Decoding.decodeVarintU32(buffer);
-            this.numSymbols = n;
+            numSymbols = Decoding.decodeVarintU32(buffer);
         }
         
-        this.probabilityTable = new int[numSymbols];
-        if (numSymbols == 0)
-            return;
+        int[] probabilityTable = new int[numSymbols];
         // Decode the table.
         for (int i = 0; i < numSymbols; ++i)
         {
@@ -71,12 +103,21 @@ class RAnsSymbolDecoder extends RAnsBitCodec
             probabilityTable[i] = prob;
         }
         
-        if (!ans.buildLookupTable(probabilityTable, numSymbols))
-            throw DracoUtils.failed();
+        return probabilityTable;
     }
     
     public void startDecoding(DecoderBuffer buffer)
         throws DrakoException
+    {
+        this.startDecoding(buffer, 1);
+    }
+    
+    /**
+     *  Start decoding a stream encoded with |numLanes| interleaved rANS states.
+     *
+     */
+    public void startDecoding(DecoderBuffer buffer, int numLanes)
+        throws DrakoException
     {
         long bytesEncoded;
         // Decode the number of bytes encoded by the encoder.
@@ -96,7 +137,7 @@ class RAnsSymbolDecoder extends RAnsBitCodec
         BytePointer dataHead = BytePointer.add(buffer.getPointer(), buffer.getDecodedSize());
         // Advance the buffer past the rANS data.
         buffer.advance((int)bytesEncoded);
-        if (ans.readInit(dataHead, (int)bytesEncoded) != 0)
+        if (ans.readInit(dataHead, (int)bytesEncoded, numLanes) != 0)
             throw DracoUtils.failed();
     }
     
@@ -110,6 +151,15 @@ class RAnsSymbolDecoder extends RAnsBitCodec
         return ans.read();
     }
     
+    /**
+     *  Decodes the next |count| symbols to |out|.
+     *
+     */
+    public void decodeSymbols(int[] out, int count)
+    {
+        ans.read(out, 0, count);
+    }
+    
     public void endDecoding()
     {
         ans.readEnd();
@@ -0,0 +1,171 @@
+package dev.fileformat.drako;
+/**
+ *  Bounded cache of rANS lookup tables keyed by the probability table they were built from.
+ *  Files made of many similar parts keep sending the same probability tables, a hit saves
+ *  filling a table of |ransPrecision| entries.
+ *  The cached tables are only read by {@link dev.fileformat.drako.RAnsDecoder}, the arrays of
+ *  evicted tables are reused for the next table of the same size.
+ *
+ */
+final class RAnsTableCache
+{    
+    /**
+     *  Maximum number of cached tables.
+     *
+     */
+    static final int MAX_ENTRIES = 32;
+    /**
+     *  Maximum number of table entries kept by the cache, 8MB of tables.
+     *
+     */
+    static final int MAX_WORDS = 1 << 20;
+    /**
+     *  Tables larger than this aren't cached, a single one would evict most of the others.
+     *
+     */
+    static final int MAX_TABLE_WORDS = MAX_WORDS >> 2;
+    static final class Entry
+    {
+        int precisionBits;
+        int hash;
+        int[] probs;
+        long[] table;
+        long lastUse;
+    }
+    
+    private final Entry[] entries = new Entry[MAX_ENTRIES];
+    private int count;
+    private int words;
+    private long clock;
+    /**
+     *  Array of the last evicted table or of a table that failed to build.
+     *
+     */
+    private long[] spare;
+    /**
+     *  Returns true if tables of |size| entries are cached.
+     *
+     */
+    public boolean accepts(int size)
+    {
+        return size <= MAX_TABLE_WORDS;
+    }
+    
+    /**
+     *  Returns the table built from the first |numSymbols| probabilities, or null if it's not cached.
+     *
+     */
+    public long[] find(int precisionBits, int[] probs, int numSymbols)
+    {
+        int hash = RAnsTableCache.hash(precisionBits, probs, numSymbols);
+        for (int i = 0; i < count; i++)
+        {
+            Entry e = entries[i];
+            if (e.hash == hash && (e.precisionBits == precisionBits) && RAnsTableCache.same(e.probs, probs, numSymbols))
+            {
+                e.lastUse = ++clock;
+                return e.table;
+            }
+            
+        }
+        
+        return null;
+    }
+    
+    /**
+     *  Makes room for a table of |size| entries and returns the array to build it in.
+     *  The array is handed back with {@link #add(int, int[], int, long[])} once the table is built.
+     *
+     */
+    public long[] reserve(int size)
+    {
+        while (count == MAX_ENTRIES || (words + size > MAX_WORDS))
+        {
+            this.evictLeastRecentlyUsed();
+        }
+        
+        long[] ret = spare;
+        if (ret != null && (ret.length == size))
+        {
+            this.spare = null;
+            return ret;
+        }
+        
+        return new long[size];
+    }
+    
+    /**
+     *  Adds the |table| built from the first |numSymbols| probabilities, the table comes from {@link #reserve(int)}.
+     *
+     */
+    public void add(int precisionBits, int[] probs, int numSymbols, long[] table)
+    {
+        Entry e = new Entry();
+        e.precisionBits = precisionBits;
+        e.hash = RAnsTableCache.hash(precisionBits, probs, numSymbols);
+        e.probs = new int[numSymbols];
+        System.arraycopy(probs, 0, e.probs, 0, numSymbols);
+        e.table = table;
+        e.lastUse = ++clock;
+        entries[count++] = e;
+        words += table.length;
+    }
+    
+    /**
+     *  Gives back a reserved array whose table couldn't be built.
+     *
+     */
+    public void discard(long[] table)
+    {
+        this.spare = table;
+    }
+    
+    public int getCount()
+    {
+        return count;
+    }
+    
+    private void evictLeastRecentlyUsed()
+    {
+        int victim = 0;
+        for (int i = 1; i < count; i++)
+        {
+            if (entries[i].lastUse < entries[victim].lastUse)
+            {
+                victim = i;
+            }
+            
+        }
+        
+        Entry e = entries[victim];
+        entries[victim] = entries[--count];
+        entries[count] = null;
+        words -= e.table.length;
+        this.spare = e.table;
+    }
+    
+    private static int hash(int precisionBits, int[] probs, int numSymbols)
+    {
+        int ret = precisionBits * 31 + numSymbols;
+        for (int i = 0; i < numSymbols; i++)
+        {
+            ret = ret * 31 + probs[i];
+        }
+        
+        return ret;
+    }
+    
+    private static boolean same(int[] cached, int[] probs, int numSymbols)
+    {
+        if (cached.length != numSymbols)
+            return false;
+        for (int i = 0; i < numSymbols; i++)
+        {
+            if (cached[i] != probs[i])
+                return false;
+        }
+        
+        return true;
+    }
+    
+}
@@ -10,6 +10,13 @@ class SequentialAttributeDecoder
     protected PointAttribute attribute;
     PointAttribute portableAttribute;
     private int attributeId;
+    /**
+     *  Set when computing the original values from the prediction is deferred, either because the attribute
+     *  was not requested by the load options or because the values are computed later on another thread.
+     *  The values are read from the buffer either way.
+     *
+     */
+    boolean deferred;
     public void initialize(PointCloudDecoder decoder, int attributeId)
         throws DrakoException
     {
@@ -73,6 +80,11 @@ class SequentialAttributeDecoder
             }
             else
             {
+                if (!deferred)
+                {
+                    decoder.decodeDeferredAttribute(attId);
+                }
+                
                 parentAttribute = decoder.getPortableAttribute(attId);
             }
             
@@ -91,19 +103,19 @@ class SequentialAttributeDecoder
     protected void decodeValues(int[] pointIds, DecoderBuffer inBuffer)
         throws DrakoException
     {
-        int numValues = pointIds.length;
-        int entrySize = attribute.getByteStride();
-        byte[] valueData = new byte[entrySize];
-        int outBytePos = 0;
-        // Decode raw attribute values in their original format.
-        for (int i = 0; i < numValues; ++i)
+        long bytes = (long)pointIds.length * attribute.getByteStride();
+        if (bytes > inBuffer.getRemainingSize())
+            throw DracoUtils.failed();
+        // Decode raw attribute values in their original format, the entries are
+        // stored back to back so they're copied into the attribute at once.
+        DataBuffer buffer = attribute.getBuffer();
+        if (buffer.getLength() < bytes)
         {
-            if (!inBuffer.decode(valueData, entrySize))
-                throw DracoUtils.failed();
-            attribute.getBuffer().write(outBytePos, valueData, entrySize);
-            outBytePos += entrySize;
+            buffer.setLength((int)bytes);
         }
         
+        if (!inBuffer.decode(buffer.getBuffer(), 0, (int)bytes))
+            throw DracoUtils.failed();
     }
     
     public void decodePortableAttribute(int[] pointIds, DecoderBuffer in_buffer)
@@ -115,6 +127,44 @@ class SequentialAttributeDecoder
         this.decodeValues(pointIds, in_buffer);
     }
     
+    /**
+     *  Computes the values whose computation was deferred, does nothing if there are none.
+     *
+     */
+    public void decodeDeferredValues()
+        throws DrakoException
+    {
+        // Default implementation does not defer anything.
+    }
+    
+    /**
+     *  Returns the number of attributes whose portable values are needed to compute the values of this attribute.
+     *
+     */
+    public int getNumParentAttributes()
+    {
+        return 0;
+    }
+    
+    public int getParentAttributeId(int i)
+    {
+        return -1;
+    }
+    
+    /**
+     *  Completes the deferred parent attributes of the prediction scheme.
+     *
+     */
+    protected void decodeDeferredParents(PredictionScheme ps)
+        throws DrakoException
+    {
+        for (int i = 0; i < ps.getNumParentAttributes(); ++i)
+        {
+            decoder.decodeDeferredAttribute(decoder.getPointCloud().getNamedAttributeId(ps.getParentAttributeType(i)));
+        }
+        
+    }
+    
     public void decodeDataNeededByPortableTransform(int[] pointIds, DecoderBuffer in_buffer)
         throws DrakoException
     {
@@ -4,6 +4,7 @@ class SequentialAttributeDecodersController extends AttributesDecoder
     private SequentialAttributeDecoder[] sequentialDecoders;
     private int[] pointIds;
     private PointsSequencer sequencer;
+    private boolean deferAll;
     public SequentialAttributeDecodersController(PointsSequencer sequencer)
     {
         this.sequencer = sequencer;
@@ -47,13 +48,54 @@ class SequentialAttributeDecodersController extends AttributesDecoder
         super.decodeAttributes(buffer);
     }
     
+    @Override
+    public boolean decodeAttributesDeferred(DecoderBuffer buffer)
+        throws DrakoException
+    {
+        if (!this.canDeferValues())
+        {
+            this.decodeAttributes(buffer);
+            return false;
+        }
+        
+        this.deferAll = true;
+        try
+        {
+            if (sequencer == null)
+                throw DracoUtils.failed();
+            this.pointIds = sequencer.generateSequence();
+            for (int i = 0; i < this.getNumAttributes(); ++i)
+            {
+                PointAttribute pa = this.getDecoder().getPointCloud().attribute(this.getAttributeId(i));
+                sequencer.updatePointToAttributeIndexMapping(pa);
+            }
+            
+            this.decodePortableAttributes(buffer);
+            this.decodeDataNeededByPortableTransforms(buffer);
+        }
+        finally
+        {
+            this.deferAll = false;
+        }
+        
+        return true;
+    }
+    
+    private boolean canDeferValues()
+    {
+        return this.getDecoder().getBitstreamVersion() >= 20;
+    }
+    
     @Override
     protected void decodePortableAttributes(DecoderBuffer buffer)
         throws DrakoException
     {
         int num_attributes = this.getNumAttributes();
+        // Before 2.0 the values are stored in the final attribute while decoding, so nothing can be deferred.
+        boolean canDefer = this.canDeferValues();
         for (int i = 0; i < num_attributes; ++i)
         {
+            sequentialDecoders[i].deferred = canDefer && (deferAll || !this.isAttributeRequested(i));
             sequentialDecoders[i].decodePortableAttribute(pointIds, buffer);
         }
         
@@ -78,27 +120,45 @@ class SequentialAttributeDecodersController extends AttributesDecoder
         int num_attributes = this.getNumAttributes();
         for (int i = 0; i < num_attributes; ++i)
         {
-            // Check whether the attribute transform should be skipped.
-            if (this.getDecoder().options != null)
+            this.transformLocalAttributeToOriginalFormat(i);
+        }
+        
+    }
+    
+    @Override
+    public void transformAttributeToOriginalFormat(int attId)
+        throws DrakoException
+    {
+        int loc_id = this.getLocalIdForPointAttribute(attId);
+        if (loc_id < 0)
+            return;
+        this.transformLocalAttributeToOriginalFormat(loc_id);
+    }
+    
+    private void transformLocalAttributeToOriginalFormat(int i)
+        throws DrakoException
+    {
+        if (!this.isAttributeRequested(i))
+            return;
+        // Check whether the attribute transform should be skipped.
+        if (this.getDecoder().options != null)
+        {
+            PointAttribute attribute = sequentialDecoders[i].getAttribute();
+            if (this.getDecoder().options.getSkipAttributeTransform())
             {
-                PointAttribute attribute = sequentialDecoders[i].getAttribute();
-                if (this.getDecoder().options.skipAttributeTransform)
-                {
-                    // Attribute transform should not be performed. In this case, we replace
-                    // the output geometry attribute with the portable attribute.
-                    // TODO(ostava): We can potentially avoid this copy by introducing a new
-                    // mechanism that would allow to use the final attributes as portable
-                    // attributes for predictors that may need them.
-                    sequentialDecoders[i].getAttribute().copyFrom(sequentialDecoders[i].getPortableAttribute());
-                    continue;
-                }
-                
+                // Attribute transform should not be performed. In this case, we replace
+                // the output geometry attribute with the portable attribute.
+                // TODO(ostava): We can potentially avoid this copy by introducing a new
+                // mechanism that would allow to use the final attributes as portable
+                // attributes for predictors that may need them.
+                sequentialDecoders[i].getAttribute().copyFrom(sequentialDecoders[i].getPortableAttribute());
+                return;
             }
             
-            
-            sequentialDecoders[i].transformAttributeToOriginalFormat(pointIds);
         }
         
+        
+        sequentialDecoders[i].transformAttributeToOriginalFormat(pointIds);
     }
     
     protected SequentialAttributeDecoder createSequentialDecoder(int decoderType)
@@ -119,6 +179,34 @@ class SequentialAttributeDecodersController extends AttributesDecoder
         
     }
     
+    @Override
+    public int numParentAttributes(int attId)
+    {
+        int loc_id = this.getLocalIdForPointAttribute(attId);
+        if (loc_id < 0)
+            return 0;
+        return sequentialDecoders[loc_id].getNumParentAttributes();
+    }
+    
+    @Override
+    public int getParentAttributeId(int attId, int parentI)
+    {
+        int loc_id = this.getLocalIdForPointAttribute(attId);
+        if (loc_id < 0)
+            return -1;
+        return sequentialDecoders[loc_id].getParentAttributeId(parentI);
+    }
+    
+    @Override
+    public void decodeDeferredAttribute(int attId)
+        throws DrakoException
+    {
+        int loc_id = this.getLocalIdForPointAttribute(attId);
+        if (loc_id < 0)
+            return;
+        sequentialDecoders[loc_id].decodeDeferredValues();
+    }
+    
     @Override
     public PointAttribute getPortableAttribute(int attId)
     {
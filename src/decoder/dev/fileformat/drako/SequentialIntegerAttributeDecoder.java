@@ -3,7 +3,14 @@ import dev.fileformat.drako.ByteSpan;
 import dev.fileformat.drako.IntSpan;
 class SequentialIntegerAttributeDecoder extends SequentialAttributeDecoder
 {    
+    /**
+     *  Number of values decoded at a time from the uncompressed integers.
+     *
+     */
+    private static final int RAW_VALUES_CHUNK = 4096;
     private PredictionScheme predictionScheme;
+    private IntSpan deferredValues;
+    private int[] deferredPointIds;
     @Override
     protected void decodeValues(int[] pointIds, DecoderBuffer inBuffer)
         throws DrakoException
@@ -116,21 +123,35 @@ class SequentialIntegerAttributeDecoder extends SequentialAttributeDecoder
         }
         else
         {
-            byte numBytes = inBuffer.decodeU8();
-            
-            //if (numBytes == sizeof(int))
-            //{
-            //    if (!inBuffer.Decode(values, values.Count))
-            //        return false;
-            //}
-            //else
-            //{
-            for (int i = 0; i < values.size(); ++i)
+            int numBytes = 0xff & inBuffer.decodeU8();
+            if (numBytes > 4)
+                throw DracoUtils.failed();
+            if (numBytes == 4)
+            {
+                // Full width values are decoded a chunk at a time.
+                int[] chunk = new int[Math.min(values.size(), RAW_VALUES_CHUNK)];
+                for (int i = 0; i < values.size(); i += chunk.length)
+                {
+                    int n = Math.min(chunk.length, values.size() - i);
+                    if (!inBuffer.decode(chunk, n))
+                        throw DracoUtils.failed();
+                    values.put(i, chunk, 0, n);
+                }
+                
+            }
+            else
             {
-                values.put(i, inBuffer.decodeI32());
+                // Values are stored with their |numBytes| low bytes only.
+                byte[] value = new byte[4];
+                for (int i = 0; i < values.size(); ++i)
+                {
+                    if (!inBuffer.decode(value, numBytes))
+                        throw DracoUtils.failed();
+                    values.put(i, Unsafe.getLE32(value, 0));
+                }
+                
             }
             
-            //}
         }
         
         
@@ -145,11 +166,44 @@ class SequentialIntegerAttributeDecoder extends SequentialAttributeDecoder
         if (predictionScheme != null)
         {
             predictionScheme.decodePredictionData(inBuffer);
+            if (deferred)
+            {
+                this.deferredValues = values;
+                this.deferredPointIds = pointIds;
+                return;
+            }
+            
             predictionScheme.computeOriginalValues(values, values, values.size(), numComponents, pointIds);
         }
         
     }
     
+    @Override
+    public int getNumParentAttributes()
+    {
+        return predictionScheme == null ? 0 : predictionScheme.getNumParentAttributes();
+    }
+    
+    @Override
+    public int getParentAttributeId(int i)
+    {
+        return this.getDecoder().getPointCloud().getNamedAttributeId(predictionScheme.getParentAttributeType(i));
+    }
+    
+    @Override
+    public void decodeDeferredValues()
+        throws DrakoException
+    {
+        if (deferredValues == null)
+            return;
+        IntSpan values = deferredValues;
+        int[] pointIds = deferredPointIds;
+        this.deferredValues = null;
+        this.deferredPointIds = null;
+        this.decodeDeferredParents(predictionScheme);
+        predictionScheme.computeOriginalValues(values, values, values.size(), this.getNumValueComponents(), pointIds);
+    }
+    
     @Override
     public void transformAttributeToOriginalFormat(int[] pointIds)
         throws DrakoException
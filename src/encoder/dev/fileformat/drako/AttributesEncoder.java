@@ -90,6 +90,7 @@ abstract class AttributesEncoder
         
         this.transformAttributesToPortableFormat();
         this.encodePortableAttributes(out_buffer);
+        out_buffer.flush();
         // Encode data needed by portable transforms after the attribute is encoded.
         // This corresponds to the order in which the data is going to be decoded by
         // the decoder.
@@ -1,22 +1,38 @@
 package dev.fileformat.drako;
+/**
+ *  Writes a sequence of bits into a zero filled buffer, least significant bit of each byte first.
+ *  The bits are collected in a 64 bits accumulator and stored 32 bits at a time,
+ *  {@link #flush()} stores the remaining bits.
+ *
+ */
 class BitEncoder
 {    
-    private BytePointer buffer = new BytePointer();
+    private byte[] data;
+    private int offset;
     private int bitOffset;
+    private long bits;
+    private int numBits;
     public BitEncoder(BytePointer buffer)
     {
-        this.buffer.copyFrom(buffer);
+        this.data = buffer.getBaseData();
+        this.offset = buffer.getOffset();
     }
     
     /**
-     *  Write |nbits| of |data| into the bit buffer.
+     *  Write |nbits| of |data| into the bit buffer, nbits must be in [0, 32].
      *
      */
     public void putBits(int data, int nbits)
     {
-        for (int bit = 0; bit < nbits; ++bit)
+        bits |= (data & 0xffffffffL & ((1L << nbits) - 1L)) << numBits;
+        numBits += nbits;
+        bitOffset += nbits;
+        if (numBits >= 32)
         {
-            this.putBit((byte)(data >>> bit & 1));
+            Unsafe.putLE32(this.data, offset, (int)bits);
+            offset += 4;
+            this.bits = bits >>> 32;
+            numBits -= 32;
         }
         
     }
@@ -31,22 +47,20 @@ class BitEncoder
         return bitOffset;
     }
     
-    private void putBit(byte value)
+    /**
+     *  Stores the bits that are still in the accumulator, no bits can be written afterwards.
+     *
+     */
+    public void flush()
     {
-        int byteSize = 8;
-        int off = bitOffset;
-        int byteOffset = off / byteSize;
-        int bitShift = off % byteSize;
+        while (numBits > 0)
+        {
+            data[offset++] = (byte)bits;
+            this.bits = bits >>> 8;
+            numBits -= 8;
+        }
         
-        // TODO(fgalligan): Check performance if we add a branch and only do one
-        // memory write if bitShift is 7. Also try using a temporary variable to
-        // hold the bits before writing to the buffer.
-        buffer.set(byteOffset, (byte)(0xff & buffer.get(byteOffset) & ~(1 << bitShift) | ((0xff & value) << bitShift)));
-        byte t = buffer.get(byteOffset);
-        t = (byte)(0xff & t & ~(1 << bitShift));
-        t = (byte)(0xff & t | ((0xff & value) << bitShift));
-        buffer.set(byteOffset, t);
-        bitOffset++;
+        this.numBits = 0;
     }
     
 }
@@ -19,20 +19,20 @@ class DepthFirstTraverser extends TraverserBase<CornerTable>
         
         corner_traversal_stack_.clear();
         corner_traversal_stack_.add(corner_id);
-        int next_vert = this.corner_table_.vertex(this.corner_table_.next(corner_id));
-        int prev_vert = this.corner_table_.vertex(this.corner_table_.previous(corner_id));
+        int next_vert = this.corners.vertex(this.corners.next(corner_id));
+        int prev_vert = this.corners.vertex(this.corners.previous(corner_id));
         if (next_vert == -1 || (prev_vert == -1))
             throw DracoUtils.failed();
         if (!this.isVertexVisited(next_vert))
         {
             this.markVertexVisited(next_vert);
-            this.traversal_observer_.onNewVertexVisited(next_vert, this.corner_table_.next(corner_id));
+            this.traversal_observer_.onNewVertexVisited(next_vert, this.corners.next(corner_id));
         }
         
         if (!this.isVertexVisited(prev_vert))
         {
             this.markVertexVisited(prev_vert);
-            this.traversal_observer_.onNewVertexVisited(prev_vert, this.corner_table_.previous(corner_id));
+            this.traversal_observer_.onNewVertexVisited(prev_vert, this.corners.previous(corner_id));
         }
         
         
@@ -54,25 +54,25 @@ class DepthFirstTraverser extends TraverserBase<CornerTable>
             {
                 this.markFaceVisited(face_id);
                 this.traversal_observer_.onNewFaceVisited(face_id);
-                int vert_id = this.corner_table_.vertex(corner_id);
+                int vert_id = this.corners.vertex(corner_id);
                 if (vert_id == -1)
                     throw DracoUtils.failed();
                 if (!this.isVertexVisited(vert_id))
                 {
-                    boolean on_boundary = this.corner_table_.isOnBoundary(vert_id);
+                    boolean on_boundary = this.corners.isOnBoundary(vert_id);
                     this.markVertexVisited(vert_id);
                     this.traversal_observer_.onNewVertexVisited(vert_id, corner_id);
                     if (!on_boundary)
                     {
-                        corner_id = this.corner_table_.getRightCorner(corner_id);
+                        corner_id = this.corners.getRightCorner(corner_id);
                         face_id = corner_id / 3;
                         continue;
                     }
                     
                 }
                 
-                int right_corner_id = this.corner_table_.getRightCorner(corner_id);
-                int left_corner_id = this.corner_table_.getLeftCorner(corner_id);
+                int right_corner_id = this.corners.getRightCorner(corner_id);
+                int left_corner_id = this.corners.getLeftCorner(corner_id);
                 int right_face_id = right_corner_id == -1 ? -1 : right_corner_id / 3;
                 int left_face_id = left_corner_id == -1 ? -1 : left_corner_id / 3;
                 if (this.isFaceVisited(right_face_id))
@@ -179,7 +179,7 @@ class DynamicIntegerPointsKdTreeEncoder
         if (!select_axis)
             return DracoUtils.incrementMod(last_axis, dimension_);
         int best_axis = 0;
-        if (array.length < 64)
+        if (end - begin < 64)
         {
             for (int axis = 1; axis < dimension_; ++axis)
             {
@@ -193,7 +193,7 @@ class DynamicIntegerPointsKdTreeEncoder
         }
         else
         {
-            int size = array.length;
+            int size = end - begin;
             for (int i = 0; i < dimension_; i++)
             {
                 deviations_[i] = 0;
@@ -205,7 +205,7 @@ class DynamicIntegerPointsKdTreeEncoder
                     for (int it = 0; it < (0xffffffffl & size); it++)
                     {
                         //deviation += (array[it][i] < split) ? 1U : 0U;
-                        if ((array[it])[i] < split)
+                        if ((array[begin + it])[i] < split)
                         {
                             deviation++;
                         }
@@ -1,6 +1,12 @@
 package dev.fileformat.drako;
 import dev.fileformat.drako.ByteSpan;
 import dev.fileformat.drako.IntSpan;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
 /**
  *  Class representing a buffer that can be used for either for byte-aligned
  *  encoding of arbitrary data structures or for encoding of varialble-length
@@ -9,6 +15,11 @@ import dev.fileformat.drako.IntSpan;
  */
 class EncoderBuffer
 {    
+    /**
+     *  Number of values whose varints are written per reservation of {@link #encodeVarints(int[], int)}.
+     *
+     */
+    private static final int VARINT_BLOCK = 1 << 16;
     private BitEncoder bitEncoder;
     private DataBuffer buffer;
     /**
@@ -23,6 +34,15 @@ class EncoderBuffer
      *
      */
     private boolean encodeBitSequenceSize;
+    /**
+     *  Optional destination of finished sections, see {@link #flush()}.
+     *
+     */
+    private WritableByteChannel sink;
+    private EncoderWorkspace workspace;
+    private DracoDictionary dictionary;
+    private DracoDictionary.Trainer dictionaryTrainer;
+    private int numDictionaryTables;
     public void encode(short val)
     {
         int offset = buffer.getLength();
@@ -97,10 +117,71 @@ class EncoderBuffer
         int offset = buffer.getLength();
         this.debugBreak(4 * len);
         buffer.setLength(buffer.getLength() + (4 * len));
+        // The little-endian view copies whole words instead of storing every byte.
+        ByteBuffer.wrap(buffer.getBuffer(), offset, 4 * len).slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().put(val, 0, len);
+    }
+    
+    /**
+     *  Encodes the lowest byte of the first |len| values.
+     *
+     */
+    public void encodeU8(int[] val, int len)
+    {
+        int offset = buffer.getLength();
+        this.debugBreak(len);
+        buffer.setLength(buffer.getLength() + len);
+        byte[] dst = buffer.getBuffer();
         for (int i = 0; i < len; i++)
         {
-            Unsafe.putLE32(buffer.getBuffer(), offset, val[i]);
-            offset += 4;
+            dst[offset + i] = (byte)val[i];
+        }
+        
+    }
+    
+    /**
+     *  Encodes the lowest 16 bits of the first |len| values in little-endian.
+     *
+     */
+    public void encodeU16(int[] val, int len)
+    {
+        int offset = buffer.getLength();
+        this.debugBreak(2 * len);
+        buffer.setLength(buffer.getLength() + (2 * len));
+        byte[] dst = buffer.getBuffer();
+        for (int i = 0; i < len; i++, offset += 2)
+        {
+            dst[offset] = (byte)val[i];
+            dst[offset + 1] = (byte)(val[i] >>> 8);
+        }
+        
+    }
+    
+    /**
+     *  Encodes the first |len| values as unsigned varints, same bytes as {@link Encoding#encodeVarint(int, EncoderBuffer)} per value.
+     *  Room for the longest varints is reserved a block at a time and the buffer is trimmed to the bytes written.
+     *
+     */
+    public void encodeVarints(int[] val, int len)
+    {
+        for (int start = 0; start < len; start += VARINT_BLOCK)
+        {
+            int end = Math.min(len, start + VARINT_BLOCK);
+            int offset = buffer.getLength();
+            buffer.setLength(offset + (5 * (end - start)));
+            byte[] dst = buffer.getBuffer();
+            for (int i = start; i < end; i++)
+            {
+                int v = val[i];
+                while ((v & ~0x7f) != 0)
+                {
+                    dst[offset++] = (byte)(v | 0x80);
+                    v >>>= 7;
+                }
+                
+                dst[offset++] = (byte)v;
+            }
+            
+            buffer.setLength(offset);
         }
         
     }
@@ -176,6 +257,8 @@ class EncoderBuffer
         // Resize buffer to fit the maximum size of encoded bit data.
         this.debugBreak(requiredBytes);
         buffer.setLength(bufferStartSize + requiredBytes);
+        // The storage may be recycled, clear it so the unused bits of the last byte are deterministic.
+        Arrays.fill(this.getData(), bufferStartSize, bufferStartSize + requiredBytes, (byte)0);
         BytePointer data = new BytePointer(this.getData(), bufferStartSize);
         this.bitEncoder = new BitEncoder(data);
         return true;
@@ -191,6 +274,7 @@ class EncoderBuffer
         
         if (!this.getBitEncoderActive())
             return;
+        bitEncoder.flush();
         long encodedBits = bitEncoder.getBits();
         long encodedBytes = (encodedBits + 7L) / 8L;
         // Encode size if needed.
@@ -249,6 +333,100 @@ class EncoderBuffer
         this.encode(ints, 0, bytes);
     }
     
+    /**
+     *  Sets the channel that receives finished sections when {@link #flush()} is called.
+     *  Without a sink the whole output stays in memory.
+     *
+     */
+    public void setSink(WritableByteChannel sink)
+    {
+        this.sink = sink;
+    }
+    
+    /**
+     *  Writes the buffered bytes to the sink and starts a new section.
+     *  Encoders call this only at section boundaries, when no offset into the
+     *  buffered data is kept for back-patching, so it's a no-op while bit
+     *  encoding is active or when there's no sink.
+     *
+     */
+    public void flush()
+    {
+        if (sink == null || this.getBitEncoderActive() || (buffer.getLength() == 0))
+            return;
+        try
+        {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.getBuffer(), 0, buffer.getLength());
+            while (bytes.hasRemaining())
+            {
+                sink.write(bytes);
+            }
+            
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        
+        buffer.clear();
+    }
+    
+    /**
+     *  Scratch memory shared by the encoders writing to this buffer, null when every encode allocates its own.
+     *
+     */
+    public EncoderWorkspace getWorkspace()
+    {
+        return workspace;
+    }
+    
+    public void setWorkspace(EncoderWorkspace value)
+    {
+        this.workspace = value;
+    }
+    
+    /**
+     *  Dictionary whose probability tables the symbol streams may refer to instead of storing their own, null to store all tables.
+     *
+     */
+    public DracoDictionary getDictionary()
+    {
+        return dictionary;
+    }
+    
+    public void setDictionary(DracoDictionary value)
+    {
+        this.dictionary = value;
+    }
+    
+    /**
+     *  Number of symbol streams that refer to a table of the dictionary instead of storing their own.
+     *
+     */
+    public int getNumDictionaryTables()
+    {
+        return numDictionaryTables;
+    }
+    
+    public void setNumDictionaryTables(int value)
+    {
+        this.numDictionaryTables = value;
+    }
+    
+    /**
+     *  Receives the frequencies of every symbol stream when a dictionary is trained, null otherwise.
+     *
+     */
+    public DracoDictionary.Trainer getDictionaryTrainer()
+    {
+        return dictionaryTrainer;
+    }
+    
+    public void setDictionaryTrainer(DracoDictionary.Trainer value)
+    {
+        this.dictionaryTrainer = value;
+    }
+    
     public BitEncoder getBitEncoder()
     {
         return bitEncoder;
@@ -269,6 +447,25 @@ class EncoderBuffer
         this.$initFields$();
     }
     
+    /**
+     *  Construct an encoder buffer whose storage is rented from the pool.
+     *
+     */
+    public EncoderBuffer(ByteArrayPool pool)
+    {
+        this.buffer = new DataBuffer(pool);
+    }
+    
+    /**
+     *  Returns the storage to the pool, the buffer is empty after this call.
+     *
+     */
+    public void release()
+    {
+        buffer.release();
+        this.bitEncoderReservedBytes = 0L;
+    }
+    
     private void $initFields$()
     {
         try
@@ -0,0 +1,235 @@
+package dev.fileformat.drako;
+import java.util.ArrayList;
+import java.util.Arrays;
+/**
+ *  Scratch memory that is kept between encodes by a {@link dev.fileformat.drako.DracoEncoder}.
+ *  The workspace is attached to the output {@link dev.fileformat.drako.EncoderBuffer}, encoders that find one
+ *  take their temporary tables from it instead of allocating new ones.
+ *  Arrays returned by the getters may be larger than requested, unless stated otherwise their content is undefined.
+ *
+ */
+final class EncoderWorkspace
+{    
+    private CornerTable cornerTable;
+    private BitList visitedFaces;
+    private BitList visitedHoles;
+    private final ArrayList<int[]> vertexMaps = new ArrayList<int[]>();
+    private boolean[] visitedVertices;
+    private int[] vertexHoleIds;
+    private int[] corrections;
+    private long[] frequencies;
+    private int[] symbolProbabilities;
+    private int[] symbolOrder;
+    private long[] symbolEncodingTable;
+    /**
+     *  The corner table of the edgebreaker encoder, the caller is expected to initialize it.
+     *
+     */
+    public CornerTable getCornerTable()
+    {
+        if (cornerTable == null)
+        {
+            this.cornerTable = new CornerTable();
+        }
+        
+        return cornerTable;
+    }
+    
+    public BitList getVisitedFaces()
+    {
+        if (visitedFaces == null)
+        {
+            this.visitedFaces = new BitList();
+        }
+        
+        visitedFaces.clear();
+        return visitedFaces;
+    }
+    
+    public BitList getVisitedHoles()
+    {
+        if (visitedHoles == null)
+        {
+            this.visitedHoles = new BitList();
+        }
+        
+        visitedHoles.clear();
+        return visitedHoles;
+    }
+    
+    /**
+     *  Vertex to encoded attribute value map, slot 0 is used by the position attribute and
+     *  slot i + 1 by the i-th non-position attribute.
+     *
+     */
+    public int[] getVertexMap(int slot, int size)
+    {
+        while (vertexMaps.size() <= slot)
+        {
+            vertexMaps.add(null);
+        }
+        
+        int[] ret = EncoderWorkspace.ensure(vertexMaps.get(slot), size);
+        vertexMaps.set(slot, ret);
+        return ret;
+    }
+    
+    public boolean[] getVisitedVertices(int size)
+    {
+        if (visitedVertices == null || (visitedVertices.length < size))
+        {
+            this.visitedVertices = new boolean[EncoderWorkspace.grow(visitedVertices == null ? 0 : visitedVertices.length, size)];
+        }
+        
+        return visitedVertices;
+    }
+    
+    public int[] getVertexHoleIds(int size)
+    {
+        this.vertexHoleIds = EncoderWorkspace.ensure(vertexHoleIds, size);
+        return vertexHoleIds;
+    }
+    
+    /**
+     *  Storage for the prediction corrections of one attribute, the first size entries are cleared.
+     *
+     */
+    public int[] getCorrections(int size)
+    {
+        this.corrections = EncoderWorkspace.ensure(corrections, size);
+        Arrays.fill(corrections, 0, size, 0);
+        return corrections;
+    }
+    
+    /**
+     *  Symbol frequency table, the first size entries are cleared.
+     *
+     */
+    public long[] getFrequencies(int size)
+    {
+        if (frequencies == null || (frequencies.length < size))
+        {
+            this.frequencies = new long[EncoderWorkspace.grow(frequencies == null ? 0 : frequencies.length, size)];
+        }
+        else
+        {
+            Arrays.fill(frequencies, 0, size, 0L);
+        }
+        
+        return frequencies;
+    }
+    
+    /**
+     *  Grows the symbol frequency table to at least size entries, the first used entries are kept
+     *  and the entries up to size are cleared.
+     *
+     */
+    public long[] growFrequencies(int used, int size)
+    {
+        if (frequencies.length < size)
+        {
+            long[] ret = new long[EncoderWorkspace.grow(frequencies.length, size)];
+            System.arraycopy(frequencies, 0, ret, 0, used);
+            this.frequencies = ret;
+        }
+        else
+        {
+            Arrays.fill(frequencies, used, size, 0L);
+        }
+        
+        return frequencies;
+    }
+    
+    /**
+     *  Normalized symbol probabilities of the rANS symbol encoder.
+     *
+     */
+    public int[] getSymbolProbabilities(int size)
+    {
+        this.symbolProbabilities = EncoderWorkspace.ensure(symbolProbabilities, size);
+        return symbolProbabilities;
+    }
+    
+    /**
+     *  Symbol ids sorted by probability, used by the rANS symbol encoder to fix up rounding errors.
+     *
+     */
+    public int[] getSymbolOrder(int size)
+    {
+        this.symbolOrder = EncoderWorkspace.ensure(symbolOrder, size);
+        return symbolOrder;
+    }
+    
+    /**
+     *  Encoding entries of the rANS symbol encoder.
+     *
+     */
+    public long[] getSymbolEncodingTable(int size)
+    {
+        if (symbolEncodingTable == null || (symbolEncodingTable.length < size))
+        {
+            this.symbolEncodingTable = new long[EncoderWorkspace.grow(symbolEncodingTable == null ? 0 : symbolEncodingTable.length, size)];
+        }
+        
+        return symbolEncodingTable;
+    }
+    
+    /**
+     *  Clears the content left by the previous encode but keeps the allocated capacity.
+     *
+     */
+    public void reset()
+    {
+        if (cornerTable != null)
+        {
+            cornerTable.reset(0, 0);
+        }
+        
+        if (visitedFaces != null)
+        {
+            visitedFaces.clear();
+        }
+        
+        if (visitedHoles != null)
+        {
+            visitedHoles.clear();
+        }
+        
+    }
+    
+    /**
+     *  Drops all retained memory.
+     *
+     */
+    public void release()
+    {
+        this.cornerTable = null;
+        this.visitedFaces = null;
+        this.visitedHoles = null;
+        vertexMaps.clear();
+        this.visitedVertices = null;
+        this.vertexHoleIds = null;
+        this.corrections = null;
+        this.frequencies = null;
+        this.symbolProbabilities = null;
+        this.symbolOrder = null;
+        this.symbolEncodingTable = null;
+    }
+    
+    private static int[] ensure(int[] array, int size)
+    {
+        if (array != null && (array.length >= size))
+            return array;
+        return new int[EncoderWorkspace.grow(array == null ? 0 : array.length, size)];
+    }
+    
+    private static int grow(int oldSize, int size)
+    {
+        // Grow geometrically so a slowly increasing series of inputs doesn't reallocate every time.
+        long newSize = Math.max((long)size, oldSize + (oldSize >> 1));
+        if (newSize > (Integer.MAX_VALUE - 8))
+            return size;
+        return (int)newSize;
+    }
+    
+}
@@ -33,77 +33,6 @@ class Encoding
         
     }
     
-    /**
-     *  Computes bit lengths of the input values. If numComponents > 1, the values
-     *  are processed in "numComponents" sized chunks and the bit length is always
-     *  computed for the largest value from the chunk.
-     *
-     */
-    public static int[] computeBitLengths(IntSpan symbols, int numComponents, int[] outMaxValue)
-    {
-        int[] outBitLengths = new int[symbols.size() / numComponents];
-        int p = 0;
-        outMaxValue[0] = 0;
-        // Maximum integer value across all components.
-        for (int i = 0; i < symbols.size(); i += numComponents)
-        {
-            int maxComponentValue = symbols.get(i);
-            for (int j = 1; j < numComponents; ++j)
-            {
-                if (maxComponentValue < symbols.get(i + j))
-                {
-                    maxComponentValue = symbols.get(i + j);
-                }
-                
-            }
-            
-            int valueMsbPos = 0;
-            if (maxComponentValue > 0)
-            {
-                valueMsbPos = DracoUtils.mostSignificantBit(maxComponentValue);
-            }
-            
-            if (maxComponentValue > outMaxValue[0])
-            {
-                outMaxValue[0] = maxComponentValue;
-            }
-            
-            outBitLengths[p++] = valueMsbPos + 1;
-        }
-        
-        return outBitLengths;
-    }
-    
-    static long computeShannonEntropy(IntSpan symbols, int num_symbols, int max_value, int[] out_num_unique_symbols)
-    {
-        int num_unique_symbols = 0;
-        int[] symbol_frequencies = new int[max_value + 1];
-        for (int i = 0; i < num_symbols; ++i)
-        {
-            ++symbol_frequencies[symbols.get(i)];
-        }
-        
-        double total_bits = 0.0;
-        double num_symbols_d = num_symbols;
-        double log2 = Math.log(2);
-        for (int i = 0; i < (max_value + 1); ++i)
-        {
-            if (symbol_frequencies[i] > 0)
-            {
-                ++num_unique_symbols;
-                // Compute Shannon entropy for the symbol.
-                // We don't want to use std::log2 here for Android build.
-                total_bits += symbol_frequencies[i] * Math.log(1.0 * symbol_frequencies[i] / num_symbols_d) / log2;
-            }
-            
-        }
-        
-        
-        out_num_unique_symbols[0] = num_unique_symbols;
-        // Entropy is always negative.
-        return (long)-total_bits;
-    }
-    
     // Compute approximate frequency table size needed for storing the provided
     // symbols.
     // 
@@ -113,38 +42,67 @@ class Encoding
         return 8 * num_unique_symbols + table_zero_frequency_bits;
     }
     
-    static long approximateTaggedSchemeBits(IntSpan bit_lengths, int num_components)
+    /**
+     *  Approximate size of the tagged scheme, the tag stream followed by the raw value bits of every tuple.
+     *
+     */
+    static long approximateTaggedSchemeBits(SymbolStatistics stats, int num_components)
     {
-        long total_bit_length = 0L;
         final int[] ref0 = new int[1];
-        for (int i = 0; i < bit_lengths.size(); ++i)
-        {
-            total_bit_length += (long)(bit_lengths.get(i));
-        }
-        
         int num_unique_symbols;
-        long tag_bits = Encoding.computeShannonEntropy(bit_lengths, bit_lengths.size(), 32, ref0);
+        long tag_bits = SymbolStatistics.computeShannonEntropy(stats.bitLengthFrequencies, K_MAX_TAG_SYMBOL_BIT_LENGTH, stats.numTuples, ref0);
         num_unique_symbols = ref0[0];
         long tag_table_bits = Encoding.approximateRAnsFrequencyTableBits(num_unique_symbols, num_unique_symbols);
-        return tag_bits + tag_table_bits + (total_bit_length * num_components);
+        long data_bits = tag_bits + (stats.totalBitLength * num_components);
+        if (stats.scale != 1.0)
+        {
+            data_bits = (long)(data_bits * stats.scale);
+        }
+        
+        return data_bits + tag_table_bits;
     }
     
-    static long approximateRawSchemeBits(IntSpan symbols, int num_symbols, int max_value, int[] out_num_unique_symbols)
+    /**
+     *  Approximate size of the raw scheme, the values coded with their own frequency table.
+     *
+     */
+    static long approximateRawSchemeBits(SymbolStatistics stats, int[] out_num_unique_symbols)
     {
         int num_unique_symbols;
         final int[] ref1 = new int[1];
-        long data_bits = Encoding.computeShannonEntropy(symbols, num_symbols, max_value, ref1);
+        long data_bits = SymbolStatistics.computeShannonEntropy(stats.frequencies, stats.maxValue + 1, stats.numValues, ref1);
         num_unique_symbols = ref1[0];
-        long table_bits = Encoding.approximateRAnsFrequencyTableBits(max_value, num_unique_symbols);
+        long table_bits = Encoding.approximateRAnsFrequencyTableBits(stats.maxValue, num_unique_symbols);
         out_num_unique_symbols[0] = num_unique_symbols;
+        if (stats.scale != 1.0)
+        {
+            data_bits = (long)(data_bits * stats.scale);
+        }
+        
         return table_bits + data_bits;
     }
     
+    /**
+     *  Picks the smaller of the two schemes, the raw scheme can't code values of more than 18 bits.
+     *
+     */
+    private static int selectMethod(SymbolStatistics stats, int numComponents)
+    {
+        final int[] ref2 = new int[1];
+        int max_value_bit_length = DracoUtils.mostSignificantBit(Math.max(1, stats.maxValue)) + 1;
+        // The value histogram isn't built for values of more than 18 bits.
+        if (max_value_bit_length > K_MAX_RAW_ENCODING_BIT_LENGTH)
+            return TAGGED;
+        long tagged_scheme_total_bits = Encoding.approximateTaggedSchemeBits(stats, numComponents);
+        long raw_scheme_total_bits = Encoding.approximateRawSchemeBits(stats, ref2);
+        if (tagged_scheme_total_bits < raw_scheme_total_bits)
+            return TAGGED;
+        return RAW;
+    }
+    
     public static void encodeSymbols(IntSpan symbols, int numValues, int numComponents, DracoEncodeOptions options, EncoderBuffer targetBuffer)
         throws DrakoException
     {
-        final int[] ref2 = new int[1];
-        final int[] ref3 = new int[1];
         if (symbols.size() == 0)
             return;
         if (numComponents == 0)
@@ -152,61 +110,71 @@ class Encoding
             numComponents = 1;
         }
         
-        int maxValue;
-        int[] bitLengths = Encoding.computeBitLengths(symbols, numComponents, ref2);
-        maxValue = ref2[0];
-        long tagged_scheme_total_bits = Encoding.approximateTaggedSchemeBits(IntSpan.wrap(bitLengths), numComponents);
-        int num_unique_symbols = 0;
-        long raw_scheme_total_bits = Encoding.approximateRawSchemeBits(symbols, numValues, maxValue, ref3);
-        num_unique_symbols = ref3[0];
-        int max_value_bit_length = DracoUtils.mostSignificantBit(Math.max(1, maxValue)) + 1;
+        // Every statistic is gathered in one pass over the symbols, only the ones the scheme needs when it's known upfront.
+        SymbolStatistics stats;
         int method;
         if (options != null && (options.getSymbolEncodingMethod() != null))
         {
             method = options.getSymbolEncodingMethod().intValue();
+            stats = SymbolStatistics.collect(symbols, numValues, numComponents, method == TAGGED, method == RAW, false, targetBuffer);
         }
-        else if (tagged_scheme_total_bits < raw_scheme_total_bits || (max_value_bit_length > K_MAX_RAW_ENCODING_BIT_LENGTH))
+        else if (options != null && options.getSampledSchemeSelection() && (numValues >= SymbolStatistics.SAMPLING_THRESHOLD))
         {
-            method = TAGGED;
+            method = Encoding.selectMethod(SymbolStatistics.sample(symbols, numValues, numComponents, targetBuffer), numComponents);
+            stats = SymbolStatistics.collect(symbols, numValues, numComponents, method == TAGGED, method == RAW, true, targetBuffer);
+            if (method == RAW && (stats.frequencies == null))
+            {
+                // The sample missed the values too large for the raw scheme.
+                method = TAGGED;
+                stats = SymbolStatistics.collect(symbols, numValues, numComponents, true, false, false, targetBuffer);
+            }
+            
         }
         else
         {
-            method = RAW;
+            stats = SymbolStatistics.collect(symbols, numValues, numComponents, true, true, true, targetBuffer);
+            method = Encoding.selectMethod(stats, numComponents);
         }
         
         
+        int numLanes = options != null ? options.getRAnsLanes() : 1;
         // Use the tagged scheme.
-        targetBuffer.encode((byte)method);
+        targetBuffer.encode((byte)(method | Integer.numberOfTrailingZeros(numLanes) << RAnsBitCodec.SCHEME_LANES_SHIFT));
         if (method == TAGGED)
         {
-            Encoding.encodeTaggedSymbols(symbols, numComponents, bitLengths, targetBuffer);
+            Encoding.encodeTaggedSymbols(symbols, numComponents, stats.bitLengths, stats.bitLengthFrequencies, numLanes, targetBuffer);
         }
         else if (method == RAW)
         {
-            Encoding.encodeRawSymbols(symbols, numValues, maxValue, num_unique_symbols, options, targetBuffer);
+            if (stats.frequencies == null)
+            {
+                stats = SymbolStatistics.collect(symbols, numValues, numComponents, false, true, false, targetBuffer);
+            }
+            
+            int num_unique_symbols = 0;
+            for (int i = 0; i <= stats.maxValue; ++i)
+            {
+                if (stats.frequencies[i] > 0)
+                {
+                    ++num_unique_symbols;
+                }
+                
+            }
+            
+            Encoding.encodeRawSymbols(symbols, numValues, stats.maxValue, num_unique_symbols, stats.frequencies, options, targetBuffer);
         }
         else
             throw DracoUtils.failed();
     }
     
-    static boolean encodeTaggedSymbols(IntSpan symbols, int numComponents, int[] bitLengths, EncoderBuffer targetBuffer)
+    static boolean encodeTaggedSymbols(IntSpan symbols, int numComponents, int[] bitLengths, long[] frequencies, int numLanes, EncoderBuffer targetBuffer)
     {
-        long[] frequencies = new long[K_MAX_TAG_SYMBOL_BIT_LENGTH];
-        
-        // Compute the frequencies from input data.
-        // Maximum integer value for the values across all components.
-        for (int i = 0; i < bitLengths.length; ++i)
-        {
-            // Update the frequency of the associated entry id.
-            ++frequencies[bitLengths[i]];
-        }
-        
         EncoderBuffer valueBuffer = new EncoderBuffer();
         int valueBits = K_MAX_TAG_SYMBOL_BIT_LENGTH * symbols.size();
         RAnsSymbolEncoder tagEncoder = new RAnsSymbolEncoder(5, frequencies, targetBuffer);
         
         // Start encoding bit tags.
-        tagEncoder.startEncoding(targetBuffer);
+        tagEncoder.startEncoding(targetBuffer, numLanes, symbols.size() / numComponents);
         
         // Also start encoding the values.
         valueBuffer.startBitEncoding(valueBits, false);
@@ -233,7 +201,7 @@ class Encoding
         return true;
     }
     
-    static boolean encodeRawSymbols(IntSpan symbols, int num_values, int max_entry_value, int num_unique_symbols, DracoEncodeOptions options, EncoderBuffer target_buffer)
+    static boolean encodeRawSymbols(IntSpan symbols, int num_values, int max_entry_value, int num_unique_symbols, long[] frequencies, DracoEncodeOptions options, EncoderBuffer target_buffer)
     {
         int symbol_bits = 0;
         if (num_unique_symbols > 0)
@@ -278,19 +246,13 @@ class Encoding
         target_buffer.encode((byte)unique_symbols_bit_length);
         // Use appropriate symbol encoder based on the maximum symbol bit length.
         
-        return Encoding.encodeRawSymbolsInternal(unique_symbols_bit_length, symbols, num_values, max_entry_value, target_buffer);
+        return Encoding.encodeRawSymbolsInternal(unique_symbols_bit_length, symbols, num_values, max_entry_value, frequencies, options.getRAnsLanes(), target_buffer);
     }
     
-    static boolean encodeRawSymbolsInternal(int unique_symbols_bit_length, IntSpan symbols, int num_values, int max_entry_value, EncoderBuffer target_buffer)
+    static boolean encodeRawSymbolsInternal(int unique_symbols_bit_length, IntSpan symbols, int num_values, int max_entry_value, long[] frequencies, int numLanes, EncoderBuffer target_buffer)
     {
-        long[] frequencies = new long[max_entry_value + 1];
-        for (int i = 0; i < num_values; ++i)
-        {
-            ++frequencies[symbols.get(i)];
-        }
-        
-        RAnsSymbolEncoder encoder = new RAnsSymbolEncoder(unique_symbols_bit_length, frequencies, target_buffer);
-        encoder.startEncoding(target_buffer);
+        RAnsSymbolEncoder encoder = new RAnsSymbolEncoder(unique_symbols_bit_length, frequencies, max_entry_value + 1, target_buffer);
+        encoder.startEncoding(target_buffer, numLanes, num_values);
         final boolean needsReverseEncoding = true;
         if (needsReverseEncoding)
         {
@@ -320,13 +282,13 @@ class Encoding
         if (maxValueBitLength > K_MAX_RAW_ENCODING_BIT_LENGTH)
             return false;
         targetBuffer.encode((byte)maxValueBitLength);
-        long[] frequencies = new long[maxEntryValue + 1];
+        long[] frequencies = Encoding.newFrequencies(maxEntryValue + 1, targetBuffer);
         for (int i = 0; i < symbols.size(); ++i)
         {
             ++frequencies[symbols.get(i)];
         }
         
-        RAnsSymbolEncoder encoder = new RAnsSymbolEncoder(maxValueBitLength, frequencies, targetBuffer);
+        RAnsSymbolEncoder encoder = new RAnsSymbolEncoder(maxValueBitLength, frequencies, maxEntryValue + 1, targetBuffer);
         
         encoder.startEncoding(targetBuffer);
         // Encode all values.
@@ -339,6 +301,16 @@ class Encoding
         return true;
     }
     
+    /**
+     *  Gets a cleared frequency table, recycled from the buffer's workspace when it has one.
+     *
+     */
+    private static long[] newFrequencies(int size, EncoderBuffer buffer)
+    {
+        EncoderWorkspace workspace = buffer.getWorkspace();
+        return workspace != null ? workspace.getFrequencies(size) : new long[size];
+    }
+    
     public static boolean encodeVarint(long val, EncoderBuffer buffer)
     {
         byte out_ = 0;
@@ -24,4 +24,10 @@ interface IMeshEdgeBreakerEncoder
     
     MeshEdgeBreakerEncoder getEncoder();
     
+    /**
+     *  Returns true if the face has been already visited by the traversal.
+     *
+     */
+    boolean isFaceEncoded(int faceId);
+    
 }
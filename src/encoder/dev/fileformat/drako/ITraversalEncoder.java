@@ -27,7 +27,8 @@ interface ITraversalEncoder
      *  Called when the traversal is finished.
      *
      */
-    void done();
+    void done()
+        throws DrakoException;
     
     /**
      *  Called when a traversal starts from a new initial face.
@@ -35,7 +35,18 @@ class MeshEdgeBreakerEncoder extends MeshEncoder
     protected void initializeEncoder()
     {
         this.impl = null;
-        if (this.options.getCompressionLevel() == DracoCompressionLevel.OPTIMAL)
+        DracoEdgeBreakerMethod method = this.options.getEdgeBreakerMethod();
+        if (method == null)
+        {
+            method = this.options.getCompressionLevel() == DracoCompressionLevel.OPTIMAL ? DracoEdgeBreakerMethod.PREDICTIVE : DracoEdgeBreakerMethod.STANDARD;
+        }
+        
+        if (method == DracoEdgeBreakerMethod.VALENCE)
+        {
+            this.getBuffer().encode((byte)2);
+            this.impl = new MeshEdgeBreakerEncoderImpl(new MeshEdgeBreakerTraversalValenceEncoder());
+        }
+        else if (method == DracoEdgeBreakerMethod.PREDICTIVE)
         {
             this.getBuffer().encode((byte)1);
             this.impl = new MeshEdgeBreakerEncoderImpl(new MeshEdgeBreakerTraversalPredictiveEncoder());
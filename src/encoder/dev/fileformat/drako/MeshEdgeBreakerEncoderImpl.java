@@ -1,9 +1,8 @@
 package dev.fileformat.drako;
-import dev.fileformat.drako.AsposeUtils;
 import dev.fileformat.drako.Int2D;
 import dev.fileformat.drako.IntSpan;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 /**
  *  Class implementing the edgebreaker encoding as described in "3D Compression
  *  Made Simple: Edgebreaker on a Corner-Table" by Rossignac at al.'01.
@@ -66,7 +65,7 @@ class MeshEdgeBreakerEncoderImpl implements IMeshEdgeBreakerEncoder
      *  Array for marking visited faces.
      *
      */
-    private ArrayList<Boolean> visitedFaces;
+    private BitList visitedFaces;
     /**
      *  Attribute data for position encoding.
      *
@@ -100,12 +99,12 @@ class MeshEdgeBreakerEncoderImpl implements IMeshEdgeBreakerEncoder
      *  were encoded with TOPOLOGYS symbol.
      *
      */
-    private HashMap<Integer, Integer> faceToSplitSymbolMap;
+    private IntIntMap faceToSplitSymbolMap;
     /**
      *  Array for marking holes that has been reached during the traversal.
      *
      */
-    private ArrayList<Boolean> visitedHoles;
+    private BitList visitedHoles;
     /**
      *  Array for mapping vertices to hole ids. If a vertex is not on a hole, the
      *  stored value is -1.
@@ -153,6 +152,7 @@ class MeshEdgeBreakerEncoderImpl implements IMeshEdgeBreakerEncoder
         
         if (numAttributes == 1)
             return;
+        EncoderWorkspace workspace = encoder.getBuffer().getWorkspace();
         int dataIndex = 0;
         for (int i = 0; i < numAttributes; ++i)
         {
@@ -164,10 +164,20 @@ class MeshEdgeBreakerEncoderImpl implements IMeshEdgeBreakerEncoder
             attributeData[dataIndex].encodingData.encodedAttributeValueIndexToCornerMap.clear();
             
             attributeData[dataIndex].encodingData.encodedAttributeValueIndexToCornerMap.setCapacity(cornerTable.getNumCorners());
-            DracoUtils.fill(attributeData[dataIndex].encodingData.vertexToEncodedAttributeValueIndexMap = new int[cornerTable.getNumCorners()], -1);
+            if (workspace != null)
+            {
+                int[] map = workspace.getVertexMap(dataIndex + 1, cornerTable.getNumCorners());
+                Arrays.fill(map, 0, cornerTable.getNumCorners(), -1);
+                attributeData[dataIndex].encodingData.vertexToEncodedAttributeValueIndexMap = map;
+            }
+            else
+            {
+                DracoUtils.fill(attributeData[dataIndex].encodingData.vertexToEncodedAttributeValueIndexMap = new int[cornerTable.getNumCorners()], -1);
+            }
+            
             
             attributeData[dataIndex].encodingData.numValues = 0;
-            attributeData[dataIndex].connectivityData = new MeshAttributeCornerTable(mesh, cornerTable, att);
+            attributeData[dataIndex].connectivityData = new MeshAttributeCornerTable(mesh, cornerTable, att, encoder.getOptions().getConnectivityPool());
             ++dataIndex;
         }
         
@@ -506,7 +516,7 @@ class MeshEdgeBreakerEncoderImpl implements IMeshEdgeBreakerEncoder
                 int boundaryVertId = cornerTable.vertex(cornerTable.next(i));
                 if (vertexHoleId[boundaryVertId] != -1)
                     continue;
-                int boundaryId = visitedHoles.size();
+                int boundaryId = visitedHoles.getCount();
                 visitedHoles.add(false);
                 int cornerId = i;
                 while (vertexHoleId[boundaryVertId] == -1)
@@ -539,19 +549,7 @@ class MeshEdgeBreakerEncoderImpl implements IMeshEdgeBreakerEncoder
      */
     public int getSplitSymbolIdOnFace(int faceId)
     {
-        int ret;
-        final Integer[] ref0 = new Integer[1];
-        if (AsposeUtils.tryGetValue(faceToSplitSymbolMap, faceId, ref0))
-        {
-            ret = ref0[0] == null ? 0 : ref0[0];
-            return ret;
-        }
-        else
-        {
-            ret = ref0[0] == null ? 0 : ref0[0];
-        }
-        
-        return -1;
+        return faceToSplitSymbolMap.get(faceId, -1);
     }
     
     /**
@@ -822,8 +820,8 @@ class MeshEdgeBreakerEncoderImpl implements IMeshEdgeBreakerEncoder
             
         }
         
-        CornerTable ret = new CornerTable();
-        ret.initialize(faces);
+        CornerTable ret = this.newCornerTable();
+        ret.initialize(faces, encoder.getOptions().getConnectivityPool());
         return ret;
     }
     
@@ -843,11 +841,17 @@ class MeshEdgeBreakerEncoderImpl implements IMeshEdgeBreakerEncoder
             
         }
         
-        CornerTable ret = new CornerTable();
-        ret.initialize(faces);
+        CornerTable ret = this.newCornerTable();
+        ret.initialize(faces, encoder.getOptions().getConnectivityPool());
         return ret;
     }
     
+    private CornerTable newCornerTable()
+    {
+        EncoderWorkspace workspace = encoder.getBuffer().getWorkspace();
+        return workspace != null ? workspace.getCornerTable() : new CornerTable();
+    }
+    
     @Override
     public void encodeConnectivity()
         throws DrakoException
@@ -876,12 +880,37 @@ class MeshEdgeBreakerEncoderImpl implements IMeshEdgeBreakerEncoder
         Encoding.encodeVarint2(numVerticesToBeEncoded, this.getEncoder().getBuffer());
         int numFaces = cornerTable.getNumFaces() - cornerTable.getNumDegeneratedFaces();
         Encoding.encodeVarint2(numFaces, this.getEncoder().getBuffer());
-        this.assign(visitedFaces, mesh.getNumFaces(), false);
-        DracoUtils.fill(posEncodingData.vertexToEncodedAttributeValueIndexMap = new int[cornerTable.getNumVertices()], -1);
+        EncoderWorkspace workspace = this.getEncoder().getBuffer().getWorkspace();
+        if (workspace != null)
+        {
+            this.visitedFaces = workspace.getVisitedFaces();
+            this.visitedHoles = workspace.getVisitedHoles();
+        }
+        
+        visitedFaces.assign(mesh.getNumFaces(), false);
+        if (workspace != null)
+        {
+            posEncodingData.vertexToEncodedAttributeValueIndexMap = workspace.getVertexMap(0, cornerTable.getNumVertices());
+            Arrays.fill(posEncodingData.vertexToEncodedAttributeValueIndexMap, 0, cornerTable.getNumVertices(), -1);
+        }
+        else
+        {
+            DracoUtils.fill(posEncodingData.vertexToEncodedAttributeValueIndexMap = new int[cornerTable.getNumVertices()], -1);
+        }
+        
         posEncodingData.encodedAttributeValueIndexToCornerMap.clear();
         posEncodingData.encodedAttributeValueIndexToCornerMap.setCapacity(cornerTable.getNumFaces() * 3);
         //Assign(visitedVertexIds, cornerTable.NumVertices, false);
-        this.visitedVertexIds = new boolean[cornerTable.getNumVertices()];
+        if (workspace != null)
+        {
+            this.visitedVertexIds = workspace.getVisitedVertices(cornerTable.getNumVertices());
+            Arrays.fill(visitedVertexIds, 0, cornerTable.getNumVertices(), false);
+        }
+        else
+        {
+            this.visitedVertexIds = new boolean[cornerTable.getNumVertices()];
+        }
+        
         vertexTraversalLength.clear();
         this.lastEncodedSymbolId = -1;
         this.numSplitSymbols = 0;
@@ -889,7 +918,16 @@ class MeshEdgeBreakerEncoderImpl implements IMeshEdgeBreakerEncoder
         faceToSplitSymbolMap.clear();
         visitedHoles.clear();
         //Assign(vertexHoleId, cornerTable.NumVertices, -1);
-        DracoUtils.fill(this.vertexHoleId = new int[cornerTable.getNumVertices()], -1);
+        if (workspace != null)
+        {
+            this.vertexHoleId = workspace.getVertexHoleIds(cornerTable.getNumVertices());
+            Arrays.fill(vertexHoleId, 0, cornerTable.getNumVertices(), -1);
+        }
+        else
+        {
+            DracoUtils.fill(this.vertexHoleId = new int[cornerTable.getNumVertices()], -1);
+        }
+        
         holeEventData.clear();
         processedConnectivityCorners.clear();
         processedConnectivityCorners.setCapacity(cornerTable.getNumFaces());
@@ -972,11 +1010,7 @@ class MeshEdgeBreakerEncoderImpl implements IMeshEdgeBreakerEncoder
         if (attributeData.length > 0)
         {
             // Use the same order of corner that will be used by the decoder.
-            for (int i = 0; i < visitedFaces.size(); i++)
-            {
-                visitedFaces.set(i, false);
-            }
-            
+            visitedFaces.fill(false);
             for (int i = 0; i < processedConnectivityCorners.getCount(); i++)
             {
                 int ci = processedConnectivityCorners.get(i);
@@ -1048,18 +1082,24 @@ class MeshEdgeBreakerEncoderImpl implements IMeshEdgeBreakerEncoder
         return encoder;
     }
     
+    @Override
+    public boolean isFaceEncoded(int faceId)
+    {
+        return visitedFaces.get(faceId);
+    }
+    
     private void $initFields$()
     {
         try
         {
             cornerTraversalStack = new IntList();
-            visitedFaces = new ArrayList<Boolean>();
+            visitedFaces = new BitList();
             posEncodingData = new MeshAttributeIndicesEncodingData();
             processedConnectivityCorners = new IntList();
             vertexTraversalLength = new IntList();
             topologySplitEventData = new ArrayList<TopologySplitEventData>();
-            faceToSplitSymbolMap = new HashMap<Integer, Integer>();
-            visitedHoles = new ArrayList<Boolean>();
+            faceToSplitSymbolMap = new IntIntMap();
+            visitedHoles = new BitList();
             holeEventData = new ArrayList<HoleEventData>();
             attributeData = null;
             attributeEncoderToDataIdMap = new IntList();
@@ -1071,23 +1111,4 @@ class MeshEdgeBreakerEncoderImpl implements IMeshEdgeBreakerEncoder
         
     }
     
-    private void assign(ArrayList<Boolean> list, int size, boolean val)
-    {
-        while (list.size() > size)
-        {
-            list.remove(list.size() - 1);
-        }
-        
-        for (int i = 0; i < list.size(); i++)
-        {
-            list.set(i, val);
-        }
-        
-        while (list.size() < size)
-        {
-            list.add(val);
-        }
-        
-    }
-    
 }
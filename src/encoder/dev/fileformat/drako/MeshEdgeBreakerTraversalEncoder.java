@@ -140,6 +140,7 @@ class MeshEdgeBreakerTraversalEncoder implements ITraversalEncoder
      */
     @Override
     public void done()
+        throws DrakoException
     {
         this.encodeTraversalSymbols();
         this.encodeStartFaces();
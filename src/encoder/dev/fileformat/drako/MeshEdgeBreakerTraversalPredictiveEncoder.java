@@ -140,6 +140,7 @@ class MeshEdgeBreakerTraversalPredictiveEncoder extends MeshEdgeBreakerTraversal
     
     @Override
     public void done()
+        throws DrakoException
     {
         // We still need to store the last encoded symbol.
         if (prevSymbol != null)
@@ -0,0 +1,262 @@
+package dev.fileformat.drako;
+import dev.fileformat.drako.IntSpan;
+/**
+ *  Predictive encoder for the Edgebreaker symbols based on valences of the
+ *  previously encoded vertices, following the method described in: Szymczak'02,
+ *  "Optimized Edgebreaker Encoding for Large and Regular Triangle Meshes".
+ *  Each symbol is stored in a context selected by the valence of the vertex
+ *  the decoder reaches next, the symbols of every context are then entropy
+ *  coded separately, which gives the best connectivity compression for dense
+ *  and regular meshes.
+ *
+ */
+class MeshEdgeBreakerTraversalValenceEncoder extends MeshEdgeBreakerTraversalEncoder
+{    
+    /**
+     *  Maps the EdgeBreakerTopologyBitPattern to the symbol ids stored in the contexts.
+     *
+     */
+    private static final int[] EDGE_BREAKER_TOPOLOGY_TO_SYMBOL_ID = {0, 1, -1, 2, -1, 3, -1, 4};
+    private CornerTable cornerTable;
+    /**
+     *  Valences of the so far unencoded part of the mesh, vertices split by
+     *  the split symbols are appended.
+     *
+     */
+    private IntList vertexValences;
+    /**
+     *  Copy of the corner to vertex map of the corner table, the corners on the
+     *  right side of a split vertex are moved to the new vertex.
+     *
+     */
+    private int[] cornerToVertexMap;
+    private int prevSymbol;
+    private int lastCorner;
+    /**
+     *  Explicitly count the number of encoded symbols.
+     *
+     */
+    private int numSymbols;
+    private int minValence;
+    private int maxValence;
+    private IntList[] contextSymbols;
+    @Override
+    public void init(IMeshEdgeBreakerEncoder encoder)
+    {
+        super.init(encoder);
+        this.minValence = 2;
+        this.maxValence = 7;
+        this.cornerTable = encoder.getCornerTable();
+        
+        // Initialize valences of all vertices.
+        ValenceCache valences = cornerTable.getValenceCache();
+        valences.cacheValences(encoder.getEncoder().getOptions().getConnectivityPool());
+        vertexValences.resize(cornerTable.getNumVertices());
+        for (int i = 0; i < vertexValences.getCount(); ++i)
+        {
+            vertexValences.set(i, valences.confidentValenceFromCacheV(i));
+        }
+        
+        // Replicate the corner to vertex map from the corner table. We need to do
+        // this because the map may get updated during encoding because we add new
+        // vertices when we encounter split symbols.
+        this.cornerToVertexMap = new int[cornerTable.getNumCorners()];
+        for (int i = 0; i < cornerToVertexMap.length; ++i)
+        {
+            cornerToVertexMap[i] = cornerTable.vertex(i);
+        }
+        
+        int numUniqueValences = maxValence - minValence + 1;
+        this.contextSymbols = new IntList[numUniqueValences];
+        for (int i = 0; i < numUniqueValences; ++i)
+        {
+            contextSymbols[i] = new IntList();
+        }
+        
+    }
+    
+    @Override
+    public void newCornerReached(int corner)
+    {
+        this.lastCorner = corner;
+    }
+    
+    @Override
+    public void encodeSymbol(int symbol)
+    {
+        ++numSymbols;
+        // Update valences on the mesh and compute the context that is going to be
+        // used to encode the processed symbol.
+        // Note that the valences are computed for the so far unencoded part of the
+        // mesh (i.e. the decoding is reverse). Adding a new symbol either reduces
+        // valences on the vertices or leaves the valence unchanged.
+        int next = cornerTable.next(lastCorner);
+        int prev = cornerTable.previous(lastCorner);
+        
+        // Get valence on the tip corner of the active edge (outgoing edge that is
+        // going to be used in reverse decoding of the connectivity to predict the
+        // next symbol).
+        int activeValence = vertexValences.get(cornerToVertexMap[next]);
+        switch(symbol)
+        {
+            case EdgeBreakerTopologyBitPattern.C:
+            {
+                this.addValence(cornerToVertexMap[next], -1);
+                this.addValence(cornerToVertexMap[prev], -1);
+                break;
+            }
+            case EdgeBreakerTopologyBitPattern.S:
+            {
+                this.addValence(cornerToVertexMap[next], -1);
+                this.addValence(cornerToVertexMap[prev], -1);
+                this.splitVertex(next, prev);
+                break;
+            }
+            case EdgeBreakerTopologyBitPattern.R:
+            {
+                this.addValence(cornerToVertexMap[lastCorner], -1);
+                this.addValence(cornerToVertexMap[next], -1);
+                this.addValence(cornerToVertexMap[prev], -2);
+                break;
+            }
+            case EdgeBreakerTopologyBitPattern.L:
+            {
+                this.addValence(cornerToVertexMap[lastCorner], -1);
+                this.addValence(cornerToVertexMap[next], -2);
+                this.addValence(cornerToVertexMap[prev], -1);
+                break;
+            }
+            case EdgeBreakerTopologyBitPattern.E:
+            {
+                this.addValence(cornerToVertexMap[lastCorner], -2);
+                this.addValence(cornerToVertexMap[next], -2);
+                this.addValence(cornerToVertexMap[prev], -2);
+                break;
+            }
+            default:
+            {
+                break;
+            }
+        }
+        
+        if (prevSymbol != -1)
+        {
+            int clampedValence = Math.max(minValence, Math.min(maxValence, activeValence));
+            int context = clampedValence - minValence;
+            contextSymbols[context].add(EDGE_BREAKER_TOPOLOGY_TO_SYMBOL_ID[prevSymbol]);
+        }
+        
+        this.prevSymbol = symbol;
+    }
+    
+    /**
+     *  Whenever we reach a split symbol, we need to split the vertex into two
+     *  and attach all corners on the left and right sides of the split vertex to
+     *  the respective vertices. This is necessary since the decoder works in the
+     *  reverse order and it merges the two vertices only after the split symbol
+     *  is processed.
+     *
+     *      * -----
+     *     / \--------
+     *    /   \--------
+     *   /     \-------
+     *  *-------v-------*
+     *   \     /c\     /
+     *    \   /   \   /
+     *     \ /n   p\ /
+     *      *-------*
+     *
+     */
+    private void splitVertex(int next, int prev)
+    {
+        IMeshEdgeBreakerEncoder impl = this.encoderImpl;
+        // Count the number of faces on the left side of the split vertex and
+        // update the valence on the "left vertex".
+        int numLeftFaces = 0;
+        int actC = cornerTable.opposite(prev);
+        while (actC != -1)
+        {
+            if (impl.isFaceEncoded(cornerTable.face(actC)))
+                break;
+            // Stop when we reach the first visited face.
+            ++numLeftFaces;
+            actC = cornerTable.opposite(cornerTable.next(actC));
+        }
+        
+        vertexValences.set(cornerToVertexMap[lastCorner], numLeftFaces + 1);
+        
+        // Create a new vertex for the right side and count the number of
+        // faces that should be attached to this vertex.
+        int newVertId = vertexValences.getCount();
+        int numRightFaces = 0;
+        actC = cornerTable.opposite(next);
+        while (actC != -1)
+        {
+            if (impl.isFaceEncoded(cornerTable.face(actC)))
+                break;
+            // Stop when we reach the first visited face.
+            ++numRightFaces;
+            // Map corners on the right side to the newly created vertex.
+            cornerToVertexMap[cornerTable.next(actC)] = newVertId;
+            actC = cornerTable.opposite(cornerTable.previous(actC));
+        }
+        
+        vertexValences.add(numRightFaces + 1);
+    }
+    
+    private void addValence(int vertex, int delta)
+    {
+        vertexValences.set(vertex, vertexValences.get(vertex) + delta);
+    }
+    
+    @Override
+    public void done()
+        throws DrakoException
+    {
+        // Store the init face configurations and attribute seam data.
+        this.encodeStartFaces();
+        this.encodeAttributeSeams();
+        
+        // Store the contexts.
+        EncoderBuffer out = this.getOutputBuffer();
+        DracoEncodeOptions options = new DracoEncodeOptions();
+        for (int i = 0; i < contextSymbols.length; ++i)
+        {
+            int count = contextSymbols[i].getCount();
+            Encoding.encodeVarint2(count, out);
+            if (count > 0)
+            {
+                Encoding.encodeSymbols(IntSpan.wrap(contextSymbols[i].data, 0, count), count, 1, options, out);
+            }
+            
+        }
+        
+    }
+    
+    @Override
+    public int getNumEncodedSymbols()
+    {
+        return numSymbols;
+    }
+    
+    public MeshEdgeBreakerTraversalValenceEncoder()
+    {
+        this.$initFields$();
+    }
+    
+    private void $initFields$()
+    {
+        try
+        {
+            vertexValences = new IntList();
+            prevSymbol = -1;
+            lastCorner = -1;
+        }
+        catch(Exception e)
+        {
+            throw new RuntimeException(e);
+        }
+        
+    }
+    
+}
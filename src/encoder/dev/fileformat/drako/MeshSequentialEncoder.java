@@ -22,52 +22,24 @@ class MeshSequentialEncoder extends MeshEncoder
         {
             // 1 = Encode indices directly.
             this.getBuffer().encode((byte)1);
-            IntSpan face = IntSpan.wrap(new int[3]);
+            // The faces are stored back to back in the index list, they're written in a single pass.
+            int[] indices = this.getMesh().getIndices().data;
+            int numIndices = numFaces * 3;
             if (this.getMesh().getNumPoints() < 256)
             {
                 // Serialize indices as uint8T.
-                for (int i = 0; i < numFaces; ++i)
-                {
-                    this.getMesh().readFace(i, face);
-                    this.getBuffer().encode((byte)(face.get(0)));
-                    this.getBuffer().encode((byte)(face.get(1)));
-                    this.getBuffer().encode((byte)(face.get(2)));
-                }
-                
+                this.getBuffer().encodeU8(indices, numIndices);
             }
             else if (this.getMesh().getNumPoints() < (1 << 16))
             {
                 // Serialize indices as uint16T.
-                for (int i = 0; i < numFaces; ++i)
-                {
-                    this.getMesh().readFace(i, face);
-                    this.getBuffer().encode((short)(face.get(0)));
-                    this.getBuffer().encode((short)(face.get(1)));
-                    this.getBuffer().encode((short)(face.get(2)));
-                }
-                
-            }
-            else if (this.getMesh().getNumPoints() < (1 << 21))
-            {
-                // Serialize indices as varint.
-                for (int i = 0; i < numFaces; ++i)
-                {
-                    this.getMesh().readFace(i, face);
-                    Encoding.encodeVarint(face.get(0), this.buffer);
-                    Encoding.encodeVarint(face.get(1), this.buffer);
-                    Encoding.encodeVarint(face.get(2), this.buffer);
-                }
-                
+                this.getBuffer().encodeU16(indices, numIndices);
             }
             else
             {
-                // Serialize faces as uint (default).
-                for (int i = 0; i < numFaces; ++i)
-                {
-                    this.getMesh().readFace(i, face);
-                    this.getBuffer().encode(face);
-                }
-                
+                // Serialize indices as varint, decoders of bitstream 2.2 read varints
+                // whatever the number of points so larger meshes can't use uint32T.
+                this.getBuffer().encodeVarints(indices, numIndices);
             }
             
         }
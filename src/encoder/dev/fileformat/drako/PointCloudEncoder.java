@@ -1,6 +1,10 @@
 package dev.fileformat.drako;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 /**
  *  Abstract base class for all point cloud and mesh encoders. It provides a
  *  basic funcionality that's shared between different encoders.
@@ -54,7 +58,10 @@ abstract class PointCloudEncoder
         this.initializeEncoder();
         this.encodeEncoderData();
         this.encodeGeometryData();
+        // Connectivity/geometry section is complete.
+        buffer.flush();
         this.encodePointAttributes();
+        buffer.flush();
     }
     
     public int getGeometryType()
@@ -196,6 +203,7 @@ abstract class PointCloudEncoder
             attributesEncoders.get(attEncoderId).encodeAttributesEncoderData(buffer);
         }
         
+        buffer.flush();
         
         // Lastly encode all the attributes using the provided attribute encoders.
         this.encodeAllAttributes();
@@ -258,12 +266,110 @@ abstract class PointCloudEncoder
         throws DrakoException
     {
         
+        // A dictionary is trained from the streams in bitstream order, so the attributes are encoded one after another then.
+        if (options != null && (options.getAttributeEncodingExecutor() != null) && (attributesEncoderIdsOrder.length > 1) && (buffer.getDictionaryTrainer() == null))
+        {
+            this.encodeAllAttributesConcurrently(options.getAttributeEncodingExecutor());
+            return;
+        }
+        
         for (int i = 0; i < attributesEncoderIdsOrder.length; i++)
         {
             int attEncoderId = attributesEncoderIdsOrder[i];
             attributesEncoders.get(attEncoderId).encodeAttributes(buffer);
+            buffer.flush();
+        }
+        
+    }
+    
+    /**
+     *  Encodes every attribute encoder into its own buffer on the executor, an encoder starts once the encoders
+     *  of its parent attributes are done. The buffers are appended in the encoding order.
+     *
+     */
+    private void encodeAllAttributesConcurrently(Executor executor)
+        throws DrakoException
+    {
+        ArrayList<CompletableFuture<EncoderBuffer>> tasks = new ArrayList<CompletableFuture<EncoderBuffer>>();
+        CompletableFuture<?>[] encoderTasks = new CompletableFuture<?>[attributesEncoders.size()];
+        for (int i = 0; i < attributesEncoderIdsOrder.length; i++)
+        {
+            final AttributesEncoder attEncoder = attributesEncoders.get(attributesEncoderIdsOrder[i]);
+            ArrayList<CompletableFuture<?>> parents = new ArrayList<CompletableFuture<?>>();
+            for (int j = 0; j < attEncoder.getNumAttributes(); ++j)
+            {
+                int attId = attEncoder.getAttributeId(j);
+                for (int p = 0; p < attEncoder.numParentAttributes(attId); ++p)
+                {
+                    int parentEncoderId = attributeToEncoderMap[attEncoder.getParentAttributeId(attId, p)];
+                    // Parents are ordered first, so their tasks already exist.
+                    if (parentEncoderId != attributesEncoderIdsOrder[i])
+                    {
+                        parents.add(encoderTasks[parentEncoderId]);
+                    }
+                    
+                }
+                
+            }
+            
+            CompletableFuture<EncoderBuffer> task = CompletableFuture.allOf(parents.toArray(new CompletableFuture<?>[parents.size()])).thenApplyAsync(new Function<Void, EncoderBuffer>() {
+                @Override
+                public EncoderBuffer apply(Void v)
+                {
+                    EncoderBuffer out = new EncoderBuffer(ByteArrayPool.getShared());
+                    out.setDictionary(buffer.getDictionary());
+                    try
+                    {
+                        attEncoder.encodeAttributes(out);
+                    }
+                    catch(DrakoException e)
+                    {
+                        out.release();
+                        throw new CompletionException(e);
+                    }
+                    
+                    return out;
+                }
+                
+            }, executor);
+            encoderTasks[attributesEncoderIdsOrder[i]] = task;
+            tasks.add(task);
+        }
+        
+        DrakoException error = null;
+        for (CompletableFuture<EncoderBuffer> task : tasks)
+        {
+            EncoderBuffer out;
+            try
+            {
+                out = task.join();
+            }
+            catch(CompletionException e)
+            {
+                if (e.getCause() instanceof DrakoException)
+                {
+                    // Keep draining so every pooled buffer is released.
+                    error = error != null ? error : (DrakoException)e.getCause();
+                    continue;
+                }
+                
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException)e.getCause();
+                throw e;
+            }
+            
+            if (error == null)
+            {
+                buffer.encode(out.getData(), out.getBytes());
+                buffer.setNumDictionaryTables(buffer.getNumDictionaryTables() + out.getNumDictionaryTables());
+                buffer.flush();
+            }
+            
+            out.release();
         }
         
+        if (error != null)
+            throw error;
     }
     
     /**
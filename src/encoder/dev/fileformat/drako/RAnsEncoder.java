@@ -1,19 +1,39 @@
 package dev.fileformat.drako;
+import java.util.Arrays;
 /**
  *  Class for performing rANS encoding using a desired number of precision bits.
  *  The max number of precision bits is currently 19. The actual number of
  *  symbols in the input alphabet should be (much) smaller than that, otherwise
  *  the compression rate may suffer.
+ *  Optionally the symbols are spread over several interleaved states that share one byte stream,
+ *  the decoder can then work on the independent states in parallel.
  *
  */
 class RAnsEncoder extends RAnsBitCodec
 {    
+    /**
+     *  Number of bits the state is kept below, the state never reaches lRansBase * IO_BASE
+     *  and the largest precision is 20 bits.
+     *
+     */
+    private static final int STATE_BITS = 30;
     private int precisionBits;
     private int ransPrecision;
     private int lRansBase;
-    private BytePointer buf = new BytePointer();
+    private byte[] data;
     private int bufOffset;
+    /**
+     *  State of the current lane.
+     *
+     */
     private int state;
+    private int numLanes = 1;
+    private int lane;
+    /**
+     *  States of all lanes when more than one lane is used, the entry of the current lane is stale.
+     *
+     */
+    private int[] states;
     public RAnsEncoder(int precisionBits)
     {
         this.precisionBits = precisionBits;
@@ -21,40 +41,100 @@ class RAnsEncoder extends RAnsBitCodec
         this.lRansBase = ransPrecision * 4;
     }
     
-    public void reset(BytePointer ptr)
+    /**
+     *  Fill the encoding entry of a symbol, every symbol takes two consecutive longs of the table:
+     *  the first one packs the reciprocal of the probability(bits 0-31), its shift(bits 32-37) and
+     *  ransPrecision - prob(bits 38-58), the second one packs the renormalization bound(bits 0-31)
+     *  and the cumulative probability(bits 32-63).
+     *  Symbols with zero probability are never written and don't need an entry.
+     *
+     */
+    public void setSymbol(long[] table, int symbol, int prob, int cumProb)
+    {
+        // state / prob == (state * rcp) >>> shift for every state below 2^STATE_BITS, with
+        // rcp = ceil(2^shift / prob) and shift = STATE_BITS + ceil(log2(prob)).
+        int shift = STATE_BITS + (prob <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(prob - 1));
+        long rcp = ((1L << shift) + prob - 1) / prob;
+        long bound = (long)(lRansBase / ransPrecision * IO_BASE) * prob;
+        table[symbol * 2] = rcp | (long)shift << 32 | (long)(ransPrecision - prob) << 38;
+        table[symbol * 2 + 1] = bound | (long)cumProb << 32;
+    }
+    
+    /**
+     *  Start encoding into data, the encoded bytes are written from offset on.
+     *
+     */
+    public void reset(byte[] data, int offset)
     {
-        this.buf.copyFrom(ptr);
-        this.bufOffset = 0;
+        this.reset(data, offset, 1, 0);
+    }
+    
+    /**
+     *  Start encoding into data with |numLanes| interleaved states, numLanes is a power of two.
+     *  The i-th symbol in decoding order is coded by lane i % numLanes, the symbols are written
+     *  in the reverse order so the first written symbol goes to lane |firstLane|.
+     *
+     */
+    public void reset(byte[] data, int offset, int numLanes, int firstLane)
+    {
+        this.data = data;
+        this.bufOffset = offset;
         this.state = lRansBase;
+        this.numLanes = numLanes;
+        this.lane = firstLane;
+        if (numLanes > 1)
+        {
+            this.states = new int[numLanes];
+            Arrays.fill(states, lRansBase);
+        }
+        
     }
     
     // Needs to be called after all symbols are encoded.
-    // 
+    // Returns the end offset of the encoded bytes.
     public int writeEnd()
+    {
+        if (numLanes == 1)
+        {
+            this.writeState(this.state);
+            return bufOffset;
+        }
+        
+        // The decoder reads the states from the end, lane 0 first.
+        states[lane] = this.state;
+        for (int i = numLanes - 1; i >= 0; --i)
+        {
+            this.writeState(states[i]);
+        }
+        
+        return bufOffset;
+    }
+    
+    private void writeState(int value)
     {
         int state;
         //assert(ans.state >= lRansBase);
         //assert(ans.state < lRansBase * ioBase);
-        state = this.state - lRansBase;
+        state = value - lRansBase;
         if ((0xffffffffl & state) < (1 << 6))
         {
-            this.buf.set(this.bufOffset, (byte)((0x00 << 6) + state));
-            return this.bufOffset + 1;
+            data[bufOffset] = (byte)((0x00 << 6) + state);
+            this.bufOffset += 1;
         }
         else if ((0xffffffffl & state) < (1 << 14))
         {
-            Unsafe.putLE16(this.buf.getBaseData(), buf.getOffset() + bufOffset, (short)((0x01 << 14) + state));
-            return this.bufOffset + 2;
+            Unsafe.putLE16(data, bufOffset, (short)((0x01 << 14) + state));
+            this.bufOffset += 2;
         }
         else if ((0xffffffffl & state) < (1 << 22))
         {
-            Unsafe.putLE24(this.buf.getBaseData(), buf.getOffset() + bufOffset, (0x02 << 22) + state);
-            return this.bufOffset + 3;
+            Unsafe.putLE24(data, bufOffset, (0x02 << 22) + state);
+            this.bufOffset += 3;
         }
         else if ((0xffffffffl & state) < (1 << 30))
         {
-            Unsafe.putLE32(this.buf.getBaseData(), buf.getOffset() + bufOffset, (int)((0x03 << 30) + state));
-            return bufOffset + 4;
+            Unsafe.putLE32(data, bufOffset, (int)((0x03 << 30) + state));
+            this.bufOffset += 4;
         }
         else
             throw new RuntimeException("Invalid rANS state.");
@@ -62,21 +142,37 @@ class RAnsEncoder extends RAnsBitCodec
     
     /**
      *  rANS with normalization
-     *  sym->prob takes the place of lS from the paper
+     *  prob takes the place of lS from the paper
      *  ransPrecision is m
+     *  The entry of the symbol is set by {@link #setSymbol(long[], int, int, int)}, the division by prob
+     *  is replaced by a multiplication with its reciprocal:
+     *  state / prob * m + state % prob + cumProb == state + cumProb + (state / prob) * (m - prob)
      *
      */
-    public void write(RAnsBitCodec.RansSym sym)
+    public void write(long[] table, int symbol)
     {
-        int p = sym.prob;
-        while ((0xffffffffl & this.state) >= (lRansBase / ransPrecision * IO_BASE * p))
+        long entry = table[symbol * 2];
+        long bound = table[symbol * 2 + 1];
+        int state = this.state;
+        int pos = this.bufOffset;
+        while (state >= (int)bound)
+        {
+            data[pos++] = (byte)state;
+            state >>>= 8;
+        }
+        
+        int q = (int)((state * (entry & 0xFFFFFFFFL)) >>> ((int)(entry >>> 32) & 63));
+        state += (int)(bound >>> 32) + q * (int)(entry >>> 38);
+        this.bufOffset = pos;
+        if (numLanes > 1)
         {
-            buf.set(bufOffset++, (byte)(this.state % IO_BASE));
-            state /= IO_BASE;
+            // Move to the lane of the previous symbol.
+            states[lane] = state;
+            this.lane = (lane - 1) & (numLanes - 1);
+            state = states[lane];
         }
         
-        // TODO(ostava): The division and multiplication should be optimized.
-        this.state = (int)(state / p * ransPrecision + (state % p) + sym.cumProb);
+        this.state = state;
     }
     
 }
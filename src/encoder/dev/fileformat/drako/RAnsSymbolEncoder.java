@@ -1,6 +1,5 @@
 package dev.fileformat.drako;
 import dev.fileformat.drako.Algorithms;
-import java.util.Comparator;
 /**
  *  A helper class for encoding symbols using the rANS algorithm (see ans.h).
  *  The class can be used to initialize and encode probability table needed by
@@ -12,7 +11,16 @@ class RAnsSymbolEncoder extends RAnsBitCodec
     private int maxSymbols;
     private int ransPrecisionBits;
     private int ransPrecision;
-    private RAnsBitCodec.RansSym[] probabilityTable;
+    /**
+     *  Normalized probability of each symbol.
+     *
+     */
+    private int[] probabilities;
+    /**
+     *  Encoding entries of the symbols, see {@link dev.fileformat.drako.RAnsEncoder#setSymbol(long[], int, int, int)}
+     *
+     */
+    private long[] encodingTable;
     /**
      *  The number of symbols in the input alphabet.
      *
@@ -29,132 +37,95 @@ class RAnsSymbolEncoder extends RAnsBitCodec
      *
      */
     long bufferOffset;
+    /**
+     *  Number of bytes reserved for the size of the encoded data.
+     *
+     */
+    private int sizeLength;
     public RAnsSymbolEncoder(int maxSymbolBitLength, long[] frequencies, EncoderBuffer buffer)
     {
-        
+        this(maxSymbolBitLength, frequencies, frequencies.length, buffer);
+    }
+    
+    /**
+     *  Construct the encoder from the first numFrequencies entries of the frequency table.
+     *
+     */
+    public RAnsSymbolEncoder(int maxSymbolBitLength, long[] frequencies, int numFrequencies, EncoderBuffer buffer)
+    {
+    
         this.maxSymbols = 1 << maxSymbolBitLength;
         this.ransPrecisionBits = RAnsBitCodec.computeRAnsPrecisionFromMaxSymbolBitLength(maxSymbolBitLength);
         this.ransPrecision = 1 << ransPrecisionBits;
         
         this.ans = new RAnsEncoder(ransPrecisionBits);
-        long totalFreq = 0L;
-        int maxValidSymbol = 0;
-        for (int i = 0; (0xffffffffl & i) < frequencies.length; ++i)
+        DracoDictionary.Trainer trainer = buffer.getDictionaryTrainer();
+        if (trainer != null)
         {
-            totalFreq += frequencies[i];
-            if (frequencies[i] > 0L)
-            {
-                maxValidSymbol = i;
-            }
-            
+            trainer.record(ransPrecisionBits, frequencies, numFrequencies);
         }
         
-        int numSymbols = maxValidSymbol + 1;
-        this.numSymbols = numSymbols;
-        this.probabilityTable = (RAnsBitCodec.RansSym[])(MetaClasses.RansSym.newArray(numSymbols));
-        double totalFreqD = totalFreq;
-        double ransPrecisionD = ransPrecision;
-        int totalRansProb = 0;
-        for (int i = 0; i < (0xffffffffl & numSymbols); ++i)
+        DracoDictionary dictionary = buffer.getDictionary();
+        if (dictionary != null)
         {
-            long freq = frequencies[i];
-            double prob = freq / totalFreqD;
-            int ransProb = (int)(prob * ransPrecisionD + 0.5f);
-            if (ransProb == 0 && (freq > 0L))
+            // Files using a dictionary tell before every table whether it's the n-th table of the dictionary(n + 1) or explicit(0).
+            double[] expectedBits = new double[1];
+            DracoDictionary.Table table = dictionary.select(ransPrecisionBits, frequencies, numFrequencies, expectedBits);
+            Encoding.encodeVarint2(table == null ? 0 : table.index + 1, buffer);
+            if (table != null)
             {
-                ransProb = 1;
+                buffer.setNumDictionaryTables(buffer.getNumDictionaryTables() + 1);
+                this.numSymbols = table.numSymbols;
+                this.probabilities = table.probabilities;
+                this.encodingTable = table.getEncodingTable();
+                this.numExpectedBits = (long)Math.ceil(expectedBits[0]);
+                return;
             }
             
-            probabilityTable[i].prob = ransProb;
-            totalRansProb += ransProb;
         }
         
-        // Because of rounding errors, the total precision may not be exactly accurate
-        // and we may need to adjust the entries a little bit.
-        if (totalRansProb != ransPrecision)
+        long totalFreq = 0L;
+        int maxValidSymbol = 0;
+        for (int i = 0; (0xffffffffl & i) < numFrequencies; ++i)
         {
-            int[] sortedProbabilities = new int[numSymbols];
-            for (int i = 0; i < (0xffffffffl & numSymbols); ++i)
-            {
-                sortedProbabilities[i] = i;
-            }
-            
-            Algorithms.sort(sortedProbabilities, new Comparator<Integer>()
-            {
-                public int compare(Integer a, Integer b)
-                {
-                    return Long.compare(probabilityTable[a].prob & 0xFFFFFFFFL, probabilityTable[b].prob & 0xFFFFFFFFL);
-                }
-            });
-            if (totalRansProb < ransPrecision)
-            {
-                // This happens rather infrequently, just add the extra needed precision
-                // to the most frequent symbol.
-                probabilityTable[sortedProbabilities.length - 1].prob += (int)(ransPrecision - totalRansProb);
-            }
-            else
+            totalFreq += frequencies[i];
+            if (frequencies[i] > 0L)
             {
-                int error = totalRansProb - ransPrecision;
-                while (error > 0)
-                {
-                    double actTotalProbD = (double)totalRansProb;
-                    double actRelErrorD = ransPrecisionD / actTotalProbD;
-                    for (int j = (int)(numSymbols - 1); j > 0; --j)
-                    {
-                        int symbolId = sortedProbabilities[j];
-                        if ((0xffffffffl & probabilityTable[symbolId].prob) <= 1)
-                        {
-                            if (j == (numSymbols - 1))
-                                return;
-                            // Most frequent symbol would be empty.
-                            break;
-                        }
-                        
-                        int newProb = (int)Math.floor(actRelErrorD * probabilityTable[symbolId].prob);
-                        int fix = probabilityTable[symbolId].prob - newProb;
-                        if (fix == 0)
-                        {
-                            fix = 1;
-                        }
-                        
-                        if (fix >= probabilityTable[symbolId].prob)
-                        {
-                            fix = probabilityTable[symbolId].prob - 1;
-                        }
-                        
-                        if (fix > error)
-                        {
-                            fix = error;
-                        }
-                        
-                        probabilityTable[symbolId].prob -= fix;
-                        totalRansProb -= fix;
-                        error -= fix;
-                        if (totalRansProb == ransPrecision)
-                            break;
-                    }
-                    
-                }
-                
+                maxValidSymbol = i;
             }
             
         }
         
+        int numSymbols = maxValidSymbol + 1;
+        this.numSymbols = numSymbols;
+        EncoderWorkspace workspace = buffer.getWorkspace();
+        int[] probabilities = workspace != null ? workspace.getSymbolProbabilities(numSymbols) : new int[numSymbols];
+        this.probabilities = probabilities;
+        if (!RAnsSymbolEncoder.computeProbabilities(frequencies, numSymbols, totalFreq, ransPrecision, probabilities, workspace))
+            return;
+        long[] encodingTable = workspace != null ? workspace.getSymbolEncodingTable(numSymbols * 2) : new long[numSymbols * 2];
+        this.encodingTable = encodingTable;
         int totalProb = 0;
         for (int i = 0; i < (0xffffffffl & numSymbols); ++i)
         {
-            probabilityTable[i].cumProb = totalProb;
-            totalProb += probabilityTable[i].prob;
+            int prob = probabilities[i];
+            if (prob > 0)
+            {
+                ans.setSymbol(encodingTable, i, prob, totalProb);
+            }
+            
+            totalProb += prob;
         }
         
         if ((0xffffffffl & totalProb) != ransPrecision)
             throw new RuntimeException("Failed to initialize RAns symbol encoder");
+        double ransPrecisionD = ransPrecision;
         double numBits = 0.0;
         for (int i = 0; i < (0xffffffffl & numSymbols); ++i)
         {
-            if (probabilityTable[i].prob == 0)
+            if (probabilities[i] == 0)
                 continue;
-            double normProb = probabilityTable[i].prob / ransPrecisionD;
+            double normProb = probabilities[i] / ransPrecisionD;
             numBits += frequencies[i] * (Math.log(normProb) / Math.log(2));
         }
         
@@ -163,13 +134,22 @@ class RAnsSymbolEncoder extends RAnsBitCodec
     }
     
     private void encodeTable(EncoderBuffer buffer)
+    {
+        RAnsSymbolEncoder.encodeProbabilities(probabilities, numSymbols, buffer);
+    }
+    
+    /**
+     *  Writes the probability table the way {@link dev.fileformat.drako.RAnsSymbolDecoder#decodeProbabilities(DecoderBuffer)} reads it.
+     *
+     */
+    static void encodeProbabilities(int[] probabilities, int numSymbols, EncoderBuffer buffer)
     {
         Encoding.encodeVarint2(numSymbols, buffer);
         // Use varint encoding for the probabilities (first two bits represent the
         // number of bytes used - 1).
         for (int i = 0; (0xffffffffl & i) < (0xffffffffl & numSymbols); ++i)
         {
-            int prob = probabilityTable[i].prob;
+            int prob = probabilities[i];
             int numExtraBytes = 0;
             if ((0xffffffffl & prob) >= (1 << 6))
             {
@@ -192,7 +172,7 @@ class RAnsSymbolEncoder extends RAnsBitCodec
                 int offset = 0;
                 for (; (0xffffffffl & offset) < ((1 << 6) - 1); ++offset)
                 {
-                    int next_prob = probabilityTable[i + offset + 1].prob;
+                    int next_prob = probabilities[i + offset + 1];
                     if ((0xffffffffl & next_prob) > 0)
                         break;
                 }
@@ -217,40 +197,168 @@ class RAnsSymbolEncoder extends RAnsBitCodec
         
     }
     
+    /**
+     *  Normalizes the first numSymbols frequencies to probabilities summing up to ransPrecision,
+     *  every symbol that occurs gets a non zero probability.
+     *  Returns false when the most frequent symbol would be left without probability.
+     *
+     */
+    static boolean computeProbabilities(long[] frequencies, int numSymbols, long totalFreq, int ransPrecision, int[] probabilities, EncoderWorkspace workspace)
+    {
+        double totalFreqD = totalFreq;
+        double ransPrecisionD = ransPrecision;
+        int totalRansProb = 0;
+        for (int i = 0; i < (0xffffffffl & numSymbols); ++i)
+        {
+            long freq = frequencies[i];
+            double prob = freq / totalFreqD;
+            int ransProb = (int)(prob * ransPrecisionD + 0.5f);
+            if (ransProb == 0 && (freq > 0L))
+            {
+                ransProb = 1;
+            }
+            
+            probabilities[i] = ransProb;
+            totalRansProb += ransProb;
+        }
+        
+        // Because of rounding errors, the total precision may not be exactly accurate
+        // and we may need to adjust the entries a little bit.
+        if (totalRansProb != ransPrecision)
+        {
+            int[] sortedProbabilities = workspace != null ? workspace.getSymbolOrder(numSymbols) : new int[numSymbols];
+            for (int i = 0; i < (0xffffffffl & numSymbols); ++i)
+            {
+                sortedProbabilities[i] = i;
+            }
+            
+            Algorithms.sortByKey(sortedProbabilities, 0, numSymbols, probabilities);
+            if (totalRansProb < ransPrecision)
+            {
+                // This happens rather infrequently, just add the extra needed precision
+                // to the most frequent symbol.
+                probabilities[numSymbols - 1] += (int)(ransPrecision - totalRansProb);
+            }
+            else
+            {
+                int error = totalRansProb - ransPrecision;
+                while (error > 0)
+                {
+                    double actTotalProbD = (double)totalRansProb;
+                    double actRelErrorD = ransPrecisionD / actTotalProbD;
+                    for (int j = (int)(numSymbols - 1); j > 0; --j)
+                    {
+                        int symbolId = sortedProbabilities[j];
+                        if ((0xffffffffl & probabilities[symbolId]) <= 1)
+                        {
+                            if (j == (numSymbols - 1))
+                                return false;
+                            // Most frequent symbol would be empty.
+                            break;
+                        }
+                        
+                        int newProb = (int)Math.floor(actRelErrorD * probabilities[symbolId]);
+                        int fix = probabilities[symbolId] - newProb;
+                        if (fix == 0)
+                        {
+                            fix = 1;
+                        }
+                        
+                        if (fix >= probabilities[symbolId])
+                        {
+                            fix = probabilities[symbolId] - 1;
+                        }
+                        
+                        if (fix > error)
+                        {
+                            fix = error;
+                        }
+                        
+                        probabilities[symbolId] -= fix;
+                        totalRansProb -= fix;
+                        error -= fix;
+                        if (totalRansProb == ransPrecision)
+                            break;
+                    }
+                    
+                }
+                
+            }
+            
+        }
+        
+        return true;
+    }
+    
     public void startEncoding(EncoderBuffer buffer)
     {
-        long requiredBits = 2 * numExpectedBits + 32L;
+        this.startEncoding(buffer, 1, 0);
+    }
+    
+    /**
+     *  Start encoding |numValues| symbols with |numLanes| interleaved rANS states, see {@link dev.fileformat.drako.RAnsEncoder#reset(byte[], int, int, int)}
+     *
+     */
+    public void startEncoding(EncoderBuffer buffer, int numLanes, int numValues)
+    {
+        // Every lane flushes up to 32 bits of state.
+        long requiredBits = 2 * numExpectedBits + 32L * numLanes;
         
         this.bufferOffset = (long)(buffer.getBytes());
         long requiredBytes = (requiredBits + 7L) / 8L;
-        buffer.resize((int)bufferOffset + (int)requiredBytes + 8);
-        byte[] data = buffer.getData();
-        // Offset the encoding by sizeof(bufferOffset). We will use this memory to
-        // store the number of encoded bytes.
-        ans.reset(new BytePointer(data, (int)bufferOffset));
+        // Reserve the room for the number of encoded bytes in front of the encoded data, it can't
+        // exceed requiredBytes so the data only has to be moved when fewer bytes are needed for the size.
+        this.sizeLength = RAnsSymbolEncoder.varintLength(requiredBytes);
+        buffer.resize((int)bufferOffset + sizeLength + (int)requiredBytes + 8);
+        ans.reset(buffer.getData(), (int)bufferOffset + sizeLength, numLanes, (numValues - 1) & (numLanes - 1));
     }
     
     public void encodeSymbol(int symbol)
     {
-        ans.write(probabilityTable[symbol]);
+        ans.write(encodingTable, symbol);
     }
     
     public void endEncoding(EncoderBuffer buffer)
     {
-        int src = (int)bufferOffset;
-        long bytes_written = (long)(ans.writeEnd());
-        EncoderBuffer var_size_buffer = new EncoderBuffer();
-        Encoding.encodeVarint(bytes_written, var_size_buffer);
-        int size_len = var_size_buffer.getBytes();
-        int dst = src + size_len;
-        System.arraycopy(buffer.getData(), src, buffer.getData(), dst, (int)bytes_written);
+        byte[] data = buffer.getData();
+        int src = (int)bufferOffset + sizeLength;
+        int bytesWritten = ans.writeEnd() - src;
+        int sizeLen = RAnsSymbolEncoder.varintLength(bytesWritten);
+        int dst = (int)bufferOffset + sizeLen;
+        if (dst != src)
+        {
+            System.arraycopy(data, src, data, dst, bytesWritten);
+        }
         
         // Store the size of the encoded data.
-        //memcpy(src, var_size_buffer.data(), size_len);
-        System.arraycopy(var_size_buffer.getData(), 0, buffer.getData(), src, size_len);
+        int pos = (int)bufferOffset;
+        int val = bytesWritten;
+        while ((0xffffffffl & val) >= (1 << 7))
+        {
+            data[pos++] = (byte)(val & ((1 << 7) - 1) | (1 << 7));
+            val >>>= 7;
+        }
+        
+        data[pos] = (byte)val;
         
         // Resize the buffer to match the number of encoded bytes.
-        buffer.resize((int)bufferOffset + (int)bytes_written + size_len);
+        buffer.resize(dst + bytesWritten);
+    }
+    
+    /**
+     *  Number of bytes {@link dev.fileformat.drako.Encoding#encodeVarint(long, EncoderBuffer)} uses for val.
+     *
+     */
+    static int varintLength(long val)
+    {
+        int ret = 1;
+        while (val >= (1 << 7))
+        {
+            val >>>= 7;
+            ret++;
+        }
+        
+        return ret;
     }
     
 }
@@ -181,13 +181,24 @@ class SequentialAttributeEncoder
         throws DrakoException
     {
         int entrySize = attribute.getByteStride();
-        byte[] valueData = new byte[entrySize];
-        // Encode all attribute values in their native raw format.
-        for (int i = 0; i < pointIds.length; ++i)
+        byte[] src = attribute.getBuffer().getBuffer();
+        int offset = outBuffer.getBytes();
+        outBuffer.resize(offset + (entrySize * pointIds.length));
+        byte[] dst = outBuffer.getData();
+        // Encode all attribute values in their native raw format, consecutive
+        // entries are copied at once so a linear sequence is a single copy.
+        for (int i = 0; i < pointIds.length; )
         {
             int entryId = attribute.mappedIndex(pointIds[i]);
-            attribute.getValue(entryId, valueData);
-            outBuffer.encode(valueData, entrySize);
+            int run = 1;
+            while (i + run < pointIds.length && (attribute.mappedIndex(pointIds[i + run]) == entryId + run))
+            {
+                run++;
+            }
+            
+            System.arraycopy(src, attribute.getBytePos(entryId), dst, offset, entrySize * run);
+            offset += entrySize * run;
+            i += run;
         }
         
     }
@@ -47,6 +47,37 @@ class SequentialAttributeEncodersController extends AttributesEncoder
         return true;
     }
     
+    @Override
+    public int numParentAttributes(int pointAttributeId)
+    {
+        SequentialAttributeEncoder enc = this.findSequentialEncoder(pointAttributeId);
+        if (enc == null)
+            return 0;
+        return enc.getNumParentAttributes();
+    }
+    
+    @Override
+    public int getParentAttributeId(int pointAttributeId, int parentI)
+    {
+        SequentialAttributeEncoder enc = this.findSequentialEncoder(pointAttributeId);
+        if (enc == null)
+            return -1;
+        return enc.getParentAttributeId(parentI);
+    }
+    
+    private SequentialAttributeEncoder findSequentialEncoder(int pointAttributeId)
+    {
+        if (sequentialEncoders == null)
+            return null;
+        for (int i = 0; i < sequentialEncoders.length; ++i)
+        {
+            if (sequentialEncoders[i].getAttributeId() == pointAttributeId)
+                return sequentialEncoders[i];
+        }
+        
+        return null;
+    }
+    
     /**
      *  Creates all sequential encoders (one for each attribute associated with the
      *  encoder).
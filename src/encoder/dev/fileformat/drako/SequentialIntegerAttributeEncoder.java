@@ -122,7 +122,8 @@ class SequentialIntegerAttributeEncoder extends SequentialAttributeEncoder
         int num_components = this.portableAttribute.getComponentsCount();
         int num_values = num_components * this.portableAttribute.getNumUniqueEntries();
         IntSpan portable_attribute_data = this.getPortableAttributeData();
-        IntSpan encoded_data = IntSpan.wrap(new int[num_values]);
+        EncoderWorkspace workspace = outBuffer.getWorkspace();
+        IntSpan encoded_data = workspace != null ? IntSpan.wrap(workspace.getCorrections(num_values), 0, num_values) : IntSpan.wrap(new int[num_values]);
         
         // All integer values are initialized. Process them using the prediction
         // scheme if we have one.
@@ -146,6 +147,8 @@ class SequentialIntegerAttributeEncoder extends SequentialAttributeEncoder
             if (this.getEncoder() != null)
             {
                 symbol_encoding_options.setCompressionLevel(this.getEncoder().getOptions().getCompressionLevel());
+                symbol_encoding_options.setRAnsLanes(this.getEncoder().getOptions().getRAnsLanes());
+                symbol_encoding_options.setSampledSchemeSelection(this.getEncoder().getOptions().getSampledSchemeSelection());
                 //SetSymbolEncodingCompressionLevel(&symbol_encoding_options, 10 - encoder().options().GetSpeed());
             }
             
@@ -0,0 +1,254 @@
+package dev.fileformat.drako;
+/**
+ *  Statistics of a symbol stream used to select its entropy coding scheme, gathered in a single pass:
+ *  the largest value, the bit length of every numComponents sized tuple with the histogram of the bit lengths,
+ *  and optionally the histogram of the values.
+ *
+ */
+final class SymbolStatistics
+{    
+    /**
+     *  Streams with at least this many values are sampled when {@link dev.fileformat.drako.DracoEncodeOptions#getSampledSchemeSelection()} is set.
+     *
+     */
+    static final int SAMPLING_THRESHOLD = 1 << 20;
+    /**
+     *  Sampled streams are read in blocks of this many tuples, one block out of every {@link #SAMPLE_STRIDE} blocks.
+     *
+     */
+    private static final int SAMPLE_BLOCK = 1024;
+    private static final int SAMPLE_STRIDE = 16;
+    private static final int INITIAL_FREQUENCIES = 256;
+    private static final int BLOCK_SIZE = 4096;
+    /**
+     *  Largest value of the stream.
+     *
+     */
+    int maxValue;
+    /**
+     *  Bit length of the largest value of every tuple, null unless requested.
+     *
+     */
+    int[] bitLengths;
+    /**
+     *  Number of tuples of every bit length.
+     *
+     */
+    final long[] bitLengthFrequencies = new long[Encoding.K_MAX_TAG_SYMBOL_BIT_LENGTH];
+    /**
+     *  Sum of the tuple bit lengths.
+     *
+     */
+    long totalBitLength;
+    /**
+     *  Number of tuples that were counted.
+     *
+     */
+    int numTuples;
+    /**
+     *  Value histogram, the first maxValue + 1 entries are valid, null unless requested.
+     *
+     */
+    long[] frequencies;
+    /**
+     *  Number of values counted in {@link #frequencies}.
+     *
+     */
+    int numValues;
+    /**
+     *  Ratio of the stream size to the counted size, 1 unless the statistics come from a sample.
+     *
+     */
+    double scale = 1.0;
+    private final int limit;
+    /**
+     *  Drop the value histogram once a value is too large for the raw scheme, only the tagged scheme can code the stream then.
+     *
+     */
+    private final boolean rawValuesOnly;
+    private int frequenciesSize;
+    private EncoderWorkspace workspace;
+    /**
+     *  Gathers the statistics of the whole stream.
+     *
+     * @param numValues Number of leading values included in the value histogram
+     * @param keepBitLengths Keep the bit length of every tuple
+     * @param countValues Build the value histogram
+     * @param rawValuesOnly Leave {@link #frequencies} null instead when the largest value is too large for the raw scheme
+     */
+    static SymbolStatistics collect(IntSpan symbols, int numValues, int numComponents, boolean keepBitLengths, boolean countValues, boolean rawValuesOnly, EncoderBuffer buffer)
+    {
+        SymbolStatistics ret = new SymbolStatistics(numValues, countValues, rawValuesOnly, buffer);
+        if (keepBitLengths)
+        {
+            ret.bitLengths = new int[symbols.size() / numComponents];
+        }
+        
+        ret.accumulate(symbols, 0, symbols.size(), numComponents);
+        if (ret.frequencies != null && (ret.maxValue >= ret.frequenciesSize))
+        {
+            // Values past numValues aren't counted but the table still has to cover them.
+            ret.growFrequencies(ret.maxValue + 1);
+        }
+        
+        return ret;
+    }
+    
+    /**
+     *  Gathers the statistics of evenly spread blocks of the stream, both histograms are built
+     *  unless a sampled value is too large for the raw scheme.
+     *  {@link #maxValue} is only the largest sampled value.
+     *
+     */
+    static SymbolStatistics sample(IntSpan symbols, int numValues, int numComponents, EncoderBuffer buffer)
+    {
+        SymbolStatistics ret = new SymbolStatistics(numValues, true, true, buffer);
+        int size = symbols.size();
+        int blockSize = SAMPLE_BLOCK * numComponents;
+        for (int start = 0; start < size; start += blockSize * SAMPLE_STRIDE)
+        {
+            ret.accumulate(symbols, start, Math.min(size, start + blockSize), numComponents);
+        }
+        
+        ret.scale = ret.numTuples == 0 ? 1.0 : (double)(size / numComponents) / ret.numTuples;
+        return ret;
+    }
+    
+    private SymbolStatistics(int numValues, boolean countValues, boolean rawValuesOnly, EncoderBuffer buffer)
+    {
+        if (countValues)
+        {
+            this.workspace = buffer.getWorkspace();
+            this.frequenciesSize = INITIAL_FREQUENCIES;
+            this.frequencies = workspace != null ? workspace.getFrequencies(INITIAL_FREQUENCIES) : new long[INITIAL_FREQUENCIES];
+        }
+        
+        this.limit = numValues;
+        this.rawValuesOnly = rawValuesOnly;
+    }
+    
+    private void accumulate(IntSpan symbols, int start, int end, int numComponents)
+    {
+        int maxValue = this.maxValue;
+        long totalBitLength = this.totalBitLength;
+        int[] bitLengths = this.bitLengths;
+        long[] bitLengthFrequencies = this.bitLengthFrequencies;
+        // The stream is processed in cache sized blocks, the block's maximum sizes the value histogram
+        // before the values are counted so the counting loop has no growth checks.
+        int blockSize = BLOCK_SIZE - (BLOCK_SIZE % numComponents);
+        for (int blockStart = start; blockStart < end; blockStart += blockSize)
+        {
+            int blockEnd = Math.min(end, blockStart + blockSize);
+            int blockMax = 0;
+            for (int i = blockStart; i < blockEnd; i += numComponents)
+            {
+                int maxComponentValue = symbols.get(i);
+                for (int j = 1; j < numComponents; ++j)
+                {
+                    int value = symbols.get(i + j);
+                    if (maxComponentValue < value)
+                    {
+                        maxComponentValue = value;
+                    }
+                    
+                }
+                
+                if (maxComponentValue > blockMax)
+                {
+                    blockMax = maxComponentValue;
+                }
+                
+                int bitLength = maxComponentValue > 0 ? DracoUtils.mostSignificantBit(maxComponentValue) + 1 : 1;
+                ++bitLengthFrequencies[bitLength];
+                totalBitLength += bitLength;
+                if (bitLengths != null)
+                {
+                    bitLengths[i / numComponents] = bitLength;
+                }
+                
+            }
+            
+            if (blockMax > maxValue)
+            {
+                maxValue = blockMax;
+            }
+            
+            this.dropLargeValues(blockMax);
+            int countEnd = Math.min(blockEnd, limit);
+            if (frequencies != null && (blockStart < countEnd))
+            {
+                long[] frequencies = blockMax < frequenciesSize ? this.frequencies : this.growFrequencies(blockMax + 1);
+                for (int i = blockStart; i < countEnd; ++i)
+                {
+                    ++frequencies[symbols.get(i)];
+                }
+                
+                this.numValues += countEnd - blockStart;
+            }
+            
+        }
+        
+        this.maxValue = maxValue;
+        this.totalBitLength = totalBitLength;
+        this.numTuples += (end - start + numComponents - 1) / numComponents;
+    }
+    
+    /**
+     *  Frees the value histogram if |value| can't be coded by the raw scheme and only raw values are counted.
+     *
+     */
+    private void dropLargeValues(int value)
+    {
+        if (frequencies == null || !rawValuesOnly || (value < 1 << Encoding.K_MAX_RAW_ENCODING_BIT_LENGTH))
+            return;
+        this.frequencies = null;
+        this.frequenciesSize = 0;
+        this.numValues = 0;
+    }
+    
+    private long[] growFrequencies(int size)
+    {
+        int newSize = Math.max(size, frequenciesSize * 2);
+        if (workspace != null)
+        {
+            this.frequencies = workspace.growFrequencies(frequenciesSize, newSize);
+        }
+        else
+        {
+            long[] ret = new long[newSize];
+            System.arraycopy(frequencies, 0, ret, 0, frequenciesSize);
+            this.frequencies = ret;
+        }
+        
+        this.frequenciesSize = newSize;
+        return frequencies;
+    }
+    
+    /**
+     *  Shannon entropy in bits of the values counted by the histogram, the unique values are stored in outNumUniqueSymbols.
+     *
+     */
+    static long computeShannonEntropy(long[] frequencies, int numBins, long numSymbols, int[] outNumUniqueSymbols)
+    {
+        int numUniqueSymbols = 0;
+        double totalBits = 0.0;
+        double numSymbolsD = numSymbols;
+        double log2 = Math.log(2);
+        for (int i = 0; i < numBins; ++i)
+        {
+            long frequency = frequencies[i];
+            if (frequency > 0)
+            {
+                ++numUniqueSymbols;
+                // Compute Shannon entropy for the symbol.
+                totalBits += frequency * Math.log(1.0 * frequency / numSymbolsD) / log2;
+            }
+            
+        }
+        
+        outNumUniqueSymbols[0] = numUniqueSymbols;
+        // Entropy is always negative.
+        return (long)-totalBits;
+    }
+    
+}
@@ -2,12 +2,18 @@ package dev.fileformat.drako;
 abstract class TraverserBase<TCornerTable extends ICornerTable> implements ICornerTableTraverser<TCornerTable>
 {    
     protected TCornerTable corner_table_;
+    /**
+     *  Connectivity of |corner_table_| used by the traversal loops.
+     *
+     */
+    protected FlatCornerTable corners;
     protected boolean[] is_face_visited_;
     protected boolean[] is_vertex_visited_;
     protected MeshAttributeIndicesEncodingObserver<TCornerTable> traversal_observer_;
     public void init(TCornerTable corner_table, MeshAttributeIndicesEncodingObserver<TCornerTable> traversal_observer)
     {
         this.corner_table_ = corner_table;
+        this.corners = corner_table.toFlatTable();
         this.is_face_visited_ = new boolean[corner_table_.getNumFaces()];
         this.is_vertex_visited_ = new boolean[corner_table_.getNumVertices()];
         this.traversal_observer_ = traversal_observer;
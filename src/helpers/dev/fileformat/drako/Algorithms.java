@@ -214,6 +214,43 @@ final class Algorithms {
             quickSort(array, i, higherIndex, comparator);
     }
 
+    /**
+     * Sort the indices in array by keys[index] without boxing.
+     * Uses the same partitioning as {@link #sort(int[], Comparator)} so equal keys end up in the same order.
+     */
+    public static void sortByKey(int[] array, int start, int len, int[] keys)
+    {
+        if(len > 0) {
+            rangeCheck(array, array.length, start, len);
+            quickSortByKey(array, start, start + len - 1, keys);
+        }
+    }
+    private static void quickSortByKey(int[] array, int lowerIndex, int higherIndex, int[] keys) {
+
+        int i = lowerIndex;
+        int j = higherIndex;
+        int pivot = keys[array[lowerIndex + (higherIndex - lowerIndex) / 2]];
+        while (i <= j) {
+            while (keys[array[i]] < pivot) {
+                i++;
+            }
+            while (keys[array[j]] > pivot) {
+                j--;
+            }
+            if (i <= j) {
+                int t = array[i];
+                array[i] = array[j];
+                array[j] = t;
+                i++;
+                j--;
+            }
+        }
+        if (lowerIndex < j)
+            quickSortByKey(array, lowerIndex, j, keys);
+        if (i < higherIndex)
+            quickSortByKey(array, i, higherIndex, keys);
+    }
+
     public static void reverse(Object[] array, int start, int len) {
         rangeCheck(array, array.length, start, len);
         int end = start + len / 2;
@@ -24,6 +24,13 @@ abstract class IntSpan extends Span {
         {
             rangeCheck(idx);
             array[idx + offset] = value;
+        }
+
+        @Override
+        public void put(int idx, int[] values, int valuesOffset, int count)
+        {
+            rangeCheck(idx + count);
+            System.arraycopy(values, valuesOffset, array, idx + offset, count);
         }
 
         @Override
@@ -122,6 +129,16 @@ abstract class IntSpan extends Span {
     public abstract int get(int idx);
     public abstract void put(int idx, int value);
 
+    /**
+     * Copy |count| values starting at |valuesOffset| to this span starting at |idx|.
+     */
+    public void put(int idx, int[] values, int valuesOffset, int count)
+    {
+        for(int i = 0; i < count; i++) {
+            put(idx + i, values[valuesOffset + i]);
+        }
+    }
+
     public abstract IntSpan slice(int offset, int size);
     public IntSpan slice(int offset)
     {
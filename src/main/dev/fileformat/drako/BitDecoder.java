@@ -1,14 +1,32 @@
 package dev.fileformat.drako;
+/**
+ *  Reads a sequence of bits, least significant bit of each byte first.
+ *  The bits are served from a 64 bits cache that is refilled a little-endian word at a time,
+ *  bits past the end of the data are read as 0 and aren't counted by {@link #getBitsDecoded()}.
+ *
+ */
 final class BitDecoder
 {    
     private BytePointer data = new BytePointer();
     private int dataEnd;
     private int bitOffset;
+    /**
+     *  The bits following bitOffset, the lowest bit is the next one.
+     *
+     */
+    private long cache;
+    /**
+     *  Number of valid bits in the cache.
+     *
+     */
+    private int cacheBits;
     public void copyFrom(BitDecoder bitDecoder)
     {
         this.data.copyFrom(bitDecoder.data);
         this.dataEnd = bitDecoder.dataEnd;
         this.bitOffset = bitDecoder.bitOffset;
+        this.cache = bitDecoder.cache;
+        this.cacheBits = bitDecoder.cacheBits;
     }
     
     public void load(BytePointer data, int count)
@@ -16,31 +34,33 @@ final class BitDecoder
         this.data.copyFrom(data);
         this.dataEnd = count;
         this.bitOffset = 0;
+        this.cache = 0L;
+        this.cacheBits = 0;
     }
     
     public int getBitsDecoded()
     {
-        return bitOffset;
+        return (int)Math.min(bitOffset, (long)dataEnd << 3);
     }
     
     public void consume(int k)
     {
         bitOffset += k;
+        this.cacheBits = 0;
     }
     
     public int getBit()
     {
-        int off = bitOffset;
-        int byteOffset = off >> 3;
-        int bitShift = (int)(off & 0x7);
-        if (byteOffset < dataEnd)
+        if (cacheBits == 0)
         {
-            int bit = (0xff & data.get(byteOffset)) >>> bitShift & 1;
-            bitOffset++;
-            return bit;
+            this.refill();
         }
         
-        return 0;
+        int bit = (int)cache & 1;
+        this.cache = cache >>> 1;
+        cacheBits--;
+        bitOffset++;
+        return bit;
     }
     
     public int peekBit(int offset)
@@ -57,16 +77,49 @@ final class BitDecoder
         return 0;
     }
     
+    /**
+     *  Reads |nbits| bits, nbits must be in [0, 32].
+     *
+     */
     public int getBits(int nbits)
     {
-        int ret = 0;
-        for (int bit = 0; bit < nbits; ++bit)
+        if (cacheBits < nbits)
         {
-            ret |= (int)(this.getBit() << bit);
+            this.refill();
         }
         
+        int ret = (int)(cache & ((1L << nbits) - 1L));
+        this.cache = cache >>> nbits;
+        cacheBits -= nbits;
+        bitOffset += nbits;
         return ret;
     }
     
+    /**
+     *  Loads the word at the byte of bitOffset, there are at least 57 valid bits afterwards.
+     *
+     */
+    private void refill()
+    {
+        int byteOffset = bitOffset >>> 3;
+        long word;
+        if (byteOffset + 8 <= dataEnd)
+        {
+            word = data.toUInt64LE(byteOffset);
+        }
+        else
+        {
+            word = 0L;
+            for (int i = 0; byteOffset + i < dataEnd; i++)
+            {
+                word |= (long)(0xff & data.get(byteOffset + i)) << (i << 3);
+            }
+            
+        }
+        
+        int shift = bitOffset & 7;
+        this.cache = word >>> shift;
+        this.cacheBits = 64 - shift;
+    }
     
 }
@@ -1,9 +1,7 @@
 package dev.fileformat.drako;
-import dev.fileformat.drako.HashBuilder;
 import dev.fileformat.drako.Int2D;
-import dev.fileformat.drako.Struct;
-import java.io.Serializable;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 /**
  *  CornerTable is used to represent connectivity of triangular meshes.
  *  For every corner of all faces, the corner table stores the index of the
@@ -33,91 +31,59 @@ import java.util.Arrays;
  */
 class CornerTable extends ICornerTable
 {    
-    static final class VertexEdgePair implements Struct<VertexEdgePair>, Serializable
-    {
-        public int sinkVert;
-        public int edgeCorner;
-        public VertexEdgePair(int sinkVert, int edgeCorner)
-        {
-            this.sinkVert = sinkVert;
-            this.edgeCorner = edgeCorner;
-        }
-        
-        public VertexEdgePair()
-        {
-        }
-        
-        private VertexEdgePair(VertexEdgePair other)
-        {
-            this.sinkVert = other.sinkVert;
-            this.edgeCorner = other.edgeCorner;
-        }
-        
-        @Override
-        public VertexEdgePair clone()
-        {
-            return new VertexEdgePair(this);
-        }
-        
-        @Override
-        public void copyFrom(VertexEdgePair src)
-        {
-            if (src == null)
-                return;
-            this.sinkVert = src.sinkVert;
-            this.edgeCorner = src.edgeCorner;
-        }
-        
-        static final long serialVersionUID = -478043180L;
-        @Override
-        public int hashCode()
-        {
-            HashBuilder builder = new HashBuilder();
-            builder.hash(this.sinkVert);
-            builder.hash(this.edgeCorner);
-            return builder.hashCode();
-        }
-        
-        @Override
-        public boolean equals(Object obj)
-        {
-            if (!(obj instanceof VertexEdgePair))
-                return false;
-            VertexEdgePair rhs = (VertexEdgePair)obj;
-            if (this.sinkVert != rhs.sinkVert)
-                return false;
-            if (this.edgeCorner != rhs.edgeCorner)
-                return false;
-            return true;
-        }
-        
-    }
-    
     public static final int K_INVALID_FACE_INDEX = -1;
     public static final int K_INVALID_CORNER_INDEX = -1;
     public static final int K_INVALID_VERTEX_INDEX = -1;
     private int[] oppositeCorners;
     private IntList vertexCorners;
     private int[] cornerToVertexMap;
+    private int numCorners;
     private int numOriginalVertices;
     private int numDegeneratedFaces;
     private int numIsolatedVertices;
     private IntList nonManifoldVertexParents;
     private ValenceCache valenceCache;
+    private CornerTableBuilder builder;
     public CornerTable()
     {
         this.$initFields$();
         this.valenceCache = new ValenceCache(this);
     }
     
+    /**
+     *  Valences of the vertices, cached on first use until the table is initialized again.
+     *
+     */
+    public ValenceCache getValenceCache()
+    {
+        return valenceCache;
+    }
+    
     public void initialize(Int2D faces)
     {
-        final int[] ref0 = new int[1];
-        
+        this.initialize(faces, null);
+    }
+    
+    /**
+     *  Initializes the table from |faces|, the opposite corners of large meshes are computed on |pool|.
+     *
+     * @param pool Pool used to pair the edges of large meshes, null to build the table on the calling thread
+     */
+    public void initialize(Int2D faces, ForkJoinPool pool)
+    {
         valenceCache.clearValenceCache();
         valenceCache.clearValenceCacheInaccurate();
         int numFaces = faces.getLength(0);
-        this.cornerToVertexMap = new int[numFaces * 3];
+        this.numCorners = numFaces * 3;
+        // Reuse the storage of a previous initialization when it's large enough.
+        if (cornerToVertexMap == null || (cornerToVertexMap.length < numCorners))
+        {
+            this.cornerToVertexMap = new int[numCorners];
+        }
+        
+        vertexCorners.clear();
+        nonManifoldVertexParents.clear();
+        this.numDegeneratedFaces = 0;
         for (int fi = 0; fi < numFaces; ++fi)
         {
             for (int i = 0; i < 3; ++i)
@@ -128,10 +94,16 @@ class CornerTable extends ICornerTable
             
         }
         
-        int numVertices = -1;
-        this.computeOppositeCorners(ref0);
-        numVertices = ref0[0];
-        this.computeVertexCorners(numVertices);
+        int numVertices = this.computeOppositeCorners(pool);
+        if (CornerTableBuilder.isParallel(pool, numCorners))
+        {
+            this.computeVertexCorners(numVertices, pool);
+        }
+        else
+        {
+            this.computeVertexCorners(numVertices);
+        }
+        
     }
     
     public int[] allCorners(int face)
@@ -232,12 +204,12 @@ class CornerTable extends ICornerTable
     
     public int getNumCorners()
     {
-        return cornerToVertexMap.length;
+        return numCorners;
     }
     
     public int getNumFaces()
     {
-        return cornerToVertexMap.length / 3;
+        return numCorners / 3;
     }
     
     /**
@@ -251,127 +223,86 @@ class CornerTable extends ICornerTable
         return this.next(this.opposite(this.next(corner)));
     }
     
-    private void computeOppositeCorners(int[] numVertices)
+    /**
+     *  The view shares the opposite corners and the corner to vertex map of this table.
+     *
+     */
+    @Override
+    public FlatCornerTable toFlatTable()
     {
-        this.oppositeCorners = new int[this.getNumCorners()];
-        for (int i = 0; i < oppositeCorners.length; i++)
+        return new FlatCornerTable(this, oppositeCorners, cornerToVertexMap);
+    }
+    
+    /**
+     *  Computes the opposite corners and returns the number of vertices referenced by the faces.
+     *
+     */
+    private int computeOppositeCorners(ForkJoinPool pool)
+    {
+        if (oppositeCorners == null || (oppositeCorners.length < this.getNumCorners()))
         {
-            oppositeCorners[i] = K_INVALID_CORNER_INDEX;
+            this.oppositeCorners = new int[this.getNumCorners()];
         }
         
-        IntList numCornersOnVertices = new IntList();
-        numCornersOnVertices.setCapacity(this.getNumCorners());
+        int numVertices = 0;
         for (int c = 0; c < this.getNumCorners(); ++c)
         {
-            int v1 = this.vertex(c);
-            if (v1 >= numCornersOnVertices.getCount())
-            {
-                numCornersOnVertices.resize(v1 + 1, 0);
-            }
-            
-            // For each corner there is always exactly one outgoing half-edge attached
-            // to its vertex.
-            numCornersOnVertices.set(v1, numCornersOnVertices.get(v1) + 1);
-        }
-        
-        VertexEdgePair[] vertexEdges = (VertexEdgePair[])(MetaClasses.VertexEdgePair.newArray(this.getNumCorners()));
-        for (int i = 0; i < vertexEdges.length; i++)
-        {
-            vertexEdges[i] = new VertexEdgePair(-1, -1);
+            numVertices = Math.max(numVertices, cornerToVertexMap[c] + 1);
         }
         
-        int[] vertexOffset = new int[numCornersOnVertices.getCount()];
-        int offset = 0;
-        for (int i = 0; i < numCornersOnVertices.getCount(); ++i)
+        if (builder == null)
         {
-            vertexOffset[i] = offset;
-            offset += numCornersOnVertices.get(i);
+            this.builder = new CornerTableBuilder();
         }
         
-        
-        // Now go over the all half-edges (using their opposite corners) and either
-        // insert them to the |vertexEdge| array or connect them with existing
-        // half-edges.
+        this.numDegeneratedFaces = builder.computeOppositeCorners(cornerToVertexMap, this.getNumCorners(), numVertices, oppositeCorners, pool);
+        return numVertices;
+    }
+    
+    /**
+     *  Parallel form of {@link #computeVertexCorners(int)}, the corner rings are found on |pool| and the
+     *  non-manifold vertices are then split in corner order, like the sequential loop does.
+     *
+     */
+    private void computeVertexCorners(int numVertices, ForkJoinPool pool)
+    {
+        this.numOriginalVertices = numVertices;
+        vertexCorners.clear();
+        vertexCorners.resize(numVertices, K_INVALID_CORNER_INDEX);
+        boolean[] newVertexStarts = new boolean[this.getNumCorners()];
+        this.numIsolatedVertices = builder.computeVertexCorners(cornerToVertexMap, oppositeCorners, this.getNumCorners(), numVertices, vertexCorners.data, newVertexStarts, pool);
         for (int c = 0; c < this.getNumCorners(); ++c)
         {
-            int sourceV = this.vertex(this.next(c));
-            int sinkV = this.vertex(this.previous(c));
-            int faceIndex = this.face(c);
-            if (c == this.firstCorner(faceIndex))
-            {
-                int v0 = this.vertex(c);
-                if (v0 == sourceV || (v0 == sinkV) || (sourceV == sinkV))
-                {
-                    ++numDegeneratedFaces;
-                    c += 2;
-                    // Ignore the next two corners of the same face.
-                    continue;
-                }
-                
-            }
-            
-            int oppositeC = -1;
-            int numCornersOnVert = numCornersOnVertices.get(sinkV);
-            // Where to look for the first half-edge on the sink vertex.
-            offset = vertexOffset[sinkV];
-            for (int i = 0; i < numCornersOnVert; ++i, ++offset)
+            if (!newVertexStarts[c])
+                continue;
+            // Another ring of corners on a visited vertex, must be a non-manifold vertex.
+            nonManifoldVertexParents.add(cornerToVertexMap[c]);
+            int v = this.addNewVertex();
+            int actC = c;
+            while (actC != K_INVALID_CORNER_INDEX)
             {
-                int otherV = vertexEdges[offset].sinkVert;
-                if (otherV < 0)
+                // Vertex will eventually point to the left most corner.
+                vertexCorners.set(v, actC);
+                cornerToVertexMap[actC] = v;
+                actC = this.swingLeft(actC);
+                if (actC == c)
                     break;
-                // No matching half-edge found on the sink vertex.
-                if (otherV == sourceV)
-                {
-                    // A matching half-edge was found on the sink vertex. Mark the
-                    // half-edge's opposite corner.
-                    oppositeC = vertexEdges[offset].edgeCorner;
-                    // Remove the half-edge from the sink vertex. We remap all subsequent
-                    // half-edges one slot down.
-                    // TODO(ostava): This can be optimized a little bit, by remaping only
-                    // the half-edge on the last valid slot into the deleted half-edge's
-                    // slot.
-                    for (int j = i + 1; j < numCornersOnVert; ++j, ++offset)
-                    {
-                        vertexEdges[offset] = Struct.byVal(vertexEdges[offset + 1]);
-                        if (vertexEdges[offset].sinkVert < 0)
-                            break;
-                        // Unused half-edge reached.
-                    }
-                    
-                    // Mark the last entry as unused.
-                    vertexEdges[offset].sinkVert = -1;
-                    break;
-                }
-                
+                // Full circle reached.
             }
             
-            if (oppositeC < 0)
+            if (actC == K_INVALID_CORNER_INDEX)
             {
-                int numCornersOnSourceVert = numCornersOnVertices.get(sourceV);
-                offset = vertexOffset[sourceV];
-                for (int i = 0; i < numCornersOnSourceVert; ++i, ++offset)
+                actC = this.swingRight(c);
+                while (actC != K_INVALID_CORNER_INDEX)
                 {
-                    // Find the first unused half-edge slot on the source vertex.
-                    if (vertexEdges[offset].sinkVert < 0)
-                    {
-                        vertexEdges[offset].sinkVert = sinkV;
-                        vertexEdges[offset].edgeCorner = c;
-                        break;
-                    }
-                    
+                    cornerToVertexMap[actC] = v;
+                    actC = this.swingRight(actC);
                 }
                 
             }
-            else
-            {
-                // Opposite corner found.
-                oppositeCorners[c] = oppositeC;
-                oppositeCorners[oppositeC] = c;
-            }
             
         }
         
-        numVertices[0] = numCornersOnVertices.getCount();
     }
     
     void computeVertexCorners(int numVertices)
@@ -635,6 +566,7 @@ class CornerTable extends ICornerTable
     }
     
     // Resets the corner table to the given number of invalid faces.
+    // The existing arrays are reused when they are large enough, so a table can be recycled between decodes.
     // 
     public void reset(int numFaces, int numVertices)
     {
@@ -642,14 +574,28 @@ class CornerTable extends ICornerTable
             throw new IllegalArgumentException();
         if (numFaces > (Integer.MAX_VALUE / 3))
             throw new IllegalArgumentException();
-        this.cornerToVertexMap = new int[numFaces * 3];
-        this.oppositeCorners = new int[numFaces * 3];
-        for (int i = 0; i < cornerToVertexMap.length; i++)
+        this.numCorners = numFaces * 3;
+        if (cornerToVertexMap == null || (cornerToVertexMap.length < numCorners))
+        {
+            this.cornerToVertexMap = new int[numCorners];
+        }
+        
+        if (oppositeCorners == null || (oppositeCorners.length < numCorners))
+        {
+            this.oppositeCorners = new int[numCorners];
+        }
+        
+        for (int i = 0; i < numCorners; i++)
         {
             cornerToVertexMap[i] = -1;
             oppositeCorners[i] = -1;
         }
         
+        vertexCorners.clear();
+        nonManifoldVertexParents.clear();
+        this.numOriginalVertices = 0;
+        this.numDegeneratedFaces = 0;
+        this.numIsolatedVertices = 0;
         vertexCorners.setCapacity(numVertices);
         valenceCache.clearValenceCache();
         valenceCache.clearValenceCacheInaccurate();
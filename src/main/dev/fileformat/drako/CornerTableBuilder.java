@@ -0,0 +1,757 @@
+package dev.fileformat.drako;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+/**
+ *  Builds the connectivity of {@link dev.fileformat.drako.CornerTable} and {@link dev.fileformat.drako.MeshAttributeCornerTable}
+ *  on flat arrays, large meshes are split into corner and vertex ranges that are processed on a {@link java.util.concurrent.ForkJoinPool}.
+ *  The half-edges are sorted by their vertex pair with stable counting sorts, the half-edges of each
+ *  edge are then paired in corner order, so the construction is linear in the number of corners.
+ *  A half-edge is paired with the oldest unpaired half-edge going the other way, which is what the
+ *  per-vertex half-edge lists of the reference implementation do, non-manifold edges are paired the same way.
+ *  Every parallel step produces the same table as the sequential build, the vertices split from
+ *  non-manifold vertices are numbered in corner order afterwards.
+ *  The scratch arrays are kept between builds.
+ *
+ */
+final class CornerTableBuilder
+{    
+    /**
+     *  Minimum number of corners for the parallel build.
+     *
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 18;
+    /**
+     *  Digit size of the radix sort used when the vertex range doesn't fit a single counting sort.
+     *
+     */
+    private static final int RADIX_BITS = 16;
+    /**
+     *  Largest range of higher vertices that is sorted with a single counting sort.
+     *
+     */
+    private static final int MAX_HISTOGRAM = 1 << 22;
+    private static final int PHASE_COUNT = 0;
+    private static final int PHASE_SCATTER = 1;
+    private static final int PHASE_PAIR = 2;
+    private static final int PHASE_RINGS = 3;
+    private static final int PHASE_VALENCES = 4;
+    private static final int PHASE_SEAMS = 5;
+    private static final int PHASE_SEAM_CORNERS = 6;
+    private static final int PHASE_COUNT_ATTRIBUTE_VERTICES = 7;
+    private static final int PHASE_ATTRIBUTE_VERTICES = 8;
+    private int[] cornerToVertex;
+    private int[] opposite;
+    private int numCorners;
+    private int numVertices;
+    /**
+     *  Corners of the non-degenerated faces, grouped by vertex range and sorted by vertex pair.
+     *
+     */
+    private int[] edges;
+    private int[] scratch;
+    private int numChunks;
+    private int numBlocks;
+    private int blockSize;
+    /**
+     *  Corners are grouped by their vertex instead of the lower vertex of their edge.
+     *
+     */
+    private boolean byVertex;
+    /**
+     *  Number of corners of every chunk in every vertex range, then their offsets in |edges|.
+     *
+     */
+    private int[] blockOffsets;
+    private int[] blockStart;
+    /**
+     *  Per chunk or per vertex range result of the last phase.
+     *
+     */
+    private int[] results;
+    private int[] vertexCorners;
+    private boolean[] visitedCorners;
+    private boolean[] newVertexStarts;
+    private CornerTable table;
+    private int[] valences;
+    private MeshAttributeCornerTable attributeTable;
+    private DracoMesh mesh;
+    private PointAttribute attribute;
+    private IntList seamCorners;
+    /**
+     *  Returns true if a table of |numCorners| corners is built on |pool|.
+     *
+     */
+    public static boolean isParallel(ForkJoinPool pool, int numCorners)
+    {
+        return pool != null && (pool.getParallelism() > 1) && (numCorners >= PARALLEL_THRESHOLD);
+    }
+    
+    /**
+     *  Fills |opposite| for the faces stored in |cornerToVertex| and returns the number of degenerated faces.
+     *
+     * @param pool Pool used for meshes of at least {@link #PARALLEL_THRESHOLD} corners, null to build on the calling thread
+     */
+    public int computeOppositeCorners(int[] cornerToVertex, int numCorners, int numVertices, int[] opposite, ForkJoinPool pool)
+    {
+        this.begin(cornerToVertex, numCorners, numVertices, opposite);
+        try
+        {
+            if (!CornerTableBuilder.isParallel(pool, numCorners))
+                return this.buildSequential();
+            this.byVertex = false;
+            this.scatter(pool);
+            pool.invoke(new Step(PHASE_PAIR, 0, numBlocks));
+            return this.sumResults(numChunks);
+        }
+        finally
+        {
+            this.end();
+        }
+        
+    }
+    
+    /**
+     *  Finds the left most corner of every vertex in parallel, this is the parallel form of the
+     *  sequential loop in {@link dev.fileformat.drako.CornerTable}.
+     *  |vertexCorners| receives the left most corner of the first corner ring of every vertex, the first corner of every
+     *  other ring of a vertex is flagged in |newVertexStarts|, these are the non-manifold vertices that need to be split.
+     *  Returns the number of isolated vertices.
+     *
+     */
+    public int computeVertexCorners(int[] cornerToVertex, int[] opposite, int numCorners, int numVertices, int[] vertexCorners, boolean[] newVertexStarts, ForkJoinPool pool)
+    {
+        this.begin(cornerToVertex, numCorners, numVertices, opposite);
+        this.vertexCorners = vertexCorners;
+        this.newVertexStarts = newVertexStarts;
+        this.visitedCorners = new boolean[numCorners];
+        try
+        {
+            this.byVertex = true;
+            this.scatter(pool);
+            pool.invoke(new Step(PHASE_RINGS, 0, numBlocks));
+            return this.sumResults(numBlocks);
+        }
+        finally
+        {
+            this.vertexCorners = null;
+            this.newVertexStarts = null;
+            this.visitedCorners = null;
+            this.end();
+        }
+        
+    }
+    
+    /**
+     *  Stores the valence of every vertex of |table| in |valences|.
+     *
+     */
+    public void computeValences(CornerTable table, int[] valences, ForkJoinPool pool)
+    {
+        this.table = table;
+        this.valences = valences;
+        this.numVertices = table.getNumVertices();
+        this.split(pool);
+        try
+        {
+            pool.invoke(new Step(PHASE_VALENCES, 0, numBlocks));
+        }
+        finally
+        {
+            this.table = null;
+            this.valences = null;
+        }
+        
+    }
+    
+    /**
+     *  Marks the seam edges of |table| where the values of |att| differ across an edge.
+     *  Returns true if an interior seam was found.
+     *
+     */
+    public boolean findSeamEdges(MeshAttributeCornerTable table, DracoMesh mesh, PointAttribute att, ForkJoinPool pool)
+    {
+        this.attributeTable = table;
+        this.mesh = mesh;
+        this.attribute = att;
+        this.numCorners = table.getCornerTable().getNumCorners();
+        this.split(pool);
+        try
+        {
+            pool.invoke(new Step(PHASE_SEAMS, 0, numChunks));
+            return this.sumResults(numChunks) > 0;
+        }
+        finally
+        {
+            this.end();
+        }
+        
+    }
+    
+    /**
+     *  Marks the edges of |corners| as seam edges of |table|.
+     *  Returns true if an interior seam was added.
+     *
+     */
+    public boolean addSeamEdges(MeshAttributeCornerTable table, IntList corners, ForkJoinPool pool)
+    {
+        this.attributeTable = table;
+        this.seamCorners = corners;
+        this.numCorners = corners.getCount();
+        this.split(pool);
+        try
+        {
+            pool.invoke(new Step(PHASE_SEAM_CORNERS, 0, numChunks));
+            return this.sumResults(numChunks) > 0;
+        }
+        finally
+        {
+            this.end();
+        }
+        
+    }
+    
+    /**
+     *  Splits the vertices of |table| on its seam edges. Every vertex range counts its attribute vertices
+     *  first, the ranges then number them from their offset.
+     *
+     */
+    public void recomputeVertices(MeshAttributeCornerTable table, DracoMesh mesh, PointAttribute att, ForkJoinPool pool)
+    {
+        this.attributeTable = table;
+        this.mesh = mesh;
+        this.attribute = att;
+        this.numVertices = table.getCornerTable().getNumVertices();
+        this.split(pool);
+        try
+        {
+            pool.invoke(new Step(PHASE_COUNT_ATTRIBUTE_VERTICES, 0, numBlocks));
+            int total = 0;
+            for (int b = 0; b < numBlocks; b++)
+            {
+                int count = results[b];
+                results[b] = total;
+                total += count;
+            }
+            
+            table.resizeVertices(total);
+            pool.invoke(new Step(PHASE_ATTRIBUTE_VERTICES, 0, numBlocks));
+        }
+        finally
+        {
+            this.end();
+        }
+        
+    }
+    
+    private void begin(int[] cornerToVertex, int numCorners, int numVertices, int[] opposite)
+    {
+        this.cornerToVertex = cornerToVertex;
+        this.opposite = opposite;
+        this.numCorners = numCorners;
+        this.numVertices = numVertices;
+        if (edges == null || (edges.length < numCorners))
+        {
+            this.edges = new int[numCorners];
+            this.scratch = new int[numCorners];
+        }
+        
+    }
+    
+    private void end()
+    {
+        this.cornerToVertex = null;
+        this.opposite = null;
+        this.blockOffsets = null;
+        this.blockStart = null;
+        this.results = null;
+        this.attributeTable = null;
+        this.mesh = null;
+        this.attribute = null;
+        this.seamCorners = null;
+    }
+    
+    /**
+     *  Splits the corners into chunks and the vertices into ranges for the tasks of |pool|.
+     *
+     */
+    private void split(ForkJoinPool pool)
+    {
+        int parallelism = pool.getParallelism();
+        this.numChunks = parallelism * 4;
+        this.numBlocks = parallelism * 4;
+        this.blockSize = Math.max(1, (numVertices + numBlocks - 1) / numBlocks);
+        this.results = new int[Math.max(numChunks, numBlocks)];
+    }
+    
+    private int sumResults(int count)
+    {
+        int ret = 0;
+        for (int i = 0; i < count; i++)
+        {
+            ret += results[i];
+        }
+        
+        return ret;
+    }
+    
+    private int buildSequential()
+    {
+        Arrays.fill(opposite, 0, numCorners, CornerTable.K_INVALID_CORNER_INDEX);
+        int numEdges = 0;
+        int numDegeneratedFaces = 0;
+        for (int c = 0; c < numCorners; c += 3)
+        {
+            if (this.isDegenerated(c))
+            {
+                ++numDegeneratedFaces;
+                continue;
+            }
+            
+            edges[numEdges++] = c;
+            edges[numEdges++] = c + 1;
+            edges[numEdges++] = c + 2;
+        }
+        
+        this.sortAndPair(0, numEdges, 0, numVertices);
+        return numDegeneratedFaces;
+    }
+    
+    /**
+     *  Stores the corners of the non-degenerated faces in |edges| grouped by vertex range, in corner order within a range.
+     *  The number of degenerated faces of every chunk is left in |results|.
+     *
+     */
+    private void scatter(ForkJoinPool pool)
+    {
+        this.split(pool);
+        this.blockOffsets = new int[numChunks * numBlocks];
+        this.blockStart = new int[numBlocks + 1];
+        pool.invoke(new Step(PHASE_COUNT, 0, numChunks));
+        // Corners of a vertex range are stored chunk after chunk, so they stay in corner order.
+        int offset = 0;
+        for (int b = 0; b < numBlocks; b++)
+        {
+            blockStart[b] = offset;
+            for (int ch = 0; ch < numChunks; ch++)
+            {
+                int count = blockOffsets[ch * numBlocks + b];
+                blockOffsets[ch * numBlocks + b] = offset;
+                offset += count;
+            }
+            
+        }
+        
+        blockStart[numBlocks] = offset;
+        pool.invoke(new Step(PHASE_SCATTER, 0, numChunks));
+    }
+    
+    /**
+     *  Runs |phase| for the chunk or the vertex range |index|.
+     *
+     */
+    private void run(int phase, int index)
+    {
+        int vBase = index * blockSize;
+        int vEnd = Math.max(vBase, Math.min(numVertices, vBase + blockSize));
+        switch(phase)
+        {
+            case PHASE_COUNT:
+            case PHASE_SCATTER:
+            {
+                int start = this.chunkStart(index) * 3;
+                int end = this.chunkStart(index + 1) * 3;
+                int row = index * numBlocks;
+                if (phase == PHASE_COUNT && !byVertex)
+                {
+                    Arrays.fill(opposite, start, end, CornerTable.K_INVALID_CORNER_INDEX);
+                }
+                
+                int numDegeneratedFaces = 0;
+                for (int c = start; c < end; c++)
+                {
+                    if (c % 3 == 0 && this.isDegenerated(c))
+                    {
+                        ++numDegeneratedFaces;
+                        c += 2;
+                        continue;
+                    }
+                    
+                    int block = (byVertex ? cornerToVertex[c] : this.low(c)) / blockSize;
+                    if (phase == PHASE_COUNT)
+                    {
+                        blockOffsets[row + block]++;
+                    }
+                    else
+                    {
+                        edges[blockOffsets[row + block]++] = c;
+                    }
+                    
+                }
+                
+                results[index] = numDegeneratedFaces;
+                break;
+            }
+            case PHASE_PAIR:
+            {
+                this.sortAndPair(blockStart[index], blockStart[index + 1], vBase, vEnd - vBase);
+                break;
+            }
+            case PHASE_RINGS:
+            {
+                results[index] = this.findRings(blockStart[index], blockStart[index + 1], vBase, vEnd - vBase);
+                break;
+            }
+            case PHASE_VALENCES:
+            {
+                for (int v = vBase; v < vEnd; v++)
+                {
+                    valences[v] = table.valence(v);
+                }
+                
+                break;
+            }
+            case PHASE_SEAMS:
+            {
+                boolean found = attributeTable.findSeamEdges(mesh, attribute, this.chunkStart(index) * 3, this.chunkStart(index + 1) * 3);
+                results[index] = found ? 1 : 0;
+                break;
+            }
+            case PHASE_SEAM_CORNERS:
+            {
+                boolean found = false;
+                int start = (int)((long)numCorners * index / numChunks);
+                int end = (int)((long)numCorners * (index + 1) / numChunks);
+                for (int i = start; i < end; i++)
+                {
+                    found |= attributeTable.markSeamEdge(seamCorners.get(i));
+                }
+                
+                results[index] = found ? 1 : 0;
+                break;
+            }
+            case PHASE_COUNT_ATTRIBUTE_VERTICES:
+            case PHASE_ATTRIBUTE_VERTICES:
+            {
+                boolean countOnly = phase == PHASE_COUNT_ATTRIBUTE_VERTICES;
+                int vertId = countOnly ? 0 : results[index];
+                for (int v = vBase; v < vEnd; v++)
+                {
+                    vertId += attributeTable.recomputeVertex(v, vertId, countOnly, mesh, attribute);
+                }
+                
+                if (countOnly)
+                {
+                    results[index] = vertId;
+                }
+                
+                break;
+            }
+            default:
+            {
+                throw new IllegalStateException();
+            }
+        }
+        
+    }
+    
+    /**
+     *  First face of the chunk |index|.
+     *
+     */
+    private int chunkStart(int index)
+    {
+        return (int)((long)(numCorners / 3) * index / numChunks);
+    }
+    
+    /**
+     *  Sorts edges[from, to) by vertex pair and pairs the half-edges of every edge.
+     *  The lower vertex of every edge in the range is in [vBase, vBase + vCount), the higher one can be any vertex.
+     *
+     */
+    private void sortAndPair(int from, int to, int vBase, int vCount)
+    {
+        if (from == to)
+            return;
+        int hiRange = numVertices - vBase;
+        int[] histogram = new int[Math.max(vCount, hiRange <= MAX_HISTOGRAM ? hiRange : 1 << RADIX_BITS) + 1];
+        int[] sorted;
+        if (hiRange < histogram.length)
+        {
+            this.sortPass(edges, scratch, from, to, true, vBase, 0, -1, histogram);
+            this.sortPass(scratch, edges, from, to, false, vBase, 0, -1, histogram);
+            sorted = edges;
+        }
+        else
+        {
+            int mask = (1 << RADIX_BITS) - 1;
+            this.sortPass(edges, scratch, from, to, true, vBase, 0, mask, histogram);
+            this.sortPass(scratch, edges, from, to, true, vBase, RADIX_BITS, mask, histogram);
+            this.sortPass(edges, scratch, from, to, false, vBase, 0, -1, histogram);
+            sorted = scratch;
+        }
+        
+        this.pair(sorted, from, to);
+    }
+    
+    /**
+     *  Stable counting sort of src[from, to) into dst by the higher or the lower vertex of the edges.
+     *
+     */
+    private void sortPass(int[] src, int[] dst, int from, int to, boolean byHigh, int base, int shift, int mask, int[] histogram)
+    {
+        Arrays.fill(histogram, 0);
+        for (int i = from; i < to; i++)
+        {
+            int c = src[i];
+            int key = (((byHigh ? this.high(c) : this.low(c)) - base) >>> shift) & mask;
+            histogram[key + 1]++;
+        }
+        
+        histogram[0] = from;
+        for (int i = 1; i < histogram.length; i++)
+        {
+            histogram[i] += histogram[i - 1];
+        }
+        
+        for (int i = from; i < to; i++)
+        {
+            int c = src[i];
+            int key = (((byHigh ? this.high(c) : this.low(c)) - base) >>> shift) & mask;
+            dst[histogram[key]++] = c;
+        }
+        
+    }
+    
+    /**
+     *  Pairs the half-edges of every edge in the sorted range. The unpaired half-edges of an edge all go in
+     *  the same direction, they are queued in place at the start of the edge's group.
+     *
+     */
+    private void pair(int[] sorted, int from, int to)
+    {
+        int i = from;
+        while (i < to)
+        {
+            int c = sorted[i];
+            int lo = this.low(c);
+            int hi = this.high(c);
+            int end = i + 1;
+            while (end < to && (this.low(sorted[end]) == lo) && (this.high(sorted[end]) == hi))
+            {
+                end++;
+            }
+            
+            int head = i;
+            int tail = i;
+            boolean pendingForward = false;
+            for (int k = i; k < end; k++)
+            {
+                c = sorted[k];
+                boolean forward = this.isForward(c);
+                if (head < tail && (pendingForward != forward))
+                {
+                    // Opposite corner found.
+                    int oppositeC = sorted[head++];
+                    opposite[c] = oppositeC;
+                    opposite[oppositeC] = c;
+                }
+                else
+                {
+                    if (head == tail)
+                    {
+                        pendingForward = forward;
+                    }
+                    
+                    sorted[tail++] = c;
+                }
+                
+            }
+            
+            i = end;
+        }
+        
+    }
+    
+    /**
+     *  Walks the corner rings of the vertices [vBase, vBase + vCount) whose corners are edges[from, to),
+     *  the rings of a vertex are visited in the order of their first corner. Returns the number of isolated vertices.
+     *
+     */
+    private int findRings(int from, int to, int vBase, int vCount)
+    {
+        int[] histogram = new int[vCount + 1];
+        for (int i = from; i < to; i++)
+        {
+            histogram[cornerToVertex[edges[i]] - vBase + 1]++;
+        }
+        
+        int ret = 0;
+        for (int i = 1; i <= vCount; i++)
+        {
+            if (histogram[i] == 0)
+            {
+                ++ret;
+            }
+            
+        }
+        
+        histogram[0] = from;
+        for (int i = 1; i <= vCount; i++)
+        {
+            histogram[i] += histogram[i - 1];
+        }
+        
+        for (int i = from; i < to; i++)
+        {
+            int c = edges[i];
+            scratch[histogram[cornerToVertex[c] - vBase]++] = c;
+        }
+        
+        int i = from;
+        while (i < to)
+        {
+            int v = cornerToVertex[scratch[i]];
+            boolean firstRing = true;
+            for (; i < to && (cornerToVertex[scratch[i]] == v); i++)
+            {
+                int c = scratch[i];
+                if (visitedCorners[c])
+                    continue;
+                int leftMost = c;
+                int actC = c;
+                while (actC != CornerTable.K_INVALID_CORNER_INDEX)
+                {
+                    visitedCorners[actC] = true;
+                    leftMost = actC;
+                    actC = this.swingLeft(actC);
+                    if (actC == c)
+                        break;
+                }
+                
+                if (actC == CornerTable.K_INVALID_CORNER_INDEX)
+                {
+                    actC = this.swingRight(c);
+                    while (actC != CornerTable.K_INVALID_CORNER_INDEX)
+                    {
+                        visitedCorners[actC] = true;
+                        actC = this.swingRight(actC);
+                    }
+                    
+                }
+                
+                if (firstRing)
+                {
+                    vertexCorners[v] = leftMost;
+                    firstRing = false;
+                }
+                else
+                {
+                    newVertexStarts[c] = true;
+                }
+                
+            }
+            
+        }
+        
+        return ret;
+    }
+    
+    private boolean isDegenerated(int firstCorner)
+    {
+        int v0 = cornerToVertex[firstCorner];
+        int v1 = cornerToVertex[firstCorner + 1];
+        int v2 = cornerToVertex[firstCorner + 2];
+        return v0 == v1 || (v0 == v2) || (v1 == v2);
+    }
+    
+    private static int next(int c)
+    {
+        return c % 3 == 2 ? c - 2 : c + 1;
+    }
+    
+    private static int previous(int c)
+    {
+        return c % 3 == 0 ? c + 2 : c - 1;
+    }
+    
+    private int swingLeft(int c)
+    {
+        int oppositeC = opposite[CornerTableBuilder.next(c)];
+        return oppositeC < 0 ? oppositeC : CornerTableBuilder.next(oppositeC);
+    }
+    
+    private int swingRight(int c)
+    {
+        int oppositeC = opposite[CornerTableBuilder.previous(c)];
+        return oppositeC < 0 ? oppositeC : CornerTableBuilder.previous(oppositeC);
+    }
+    
+    /**
+     *  Source vertex of the half-edge opposite to corner |c|.
+     *
+     */
+    private int source(int c)
+    {
+        return cornerToVertex[CornerTableBuilder.next(c)];
+    }
+    
+    /**
+     *  Sink vertex of the half-edge opposite to corner |c|.
+     *
+     */
+    private int sink(int c)
+    {
+        return cornerToVertex[CornerTableBuilder.previous(c)];
+    }
+    
+    private int low(int c)
+    {
+        return Math.min(this.source(c), this.sink(c));
+    }
+    
+    private int high(int c)
+    {
+        return Math.max(this.source(c), this.sink(c));
+    }
+    
+    private boolean isForward(int c)
+    {
+        return this.source(c) < this.sink(c);
+    }
+    
+    /**
+     *  Runs a phase on |count| chunks or vertex ranges starting at |index|, splitting them in halves.
+     *
+     */
+    private final class Step extends RecursiveAction
+    {
+        private final int phase;
+        private final int index;
+        private final int count;
+        static final long serialVersionUID = 1863310721L;
+        Step(int phase, int index, int count)
+        {
+            this.phase = phase;
+            this.index = index;
+            this.count = count;
+        }
+        
+        @Override
+        protected void compute()
+        {
+            if (count == 1)
+            {
+                CornerTableBuilder.this.run(phase, index);
+            }
+            else
+            {
+                int half = count / 2;
+                RecursiveAction.invokeAll(new Step(phase, index, half), new Step(phase, index + half, count - half));
+            }
+            
+        }
+        
+    }
+    
+}
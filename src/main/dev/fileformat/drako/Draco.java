@@ -1,8 +1,27 @@
 package dev.fileformat.drako;
 import dev.fileformat.drako.Stream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 /**
  *  Google Draco
+ *  All static methods are thread-safe, the codec keeps no shared mutable state between calls
+ *  (the only shared object is the synchronized {@link dev.fileformat.drako.ByteArrayPool#getShared()}).
+ *  The same {@link dev.fileformat.drako.DracoPointCloud} and {@link dev.fileformat.drako.DracoEncodeOptions}
+ *  can be encoded from multiple threads at the same time as long as no thread modifies them.
  *
  */
 public class Draco
@@ -22,6 +41,235 @@ public class Draco
         return DracoMesh.decode(buffer, true);
     }
     
+    /**
+     *  Decode a {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} from the remaining bytes of a buffer.
+     *  The bytes are read in place, heap, direct and memory-mapped buffers are all supported,
+     *  the buffer's position and limit are not modified.
+     *
+     * @param data Raw draco bytes.
+     * @return a {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} instance
+     */
+    public static DracoPointCloud decode(ByteBuffer data)
+        throws DrakoException
+    {
+        if (data == null)
+            throw new IllegalArgumentException("Argument data cannot be null");
+        DecoderBuffer buffer = new DecoderBuffer(data);
+        return DracoMesh.decode(buffer, true);
+    }
+    
+    /**
+     *  Decode a {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} from a file.
+     *  The file is memory-mapped instead of being loaded into the heap.
+     *
+     * @param path Path to the draco file.
+     * @return a {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} instance
+     */
+    public static DracoPointCloud decode(Path path)
+        throws IOException, DrakoException
+    {
+        if (path == null)
+            throw new IllegalArgumentException("Argument path cannot be null");
+        return Draco.decode(Draco.map(path));
+    }
+    
+    /**
+     *  Decode a {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} from bytes
+     *
+     * @param data Raw draco bytes.
+     * @param options Load options, can be used to decode only some of the attributes.
+     * @return a {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} instance
+     */
+    public static DracoPointCloud decode(byte[] data, DracoLoadOptions options)
+        throws DrakoException
+    {
+        if (data == null)
+            throw new IllegalArgumentException("Argument data cannot be null");
+        if (options == null)
+            throw new IllegalArgumentException("Argument options cannot be null");
+        return DracoMesh.decode(new DecoderBuffer(data), true, options);
+    }
+    
+    /**
+     *  Decode a {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} from the remaining bytes of a buffer.
+     *  The buffer's position and limit are not modified.
+     *
+     * @param data Raw draco bytes.
+     * @param options Load options, can be used to decode only some of the attributes.
+     * @return a {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} instance
+     */
+    public static DracoPointCloud decode(ByteBuffer data, DracoLoadOptions options)
+        throws DrakoException
+    {
+        if (data == null)
+            throw new IllegalArgumentException("Argument data cannot be null");
+        if (options == null)
+            throw new IllegalArgumentException("Argument options cannot be null");
+        return DracoMesh.decode(new DecoderBuffer(data), true, options);
+    }
+    
+    /**
+     *  Decode a {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} from a memory-mapped file.
+     *
+     * @param path Path to the draco file.
+     * @param options Load options, can be used to decode only some of the attributes.
+     * @return a {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} instance
+     */
+    public static DracoPointCloud decode(Path path, DracoLoadOptions options)
+        throws IOException, DrakoException
+    {
+        if (path == null)
+            throw new IllegalArgumentException("Argument path cannot be null");
+        return Draco.decode(Draco.map(path), options);
+    }
+    
+    /**
+     *  Decode multiple buffers concurrently, each buffer is decoded by a separate task submitted to the executor.
+     *  The remaining bytes of each buffer are captured when this method is called, the buffers' position and limit are not modified.
+     *
+     * @param data Buffers of raw draco bytes.
+     * @param executor Executor that runs the decoding, for example a {@link java.util.concurrent.ForkJoinPool}.
+     * @return One future per buffer in the same order, completed with the decoded instance or null if the buffer is not a valid draco file.
+     */
+    public static List<CompletableFuture<DracoPointCloud>> decodeAll(List<ByteBuffer> data, Executor executor)
+    {
+        if (data == null)
+            throw new IllegalArgumentException("Argument data cannot be null");
+        if (executor == null)
+            throw new IllegalArgumentException("Argument executor cannot be null");
+        List<CompletableFuture<DracoPointCloud>> ret = new ArrayList<CompletableFuture<DracoPointCloud>>(data.size());
+        for (ByteBuffer buffer : data)
+        {
+            if (buffer == null)
+                throw new IllegalArgumentException("Argument data cannot contain null");
+            final ByteBuffer input = buffer.slice();
+            ret.add(CompletableFuture.supplyAsync(new Supplier<DracoPointCloud>() {
+                @Override
+                public DracoPointCloud get()
+                {
+                    try
+                    {
+                        return Draco.decode(input);
+                    }
+                    catch(DrakoException e)
+                    {
+                        throw new CompletionException(e);
+                    }
+                    
+                }
+                
+            }, executor));
+        }
+        
+        return ret;
+    }
+    
+    /**
+     *  Encode multiple point clouds or meshes concurrently, each one is encoded by a separate task submitted to the executor.
+     *  The inputs and the options must not be modified until all futures are completed.
+     *
+     * @param models The {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} instances
+     * @param options Encode options shared by all tasks
+     * @param executor Executor that runs the encoding, for example a {@link java.util.concurrent.ForkJoinPool}.
+     * @return One future per input in the same order, completed with the bytes in draco format.
+     */
+    public static List<CompletableFuture<byte[]>> encodeAll(List<? extends DracoPointCloud> models, DracoEncodeOptions options, Executor executor)
+    {
+        if (models == null)
+            throw new IllegalArgumentException("Argument models cannot be null");
+        if (options == null)
+            throw new IllegalArgumentException("Argument options cannot be null");
+        if (executor == null)
+            throw new IllegalArgumentException("Argument executor cannot be null");
+        final DracoEncodeOptions opt = options;
+        List<CompletableFuture<byte[]>> ret = new ArrayList<CompletableFuture<byte[]>>(models.size());
+        for (DracoPointCloud model : models)
+        {
+            if (model == null)
+                throw new IllegalArgumentException("Argument models cannot contain null");
+            final DracoPointCloud m = model;
+            ret.add(CompletableFuture.supplyAsync(new Supplier<byte[]>() {
+                @Override
+                public byte[] get()
+                {
+                    try
+                    {
+                        return Draco.encode(m, opt);
+                    }
+                    catch(DrakoException e)
+                    {
+                        throw new CompletionException(e);
+                    }
+                    
+                }
+                
+            }, executor));
+        }
+        
+        return ret;
+    }
+    
+    /**
+     *  Reads the header, metadata and attribute descriptors without decoding the geometry.
+     *  Connectivity is skipped where the bitstream allows it and attribute values are never decoded.
+     *
+     * @param data Raw draco bytes.
+     * @return Summary of the file, or null if the data is not a valid draco file.
+     */
+    public static DracoInfo probe(byte[] data)
+        throws DrakoException
+    {
+        if (data == null)
+            throw new IllegalArgumentException("Argument data cannot be null");
+        return DracoMesh.probe(new DecoderBuffer(data));
+    }
+    
+    /**
+     *  Reads the header, metadata and attribute descriptors from the remaining bytes of a buffer without decoding the geometry.
+     *  The buffer's position and limit are not modified.
+     *
+     * @param data Raw draco bytes.
+     * @return Summary of the file, or null if the data is not a valid draco file.
+     */
+    public static DracoInfo probe(ByteBuffer data)
+        throws DrakoException
+    {
+        if (data == null)
+            throw new IllegalArgumentException("Argument data cannot be null");
+        return DracoMesh.probe(new DecoderBuffer(data));
+    }
+    
+    /**
+     *  Reads the header, metadata and attribute descriptors of a file without decoding the geometry.
+     *  The file is memory-mapped, so usually only its leading pages are read from disk.
+     *
+     * @param path Path to the draco file.
+     * @return Summary of the file, or null if the file is not a valid draco file.
+     */
+    public static DracoInfo probe(Path path)
+        throws IOException, DrakoException
+    {
+        if (path == null)
+            throw new IllegalArgumentException("Argument path cannot be null");
+        return Draco.probe(Draco.map(path));
+    }
+    
+    private static MappedByteBuffer map(Path path)
+        throws IOException
+    {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+                throw new IOException("Draco file is too large to be mapped: " + path);
+            // The mapping stays valid after the channel is closed.
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        
+        return mapped;
+    }
+    
     /**
      *  Encode the point cloud or mesh and get the encoded bytes in draco format.
      *
@@ -48,34 +296,91 @@ public class Draco
             throw new IllegalArgumentException("Argument m cannot be null");
         if (options == null)
             throw new IllegalArgumentException("Argument options cannot be null");
-        EncoderBuffer buf = Draco.encodeImpl(m, options);
+        EncoderBuffer buf = new EncoderBuffer(ByteArrayPool.getShared());
+        Draco.encodeImpl(m, options, buf);
         if (buf.getData().length == buf.getBytes())
             return buf.getData();else
         {
             byte[] ret = new byte[buf.getBytes()];
             System.arraycopy(buf.getData(), 0, ret, 0, buf.getBytes());
+            buf.release();
             return ret;
         }
         
     }
     
+    /**
+     *  Encode the point cloud or mesh to the stream.
+     *
+     * @param m The {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} instance
+     * @param options Encode options
+     * @param stream The output stream
+     */
     public static void encode(DracoPointCloud m, DracoEncodeOptions options, Stream stream)
         throws IOException, DrakoException
+    {
+        if (stream == null)
+            throw new IllegalArgumentException("Argument stream cannot be null");
+        Draco.encode(m, options, stream.getOutputStream());
+    }
+    
+    /**
+     *  Encode the point cloud or mesh to the output stream.
+     *  Each section(header, connectivity, attributes) is written as soon as it's encoded,
+     *  so the complete encoded file is never held in memory.
+     *
+     * @param m The {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} instance
+     * @param options Encode options
+     * @param stream The output stream, it's not closed after encoding.
+     */
+    public static void encode(DracoPointCloud m, DracoEncodeOptions options, OutputStream stream)
+        throws IOException, DrakoException
+    {
+        if (stream == null)
+            throw new IllegalArgumentException("Argument stream cannot be null");
+        Draco.encode(m, options, Channels.newChannel(stream));
+        stream.flush();
+    }
+    
+    /**
+     *  Encode the point cloud or mesh to the channel.
+     *  Each section(header, connectivity, attributes) is written as soon as it's encoded,
+     *  so the complete encoded file is never held in memory.
+     *
+     * @param m The {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} instance
+     * @param options Encode options
+     * @param channel The output channel, it's not closed after encoding.
+     */
+    public static void encode(DracoPointCloud m, DracoEncodeOptions options, WritableByteChannel channel)
+        throws IOException, DrakoException
     {
         if (m == null)
             throw new IllegalArgumentException("Argument m cannot be null");
         if (options == null)
             throw new IllegalArgumentException("Argument options cannot be null");
-        if (stream == null)
-            throw new IllegalArgumentException("Argument stream cannot be null");
-        EncoderBuffer buf = Draco.encodeImpl(m, options);
-        stream.write(buf.getData(), 0, buf.getBytes());
+        if (channel == null)
+            throw new IllegalArgumentException("Argument channel cannot be null");
+        EncoderBuffer buf = new EncoderBuffer(ByteArrayPool.getShared());
+        buf.setSink(channel);
+        try
+        {
+            Draco.encodeImpl(m, options, buf);
+            buf.flush();
+        }
+        catch(UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+        finally
+        {
+            buf.release();
+        }
+        
     }
     
-    static EncoderBuffer encodeImpl(DracoPointCloud m, DracoEncodeOptions options)
+    static void encodeImpl(DracoPointCloud m, DracoEncodeOptions options, EncoderBuffer ret)
         throws DrakoException
     {
-        EncoderBuffer ret = new EncoderBuffer();
         PointCloudEncoder encoder = Draco.createEncoder(m, options);
         //Encode header
         
@@ -102,13 +407,59 @@ public class Draco
         ret.encode((byte)(encoder.getGeometryType()));
         // Unique identifier for the selected encoding method (edgebreaker, etc...).
         ret.encode((byte)(encoder.getEncodingMethod()));
+        // The header tells whether the file refers to the dictionary, so the body is encoded first then.
+        // Training only records the frequencies, the dictionary isn't used.
+        DracoDictionary dictionary = ret.getDictionaryTrainer() == null ? options.getDictionary() : null;
+        EncoderBuffer body = null;
+        if (dictionary != null)
+        {
+            body = new EncoderBuffer(ByteArrayPool.getShared());
+            body.setWorkspace(ret.getWorkspace());
+            body.setDictionary(dictionary);
+            encoder.encode(options, body);
+            if (body.getNumDictionaryTables() == 0)
+            {
+                // No stream uses a table, encode a standard file instead of paying for the id and the table indices.
+                body.release();
+                body = null;
+                dictionary = null;
+                if (ret.getWorkspace() != null)
+                {
+                    ret.getWorkspace().reset();
+                }
+                
+                encoder = Draco.createEncoder(m, options);
+            }
+            
+        }
+        
         // Reserved for flags.
-        ret.encode((short)0);
+        int flags = options.getRAnsLanes() > 1 ? DracoHeader.INTERLEAVED_RANS_FLAG_MASK : 0;
+        if (dictionary != null)
+        {
+            flags |= DracoHeader.DICTIONARY_FLAG_MASK;
+        }
+        
+        ret.encode((short)flags);
+        if (dictionary != null)
+        {
+            Encoding.encodeVarint2(dictionary.getId(), ret);
+        }
+        
+        ret.flush();
         
         //encode body
-        encoder.encode(options, ret);
-        
-        return ret;
+        if (body != null)
+        {
+            ret.encode(body.getData(), body.getBytes());
+            body.release();
+            ret.flush();
+        }
+        else
+        {
+            encoder.encode(options, ret);
+        }
+        
     }
     
     private static PointCloudEncoder createEncoder(DracoPointCloud pc, DracoEncodeOptions options)
@@ -143,7 +494,7 @@ public class Draco
     
     private static boolean isKdTreePossible(DracoPointCloud pc, DracoEncodeOptions options)
     {
-        
+    
         // Kd-Tree encoder can be currently used only when the following conditions
         // are satisfied for all attributes:
         //     -data type is float32 and quantization is enabled, OR
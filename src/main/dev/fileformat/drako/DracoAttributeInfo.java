@@ -0,0 +1,66 @@
+package dev.fileformat.drako;
+/**
+ *  Description of an attribute stored in a draco file, returned by {@link dev.fileformat.drako.Draco#probe(byte[])}.
+ *
+ */
+public final class DracoAttributeInfo
+{    
+    private final int attributeType;
+    private final int dataType;
+    private final int componentsCount;
+    private final boolean normalized;
+    private final short uniqueId;
+    private final int numValues;
+    DracoAttributeInfo(PointAttribute attribute, int numValues)
+    {
+        this.attributeType = attribute.getAttributeType();
+        this.dataType = attribute.getDataType();
+        this.componentsCount = attribute.getComponentsCount();
+        this.normalized = attribute.getNormalized();
+        this.uniqueId = attribute.getUniqueId();
+        this.numValues = numValues;
+    }
+    
+    /**
+     *  Type of the attribute, see {@link dev.fileformat.drako.AttributeType}
+     *
+     */
+    public int getAttributeType()
+    {
+        return attributeType;
+    }
+    
+    /**
+     *  Data type of the components, see {@link dev.fileformat.drako.DataType}
+     *
+     */
+    public int getDataType()
+    {
+        return dataType;
+    }
+    
+    public int getComponentsCount()
+    {
+        return componentsCount;
+    }
+    
+    public boolean getNormalized()
+    {
+        return normalized;
+    }
+    
+    public short getUniqueId()
+    {
+        return uniqueId;
+    }
+    
+    /**
+     *  Number of attribute values stored in the file, or -1 when it's only known after decoding the connectivity.
+     *
+     */
+    public int getNumValues()
+    {
+        return numValues;
+    }
+    
+}
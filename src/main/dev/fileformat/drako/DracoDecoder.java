@@ -0,0 +1,104 @@
+package dev.fileformat.drako;
+import java.nio.ByteBuffer;
+/**
+ *  A reusable decoder that keeps its working memory(corner tables, rANS lookup tables, traversal stacks and maps)
+ *  between calls, so decoding many small meshes doesn't allocate the same temporary structures again and again.
+ *  An instance is not thread-safe, use one instance per thread.
+ *  The decoded {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} never shares memory with the decoder.
+ *
+ */
+public class DracoDecoder
+{    
+    private final DecoderWorkspace workspace = new DecoderWorkspace();
+    /**
+     *  Decode a {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} from bytes
+     *
+     * @param data Raw draco bytes.
+     * @return a {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} instance
+     */
+    public DracoPointCloud decode(byte[] data)
+        throws DrakoException
+    {
+        if (data == null)
+            throw new IllegalArgumentException("Argument data cannot be null");
+        return this.decode(new DecoderBuffer(data), null);
+    }
+    
+    /**
+     *  Decode a {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} from the remaining bytes of a buffer.
+     *  The buffer's position and limit are not modified.
+     *
+     * @param data Raw draco bytes.
+     * @return a {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} instance
+     */
+    public DracoPointCloud decode(ByteBuffer data)
+        throws DrakoException
+    {
+        if (data == null)
+            throw new IllegalArgumentException("Argument data cannot be null");
+        return this.decode(new DecoderBuffer(data), null);
+    }
+    
+    /**
+     *  Decode a {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} from bytes
+     *
+     * @param data Raw draco bytes.
+     * @param options Load options, can be used to decode only some of the attributes.
+     * @return a {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} instance
+     */
+    public DracoPointCloud decode(byte[] data, DracoLoadOptions options)
+        throws DrakoException
+    {
+        if (data == null)
+            throw new IllegalArgumentException("Argument data cannot be null");
+        if (options == null)
+            throw new IllegalArgumentException("Argument options cannot be null");
+        return this.decode(new DecoderBuffer(data), options);
+    }
+    
+    /**
+     *  Decode a {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} from the remaining bytes of a buffer.
+     *  The buffer's position and limit are not modified.
+     *
+     * @param data Raw draco bytes.
+     * @param options Load options, can be used to decode only some of the attributes.
+     * @return a {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} instance
+     */
+    public DracoPointCloud decode(ByteBuffer data, DracoLoadOptions options)
+        throws DrakoException
+    {
+        if (data == null)
+            throw new IllegalArgumentException("Argument data cannot be null");
+        if (options == null)
+            throw new IllegalArgumentException("Argument options cannot be null");
+        return this.decode(new DecoderBuffer(data), options);
+    }
+    
+    private DracoPointCloud decode(DecoderBuffer buffer, DracoLoadOptions options)
+        throws DrakoException
+    {
+        workspace.reset();
+        buffer.setWorkspace(workspace);
+        return DracoMesh.decode(buffer, true, options);
+    }
+    
+    /**
+     *  Clears the state left by the previous decode but keeps the capacity of the working memory.
+     *  {@link #decode(byte[])} does this implicitly, call it to clear the content of the last decode early.
+     *
+     */
+    public void reset()
+    {
+        workspace.reset();
+    }
+    
+    /**
+     *  Releases all retained working memory, the decoder can still be used afterwards.
+     *
+     */
+    public void release()
+    {
+        workspace.release();
+    }
+    
+}
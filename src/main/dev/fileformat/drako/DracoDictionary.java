@@ -0,0 +1,423 @@
+package dev.fileformat.drako;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+/**
+ *  Probability tables shared by a family of similar files, e.g. parts of the same CAD library.
+ *  A symbol stream of a file encoded with a dictionary refers to one of its tables instead of computing and storing its own,
+ *  which saves encoding time and the table bytes that dominate small files, the decoder builds the lookup table of each table once.
+ *  A dictionary is trained from a sample corpus with {@link #train(int, Iterable, DracoEncodeOptions)}, stored with {@link #encode()}
+ *  and loaded with {@link #decode(byte[])}, the files only refer to it by id.
+ *  Instances are immutable and can be shared by threads.
+ *
+ */
+public final class DracoDictionary
+{    
+    private static final byte[] MAGIC = {(byte)'D', (byte)'R', (byte)'D', (byte)'C'};
+    private static final int VERSION = 1;
+    /**
+     *  Weight of a symbol seen in the corpus relative to a symbol that wasn't, the unseen symbols of a stream's
+     *  alphabet get the smallest probability so the streams of other files can still use the table.
+     *
+     */
+    private static final int SEEN_SYMBOL_WEIGHT = 16;
+    /**
+     *  A probability table of the dictionary with everything the encoder and the decoder derive from it.
+     *
+     */
+    static final class Table
+    {
+        final int index;
+        final int precisionBits;
+        final int numSymbols;
+        final int[] probabilities;
+        /**
+         *  Number of bits a symbol costs, infinite for the symbols without probability.
+         *
+         */
+        final double[] bits;
+        private long[] encodingTable;
+        private long[] lookupTable;
+        Table(int index, int precisionBits, int[] probabilities)
+        {
+            this.index = index;
+            this.precisionBits = precisionBits;
+            this.numSymbols = probabilities.length;
+            this.probabilities = probabilities;
+            this.bits = new double[numSymbols];
+            double log2 = Math.log(2);
+            for (int i = 0; i < numSymbols; i++)
+            {
+                bits[i] = probabilities[i] == 0 ? Double.POSITIVE_INFINITY : precisionBits - (Math.log(probabilities[i]) / log2);
+            }
+            
+        }
+        
+        /**
+         *  Encoding entries of the symbols, see {@link dev.fileformat.drako.RAnsEncoder#setSymbol(long[], int, int, int)}
+         *
+         */
+        synchronized long[] getEncodingTable()
+        {
+            if (encodingTable == null)
+            {
+                RAnsEncoder ans = new RAnsEncoder(precisionBits);
+                long[] table = new long[numSymbols * 2];
+                int cumProb = 0;
+                for (int i = 0; i < numSymbols; i++)
+                {
+                    if (probabilities[i] > 0)
+                    {
+                        ans.setSymbol(table, i, probabilities[i], cumProb);
+                    }
+                    
+                    cumProb += probabilities[i];
+                }
+                
+                this.encodingTable = table;
+            }
+            
+            return encodingTable;
+        }
+        
+        /**
+         *  Lookup table of the decoder, see {@link dev.fileformat.drako.RAnsDecoder#buildLookupTable(int[], int)}
+         *
+         */
+        synchronized long[] getLookupTable()
+        {
+            if (lookupTable == null)
+            {
+                RAnsDecoder ans = new RAnsDecoder(precisionBits);
+                // The tables were validated when the dictionary was created.
+                ans.buildLookupTable(probabilities, numSymbols);
+                this.lookupTable = ans.getLookupTable();
+            }
+            
+            return lookupTable;
+        }
+        
+    }
+    
+    /**
+     *  Collects the frequencies of the symbol streams of the sample files, the i-th stream of every sample
+     *  adds up to the same table as long as the streams have the same precision.
+     *
+     */
+    static final class Trainer
+    {
+        private final HashMap<Integer, long[]> frequencies = new HashMap<Integer, long[]>();
+        private final ArrayList<Integer> keys = new ArrayList<Integer>();
+        private int ordinal;
+        void beginSample()
+        {
+            this.ordinal = 0;
+        }
+        
+        void record(int precisionBits, long[] streamFrequencies, int numFrequencies)
+        {
+            Integer key = ordinal++ << 5 | precisionBits;
+            long[] sum = frequencies.get(key);
+            if (sum == null)
+            {
+                sum = new long[numFrequencies];
+                keys.add(key);
+            }
+            else if (sum.length < numFrequencies)
+            {
+                sum = Arrays.copyOf(sum, numFrequencies);
+            }
+            
+            for (int i = 0; i < numFrequencies; i++)
+            {
+                sum[i] += streamFrequencies[i];
+            }
+            
+            frequencies.put(key, sum);
+        }
+        
+        DracoDictionary build(int id)
+        {
+            DracoDictionary ret = new DracoDictionary(id);
+            for (Integer key : keys)
+            {
+                int precisionBits = key & 31;
+                int precision = 1 << precisionBits;
+                long[] sum = frequencies.get(key);
+                int numSymbols = sum.length;
+                while (numSymbols > 0 && (sum[numSymbols - 1] == 0L))
+                {
+                    numSymbols--;
+                }
+                
+                // Every symbol needs a probability of at least 1.
+                if (numSymbols == 0 || (numSymbols > precision))
+                    continue;
+                long[] weights = new long[numSymbols];
+                long total = 0L;
+                for (int i = 0; i < numSymbols; i++)
+                {
+                    weights[i] = sum[i] * SEEN_SYMBOL_WEIGHT + 1L;
+                    total += weights[i];
+                }
+                
+                int[] probabilities = new int[numSymbols];
+                if (!RAnsSymbolEncoder.computeProbabilities(weights, numSymbols, total, precision, probabilities, null) || !DracoDictionary.isValid(precisionBits, probabilities))
+                    continue;
+                if (!ret.contains(precisionBits, probabilities))
+                {
+                    ret.addTable(precisionBits, probabilities);
+                }
+                
+            }
+            
+            return ret;
+        }
+        
+    }
+    
+    private final int id;
+    private final ArrayList<Table> tables = new ArrayList<Table>();
+    /**
+     *  Tables by precision bits, for the encoder to only compare the tables a stream can use.
+     *
+     */
+    private final Table[][] tablesByPrecision = new Table[21][];
+    /**
+     *  Creates an empty dictionary, a decoder uses it for the files whose dictionary isn't available,
+     *  only the streams that don't refer to a table can be decoded then.
+     *
+     */
+    DracoDictionary(int id)
+    {
+        this.id = id;
+    }
+    
+    /**
+     *  Id stored in the files encoded with this dictionary.
+     *
+     * @return Id stored in the files encoded with this dictionary.
+     */
+    public int getId()
+    {
+        return id;
+    }
+    
+    /**
+     *  Number of probability tables of the dictionary.
+     *
+     * @return Number of probability tables of the dictionary.
+     */
+    public int getNumTables()
+    {
+        return tables.size();
+    }
+    
+    /**
+     *  Trains a dictionary from sample files, the samples are encoded with the options and the frequencies of
+     *  the corresponding symbol streams are merged into one probability table per stream.
+     *  The samples should be encoded with the same options as the files that use the dictionary.
+     *
+     * @param id Id stored in the files encoded with the dictionary, decoders look the dictionary up by it
+     * @param samples The sample corpus
+     * @param options Encode options of the samples
+     * @return The trained dictionary
+     */
+    public static DracoDictionary train(int id, Iterable<? extends DracoPointCloud> samples, DracoEncodeOptions options)
+        throws DrakoException
+    {
+        if (id < 0)
+            throw new IllegalArgumentException("Argument id cannot be negative");
+        if (samples == null)
+            throw new IllegalArgumentException("Argument samples cannot be null");
+        if (options == null)
+            throw new IllegalArgumentException("Argument options cannot be null");
+        Trainer trainer = new Trainer();
+        for (DracoPointCloud sample : samples)
+        {
+            if (sample == null)
+                throw new IllegalArgumentException("Argument samples cannot contain null");
+            EncoderBuffer buffer = new EncoderBuffer();
+            buffer.setDictionaryTrainer(trainer);
+            trainer.beginSample();
+            Draco.encodeImpl(sample, options, buffer);
+        }
+        
+        return trainer.build(id);
+    }
+    
+    /**
+     *  Serializes the dictionary.
+     *
+     * @return The bytes to pass to {@link #decode(byte[])}
+     */
+    public byte[] encode()
+    {
+        EncoderBuffer buffer = new EncoderBuffer();
+        buffer.encode(MAGIC, MAGIC.length);
+        buffer.encode((byte)VERSION);
+        Encoding.encodeVarint2(id, buffer);
+        Encoding.encodeVarint2(tables.size(), buffer);
+        for (Table table : tables)
+        {
+            buffer.encode((byte)table.precisionBits);
+            RAnsSymbolEncoder.encodeProbabilities(table.probabilities, table.numSymbols, buffer);
+        }
+        
+        return Arrays.copyOf(buffer.getData(), buffer.getBytes());
+    }
+    
+    /**
+     *  Loads a dictionary serialized by {@link #encode()}.
+     *
+     * @param data Serialized dictionary
+     * @return The dictionary
+     */
+    public static DracoDictionary decode(byte[] data)
+        throws DrakoException
+    {
+        if (data == null)
+            throw new IllegalArgumentException("Argument data cannot be null");
+        DecoderBuffer buffer = new DecoderBuffer(data);
+        // The tables are stored like the tables of the symbol streams of the current bitstream.
+        buffer.setBitstreamVersion(22);
+        byte[] magic = new byte[MAGIC.length];
+        if (!buffer.decode(magic) || (DracoUtils.compare(magic, MAGIC, MAGIC.length) != 0))
+            throw DracoUtils.failed();
+        if (buffer.decodeU8() != VERSION)
+            throw DracoUtils.failed();
+        int id = Decoding.decodeVarintU32(buffer);
+        int numTables = Decoding.decodeVarintU32(buffer);
+        if (id < 0 || (numTables < 0))
+            throw DracoUtils.failed();
+        DracoDictionary ret = new DracoDictionary(id);
+        for (int i = 0; i < numTables; i++)
+        {
+            int precisionBits = 0xff & buffer.decodeU8();
+            if (precisionBits < 12 || (precisionBits > 20))
+                throw DracoUtils.failed();
+            int[] probabilities = RAnsSymbolDecoder.decodeProbabilities(buffer);
+            if (!DracoDictionary.isValid(precisionBits, probabilities))
+                throw DracoUtils.failed();
+            ret.addTable(precisionBits, probabilities);
+        }
+        
+        return ret;
+    }
+    
+    /**
+     *  Returns the table at |index|, or null if there's no such table.
+     *
+     */
+    Table getTable(int index)
+    {
+        if (index < 0 || (index >= tables.size()))
+            return null;
+        return tables.get(index);
+    }
+    
+    /**
+     *  Picks the table that encodes the first |numFrequencies| frequencies in the fewest bits, the bits are stored in outBits.
+     *  Returns null when no table can encode all symbols, or when the best table is expected to be larger than
+     *  an explicit table: the entropy of the symbols plus a byte per symbol that occurs.
+     *
+     */
+    Table select(int precisionBits, long[] frequencies, int numFrequencies, double[] outBits)
+    {
+        Table[] candidates = precisionBits < tablesByPrecision.length ? tablesByPrecision[precisionBits] : null;
+        if (candidates == null)
+            return null;
+        int maxSymbol = -1;
+        long total = 0L;
+        for (int i = 0; i < numFrequencies; i++)
+        {
+            if (frequencies[i] > 0L)
+            {
+                maxSymbol = i;
+                total += frequencies[i];
+            }
+            
+        }
+        
+        if (maxSymbol < 0)
+            return null;
+        Table best = null;
+        double bestBits = Double.POSITIVE_INFINITY;
+        for (Table table : candidates)
+        {
+            if (table.numSymbols <= maxSymbol)
+                continue;
+            double[] bits = table.bits;
+            double sum = 0.0;
+            for (int i = 0; i <= maxSymbol; i++)
+            {
+                if (frequencies[i] > 0L)
+                {
+                    sum += frequencies[i] * bits[i];
+                }
+                
+            }
+            
+            if (sum < bestBits)
+            {
+                best = table;
+                bestBits = sum;
+            }
+            
+        }
+        
+        if (best == null)
+            return null;
+        int[] numUniqueSymbols = new int[1];
+        long entropyBits = SymbolStatistics.computeShannonEntropy(frequencies, maxSymbol + 1, total, numUniqueSymbols);
+        long tableBits = 8L * (RAnsSymbolEncoder.varintLength(maxSymbol + 1) + numUniqueSymbols[0]);
+        if (bestBits > entropyBits + tableBits)
+            return null;
+        outBits[0] = bestBits;
+        return best;
+    }
+    
+    private void addTable(int precisionBits, int[] probabilities)
+    {
+        Table table = new Table(tables.size(), precisionBits, probabilities);
+        tables.add(table);
+        Table[] candidates = tablesByPrecision[precisionBits];
+        candidates = candidates == null ? new Table[1] : Arrays.copyOf(candidates, candidates.length + 1);
+        candidates[candidates.length - 1] = table;
+        tablesByPrecision[precisionBits] = candidates;
+    }
+    
+    private boolean contains(int precisionBits, int[] probabilities)
+    {
+        Table[] candidates = tablesByPrecision[precisionBits];
+        if (candidates == null)
+            return false;
+        for (Table table : candidates)
+        {
+            if (Arrays.equals(table.probabilities, probabilities))
+                return true;
+        }
+        
+        return false;
+    }
+    
+    /**
+     *  Returns true if the probabilities add up to the precision.
+     *
+     */
+    private static boolean isValid(int precisionBits, int[] probabilities)
+    {
+        if (probabilities.length == 0)
+            return false;
+        long sum = 0L;
+        for (int i = 0; i < probabilities.length; i++)
+        {
+            if (probabilities[i] < 0)
+                return false;
+            sum += probabilities[i];
+        }
+        
+        return sum == (1 << precisionBits);
+    }
+    
+}
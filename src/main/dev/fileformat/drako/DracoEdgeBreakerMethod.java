@@ -0,0 +1,26 @@
+package dev.fileformat.drako;
+/**
+ *  Method used by the edgebreaker encoder to store the mesh connectivity
+ *
+ */
+public enum DracoEdgeBreakerMethod
+{    
+    /**
+     *  Every traversal symbol is stored with a fixed length code, the fastest method.
+     *
+     */
+    STANDARD,
+    /**
+     *  Symbols are predicted from the valence of the next vertex assuming a regular mesh and the predictions are entropy coded.
+     *
+     */
+    PREDICTIVE,
+    /**
+     *  Symbols are entropy coded in contexts selected by the valence of the next vertex,
+     *  the best connectivity compression for dense and regular meshes such as scans.
+     *
+     */
+    VALENCE;
+    
+    
+}
@@ -1,4 +1,6 @@
 package dev.fileformat.drako;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 /**
  *  Save options for Google draco files
  *
@@ -142,6 +144,156 @@ public class DracoEncodeOptions
     }
     
     private boolean splitMeshOnSeams;
+    /**
+     *  Executor used to encode independent attributes in parallel, default value is null
+     *
+     * @return  Executor used to encode independent attributes in parallel, default value is null
+     */
+    public Executor getAttributeEncodingExecutor()
+    {
+        return this.attributeEncodingExecutor;
+    }
+    
+    /**
+     *  Executor used to encode independent attributes in parallel, default value is null.
+     *  When set, attribute encoders whose parent attributes are already encoded run concurrently, each into its own buffer,
+     *  and the results are concatenated in the bitstream order, so the output is identical to the sequential encoding.
+     *  The calling thread blocks until the attributes are encoded, use a {@link java.util.concurrent.ForkJoinPool}
+     *  or an executor that doesn't run the encode call itself to avoid starving a bounded pool.
+     *
+     * @param value New value, null to encode the attributes on the calling thread
+     */
+    public void setAttributeEncodingExecutor(Executor value)
+    {
+        this.attributeEncodingExecutor = value;
+    }
+    
+    private Executor attributeEncodingExecutor;
+    /**
+     *  Pool used to build the connectivity tables of large meshes, default value is null
+     *
+     * @return  Pool used to build the connectivity tables of large meshes, default value is null
+     */
+    public ForkJoinPool getConnectivityPool()
+    {
+        return this.connectivityPool;
+    }
+    
+    /**
+     *  Pool used to build the connectivity tables of large meshes, default value is null.
+     *  When set, the edgebreaker encoder of a mesh with at least 256K corners builds the corner table, the vertex valences
+     *  and the attribute seams on the pool. The tables are identical to the ones built on the calling thread.
+     *
+     * @param value New value, null to build the tables on the calling thread
+     */
+    public void setConnectivityPool(ForkJoinPool value)
+    {
+        this.connectivityPool = value;
+    }
+    
+    private ForkJoinPool connectivityPool;
+    /**
+     *  Number of interleaved rANS states used to entropy code the attribute values, default value is 1
+     *
+     * @return  Number of interleaved rANS states used to entropy code the attribute values, default value is 1
+     */
+    public int getRAnsLanes()
+    {
+        return this.rAnsLanes;
+    }
+    
+    /**
+     *  Number of interleaved rANS states used to entropy code the attribute values, default value is 1.
+     *  With 2, 4 or 8 lanes the symbols are spread over independent states so the decoder can overlap their
+     *  dependency chains, at the cost of a few bytes per stream.
+     *  This is an extension of the draco bitstream declared by a header flag, only this library can decode it,
+     *  the default value of 1 produces standard draco files.
+     *
+     * @param value 1, 2, 4 or 8
+     */
+    public void setRAnsLanes(int value)
+    {
+        if (value < 1 || (value > RAnsBitCodec.MAX_RANS_LANES) || ((value & (value - 1)) != 0))
+            throw new IllegalArgumentException("Argument value must be 1, 2, 4 or 8");
+        this.rAnsLanes = value;
+    }
+    
+    private int rAnsLanes = 1;
+    /**
+     *  Choose the entropy coding scheme of large value streams from a sample, default value is false
+     *
+     * @return  Choose the entropy coding scheme of large value streams from a sample, default value is false
+     */
+    public boolean getSampledSchemeSelection()
+    {
+        return this.sampledSchemeSelection;
+    }
+    
+    /**
+     *  Choose the entropy coding scheme of large value streams from a sample, default value is false.
+     *  Streams of a million values or more are then sized from evenly spread blocks of about 6% of the values,
+     *  so only the statistics the chosen scheme needs are gathered over the whole stream, at the risk of
+     *  picking the slightly larger scheme.
+     *
+     * @param value New value
+     */
+    public void setSampledSchemeSelection(boolean value)
+    {
+        this.sampledSchemeSelection = value;
+    }
+    
+    private boolean sampledSchemeSelection;
+    /**
+     *  Dictionary of probability tables shared by a family of similar files, default value is null
+     *
+     * @return  Dictionary of probability tables shared by a family of similar files, default value is null
+     */
+    public DracoDictionary getDictionary()
+    {
+        return this.dictionary;
+    }
+    
+    /**
+     *  Dictionary of probability tables shared by a family of similar files, default value is null.
+     *  A symbol stream refers to a table of the dictionary instead of storing its own table when that's expected to be smaller,
+     *  which saves the table construction and most of the table bytes of small files.
+     *  The body of the file is encoded in memory before it's written, when no stream uses a table it's encoded
+     *  again without the dictionary so the file is never larger than a standard draco file.
+     *  This is an extension of the draco bitstream declared by a header flag, the files can only be decoded by this library
+     *  with the same dictionary passed to {@link dev.fileformat.drako.DracoLoadOptions#addDictionary(DracoDictionary)}.
+     *
+     * @param value A dictionary trained by {@link dev.fileformat.drako.DracoDictionary#train(int, Iterable, DracoEncodeOptions)}, null to produce standard draco files
+     */
+    public void setDictionary(DracoDictionary value)
+    {
+        this.dictionary = value;
+    }
+    
+    private DracoDictionary dictionary;
+    /**
+     *  Method used to encode the connectivity of meshes, default value is null
+     *
+     * @return  Method used to encode the connectivity of meshes, default value is null
+     */
+    public DracoEdgeBreakerMethod getEdgeBreakerMethod()
+    {
+        return this.edgeBreakerMethod;
+    }
+    
+    /**
+     *  Method used to encode the connectivity of meshes, default value is null.
+     *  When null the method follows the compression level, {@link dev.fileformat.drako.DracoEdgeBreakerMethod#PREDICTIVE}
+     *  for {@link dev.fileformat.drako.DracoCompressionLevel#OPTIMAL} and {@link dev.fileformat.drako.DracoEdgeBreakerMethod#STANDARD} otherwise.
+     *  Not used by {@link dev.fileformat.drako.DracoCompressionLevel#NO_COMPRESSION} which stores the faces without edgebreaker.
+     *
+     * @param value New value
+     */
+    public void setEdgeBreakerMethod(DracoEdgeBreakerMethod value)
+    {
+        this.edgeBreakerMethod = value;
+    }
+    
+    private DracoEdgeBreakerMethod edgeBreakerMethod;
     // value is defined in Encoding Tagged/Raw
     // 
     Integer getSymbolEncodingMethod()
@@ -0,0 +1,103 @@
+package dev.fileformat.drako;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+/**
+ *  A reusable encoder that keeps its output buffer and scratch memory(corner table, traversal flags,
+ *  vertex maps, correction and frequency tables) between calls, so encoding many small models doesn't
+ *  allocate the same temporary structures again and again.
+ *  An instance is not thread-safe, use one instance per thread.
+ *
+ */
+public class DracoEncoder
+{    
+    private EncoderBuffer buffer = new EncoderBuffer();
+    private final EncoderWorkspace workspace = new EncoderWorkspace();
+    /**
+     *  Encode the point cloud or mesh and get the encoded bytes in draco format.
+     *  The output is identical to {@link dev.fileformat.drako.Draco#encode(DracoPointCloud, DracoEncodeOptions)}.
+     *
+     * @param m The {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} instance
+     * @param options Encode options
+     * @return Bytes in draco format
+     */
+    public byte[] encode(DracoPointCloud m, DracoEncodeOptions options)
+        throws DrakoException
+    {
+        if (m == null)
+            throw new IllegalArgumentException("Argument m cannot be null");
+        if (options == null)
+            throw new IllegalArgumentException("Argument options cannot be null");
+        this.prepare();
+        Draco.encodeImpl(m, options, buffer);
+        byte[] ret = new byte[buffer.getBytes()];
+        System.arraycopy(buffer.getData(), 0, ret, 0, buffer.getBytes());
+        return ret;
+    }
+    
+    /**
+     *  Encode the point cloud or mesh to the output stream.
+     *  Each section is written as soon as it's encoded, the retained buffer only grows to the largest section.
+     *
+     * @param m The {@link dev.fileformat.drako.DracoPointCloud} or {@link dev.fileformat.drako.DracoMesh} instance
+     * @param options Encode options
+     * @param stream The output stream, it's not closed after encoding.
+     */
+    public void encode(DracoPointCloud m, DracoEncodeOptions options, OutputStream stream)
+        throws IOException, DrakoException
+    {
+        if (m == null)
+            throw new IllegalArgumentException("Argument m cannot be null");
+        if (options == null)
+            throw new IllegalArgumentException("Argument options cannot be null");
+        if (stream == null)
+            throw new IllegalArgumentException("Argument stream cannot be null");
+        this.prepare();
+        buffer.setSink(Channels.newChannel(stream));
+        try
+        {
+            Draco.encodeImpl(m, options, buffer);
+            buffer.flush();
+        }
+        catch(UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+        finally
+        {
+            buffer.setSink(null);
+        }
+        
+        stream.flush();
+    }
+    
+    private void prepare()
+    {
+        workspace.reset();
+        buffer.clear();
+        buffer.setWorkspace(workspace);
+    }
+    
+    /**
+     *  Clears the content left by the previous encode but keeps the capacity of the buffers.
+     *  The encode methods do this implicitly.
+     *
+     */
+    public void reset()
+    {
+        workspace.reset();
+        buffer.clear();
+    }
+    
+    /**
+     *  Releases the retained output buffer and scratch memory, the encoder can still be used afterwards.
+     *
+     */
+    public void release()
+    {
+        workspace.release();
+        this.buffer = new EncoderBuffer();
+    }
+    
+}
@@ -2,6 +2,23 @@ package dev.fileformat.drako;
 class DracoHeader
 {    
     public static final int METADATA_FLAG_MASK = 0x8000;
+    /**
+     *  Extension of this library, the symbol streams may use interleaved rANS states,
+     *  see {@link dev.fileformat.drako.DracoEncodeOptions#setRAnsLanes(int)}
+     *
+     */
+    public static final int INTERLEAVED_RANS_FLAG_MASK = 0x4000;
+    /**
+     *  Extension of this library, the id of a {@link dev.fileformat.drako.DracoDictionary} follows the header
+     *  and the symbol streams may use its probability tables.
+     *
+     */
+    public static final int DICTIONARY_FLAG_MASK = 0x2000;
+    /**
+     *  Flags this decoder understands, files with any other flag are rejected.
+     *
+     */
+    public static final int KNOWN_FLAGS = METADATA_FLAG_MASK | INTERLEAVED_RANS_FLAG_MASK | DICTIONARY_FLAG_MASK;
     private static final byte[] HEADER = {(byte)'D', (byte)'R', (byte)'A', (byte)'C', (byte)'O'};
     private byte major;
     private byte minor;
@@ -9,6 +26,11 @@ class DracoHeader
     public short flags;
     public int encoderType;
     public int method;
+    /**
+     *  Id of the dictionary the file was encoded with, valid when the flags have {@link #DICTIONARY_FLAG_MASK}.
+     *
+     */
+    public int dictionaryId;
     public static DracoHeader parse(DecoderBuffer buffer)
         throws DrakoException
     {
@@ -28,6 +50,11 @@ class DracoHeader
         t = buffer.decodeU8();
         ret.method = (int)(0xff & t);
         ret.flags = buffer.decodeU16();
+        if ((ret.flags & DICTIONARY_FLAG_MASK) != 0)
+        {
+            ret.dictionaryId = Decoding.decodeVarintU32(buffer);
+        }
+        
         return ret;
     }
     
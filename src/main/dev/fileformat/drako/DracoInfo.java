@@ -0,0 +1,108 @@
+package dev.fileformat.drako;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+/**
+ *  Summary of a draco file: header, metadata and attribute descriptors, returned by {@link dev.fileformat.drako.Draco#probe(byte[])}.
+ *
+ */
+public final class DracoInfo
+{    
+    private final int majorVersion;
+    private final int minorVersion;
+    private final boolean mesh;
+    private final int encodingMethod;
+    private final int flags;
+    private final GeometryMetadata metadata;
+    private final int numPoints;
+    private final int numFaces;
+    private final List<DracoAttributeInfo> attributes;
+    DracoInfo(DracoHeader header, DracoPointCloud pc, int numFaces)
+    {
+        this.majorVersion = header.version / 10;
+        this.minorVersion = header.version % 10;
+        this.mesh = header.encoderType == EncodedGeometryType.TRIANGULAR_MESH;
+        this.encodingMethod = header.method;
+        this.flags = 0xffff & header.flags;
+        this.metadata = pc.getMetadatas().isEmpty() ? null : pc.getMetadatas().get(0);
+        this.numPoints = pc.getNumPoints();
+        this.numFaces = numFaces;
+        ArrayList<DracoAttributeInfo> list = new ArrayList<DracoAttributeInfo>();
+        for (int i = 0; i < pc.getNumAttributes(); i++)
+        {
+            list.add(new DracoAttributeInfo(pc.attribute(i), numPoints));
+        }
+        
+        this.attributes = Collections.unmodifiableList(list);
+    }
+    
+    public int getMajorVersion()
+    {
+        return majorVersion;
+    }
+    
+    public int getMinorVersion()
+    {
+        return minorVersion;
+    }
+    
+    /**
+     *  True if the file contains a {@link dev.fileformat.drako.DracoMesh}, false for a {@link dev.fileformat.drako.DracoPointCloud}
+     *
+     */
+    public boolean isMesh()
+    {
+        return mesh;
+    }
+    
+    /**
+     *  0 for sequential encoding, 1 for edgebreaker(meshes) or kd-tree(point clouds).
+     *
+     */
+    public int getEncodingMethod()
+    {
+        return encodingMethod;
+    }
+    
+    /**
+     *  Raw header flags.
+     *
+     */
+    public int getFlags()
+    {
+        return flags;
+    }
+    
+    /**
+     *  The geometry metadata, or null if the file has none.
+     *
+     */
+    public GeometryMetadata getMetadata()
+    {
+        return metadata;
+    }
+    
+    /**
+     *  Number of points, or -1 when it's only known after decoding the connectivity(edgebreaker meshes).
+     *
+     */
+    public int getNumPoints()
+    {
+        return numPoints;
+    }
+    
+    /**
+     *  Number of encoded faces, 0 for point clouds.
+     *
+     */
+    public int getNumFaces()
+    {
+        return numFaces;
+    }
+    
+    public List<DracoAttributeInfo> getAttributes()
+    {
+        return attributes;
+    }
+    
+}
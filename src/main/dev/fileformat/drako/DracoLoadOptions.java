@@ -0,0 +1,153 @@
+package dev.fileformat.drako;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+/**
+ *  Load options for Google draco files
+ *
+ */
+public class DracoLoadOptions
+{    
+    boolean skipAttributeTransform = false;
+    boolean flipTextureCoordinateV = true;
+    private final HashSet<Integer> attributeTypes = new HashSet<Integer>();
+    private final HashSet<Short> uniqueIds = new HashSet<Short>();
+    private Executor attributeDecodingExecutor;
+    private ForkJoinPool connectivityPool;
+    private final HashMap<Integer, DracoDictionary> dictionaries = new HashMap<Integer, DracoDictionary>();
+    /**
+     *  Keep the attributes in their portable format(quantized integers, octahedral coordinates), default value is false
+     *
+     * @return  Keep the attributes in their portable format, default value is false
+     */
+    public boolean getSkipAttributeTransform()
+    {
+        return this.skipAttributeTransform;
+    }
+    
+    /**
+     *  Keep the attributes in their portable format(quantized integers, octahedral coordinates), default value is false
+     *
+     * @param value New value
+     */
+    public void setSkipAttributeTransform(boolean value)
+    {
+        this.skipAttributeTransform = value;
+    }
+    
+    /**
+     *  Request the attributes of given type to be decoded.
+     *  When no attribute type or unique id is requested all attributes are decoded,
+     *  otherwise the decoded point cloud only contains the requested attributes.
+     *
+     * @param type Attribute type defined by {@link dev.fileformat.drako.AttributeType}
+     */
+    public void addAttributeType(int type)
+    {
+        attributeTypes.add(type);
+    }
+    
+    /**
+     *  Request the attribute with given unique id to be decoded.
+     *  When no attribute type or unique id is requested all attributes are decoded,
+     *  otherwise the decoded point cloud only contains the requested attributes.
+     *
+     * @param uniqueId Unique id of the attribute, see {@link dev.fileformat.drako.DracoAttributeInfo#getUniqueId()}
+     */
+    public void addUniqueId(short uniqueId)
+    {
+        uniqueIds.add(uniqueId);
+    }
+    
+    /**
+     *  Removes all requested attribute types and unique ids, all attributes will be decoded.
+     *
+     */
+    public void clearRequestedAttributes()
+    {
+        attributeTypes.clear();
+        uniqueIds.clear();
+    }
+    
+    /**
+     *  Returns true if only a subset of the attributes is requested.
+     *
+     */
+    public boolean hasRequestedAttributes()
+    {
+        return !attributeTypes.isEmpty() || !uniqueIds.isEmpty();
+    }
+    
+    /**
+     *  Executor used to compute the values of independent attributes concurrently, default value is null.
+     *
+     * @return  Executor used to compute the values of independent attributes concurrently, default value is null.
+     */
+    public Executor getAttributeDecodingExecutor()
+    {
+        return this.attributeDecodingExecutor;
+    }
+    
+    /**
+     *  Executor used to compute the values of independent attributes concurrently, default value is null.
+     *  The encoded data is still read sequentially on the calling thread, only the reconstruction of the values
+     *  from the predictions and the attribute transforms run on the executor, an attribute is scheduled once
+     *  the attributes its prediction depends on are complete.
+     *  When null, all attributes are decoded on the calling thread.
+     *
+     * @param value New value
+     */
+    public void setAttributeDecodingExecutor(Executor value)
+    {
+        this.attributeDecodingExecutor = value;
+    }
+    
+    /**
+     *  Pool used to build the attribute connectivity tables of large meshes, default value is null.
+     *
+     * @return  Pool used to build the attribute connectivity tables of large meshes, default value is null.
+     */
+    public ForkJoinPool getConnectivityPool()
+    {
+        return this.connectivityPool;
+    }
+    
+    /**
+     *  Pool used to build the attribute connectivity tables of large meshes, default value is null.
+     *  When set, the edgebreaker decoder of a mesh with at least 256K corners adds the attribute seams and splits
+     *  the vertices on them on the pool. The tables are identical to the ones built on the calling thread.
+     *
+     * @param value New value, null to build the tables on the calling thread
+     */
+    public void setConnectivityPool(ForkJoinPool value)
+    {
+        this.connectivityPool = value;
+    }
+    
+    /**
+     *  Makes the dictionary available to the files that were encoded with it, see {@link dev.fileformat.drako.DracoEncodeOptions#setDictionary(DracoDictionary)}.
+     *  A dictionary replaces the one previously added with the same id.
+     *
+     * @param dictionary The dictionary
+     */
+    public void addDictionary(DracoDictionary dictionary)
+    {
+        if (dictionary == null)
+            throw new IllegalArgumentException("Argument dictionary cannot be null");
+        dictionaries.put(dictionary.getId(), dictionary);
+    }
+    
+    DracoDictionary getDictionary(int id)
+    {
+        return dictionaries.get(id);
+    }
+    
+    boolean isRequested(PointAttribute attribute)
+    {
+        if (!this.hasRequestedAttributes())
+            return true;
+        return attributeTypes.contains(attribute.getAttributeType()) || uniqueIds.contains(attribute.getUniqueId());
+    }
+    
+}
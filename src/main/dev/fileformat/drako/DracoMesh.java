@@ -69,6 +69,23 @@ public class DracoMesh extends DracoPointCloud
         return super.addAttribute(pa);
     }
     
+    @Override
+    void retainAttributes(boolean[] keep)
+    {
+        ArrayList<AttributeData> oldAttributeData = attributeData;
+        this.attributeData = new ArrayList<AttributeData>();
+        for (int i = 0; i < oldAttributeData.size(); ++i)
+        {
+            if (keep[i])
+            {
+                attributeData.add(oldAttributeData.get(i));
+            }
+            
+        }
+        
+        super.retainAttributes(keep);
+    }
+    
     public void setFace(int faceId, int[] face)
     {
         if (faceId >= this.getNumFaces())
@@ -139,28 +156,80 @@ public class DracoMesh extends DracoPointCloud
     
     static DracoPointCloud decode(DecoderBuffer buffer, boolean decodeData)
         throws DrakoException
+    {
+        return DracoMesh.decode(buffer, decodeData, null);
+    }
+    
+    static DracoPointCloud decode(DecoderBuffer buffer, boolean decodeData, DracoLoadOptions options)
+        throws DrakoException
     {
         DracoHeader header = DracoHeader.parse(buffer);
         if (header == null)
             return null;
         if (header.encoderType == EncodedGeometryType.TRIANGULAR_MESH)
-            return DracoMesh.decodeMesh(buffer, header, decodeData);else if (header.encoderType == EncodedGeometryType.POINT_CLOUD)
-            return DracoMesh.decodePointCloud(buffer, header, decodeData);
+            return DracoMesh.decodeMesh(buffer, header, decodeData, options);else if (header.encoderType == EncodedGeometryType.POINT_CLOUD)
+            return DracoMesh.decodePointCloud(buffer, header, decodeData, options);
         return null;
     }
     
+    /**
+     *  Reads the header, metadata and attribute descriptors, returns null on error.
+     *
+     */
+    static DracoInfo probe(DecoderBuffer buffer)
+        throws DrakoException
+    {
+        DracoHeader header = DracoHeader.parse(buffer);
+        if (header == null)
+            return null;
+        buffer.setBitstreamVersion(header.version);
+        PointCloudDecoder decoder;
+        DracoPointCloud ret;
+        if (header.encoderType == EncodedGeometryType.TRIANGULAR_MESH)
+        {
+            decoder = DracoMesh.createMeshDecoder(header.method);
+            ret = new DracoMesh();
+        }
+        else if (header.encoderType == EncodedGeometryType.POINT_CLOUD)
+        {
+            decoder = DracoMesh.createPointCloudDecoder(header.method);
+            ret = new DracoPointCloud();
+        }
+        else
+            return null;
+        if (decoder == null)
+            return null;
+        decoder.probeOnly = true;
+        try
+        {
+            decoder.decode(header, buffer, ret, false);
+        }
+        catch(Exception $e)
+        {
+            return null;
+        }
+        
+        int numFaces = decoder instanceof MeshDecoder ? ((MeshDecoder)decoder).getNumEncodedFaces() : 0;
+        return new DracoInfo(header, ret, numFaces);
+    }
+    
     static DracoPointCloud decode(DecoderBuffer buffer)
         throws DrakoException
     {
         return DracoMesh.decode(buffer, true);
     }
     
-    private static DracoPointCloud decodePointCloud(DecoderBuffer buffer, DracoHeader header, boolean decodeData)
+    private static DracoPointCloud decodePointCloud(DecoderBuffer buffer, DracoHeader header, boolean decodeData, DracoLoadOptions options)
     {
         buffer.setBitstreamVersion(header.version);
         PointCloudDecoder decoder = DracoMesh.createPointCloudDecoder(header.method);
         if (decoder == null)
             return null;
+        if (options != null)
+        {
+            decoder.options = options;
+        }
+        
         try
         {
             DracoPointCloud ret = new DracoPointCloud();
@@ -174,12 +243,17 @@ public class DracoMesh extends DracoPointCloud
         
     }
     
-    private static DracoMesh decodeMesh(DecoderBuffer buffer, DracoHeader header, boolean decodeData)
+    private static DracoMesh decodeMesh(DecoderBuffer buffer, DracoHeader header, boolean decodeData, DracoLoadOptions options)
     {
         buffer.setBitstreamVersion(header.version);
         MeshDecoder decoder = DracoMesh.createMeshDecoder(header.method);
         if (decoder == null)
             return null;
+        if (options != null)
+        {
+            decoder.options = options;
+        }
+        
         try
         {
             DracoMesh ret = new DracoMesh();
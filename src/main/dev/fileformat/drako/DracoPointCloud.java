@@ -413,6 +413,39 @@ public class DracoPointCloud
         
     }
     
+    /**
+     *  Removes the attributes whose keep flag is not set, the remaining attributes keep their order.
+     *
+     */
+    void retainAttributes(boolean[] keep)
+    {
+        ArrayList<PointAttribute> oldAttributes = attributes;
+        this.attributes = new ArrayList<PointAttribute>();
+        for (int i = 0; i < namedAttributeIndex.length; ++i)
+        {
+            if (namedAttributeIndex[i] != null)
+            {
+                namedAttributeIndex[i].clear();
+            }
+            
+        }
+        
+        for (int i = 0; i < oldAttributes.size(); ++i)
+        {
+            if (!keep[i])
+                continue;
+            PointAttribute pa = oldAttributes.get(i);
+            attributes.add(pa);
+            if (namedAttributeIndex[pa.getAttributeType()] == null)
+            {
+                namedAttributeIndex[pa.getAttributeType()] = new IntList();
+            }
+            
+            namedAttributeIndex[pa.getAttributeType()].add(attributes.size() - 1);
+        }
+        
+    }
+    
     PointAttribute getAttributeByUniqueId(int uniqueId)
     {
         for (int i = 0; i < attributes.size(); ++i)
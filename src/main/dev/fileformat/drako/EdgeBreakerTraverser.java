@@ -26,18 +26,18 @@ class EdgeBreakerTraverser<TCornerTable extends ICornerTable> extends TraverserB
     {
         cornerTraversalStack.clear();
         cornerTraversalStack.add(cornerId);
-        int nextVert = this.corner_table_.vertex(this.corner_table_.next(cornerId));
-        int prevVert = this.corner_table_.vertex(this.corner_table_.previous(cornerId));
+        int nextVert = this.corners.vertex(this.corners.next(cornerId));
+        int prevVert = this.corners.vertex(this.corners.previous(cornerId));
         if (!this.isVertexVisited(nextVert))
         {
             this.markVertexVisited(nextVert);
-            traversalObserver.onNewVertexVisited(nextVert, this.corner_table_.next(cornerId));
+            traversalObserver.onNewVertexVisited(nextVert, this.corners.next(cornerId));
         }
         
         if (!this.isVertexVisited(prevVert))
         {
             this.markVertexVisited(prevVert);
-            traversalObserver.onNewVertexVisited(prevVert, this.corner_table_.previous(cornerId));
+            traversalObserver.onNewVertexVisited(prevVert, this.corners.previous(cornerId));
         }
         
         
@@ -60,22 +60,22 @@ class EdgeBreakerTraverser<TCornerTable extends ICornerTable> extends TraverserB
                 faceId = cornerId / 3;
                 this.markFaceVisited(faceId);
                 traversalObserver.onNewFaceVisited(faceId);
-                int vertId = this.corner_table_.vertex(cornerId);
-                boolean onBoundary = this.corner_table_.isOnBoundary(vertId);
+                int vertId = this.corners.vertex(cornerId);
+                boolean onBoundary = this.corners.isOnBoundary(vertId);
                 if (!this.isVertexVisited(vertId))
                 {
                     this.markVertexVisited(vertId);
                     traversalObserver.onNewVertexVisited(vertId, cornerId);
                     if (!onBoundary)
                     {
-                        cornerId = this.corner_table_.getRightCorner(cornerId);
+                        cornerId = this.corners.getRightCorner(cornerId);
                         continue;
                     }
                     
                 }
                 
-                int rightCornerId = this.corner_table_.getRightCorner(cornerId);
-                int leftCornerId = this.corner_table_.getLeftCorner(cornerId);
+                int rightCornerId = this.corners.getRightCorner(cornerId);
+                int leftCornerId = this.corners.getLeftCorner(cornerId);
                 int rightFaceId = rightCornerId < 0 ? -1 : rightCornerId / 3;
                 int leftFaceId = leftCornerId < 0 ? -1 : leftCornerId / 3;
                 if (this.isFaceVisited(rightFaceId))
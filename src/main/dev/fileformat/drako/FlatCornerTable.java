@@ -0,0 +1,117 @@
+package dev.fileformat.drako;
+/**
+ *  Connectivity of a {@link dev.fileformat.drako.CornerTable} or a {@link dev.fileformat.drako.MeshAttributeCornerTable}
+ *  stored in plain arrays, used by the traversal and prediction loops.
+ *  Calls through {@link dev.fileformat.drako.ICornerTable} become megamorphic once both tables are in use and are not inlined,
+ *  this class is final and the same for both tables so the loops only ever see one implementation.
+ *  The arrays are shared with the table where possible, the view must not be used after the table is modified.
+ *
+ */
+final class FlatCornerTable
+{    
+    /**
+     *  Opposite corner of every corner, -1 for corners opposite to a boundary or an attribute seam.
+     *
+     */
+    final int[] oppositeCorners;
+    /**
+     *  Vertex of every corner.
+     *
+     */
+    final int[] cornerToVertexMap;
+    private final ICornerTable table;
+    /**
+     *  Boundary flags of the vertices, only the traversers need them so they're computed on first use.
+     *
+     */
+    private boolean[] isVertexOnBoundary;
+    /**
+     *  Creates the view of |table|, the arrays must hold the same values as the table's opposite and vertex methods.
+     *
+     */
+    FlatCornerTable(ICornerTable table, int[] oppositeCorners, int[] cornerToVertexMap)
+    {
+        this.table = table;
+        this.oppositeCorners = oppositeCorners;
+        this.cornerToVertexMap = cornerToVertexMap;
+    }
+    
+    public int getNumVertices()
+    {
+        return table.getNumVertices();
+    }
+    
+    public int next(int corner)
+    {
+        if (corner < 0)
+            return corner;
+        return ICornerTable.localIndex(++corner) != 0 ? corner : corner - 3;
+    }
+    
+    public int previous(int corner)
+    {
+        if (corner < 0)
+            return corner;
+        return ICornerTable.localIndex(corner) != 0 ? corner - 1 : corner + 2;
+    }
+    
+    public int vertex(int corner)
+    {
+        if (corner < 0)
+            return -1;
+        return cornerToVertexMap[corner];
+    }
+    
+    public int opposite(int corner)
+    {
+        if (corner < 0)
+            return corner;
+        return oppositeCorners[corner];
+    }
+    
+    public boolean isOnBoundary(int vert)
+    {
+        if (isVertexOnBoundary == null)
+        {
+            this.computeBoundaries();
+        }
+        
+        return isVertexOnBoundary[vert];
+    }
+    
+    private void computeBoundaries()
+    {
+        boolean[] flags = new boolean[table.getNumVertices()];
+        for (int v = 0; v < flags.length; v++)
+        {
+            flags[v] = table.isOnBoundary(v);
+        }
+        
+        this.isVertexOnBoundary = flags;
+    }
+    
+    public int getLeftCorner(int corner)
+    {
+        if (corner < 0)
+            return -1;
+        return this.opposite(this.previous(corner));
+    }
+    
+    public int getRightCorner(int corner)
+    {
+        if (corner < 0)
+            return -1;
+        return this.opposite(this.next(corner));
+    }
+    
+    public int swingRight(int corner)
+    {
+        return this.previous(this.opposite(this.previous(corner)));
+    }
+    
+    public int swingLeft(int corner)
+    {
+        return this.next(this.opposite(this.next(corner)));
+    }
+    
+}
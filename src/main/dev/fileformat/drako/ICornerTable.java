@@ -40,5 +40,11 @@ abstract class ICornerTable
     
     public abstract int swingLeft(int corner);
     
+    /**
+     *  Copies the connectivity into a {@link dev.fileformat.drako.FlatCornerTable} for the traversal and prediction loops.
+     *
+     */
+    public abstract FlatCornerTable toFlatTable();
+    
     
 }
@@ -1,4 +1,5 @@
 package dev.fileformat.drako;
+import java.util.concurrent.ForkJoinPool;
 class MeshAttributeCornerTable extends ICornerTable
 {    
     private static final int K_INVALID_VERTEX_INDEX = -1;
@@ -48,13 +49,49 @@ class MeshAttributeCornerTable extends ICornerTable
     }
     
     public MeshAttributeCornerTable(DracoMesh mesh, CornerTable table, PointAttribute att)
+    {
+        this(mesh, table, att, null);
+    }
+    
+    /**
+     *  Builds the table of |att|, the seam edges and the vertices of large meshes are computed on |pool|.
+     *
+     * @param pool Pool used for large meshes, null to build the table on the calling thread
+     */
+    public MeshAttributeCornerTable(DracoMesh mesh, CornerTable table, PointAttribute att, ForkJoinPool pool)
     {
         this(table);
         
         // Find all necessary data for encoding attributes. For now we check which of
         // the mesh vertices is part of an attribute seam, because seams require
         // special handling.
-        for (int c = 0; c < cornerTable.getNumCorners(); ++c)
+        boolean interiorSeams;
+        if (CornerTableBuilder.isParallel(pool, cornerTable.getNumCorners()))
+        {
+            interiorSeams = new CornerTableBuilder().findSeamEdges(this, mesh, att, pool);
+        }
+        else
+        {
+            interiorSeams = this.findSeamEdges(mesh, att, 0, cornerTable.getNumCorners());
+        }
+        
+        if (interiorSeams)
+        {
+            this.noInteriorSeams = false;
+        }
+        
+        this.recomputeVertices(mesh, att, pool);
+    }
+    
+    /**
+     *  Marks the seam edges of the corners [start, end), returns true if an interior seam was found.
+     *  Ranges can be processed concurrently, the seam flags are only ever set.
+     *
+     */
+    boolean findSeamEdges(DracoMesh mesh, PointAttribute att, int start, int end)
+    {
+        boolean ret = false;
+        for (int c = start; c < end; ++c)
         {
             int f = cornerTable.face(c);
             if (cornerTable.isDegenerated(f))
@@ -87,7 +124,7 @@ class MeshAttributeCornerTable extends ICornerTable
                 int siblingPointId = DracoUtils.cornerToPointId(actSiblingC, mesh);
                 if (att.mappedIndex(pointId) != att.mappedIndex(siblingPointId))
                 {
-                    this.noInteriorSeams = false;
+                    ret = true;
                     isEdgeOnSeam[c] = true;
                     isEdgeOnSeam[oppCorner] = true;
                     // Mark seam vertices.
@@ -102,24 +139,60 @@ class MeshAttributeCornerTable extends ICornerTable
             
         }
         
-        this.recomputeVertices(mesh, att);
+        return ret;
     }
     
     public void addSeamEdge(int c)
+    {
+        if (this.markSeamEdge(c))
+        {
+            this.noInteriorSeams = false;
+        }
+        
+    }
+    
+    /**
+     *  Adds the seam edges of all |corners|, large meshes are processed on |pool|.
+     *
+     */
+    public void addSeamEdges(IntList corners, ForkJoinPool pool)
+    {
+        if (CornerTableBuilder.isParallel(pool, corners.getCount()))
+        {
+            if (new CornerTableBuilder().addSeamEdges(this, corners, pool))
+            {
+                this.noInteriorSeams = false;
+            }
+            
+        }
+        else
+        {
+            for (int i = 0; i < corners.getCount(); i++)
+            {
+                this.addSeamEdge(corners.get(i));
+            }
+            
+        }
+        
+    }
+    
+    /**
+     *  Marks the edge opposite to |c| as seam edge, returns true if the edge is an interior edge.
+     *
+     */
+    boolean markSeamEdge(int c)
     {
         isEdgeOnSeam[c] = true;
         // Mark seam vertices.
         isVertexOnSeam[cornerTable.vertex(cornerTable.next(c))] = true;
         isVertexOnSeam[cornerTable.vertex(cornerTable.previous(c))] = true;
         int oppCorner = cornerTable.opposite(c);
-        if (oppCorner >= 0)
-        {
-            this.noInteriorSeams = false;
-            isEdgeOnSeam[oppCorner] = true;
-            isVertexOnSeam[cornerTable.vertex(cornerTable.next(oppCorner))] = true;
-            isVertexOnSeam[cornerTable.vertex(cornerTable.previous(oppCorner))] = true;
-        }
-        
+        if (oppCorner < 0)
+            return false;
+        isEdgeOnSeam[oppCorner] = true;
+        isVertexOnSeam[cornerTable.vertex(cornerTable.next(oppCorner))] = true;
+        isVertexOnSeam[cornerTable.vertex(cornerTable.previous(oppCorner))] = true;
+        return true;
     }
     
     /**
@@ -131,84 +204,133 @@ class MeshAttributeCornerTable extends ICornerTable
      */
     public void recomputeVertices(DracoMesh mesh, PointAttribute att)
     {
+        this.recomputeVertices(mesh, att, null);
+    }
+    
+    /**
+     *  Recomputes the vertices, the vertices of large meshes are computed on |pool|.
+     *
+     */
+    public void recomputeVertices(DracoMesh mesh, PointAttribute att, ForkJoinPool pool)
+    {
+        if (mesh == null || (att == null))
+        {
+            mesh = null;
+            att = null;
+        }
         
-        if (mesh != null && (att != null))
+        vertexToAttributeEntryIdMap.clear();
+        vertexToLeftMostCornerMap.clear();
+        if (CornerTableBuilder.isParallel(pool, cornerTable.getNumCorners()))
         {
-            this.recomputeVerticesInternal(true, mesh, att);
+            new CornerTableBuilder().recomputeVertices(this, mesh, att, pool);
         }
         else
         {
-            this.recomputeVerticesInternal(false, null, null);
+            int numNewVertices = 0;
+            for (int v = 0; v < cornerTable.getNumVertices(); ++v)
+            {
+                numNewVertices += this.recomputeVertex(v, numNewVertices, false, mesh, att);
+            }
+            
         }
         
     }
     
-    public void recomputeVerticesInternal(boolean initVertexToAttributeEntryMap, DracoMesh mesh, PointAttribute att)
+    /**
+     *  Sizes the vertex maps for |numVertices| vertices that are then stored by {@link #recomputeVertex}.
+     *
+     */
+    void resizeVertices(int numVertices)
+    {
+        vertexToAttributeEntryIdMap.resize(numVertices);
+        vertexToLeftMostCornerMap.resize(numVertices);
+    }
+    
+    /**
+     *  Creates the vertices of the mesh vertex |v| starting from |firstVertId| and returns their number,
+     *  with |countOnly| set nothing is stored. Without |mesh| and |att| the vertices map to attribute entries by identity.
+     *  Vertices can be processed concurrently once the seam edges are known.
+     *
+     */
+    int recomputeVertex(int v, int firstVertId, boolean countOnly, DracoMesh mesh, PointAttribute att)
     {
-        int numNewVertices = 0;
-        for (int v = 0; v < cornerTable.getNumVertices(); ++v)
+        int c = cornerTable.leftMostCorner(v);
+        if (c < 0)
+            return 0;
+        // Isolated vertex?
+        int firstC = c;
+        int actC;
+        // Check if the vertex is on a seam edge, if it is we need to find the first
+        // attribute entry on the seam edge when traversing in the ccw direction.
+        if (isVertexOnSeam[v])
         {
-            int c = cornerTable.leftMostCorner(v);
-            if (c < 0)
-                continue;
-            // Isolated vertex?
-            int firstVertId = numNewVertices++;
-            if (initVertexToAttributeEntryMap)
-            {
-                int pointId = DracoUtils.cornerToPointId(c, mesh);
-                vertexToAttributeEntryIdMap.add(att.mappedIndex(pointId));
-            }
-            else
+            // Try to swing left on the modified corner table. We need to get the
+            // first corner that defines an attribute seam.
+            actC = this.swingLeft(firstC);
+            while (actC >= 0)
             {
-                // Identity mapping
-                vertexToAttributeEntryIdMap.add(firstVertId);
+                firstC = actC;
+                actC = this.swingLeft(actC);
             }
             
-            int firstC = c;
-            int actC;
-            // Check if the vertex is on a seam edge, if it is we need to find the first
-            // attribute entry on the seam edge when traversing in the ccw direction.
-            if (isVertexOnSeam[v])
+        }
+        
+        int vertId = firstVertId;
+        if (!countOnly)
+        {
+            this.storeVertex(vertId, c, firstC, mesh, att);
+            cornerToVertexMap[firstC] = vertId;
+        }
+        
+        actC = cornerTable.swingRight(firstC);
+        while (actC >= 0 && (actC != firstC))
+        {
+            if (this.isCornerOppositeToSeamEdge(cornerTable.next(actC)))
             {
-                // Try to swing left on the modified corner table. We need to get the
-                // first corner that defines an attribute seam.
-                actC = this.swingLeft(firstC);
-                while (actC >= 0)
+                ++vertId;
+                if (!countOnly)
                 {
-                    firstC = actC;
-                    actC = this.swingLeft(actC);
+                    this.storeVertex(vertId, actC, actC, mesh, att);
                 }
                 
             }
             
-            cornerToVertexMap[firstC] = firstVertId;
-            vertexToLeftMostCornerMap.add(firstC);
-            actC = cornerTable.swingRight(firstC);
-            while (actC >= 0 && (actC != firstC))
+            if (!countOnly)
             {
-                if (this.isCornerOppositeToSeamEdge(cornerTable.next(actC)))
-                {
-                    firstVertId = numNewVertices++;
-                    if (initVertexToAttributeEntryMap)
-                    {
-                        int pointId = DracoUtils.cornerToPointId(actC, mesh);
-                        vertexToAttributeEntryIdMap.add(att.mappedIndex(pointId));
-                    }
-                    else
-                    {
-                        // Identity mapping.
-                        vertexToAttributeEntryIdMap.add(firstVertId);
-                    }
-                    
-                    vertexToLeftMostCornerMap.add(actC);
-                }
-                
-                cornerToVertexMap[actC] = firstVertId;
-                actC = cornerTable.swingRight(actC);
+                cornerToVertexMap[actC] = vertId;
             }
             
+            actC = cornerTable.swingRight(actC);
         }
         
+        return vertId - firstVertId + 1;
+    }
+    
+    /**
+     *  Stores the vertex |vert| with the attribute entry of the point of |corner|, the maps grow when
+     *  vertices are appended.
+     *
+     */
+    private void storeVertex(int vert, int corner, int leftMostCorner, DracoMesh mesh, PointAttribute att)
+    {
+        if (vert >= vertexToAttributeEntryIdMap.getCount())
+        {
+            this.resizeVertices(vert + 1);
+        }
+        
+        if (mesh != null)
+        {
+            int pointId = DracoUtils.cornerToPointId(corner, mesh);
+            vertexToAttributeEntryIdMap.data[vert] = att.mappedIndex(pointId);
+        }
+        else
+        {
+            // Identity mapping
+            vertexToAttributeEntryIdMap.data[vert] = vert;
+        }
+        
+        vertexToLeftMostCornerMap.data[vert] = leftMostCorner;
     }
     
     public boolean isCornerOppositeToSeamEdge(int corner)
@@ -272,6 +394,23 @@ class MeshAttributeCornerTable extends ICornerTable
         return this.next(this.opposite(this.next(corner)));
     }
     
+    /**
+     *  The view shares the corner to vertex map, the opposite corners are copied with the seam edges cut.
+     *
+     */
+    @Override
+    public FlatCornerTable toFlatTable()
+    {
+        int numCorners = cornerTable.getNumCorners();
+        int[] oppositeCorners = new int[numCorners];
+        for (int c = 0; c < numCorners; c++)
+        {
+            oppositeCorners[c] = isEdgeOnSeam[c] ? K_INVALID_CORNER_INDEX : cornerTable.opposite(c);
+        }
+        
+        return new FlatCornerTable(this, oppositeCorners, cornerToVertexMap);
+    }
+    
     public int getNumVertices()
     {
         return vertexToAttributeEntryIdMap.getCount();
@@ -56,22 +56,22 @@ class PredictionDegreeTraverser extends TraverserBase<CornerTable>
         // prediction degree.
         traversal_stacks_[0].push(corner_id);
         this.best_priority_ = 0;
-        int next_vert = cornerTable.vertex(cornerTable.next(corner_id));
-        int prev_vert = cornerTable.vertex(cornerTable.previous(corner_id));
+        int next_vert = this.corners.vertex(this.corners.next(corner_id));
+        int prev_vert = this.corners.vertex(this.corners.previous(corner_id));
         if (!this.isVertexVisited(next_vert))
         {
             this.markVertexVisited(next_vert);
-            observer.onNewVertexVisited(next_vert, cornerTable.next(corner_id));
+            observer.onNewVertexVisited(next_vert, this.corners.next(corner_id));
         }
         
         
         if (!this.isVertexVisited(prev_vert))
         {
             this.markVertexVisited(prev_vert);
-            observer.onNewVertexVisited(prev_vert, cornerTable.previous(corner_id));
+            observer.onNewVertexVisited(prev_vert, this.corners.previous(corner_id));
         }
         
-        int tip_vertex = cornerTable.vertex(corner_id);
+        int tip_vertex = this.corners.vertex(corner_id);
         if (!this.isVertexVisited(tip_vertex))
         {
             this.markVertexVisited(tip_vertex);
@@ -92,15 +92,15 @@ class PredictionDegreeTraverser extends TraverserBase<CornerTable>
                 face_id = corner_id / 3;
                 this.markFaceVisited(face_id);
                 observer.onNewFaceVisited(face_id);
-                int vert_id = cornerTable.vertex(corner_id);
+                int vert_id = this.corners.vertex(corner_id);
                 if (!this.isVertexVisited(vert_id))
                 {
                     this.markVertexVisited(vert_id);
                     observer.onNewVertexVisited(vert_id, corner_id);
                 }
                 
-                int right_corner_id = cornerTable.getRightCorner(corner_id);
-                int left_corner_id = cornerTable.getLeftCorner(corner_id);
+                int right_corner_id = this.corners.getRightCorner(corner_id);
+                int left_corner_id = this.corners.getLeftCorner(corner_id);
                 int right_face_id = right_corner_id == CornerTable.K_INVALID_CORNER_INDEX ? CornerTable.K_INVALID_FACE_INDEX : right_corner_id / 3;
                 int left_face_id = left_corner_id == CornerTable.K_INVALID_CORNER_INDEX ? CornerTable.K_INVALID_FACE_INDEX : left_corner_id / 3;
                 boolean is_right_face_visited = this.isFaceVisited(right_face_id);
@@ -189,7 +189,7 @@ class PredictionDegreeTraverser extends TraverserBase<CornerTable>
     // 
     private int computePriority(int corner_id)
     {
-        int v_tip = cornerTable.vertex(corner_id);
+        int v_tip = this.corners.vertex(corner_id);
         int priority = 0;
         if (!this.isVertexVisited(v_tip))
         {
@@ -1,74 +1,18 @@
 package dev.fileformat.drako;
-import dev.fileformat.drako.HashBuilder;
-import dev.fileformat.drako.Struct;
-import java.io.Serializable;
 class RAnsBitCodec
 {    
-    public static final class RansSym implements Struct<RansSym>, Serializable
-    {
-        public int prob;
-        public int cumProb;
-        @Override
-        public String toString()
-        {
-            return String.format("prob = %d, cumProb=%d", prob, cumProb);
-        }
-        
-        public RansSym()
-        {
-        }
-        
-        private RansSym(RansSym other)
-        {
-            this.prob = other.prob;
-            this.cumProb = other.cumProb;
-        }
-        
-        @Override
-        public RansSym clone()
-        {
-            return new RansSym(this);
-        }
-        
-        @Override
-        public void copyFrom(RansSym src)
-        {
-            if (src == null)
-                return;
-            this.prob = src.prob;
-            this.cumProb = src.cumProb;
-        }
-        
-        static final long serialVersionUID = -154003714L;
-        @Override
-        public int hashCode()
-        {
-            HashBuilder builder = new HashBuilder();
-            builder.hash(this.prob);
-            builder.hash(this.cumProb);
-            return builder.hashCode();
-        }
-        
-        @Override
-        public boolean equals(Object obj)
-        {
-            if (!(obj instanceof RansSym))
-                return false;
-            RansSym rhs = (RansSym)obj;
-            if (this.prob != rhs.prob)
-                return false;
-            if (this.cumProb != rhs.cumProb)
-                return false;
-            return true;
-        }
-        
-    }
-    
     protected static final int ANSP8_PRECISION = 256;
     protected static final int ANSP8_SHIFT = 8;
     protected static final int ANSP10_PRECISION = 1024;
     protected static final int L_BASE = ANSP10_PRECISION * 4;
     protected static final int IO_BASE = 256;
+    /**
+     *  The symbol scheme byte of the interleaved rANS streams stores log2 of the number of lanes
+     *  from this bit on, only files with {@link dev.fileformat.drako.DracoHeader#INTERLEAVED_RANS_FLAG_MASK} use it.
+     *
+     */
+    static final int SCHEME_LANES_SHIFT = 4;
+    static final int MAX_RANS_LANES = 8;
     /**
      *  Computes the desired precision of the rANS method for the specified maximal
      *  symbol bit length of the input data.
@@ -1,7 +1,17 @@
 package dev.fileformat.drako;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.Assert;
 import org.junit.Test;
 public class UnitTest1
@@ -21,6 +31,1059 @@ public class UnitTest1
         Assert.assertNotNull(attr);
     }
     
+    @Test
+    public void decodeFromByteBufferAndMappedFile()
+        throws IOException, DrakoException
+    {
+        byte[] cube = Files.readAllBytes(Paths.get("TestData/cube.drc"));
+        DracoMesh expected = (DracoMesh)Draco.decode(cube);
+        ByteBuffer direct = ByteBuffer.allocateDirect(cube.length + 3);
+        direct.put(new byte[3]).put(cube).flip();
+        direct.position(3);
+        DracoMesh fromBuffer = (DracoMesh)Draco.decode(direct);
+        Assert.assertNotNull(fromBuffer);
+        Assert.assertEquals(3, direct.position());
+        Assert.assertEquals(expected.getNumFaces(), fromBuffer.getNumFaces());
+        Assert.assertArrayEquals(Draco.encode(expected), Draco.encode(fromBuffer));
+        DracoMesh fromFile = (DracoMesh)Draco.decode(Paths.get("TestData/cube.drc"));
+        Assert.assertNotNull(fromFile);
+        Assert.assertArrayEquals(Draco.encode(expected), Draco.encode(fromFile));
+    }
+    
+    @Test
+    public void growPooledDataBuffer()
+    {
+        ByteArrayPool pool = new ByteArrayPool(8, 1024 * 1024);
+        byte[] dirty = new byte[200000];
+        Arrays.fill(dirty, (byte)0x55);
+        pool.release(dirty);
+        // A small buffer must not get the large array, and the area it grows into must be zeroed.
+        DataBuffer small = new DataBuffer(pool);
+        small.setLength(10);
+        Assert.assertTrue(small.getCapacity() < dirty.length);
+        for (int i = 0; i < small.getLength(); i++)
+        {
+            Assert.assertEquals(0, small.get(i));
+        }
+        
+        // Growing into the dirty array keeps the written bytes and zeroes the rest.
+        DataBuffer large = new DataBuffer(pool);
+        for (int i = 0; i < 150000; i++)
+        {
+            large.write(i, (byte)i);
+        }
+        
+        Assert.assertSame(dirty, large.getBuffer());
+        large.setLength(large.getLength() + 1000);
+        for (int i = 0; i < large.getLength(); i++)
+        {
+            Assert.assertEquals(i < 150000 ? (byte)i : 0, large.get(i));
+        }
+        
+        large.release();
+        Assert.assertSame(dirty, pool.rent(150000));
+    }
+    
+    @Test
+    public void probeWithoutDecoding()
+        throws IOException, DrakoException
+    {
+        byte[] cube = Files.readAllBytes(Paths.get("TestData/cube.drc"));
+        DracoMesh mesh = (DracoMesh)Draco.decode(cube);
+        for (DracoCompressionLevel level : DracoCompressionLevel.values())
+        {
+            DracoEncodeOptions opt = new DracoEncodeOptions();
+            opt.setCompressionLevel(level);
+            byte[] encoded = Draco.encode(mesh, opt);
+            DracoMesh expected = (DracoMesh)Draco.decode(encoded);
+            DracoInfo info = Draco.probe(encoded);
+            Assert.assertNotNull(info);
+            Assert.assertTrue(info.isMesh());
+            Assert.assertEquals(2, info.getMajorVersion());
+            Assert.assertEquals(expected.getNumFaces(), info.getNumFaces());
+            if (info.getEncodingMethod() == 0)
+            {
+                Assert.assertEquals(expected.getNumPoints(), info.getNumPoints());
+            }
+            else
+            {
+                Assert.assertEquals(-1, info.getNumPoints());
+            }
+            
+            Assert.assertEquals(expected.getNumAttributes(), info.getAttributes().size());
+            for (int i = 0; i < expected.getNumAttributes(); i++)
+            {
+                PointAttribute attr = expected.attribute(i);
+                DracoAttributeInfo desc = info.getAttributes().get(i);
+                Assert.assertEquals(attr.getAttributeType(), desc.getAttributeType());
+                Assert.assertEquals(attr.getDataType(), desc.getDataType());
+                Assert.assertEquals(attr.getComponentsCount(), desc.getComponentsCount());
+                Assert.assertEquals(attr.getUniqueId(), desc.getUniqueId());
+            }
+            
+        }
+        
+        Assert.assertEquals(mesh.getNumFaces(), Draco.probe(cube).getNumFaces());
+        Assert.assertEquals(mesh.getNumAttributes(), Draco.probe(Paths.get("TestData/cube.drc")).getAttributes().size());
+        Assert.assertNull(Draco.probe(new byte[] {1, 2, 3}));
+    }
+    
+    @Test
+    public void decodeSelectedAttributes()
+        throws DrakoException
+    {
+        Vector3[] controlPoints = new Vector3[] {new Vector3(-5F, 0F, 5.0f), new Vector3(5F, 0F, 5.0f), new Vector3(5F, 10F, 5.0f), new Vector3(-5F, 10F, 5.0f), new Vector3(-5F, 0F, -5.0f), new Vector3(5F, 0F, -5.0f), new Vector3(5F, 10F, -5.0f), new Vector3(-5F, 10F, -5.0f)};
+        Vector3[] normals = new Vector3[] {new Vector3(-1F, 0F, 0.0f), new Vector3(1F, 0F, 0.0f), new Vector3(0F, 1F, 0.0f), new Vector3(0F, 1F, 0.0f), new Vector3(0F, 0F, -1.0f), new Vector3(0F, 0F, -1.0f), new Vector3(0F, -1F, 0.0f), new Vector3(0F, -1F, 0.0f)};
+        Vector2[] uv = new Vector2[] {new Vector2(0F, 0F), new Vector2(1F, 0F), new Vector2(1F, 1F), new Vector2(0F, 1F), new Vector2(0.5F, 0F), new Vector2(0F, 0.5F), new Vector2(0.5F, 1F), new Vector2(1F, 0.5F)};
+        int[] indices = new int[] {0, 1, 2, 0, 2, 3, 1, 5, 6, 1, 6, 2, 5, 4, 7, 5, 7, 6, 4, 0, 3, 4, 3, 7, 0, 4, 5, 0, 5, 1, 3, 2, 6, 3, 6, 7};
+        DracoMesh mesh = new DracoMesh();
+        mesh.addAttribute(PointAttribute.wrap(AttributeType.POSITION, controlPoints));
+        mesh.addAttribute(PointAttribute.wrap(AttributeType.NORMAL, normals));
+        mesh.addAttribute(PointAttribute.wrap(AttributeType.TEX_COORD, uv));
+        mesh.getIndices().addRange(indices);
+        mesh.setNumPoints(8);
+        for (DracoCompressionLevel level : DracoCompressionLevel.values())
+        {
+            DracoEncodeOptions opt = new DracoEncodeOptions();
+            opt.setCompressionLevel(level);
+            byte[] encoded = Draco.encode(mesh, opt);
+            DracoMesh full = (DracoMesh)Draco.decode(encoded);
+            for (int i = 0; i < full.getNumAttributes(); i++)
+            {
+                PointAttribute expected = full.attribute(i);
+                DracoLoadOptions loadOptions = new DracoLoadOptions();
+                if (i == 1)
+                {
+                    loadOptions.addUniqueId(expected.getUniqueId());
+                }
+                else
+                {
+                    loadOptions.addAttributeType(expected.getAttributeType());
+                }
+                
+                DracoMesh partial = (DracoMesh)Draco.decode(encoded, loadOptions);
+                Assert.assertNotNull(partial);
+                Assert.assertEquals(1, partial.getNumAttributes());
+                Assert.assertEquals(full.getNumFaces(), partial.getNumFaces());
+                Assert.assertArrayEquals(full.getIndices().toArray(), partial.getIndices().toArray());
+                PointAttribute actual = partial.getNamedAttribute(expected.getAttributeType());
+                Assert.assertNotNull(actual);
+                Assert.assertEquals(expected.getNumUniqueEntries(), actual.getNumUniqueEntries());
+                int size = expected.getNumUniqueEntries() * expected.getByteStride();
+                Assert.assertArrayEquals(Arrays.copyOf(expected.getBuffer().getBuffer(), size), Arrays.copyOf(actual.getBuffer().getBuffer(), size));
+                for (int p = 0; p < full.getNumPoints(); p++)
+                {
+                    Assert.assertEquals(expected.mappedIndex(p), actual.mappedIndex(p));
+                }
+                
+            }
+            
+        }
+        
+    }
+    
+    @Test
+    public void decodeAttributesConcurrently()
+        throws IOException, DrakoException
+    {
+        byte[] cube = Files.readAllBytes(Paths.get("TestData/cube.drc"));
+        DracoMesh mesh = (DracoMesh)Draco.decode(cube);
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try
+        {
+            for (DracoCompressionLevel level : DracoCompressionLevel.values())
+            {
+                DracoEncodeOptions opt = new DracoEncodeOptions();
+                opt.setCompressionLevel(level);
+                byte[] encoded = Draco.encode(mesh, opt);
+                DracoMesh expected = (DracoMesh)Draco.decode(encoded);
+                for (int round = 0; round < 2; round++)
+                {
+                    DracoLoadOptions loadOptions = new DracoLoadOptions();
+                    loadOptions.setAttributeDecodingExecutor(round == 0 ? ForkJoinPool.commonPool() : pool);
+                    DracoMesh actual = (DracoMesh)Draco.decode(encoded, loadOptions);
+                    Assert.assertArrayEquals(expected.getIndices().toArray(), actual.getIndices().toArray());
+                    Assert.assertEquals(expected.getNumAttributes(), actual.getNumAttributes());
+                    for (int i = 0; i < expected.getNumAttributes(); i++)
+                    {
+                        PointAttribute a = expected.attribute(i);
+                        PointAttribute b = actual.attribute(i);
+                        int size = a.getNumUniqueEntries() * a.getByteStride();
+                        Assert.assertArrayEquals(Arrays.copyOf(a.getBuffer().getBuffer(), size), Arrays.copyOf(b.getBuffer().getBuffer(), size));
+                    }
+                    
+                    
+                    // Only the texture coordinates, their prediction still needs the positions.
+                    loadOptions.addAttributeType(AttributeType.TEX_COORD);
+                    DracoMesh partial = (DracoMesh)Draco.decode(encoded, loadOptions);
+                    Assert.assertEquals(1, partial.getNumAttributes());
+                    PointAttribute a = expected.getNamedAttribute(AttributeType.TEX_COORD);
+                    PointAttribute b = partial.getNamedAttribute(AttributeType.TEX_COORD);
+                    int size = a.getNumUniqueEntries() * a.getByteStride();
+                    Assert.assertArrayEquals(Arrays.copyOf(a.getBuffer().getBuffer(), size), Arrays.copyOf(b.getBuffer().getBuffer(), size));
+                }
+                
+            }
+            
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        
+    }
+    
+    @Test
+    public void decodeWithReusedDecoder()
+        throws IOException, DrakoException
+    {
+        byte[] cube = Files.readAllBytes(Paths.get("TestData/cube.drc"));
+        DracoPointCloud mesh = Draco.decode(cube);
+        DracoDecoder decoder = new DracoDecoder();
+        // Alternate between inputs so the retained tables are reused with different sizes.
+        for (int round = 0; round < 3; round++)
+        {
+            for (DracoCompressionLevel level : DracoCompressionLevel.values())
+            {
+                DracoEncodeOptions opt = new DracoEncodeOptions();
+                opt.setCompressionLevel(level);
+                byte[] encoded = Draco.encode(mesh, opt);
+                DracoPointCloud expected = Draco.decode(encoded);
+                DracoPointCloud actual = decoder.decode(encoded);
+                Assert.assertNotNull(actual);
+                Assert.assertArrayEquals(Draco.encode(expected), Draco.encode(actual));
+            }
+            
+            decoder.reset();
+        }
+        
+        decoder.release();
+        Assert.assertArrayEquals(Draco.encode(mesh), Draco.encode(decoder.decode(ByteBuffer.wrap(cube))));
+    }
+    
+    @Test
+    public void cacheRAnsLookupTables()
+    {
+        DecoderWorkspace workspace = new DecoderWorkspace();
+        RAnsTableCache cache = workspace.getTableCache();
+        RAnsDecoder decoder = new RAnsDecoder(12);
+        int[] probs = new int[] {1024, 3072};
+        Assert.assertTrue(decoder.buildLookupTable(probs, 2, workspace));
+        Assert.assertTrue(decoder.buildLookupTable(new int[] {1024, 3072}, 2, workspace));
+        Assert.assertEquals(1, cache.getCount());
+        // Tables that fail to build aren't cached.
+        Assert.assertFalse(decoder.buildLookupTable(new int[] {1024, 1024}, 2, workspace));
+        Assert.assertEquals(1, cache.getCount());
+        // The least recently used tables are evicted once the cache is full.
+        for (int i = 1; i <= RAnsTableCache.MAX_ENTRIES; i++)
+        {
+            Assert.assertTrue(decoder.buildLookupTable(new int[] {4096 - i, i}, 2, workspace));
+        }
+        
+        Assert.assertEquals(RAnsTableCache.MAX_ENTRIES, cache.getCount());
+        Assert.assertNull(cache.find(12, probs, 2));
+        Assert.assertNotNull(cache.find(12, new int[] {4096 - RAnsTableCache.MAX_ENTRIES, RAnsTableCache.MAX_ENTRIES}, 2));
+    }
+    
+    @Test
+    public void encodeToOutputStream()
+        throws IOException, DrakoException
+    {
+        byte[] cube = Files.readAllBytes(Paths.get("TestData/cube.drc"));
+        DracoPointCloud dm = Draco.decode(cube);
+        for (DracoCompressionLevel level : DracoCompressionLevel.values())
+        {
+            DracoEncodeOptions opt = new DracoEncodeOptions();
+            opt.setCompressionLevel(level);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            Draco.encode(dm, opt, output);
+            Assert.assertArrayEquals(Draco.encode(dm, opt), output.toByteArray());
+        }
+        
+    }
+    
+    @Test
+    public void encodeWithReusedEncoder()
+        throws IOException, DrakoException
+    {
+        byte[] cube = Files.readAllBytes(Paths.get("TestData/cube.drc"));
+        DracoPointCloud mesh = Draco.decode(cube);
+        DracoEncoder encoder = new DracoEncoder();
+        for (int round = 0; round < 3; round++)
+        {
+            for (DracoCompressionLevel level : DracoCompressionLevel.values())
+            {
+                DracoEncodeOptions opt = new DracoEncodeOptions();
+                opt.setCompressionLevel(level);
+                byte[] expected = Draco.encode(mesh, opt);
+                Assert.assertArrayEquals(expected, encoder.encode(mesh, opt));
+                ByteArrayOutputStream stream = new ByteArrayOutputStream();
+                encoder.encode(mesh, opt, stream);
+                Assert.assertArrayEquals(expected, stream.toByteArray());
+            }
+            
+        }
+        
+        encoder.release();
+        Assert.assertArrayEquals(Draco.encode(mesh), encoder.encode(mesh, new DracoEncodeOptions()));
+    }
+    
+    @Test
+    public void concurrentDecodeAndEncode()
+        throws Exception
+    {
+        byte[] cube = Files.readAllBytes(Paths.get("TestData/cube.drc"));
+        DracoPointCloud mesh = Draco.decode(cube);
+        DracoEncodeOptions opt = new DracoEncodeOptions();
+        opt.setCompressionLevel(DracoCompressionLevel.OPTIMAL);
+        ArrayList<byte[]> inputs = new ArrayList<byte[]>();
+        for (DracoCompressionLevel level : DracoCompressionLevel.values())
+        {
+            DracoEncodeOptions o = new DracoEncodeOptions();
+            o.setCompressionLevel(level);
+            inputs.add(Draco.encode(mesh, o));
+        }
+        
+        // Run many more tasks than cores over shared inputs and compare with the single threaded results.
+        ArrayList<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+        ArrayList<byte[]> expected = new ArrayList<byte[]>();
+        ArrayList<DracoPointCloud> models = new ArrayList<DracoPointCloud>();
+        for (int i = 0; i < 400; i++)
+        {
+            byte[] input = inputs.get(i % inputs.size());
+            buffers.add(ByteBuffer.wrap(input));
+            expected.add(Draco.encode(Draco.decode(input), opt));
+            models.add(mesh);
+        }
+        
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+        try
+        {
+            List<CompletableFuture<DracoPointCloud>> decoded = Draco.decodeAll(buffers, ForkJoinPool.commonPool());
+            List<CompletableFuture<byte[]>> encoded = Draco.encodeAll(models, opt, pool);
+            byte[] encodedMesh = Draco.encode(mesh, opt);
+            for (int i = 0; i < buffers.size(); i++)
+            {
+                Assert.assertArrayEquals(expected.get(i), Draco.encode(decoded.get(i).get(), opt));
+                Assert.assertArrayEquals(encodedMesh, encoded.get(i).get());
+            }
+            
+            Assert.assertNull(Draco.decodeAll(Arrays.asList(ByteBuffer.wrap(new byte[] {1, 2, 3})), pool).get(0).get());
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        
+    }
+    
+    @Test
+    public void encodeAttributesConcurrently()
+        throws Exception
+    {
+        byte[] cube = Files.readAllBytes(Paths.get("TestData/cube.drc"));
+        DracoPointCloud mesh = Draco.decode(cube);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try
+        {
+            for (DracoCompressionLevel level : DracoCompressionLevel.values())
+            {
+                DracoEncodeOptions opt = new DracoEncodeOptions();
+                opt.setCompressionLevel(level);
+                byte[] expected = Draco.encode(mesh, opt);
+                opt.setAttributeEncodingExecutor(ForkJoinPool.commonPool());
+                Assert.assertArrayEquals(expected, Draco.encode(mesh, opt));
+                opt.setAttributeEncodingExecutor(pool);
+                Assert.assertArrayEquals(expected, Draco.encode(mesh, opt));
+                ByteArrayOutputStream stream = new ByteArrayOutputStream();
+                Draco.encode(mesh, opt, stream);
+                Assert.assertArrayEquals(expected, stream.toByteArray());
+            }
+            
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        
+    }
+    
+    @Test
+    public void encodeWithInterleavedRAns()
+        throws DrakoException
+    {
+        // A grid large enough for full groups of lanes and a partial group at the end.
+        int side = 41;
+        Vector3[] positions = new Vector3[side * side];
+        Vector2[] uv = new Vector2[side * side];
+        for (int y = 0; y < side; y++)
+        {
+            for (int x = 0; x < side; x++)
+            {
+                positions[y * side + x] = new Vector3(x, y, (float)(Math.sin(x * 0.3) * Math.cos(y * 0.2) * 5.0));
+                uv[y * side + x] = new Vector2(x / (float)(side - 1), y / (float)(side - 1));
+            }
+            
+        }
+        
+        int[] indices = new int[(side - 1) * (side - 1) * 6];
+        for (int y = 0,  p = 0; y < side - 1; y++)
+        {
+            for (int x = 0; x < side - 1; x++)
+            {
+                int v = y * side + x;
+                indices[p++] = v;
+                indices[p++] = v + 1;
+                indices[p++] = v + side;
+                indices[p++] = v + 1;
+                indices[p++] = v + side + 1;
+                indices[p++] = v + side;
+            }
+            
+        }
+        
+        DracoMesh mesh = new DracoMesh();
+        mesh.addAttribute(PointAttribute.wrap(AttributeType.POSITION, positions));
+        mesh.addAttribute(PointAttribute.wrap(AttributeType.TEX_COORD, uv));
+        mesh.getIndices().addRange(indices);
+        mesh.setNumPoints(positions.length);
+        for (DracoCompressionLevel level : DracoCompressionLevel.values())
+        {
+            DracoEncodeOptions opt = new DracoEncodeOptions();
+            opt.setCompressionLevel(level);
+            byte[] standard = Draco.encode(mesh, opt);
+            Assert.assertEquals(0, standard[10] & 0x40);
+            DracoPointCloud expected = Draco.decode(standard);
+            for (int lanes = 2; lanes <= 8; lanes *= 2)
+            {
+                opt.setRAnsLanes(lanes);
+                byte[] encoded = Draco.encode(mesh, opt);
+                // Declared by the header flags.
+                Assert.assertEquals(0x40, encoded[10] & 0x40);
+                DracoPointCloud actual = Draco.decode(encoded);
+                Assert.assertNotNull(actual);
+                Assert.assertEquals(expected.getNumPoints(), actual.getNumPoints());
+                for (int i = 0; i < expected.getNumAttributes(); i++)
+                {
+                    PointAttribute e = expected.attribute(i);
+                    PointAttribute a = actual.attribute(i);
+                    float[] ev = new float[e.getComponentsCount()];
+                    float[] av = new float[a.getComponentsCount()];
+                    for (int j = 0; j < expected.getNumPoints(); j++)
+                    {
+                        e.getValue(e.mappedIndex(j), ev);
+                        a.getValue(a.mappedIndex(j), av);
+                        Assert.assertArrayEquals(ev, av, 0F);
+                    }
+                    
+                }
+                
+            }
+            
+        }
+        
+        // Flags this decoder doesn't know are rejected.
+        byte[] encoded = Draco.encode(mesh, new DracoEncodeOptions());
+        encoded[10] |= 0x20;
+        Assert.assertNull(Draco.decode(encoded));
+    }
+    
+    @Test
+    public void selectSymbolSchemeFromSample()
+        throws DrakoException
+    {
+        // Large enough to be sampled, the small values suit the raw scheme.
+        int numValues = 3 << 19;
+        int[] symbols = new int[numValues];
+        java.util.Random random = new java.util.Random(1);
+        for (int i = 0; i < numValues; i++)
+        {
+            symbols[i] = (int)Math.abs(random.nextGaussian() * 20.0);
+        }
+        
+        for (int pass = 0; pass < 2; pass++)
+        {
+            if (pass == 1)
+            {
+                // Past the raw scheme's limit, in the second block which isn't sampled.
+                symbols[3 * 1500] = 1 << 20;
+            }
+            
+            DracoEncodeOptions opt = new DracoEncodeOptions();
+            opt.setCompressionLevel(DracoCompressionLevel.STANDARD);
+            byte[] full = UnitTest1.encodeSymbols(symbols, opt);
+            opt.setSampledSchemeSelection(true);
+            byte[] sampled = UnitTest1.encodeSymbols(symbols, opt);
+            Assert.assertEquals(pass == 0 ? 1 : 0, full[0] & 0xf);
+            Assert.assertArrayEquals(full, sampled);
+            opt.setCompressionLevel(DracoCompressionLevel.FAST);
+            for (byte[] encoded : new byte[][] {sampled, UnitTest1.encodeSymbols(symbols, opt)})
+            {
+                int[] decoded = new int[numValues];
+                DecoderBuffer buffer = new DecoderBuffer(encoded);
+                buffer.setBitstreamVersion(22);
+                Decoding.decodeSymbols(numValues, 3, buffer, IntSpan.wrap(decoded));
+                Assert.assertArrayEquals(symbols, decoded);
+            }
+            
+        }
+        
+    }
+    
+    @Test
+    public void encodeLargeSymbolValues()
+        throws DrakoException
+    {
+        // Values of a 32-bit generic attribute, only the tagged scheme can code them so no value histogram is built.
+        int numValues = 600;
+        int[] symbols = new int[numValues];
+        java.util.Random random = new java.util.Random(1);
+        for (int i = 0; i < numValues; i++)
+        {
+            symbols[i] = (1 << 30) + random.nextInt(1 << 27);
+        }
+        
+        Assert.assertNull(SymbolStatistics.collect(IntSpan.wrap(symbols), numValues, 3, true, true, true, new EncoderBuffer()).frequencies);
+        DracoEncodeOptions opt = new DracoEncodeOptions();
+        opt.setCompressionLevel(DracoCompressionLevel.FAST);
+        byte[] encoded = UnitTest1.encodeSymbols(symbols, opt);
+        Assert.assertEquals(0, encoded[0] & 0xf);
+        int[] decoded = new int[numValues];
+        DecoderBuffer buffer = new DecoderBuffer(encoded);
+        buffer.setBitstreamVersion(22);
+        Decoding.decodeSymbols(numValues, 3, buffer, IntSpan.wrap(decoded));
+        Assert.assertArrayEquals(symbols, decoded);
+    }
+    
+    @Test
+    public void encodeFastNoLargerThanFullEstimate()
+        throws DrakoException
+    {
+        // FAST sizes of these meshes before the single-pass statistics, picking the scheme mustn't cost bytes.
+        int[] sizes = {20, 60};
+        int[] expected = {1155, 7914};
+        DracoEncodeOptions opt = new DracoEncodeOptions();
+        opt.setCompressionLevel(DracoCompressionLevel.FAST);
+        for (int m = 0; m < sizes.length; m++)
+        {
+            int size = sizes[m];
+            Vector3[] positions = new Vector3[size * size];
+            for (int i = 0; i < positions.length; i++)
+            {
+                positions[i] = new Vector3(i % size, i / size, (float)Math.sin(i * 0.01) * 4F);
+            }
+            
+            Assert.assertTrue(Draco.encode(UnitTest1.createGrid(positions, size), opt).length <= expected[m]);
+        }
+        
+        Assert.assertTrue(Draco.encode(UnitTest1.createTerrain(1), opt).length <= 636);
+    }
+    
+    private static byte[] encodeSymbols(int[] symbols, DracoEncodeOptions options)
+        throws DrakoException
+    {
+        EncoderBuffer buffer = new EncoderBuffer();
+        Encoding.encodeSymbols(IntSpan.wrap(symbols), symbols.length, 3, options, buffer);
+        byte[] ret = new byte[buffer.getBytes()];
+        System.arraycopy(buffer.getData(), 0, ret, 0, ret.length);
+        return ret;
+    }
+    
+    @Test
+    public void encodeWithTrainedDictionary()
+        throws DrakoException
+    {
+        List<DracoMesh> samples = new ArrayList<DracoMesh>();
+        for (int i = 0; i < 8; i++)
+        {
+            samples.add(UnitTest1.createTerrain(i));
+        }
+        
+        DracoEncodeOptions opt = new DracoEncodeOptions();
+        DracoDictionary dictionary = DracoDictionary.decode(DracoDictionary.train(7, samples, opt).encode());
+        Assert.assertEquals(7, dictionary.getId());
+        Assert.assertTrue(dictionary.getNumTables() > 0);
+        
+        DracoMesh mesh = UnitTest1.createTerrain(100);
+        byte[] plain = Draco.encode(mesh, opt);
+        opt.setDictionary(dictionary);
+        byte[] small = Draco.encode(mesh, opt);
+        Assert.assertTrue(small.length < plain.length);
+        
+        // The decoded geometry is the same as the one stored without the dictionary.
+        DracoLoadOptions loadOptions = new DracoLoadOptions();
+        loadOptions.addDictionary(dictionary);
+        DracoMesh expected = (DracoMesh)Draco.decode(plain);
+        DracoMesh actual = (DracoMesh)Draco.decode(small, loadOptions);
+        Assert.assertNotNull(actual);
+        opt.setDictionary(null);
+        Assert.assertArrayEquals(Draco.encode(expected, opt), Draco.encode(actual, opt));
+        
+        // The tables aren't in the file, it can't be decoded without the dictionary.
+        Assert.assertNull(Draco.decode(small));
+    }
+    
+    @Test
+    public void encodeSmallFilesWithDictionary()
+        throws DrakoException
+    {
+        // Small grids of the same family, the tables make up most of their size.
+        DracoEncodeOptions opt = new DracoEncodeOptions();
+        List<DracoMesh> samples = new ArrayList<DracoMesh>();
+        for (int i = 0; i < 8; i++)
+        {
+            samples.add(UnitTest1.createSmallGrid(i));
+        }
+        
+        DracoDictionary dictionary = DracoDictionary.train(3, samples, opt);
+        DracoLoadOptions loadOptions = new DracoLoadOptions();
+        loadOptions.addDictionary(dictionary);
+        int plainBytes = 0;
+        int dictionaryBytes = 0;
+        for (int i = 100; i < 110; i++)
+        {
+            DracoMesh mesh = UnitTest1.createSmallGrid(i);
+            opt.setDictionary(null);
+            byte[] plain = Draco.encode(mesh, opt);
+            opt.setDictionary(dictionary);
+            byte[] small = Draco.encode(mesh, opt);
+            Assert.assertTrue(small.length <= plain.length);
+            DracoMesh actual = (DracoMesh)Draco.decode(small, loadOptions);
+            Assert.assertNotNull(actual);
+            opt.setDictionary(null);
+            Assert.assertArrayEquals(Draco.encode(Draco.decode(plain), opt), Draco.encode(actual, opt));
+            plainBytes += plain.length;
+            dictionaryBytes += small.length;
+        }
+        
+        Assert.assertTrue(dictionaryBytes * 5 < plainBytes * 4);
+        
+        // A file of another family doesn't use the dictionary and is stored as a standard file.
+        DracoMesh terrain = UnitTest1.createTerrain(1);
+        byte[] plain = Draco.encode(terrain, opt);
+        opt.setDictionary(dictionary);
+        Assert.assertArrayEquals(plain, Draco.encode(terrain, opt));
+    }
+    
+    @Test
+    public void encodeRawMeshInBulk()
+        throws DrakoException
+    {
+        DracoEncodeOptions opt = new DracoEncodeOptions();
+        opt.setCompressionLevel(DracoCompressionLevel.NO_COMPRESSION);
+        opt.setPositionBits(0);
+        // Indices stored as uint8, uint16 and varints.
+        for (int size : new int[] {10, 100, 300})
+        {
+            Vector3[] controlPoints = new Vector3[size * size];
+            for (int i = 0; i < controlPoints.length; i++)
+            {
+                controlPoints[i] = new Vector3(i % size, i / size, i * 0.001F);
+            }
+            
+            DracoMesh mesh = UnitTest1.createGrid(controlPoints, size);
+            PointAttribute positions = mesh.getNamedAttribute(AttributeType.POSITION);
+            if (size == 100)
+            {
+                // Explicit mapping, the values are copied in reversed order.
+                positions.setExplicitMapping(mesh.getNumPoints());
+                for (int i = 0; i < mesh.getNumPoints(); i++)
+                {
+                    positions.setPointMapEntry(i, mesh.getNumPoints() - 1 - i);
+                }
+                
+            }
+            
+            DracoMesh decoded = (DracoMesh)Draco.decode(Draco.encode(mesh, opt));
+            Assert.assertNotNull(decoded);
+            Assert.assertArrayEquals(mesh.getIndices().toArray(), decoded.getIndices().toArray());
+            PointAttribute actual = decoded.getNamedAttribute(AttributeType.POSITION);
+            float[] ev = new float[3];
+            float[] av = new float[3];
+            for (int i = 0; i < mesh.getNumPoints(); i++)
+            {
+                positions.getValue(positions.mappedIndex(i), ev);
+                actual.getValue(actual.mappedIndex(i), av);
+                Assert.assertArrayEquals(ev, av, 0F);
+            }
+            
+        }
+        
+    }
+    
+    @Test
+    public void encodeConnectivityWithValences()
+        throws DrakoException
+    {
+        int size = 60;
+        Vector3[] controlPoints = new Vector3[size * size];
+        for (int i = 0; i < controlPoints.length; i++)
+        {
+            controlPoints[i] = new Vector3(i % size, i / size, (float)Math.sin(i * 0.1));
+        }
+        
+        DracoMesh mesh = UnitTest1.createGrid(controlPoints, size);
+        // Holes make the traversal emit split symbols.
+        IntList indices = mesh.getIndices();
+        IntList kept = new IntList();
+        for (int f = 0; f < mesh.getNumFaces(); f++)
+        {
+            if (f % 17 != 5)
+            {
+                kept.addRange(new int[] {indices.get(f * 3), indices.get(f * 3 + 1), indices.get(f * 3 + 2)});
+            }
+            
+        }
+        
+        indices.clear();
+        indices.addRange(kept);
+        
+        DracoEncodeOptions raw = new DracoEncodeOptions();
+        raw.setCompressionLevel(DracoCompressionLevel.NO_COMPRESSION);
+        raw.setPositionBits(0);
+        DracoEncodeOptions opt = new DracoEncodeOptions();
+        byte[] standard = Draco.encode(mesh, opt);
+        opt.setEdgeBreakerMethod(DracoEdgeBreakerMethod.VALENCE);
+        byte[] valence = Draco.encode(mesh, opt);
+        Assert.assertTrue(valence.length < standard.length);
+        // The traversal is the same, only the symbols are stored differently.
+        DracoPointCloud expected = Draco.decode(standard);
+        DracoPointCloud actual = Draco.decode(valence);
+        Assert.assertNotNull(actual);
+        Assert.assertArrayEquals(Draco.encode(expected, raw), Draco.encode(actual, raw));
+    }
+    
+    @Test
+    public void buildCornerTableInParallel()
+    {
+        int size = 230;
+        int cells = (size - 1) * (size - 1);
+        // A grid, then faces repeating grid edges (non-manifold edges) and degenerated faces.
+        Int2D faces = new Int2D(cells * 2 + 300, 3);
+        int f = 0;
+        for (int i = 0; i < cells; i++)
+        {
+            int v = (i / (size - 1)) * size + (i % (size - 1));
+            faces.set(f, 0, v);
+            faces.set(f, 1, v + 1);
+            faces.set(f++, 2, v + size + 1);
+            faces.set(f, 0, v);
+            faces.set(f, 1, v + size + 1);
+            faces.set(f++, 2, v + size);
+        }
+        
+        for (int i = 0; i < 300; i++, f++)
+        {
+            faces.set(f, 0, i * 97);
+            faces.set(f, 1, i * 97 + 1);
+            faces.set(f, 2, i % 3 == 0 ? i * 97 : size * size - 1 - i);
+        }
+        
+        CornerTable expected = new CornerTable();
+        expected.initialize(faces);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try
+        {
+            Assert.assertTrue(expected.getNumCorners() >= CornerTableBuilder.PARALLEL_THRESHOLD);
+            CornerTable actual = new CornerTable();
+            actual.initialize(faces, pool);
+            Assert.assertEquals(100, expected.getNumDegeneratedFaces());
+            Assert.assertEquals(expected.getNumDegeneratedFaces(), actual.getNumDegeneratedFaces());
+            Assert.assertEquals(expected.getNumVertices(), actual.getNumVertices());
+            Assert.assertEquals(expected.getNumIsolatedVertices(), actual.getNumIsolatedVertices());
+            Assert.assertTrue(expected.getNumNewVertices() > 0);
+            expected.getValenceCache().cacheValences();
+            actual.getValenceCache().cacheValences(pool);
+            for (int v = 0; v < expected.getNumVertices(); v++)
+            {
+                Assert.assertEquals(expected.leftMostCorner(v), actual.leftMostCorner(v));
+                Assert.assertEquals(expected.getValenceCache().confidentValenceFromCacheV(v), actual.getValenceCache().confidentValenceFromCacheV(v));
+            }
+            
+            for (int c = 0; c < expected.getNumCorners(); c++)
+            {
+                Assert.assertEquals(expected.opposite(c), actual.opposite(c));
+                Assert.assertEquals(expected.vertex(c), actual.vertex(c));
+                if (expected.opposite(c) >= 0)
+                {
+                    Assert.assertEquals(c, expected.opposite(expected.opposite(c)));
+                }
+                
+            }
+            
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        
+    }
+    
+    @Test
+    public void encodeAndDecodeWithConnectivityPool()
+        throws DrakoException
+    {
+        int size = 400;
+        int seam = size / 2;
+        // The points of the column |seam| are duplicated for the cells on its right, they share
+        // the positions but not the texture coordinates.
+        int numPoints = size * size + size;
+        Vector3[] positions = new Vector3[size * size];
+        Vector2[] uv = new Vector2[numPoints];
+        for (int i = 0; i < size * size; i++)
+        {
+            positions[i] = new Vector3(i % size, i / size, (float)Math.sin(i * 0.01));
+            uv[i] = new Vector2((i % size) / (float)size, (i / size) / (float)size);
+        }
+        
+        for (int y = 0; y < size; y++)
+        {
+            uv[size * size + y] = new Vector2(1F, y / (float)size);
+        }
+        
+        DracoMesh mesh = new DracoMesh();
+        PointAttribute position = PointAttribute.wrap(AttributeType.POSITION, positions);
+        position.setExplicitMapping(numPoints);
+        for (int i = 0; i < numPoints; i++)
+        {
+            position.setPointMapEntry(i, i < size * size ? i : (i - size * size) * size + seam);
+        }
+        
+        mesh.addAttribute(position);
+        mesh.addAttribute(PointAttribute.wrap(AttributeType.TEX_COORD, uv));
+        for (int y = 0; y + 1 < size; y++)
+        {
+            for (int x = 0; x + 1 < size; x++)
+            {
+                int i = y * size + x;
+                int a = x == seam ? size * size + y : i;
+                int d = x == seam ? size * size + y + 1 : i + size;
+                mesh.getIndices().addRange(new int[] {a, i + 1, i + size + 1, a, i + size + 1, d});
+            }
+            
+        }
+        
+        mesh.setNumPoints(numPoints);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try
+        {
+            DracoEncodeOptions raw = new DracoEncodeOptions();
+            raw.setCompressionLevel(DracoCompressionLevel.NO_COMPRESSION);
+            for (int method = 0; method < 2; method++)
+            {
+                DracoEncodeOptions opt = new DracoEncodeOptions();
+                opt.setEdgeBreakerMethod(method == 0 ? DracoEdgeBreakerMethod.STANDARD : DracoEdgeBreakerMethod.VALENCE);
+                byte[] expected = Draco.encode(mesh, opt);
+                opt.setConnectivityPool(pool);
+                byte[] actual = Draco.encode(mesh, opt);
+                Assert.assertArrayEquals(expected, actual);
+                
+                DracoLoadOptions loadOptions = new DracoLoadOptions();
+                loadOptions.setConnectivityPool(pool);
+                DracoPointCloud decoded = Draco.decode(actual, loadOptions);
+                Assert.assertNotNull(decoded);
+                Assert.assertArrayEquals(Draco.encode(Draco.decode(expected), raw), Draco.encode(decoded, raw));
+            }
+            
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        
+    }
+    
+    @Test
+    public void flattenCornerTables()
+        throws DrakoException
+    {
+        int size = 20;
+        int seam = size / 2;
+        // Same layout as encodeAndDecodeWithConnectivityPool, the column |seam| is an attribute seam of the texture coordinates.
+        Vector2[] uv = new Vector2[size * size + size];
+        for (int i = 0; i < uv.length; i++)
+        {
+            uv[i] = i < size * size ? new Vector2((i % size) / (float)size, (i / size) / (float)size) : new Vector2(1F, (i - size * size) / (float)size);
+        }
+        
+        DracoMesh mesh = new DracoMesh();
+        PointAttribute texCoord = PointAttribute.wrap(AttributeType.TEX_COORD, uv);
+        mesh.addAttribute(texCoord);
+        Int2D faces = new Int2D(2 * (size - 1) * (size - 1), 3);
+        int f = 0;
+        for (int y = 0; y + 1 < size; y++)
+        {
+            for (int x = 0; x + 1 < size; x++)
+            {
+                int i = y * size + x;
+                int a = x == seam ? size * size + y : i;
+                int d = x == seam ? size * size + y + 1 : i + size;
+                mesh.getIndices().addRange(new int[] {a, i + 1, i + size + 1, a, i + size + 1, d});
+                // The corner table joins the duplicated points, like the positions do in the encoder.
+                faces.set(f, 0, i);
+                faces.set(f, 1, i + 1);
+                faces.set(f++, 2, i + size + 1);
+                faces.set(f, 0, i);
+                faces.set(f, 1, i + size + 1);
+                faces.set(f++, 2, i + size);
+            }
+            
+        }
+        
+        mesh.setNumPoints(uv.length);
+        CornerTable table = new CornerTable();
+        table.initialize(faces);
+        MeshAttributeCornerTable attTable = new MeshAttributeCornerTable(mesh, table, texCoord);
+        Assert.assertFalse(attTable.getNoInteriorSeams());
+        Assert.assertTrue(attTable.getNumVertices() > table.getNumVertices());
+        ICornerTable[] tables = {table, attTable};
+        for (ICornerTable t : tables)
+        {
+            FlatCornerTable flat = t.toFlatTable();
+            Assert.assertEquals(t.getNumVertices(), flat.getNumVertices());
+            for (int v = 0; v < t.getNumVertices(); v++)
+            {
+                Assert.assertEquals(t.isOnBoundary(v), flat.isOnBoundary(v));
+            }
+            
+            for (int c = 0; c < 3 * t.getNumFaces(); c++)
+            {
+                Assert.assertEquals(t.opposite(c), flat.opposite(c));
+                Assert.assertEquals(t.vertex(c), flat.vertex(c));
+                Assert.assertEquals(t.getLeftCorner(c), flat.getLeftCorner(c));
+                Assert.assertEquals(t.getRightCorner(c), flat.getRightCorner(c));
+                Assert.assertEquals(t.swingLeft(c), flat.swingLeft(c));
+                Assert.assertEquals(t.swingRight(c), flat.swingRight(c));
+            }
+            
+        }
+        
+    }
+    
+    /**
+     *  Creates a mesh of two triangles per cell over the |size| x |size| grid of positions.
+     *
+     */
+    private static DracoMesh createGrid(Vector3[] positions, int size)
+    {
+        DracoMesh mesh = new DracoMesh();
+        mesh.addAttribute(PointAttribute.wrap(AttributeType.POSITION, positions));
+        for (int y = 0; y + 1 < size; y++)
+        {
+            for (int x = 0; x + 1 < size; x++)
+            {
+                int i = y * size + x;
+                mesh.getIndices().addRange(new int[] {i, i + 1, i + size + 1, i, i + size + 1, i + size});
+            }
+            
+        }
+        
+        mesh.setNumPoints(positions.length);
+        return mesh;
+    }
+    
+    private static DracoMesh createSmallGrid(int seed)
+    {
+        Random random = new Random(seed);
+        Vector3[] positions = new Vector3[16];
+        for (int i = 0; i < positions.length; i++)
+        {
+            positions[i] = new Vector3(i % 4, i / 4, random.nextInt(4));
+        }
+        
+        return UnitTest1.createGrid(positions, 4);
+    }
+    
+    private static DracoMesh createTerrain(int seed)
+    {
+        int size = 12;
+        java.util.Random random = new java.util.Random(seed);
+        Vector3[] positions = new Vector3[size * size];
+        for (int y = 0; y < size; y++)
+        {
+            for (int x = 0; x < size; x++)
+            {
+                positions[y * size + x] = new Vector3(x, y, (float)Math.sin((x + y) * 0.5) + random.nextFloat() * 0.25F);
+            }
+            
+        }
+        
+        return UnitTest1.createGrid(positions, size);
+    }
+    
+    @Test
+    public void decodeQuantizedPositionsAwayFromOrigin()
+        throws DrakoException
+    {
+        Vector3[] controlPoints = new Vector3[] {new Vector3(95F, 200F, 305.0f), new Vector3(105F, 200F, 305.0f), new Vector3(105F, 210F, 305.0f), new Vector3(95F, 210F, 305.0f), new Vector3(95F, 200F, 295.0f), new Vector3(105F, 200F, 295.0f), new Vector3(105F, 210F, 295.0f), new Vector3(95F, 210F, 295.0f)};
+        int[] indices = new int[] {0, 1, 2, 0, 2, 3, 1, 5, 6, 1, 6, 2, 5, 4, 7, 5, 7, 6, 4, 0, 3, 4, 3, 7, 0, 4, 5, 0, 5, 1, 3, 2, 6, 3, 6, 7};
+        DracoMesh mesh = new DracoMesh();
+        mesh.addAttribute(PointAttribute.wrap(AttributeType.POSITION, controlPoints));
+        mesh.getIndices().addRange(indices);
+        mesh.setNumPoints(8);
+        for (DracoCompressionLevel level : DracoCompressionLevel.values())
+        {
+            DracoEncodeOptions opt = new DracoEncodeOptions();
+            opt.setCompressionLevel(level);
+            DracoMesh decoded = (DracoMesh)Draco.decode(Draco.encode(mesh, opt));
+            Assert.assertNotNull(decoded);
+            Assert.assertEquals(indices.length, decoded.getIndices().getCount());
+            PointAttribute positions = decoded.getNamedAttribute(AttributeType.POSITION);
+            // Every component has its own minimum, all of them have to be restored.
+            for (int p = 0; p < decoded.getNumPoints(); p++)
+            {
+                Vector3 actual = positions.getValueAsVector3(positions.mappedIndex(p));
+                boolean found = false;
+                for (Vector3 expected : controlPoints)
+                {
+                    found |= Math.abs(expected.x - actual.x) < 0.05f && (Math.abs(expected.y - actual.y) < 0.05f) && (Math.abs(expected.z - actual.z) < 0.05f);
+                }
+                
+                Assert.assertTrue(level + ": " + actual, found);
+            }
+            
+        }
+        
+    }
+    
+    @Test
+    public void encodePointCloudWithKdTree()
+        throws DrakoException
+    {
+        // Large enough for the kd-tree to select the split axis from the points.
+        int numPoints = 5000;
+        Vector3[] positions = new Vector3[numPoints];
+        java.util.Random random = new java.util.Random(1);
+        for (int i = 0; i < numPoints; i++)
+        {
+            positions[i] = new Vector3(random.nextFloat() * 100F, random.nextFloat() * 100F, random.nextFloat() * 10F);
+        }
+        
+        DracoPointCloud pc = new DracoPointCloud();
+        pc.addAttribute(PointAttribute.wrap(AttributeType.POSITION, positions));
+        pc.setNumPoints(numPoints);
+        DracoEncodeOptions options = new DracoEncodeOptions();
+        byte[] encoded = Draco.encode(pc, options);
+        DracoPointCloud decoded = Draco.decode(encoded);
+        Assert.assertNotNull(decoded);
+        Assert.assertEquals(numPoints, decoded.getNumPoints());
+        // The kd-tree reorders the points, compare the sorted coordinates.
+        float[] expected = new float[numPoints];
+        float[] actual = new float[numPoints];
+        PointAttribute att = decoded.getNamedAttribute(AttributeType.POSITION);
+        float[] value = new float[3];
+        for (int i = 0; i < numPoints; i++)
+        {
+            expected[i] = positions[i].x;
+            att.getValue(att.mappedIndex(i), value);
+            actual[i] = value[0];
+        }
+        
+        Arrays.sort(expected);
+        Arrays.sort(actual);
+        Assert.assertArrayEquals(expected, actual, 100F / (1 << options.getPositionBits()));
+    }
+    
     @Test
     public void encodeMeshToDrcWithImplicitUVNormalMapping()
         throws DrakoException
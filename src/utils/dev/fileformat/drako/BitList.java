@@ -0,0 +1,88 @@
+package dev.fileformat.drako;
+import java.util.Arrays;
+/**
+ *  Used to simulate std::vector&lt;bool&gt;
+ *  the bits are packed into longs, an ArrayList&lt;Boolean&gt; takes a boxed reference per element.
+ *
+ */
+class BitList
+{    
+    private int count;
+    private long[] words;
+    public BitList()
+    {
+        this.words = new long[1];
+    }
+    
+    public int getCount()
+    {
+        return count;
+    }
+    
+    public boolean get(int idx)
+    {
+        return (words[idx >>> 6] & (1L << idx)) != 0;
+    }
+    
+    public void set(int idx, boolean value)
+    {
+        if (value)
+        {
+            words[idx >>> 6] |= 1L << idx;
+        }
+        else
+        {
+            words[idx >>> 6] &= ~(1L << idx);
+        }
+        
+    }
+    
+    public void add(boolean value)
+    {
+        this.ensureCapacity(count + 1);
+        this.set(count++, value);
+    }
+    
+    public void clear()
+    {
+        this.count = 0;
+    }
+    
+    /**
+     *  Resize the list to |size| elements and set all of them to |value|.
+     *
+     */
+    public void assign(int size, boolean value)
+    {
+        this.ensureCapacity(size);
+        int numWords = (size + 63) >>> 6;
+        Arrays.fill(words, 0, numWords, value ? -1L : 0L);
+        this.count = size;
+    }
+    
+    /**
+     *  Set all elements to |value|.
+     *
+     */
+    public void fill(boolean value)
+    {
+        this.assign(count, value);
+    }
+    
+    private void ensureCapacity(int newSize)
+    {
+        int numWords = (newSize + 63) >>> 6;
+        if (numWords <= words.length)
+            return;
+        int capacity = words.length;
+        while (capacity < numWords)
+        {
+            capacity += (capacity >> 1) + 1;
+        }
+        
+        long[] newWords = new long[capacity];
+        System.arraycopy(words, 0, newWords, 0, words.length);
+        this.words = newWords;
+    }
+    
+}
@@ -0,0 +1,127 @@
+package dev.fileformat.drako;
+import java.util.ArrayList;
+/**
+ *  A bounded, thread-safe pool of byte arrays.
+ *  Used by {@link dev.fileformat.drako.DataBuffer} so repeated encodes can reuse the storage of previous encodes
+ *  instead of allocating and growing new arrays every time.
+ *
+ */
+public class ByteArrayPool
+{    
+    /**
+     *  Pooled arrays are only handed out for requests of at least 1/MAX_OVERSIZE of their length,
+     *  a small request after a large encode would otherwise get, and later clear, the large array.
+     *
+     */
+    private static final int MAX_OVERSIZE = 2;
+    private static final ByteArrayPool SHARED = new ByteArrayPool(8, 64 * 1024 * 1024);
+    private final ArrayList<byte[]> arrays = new ArrayList<byte[]>();
+    private final int maxArrays;
+    private final long maxRetainedBytes;
+    private long retainedBytes;
+    /**
+     *  Construct a pool.
+     *
+     * @param maxArrays Maximum number of arrays kept by the pool
+     * @param maxRetainedBytes Maximum number of bytes kept by the pool, larger arrays are left to the GC
+     */
+    public ByteArrayPool(int maxArrays, long maxRetainedBytes)
+    {
+        this.maxArrays = maxArrays;
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+    
+    /**
+     *  The pool shared by {@link dev.fileformat.drako.Draco}'s encode methods.
+     *
+     */
+    public static ByteArrayPool getShared()
+    {
+        return SHARED;
+    }
+    
+    /**
+     *  Gets an array with at least minSize bytes and at most twice that, unless a new array is allocated.
+     *  The content of the array is undefined.
+     *
+     */
+    public byte[] rent(int minSize)
+    {
+        synchronized(arrays)
+        {
+            // Pick the smallest array that fits without being much larger than requested.
+            long maxSize = (long)minSize * MAX_OVERSIZE;
+            int best = -1;
+            for (int i = 0; i < arrays.size(); i++)
+            {
+                int len = arrays.get(i).length;
+                if (len >= minSize && (len <= maxSize) && (best == -1 || (len < arrays.get(best).length)))
+                {
+                    best = i;
+                }
+                
+            }
+            
+            if (best != -1)
+            {
+                byte[] ret = arrays.remove(best);
+                retainedBytes -= ret.length;
+                return ret;
+            }
+            
+        }
+        
+        return new byte[minSize];
+    }
+    
+    /**
+     *  Returns the array to the pool, the caller must not use it after this call.
+     *
+     */
+    public void release(byte[] array)
+    {
+        if (array == null || (array.length == 0))
+            return;
+        synchronized(arrays)
+        {
+            if (array.length > maxRetainedBytes)
+                return;
+            // Evict the smallest arrays to make room for the new one.
+            while (arrays.size() >= maxArrays || (retainedBytes + array.length > maxRetainedBytes))
+            {
+                int smallest = 0;
+                for (int i = 1; i < arrays.size(); i++)
+                {
+                    if (arrays.get(i).length < arrays.get(smallest).length)
+                    {
+                        smallest = i;
+                    }
+                    
+                }
+                
+                if (arrays.isEmpty() || (arrays.get(smallest).length > array.length))
+                    return;
+                retainedBytes -= arrays.remove(smallest).length;
+            }
+            
+            arrays.add(array);
+            retainedBytes += array.length;
+        }
+        
+    }
+    
+    /**
+     *  Drops all pooled arrays.
+     *
+     */
+    public void clear()
+    {
+        synchronized(arrays)
+        {
+            arrays.clear();
+            this.retainedBytes = 0L;
+        }
+        
+    }
+    
+}
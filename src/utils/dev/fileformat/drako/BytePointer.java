@@ -3,6 +3,9 @@ import dev.fileformat.drako.AsposeUtils;
 import dev.fileformat.drako.HashBuilder;
 import dev.fileformat.drako.Struct;
 import java.io.Serializable;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 /**
  *  This simulates a byte pointer used in Draco implementation, also makes it easier to be ported to Java using CsPorter made by Lex Chou.
  *  I've benchmarked this, it's okay to be used, I'll replace this by Span later.
@@ -28,11 +31,20 @@ import java.io.Serializable;
  *  BytePointer Read    00:00:00.3381226
  *  Memory Span Read    00:00:00.3725757
  *  Memory Slice Read   00:00:00.6809910
+ * 
+ *  A pointer is either backed by a heap byte[] or by a {@link java.nio.ByteBuffer}(direct or memory-mapped),
+ *  the ByteBuffer backend allows decoding without copying the input into the heap first.
+ *  Only array-backed pointers can be serialized, a ByteBuffer-backed pointer loses its buffer.
  *
  */
 final class BytePointer implements Struct<BytePointer>, Serializable
 {    
     private byte[] data;
+    /**
+     *  Not serialized, ByteBuffer isn't serializable.
+     *
+     */
+    private transient ByteBuffer buffer;
     private int offset;
     public BytePointer(byte[] data)
     {
@@ -46,80 +58,219 @@ final class BytePointer implements Struct<BytePointer>, Serializable
         this.offset = offset;
     }
     
+    /**
+     *  Wrap the remaining bytes of the buffer, the buffer's position and limit are not modified.
+     *
+     * @param buffer the ByteBuffer to read from
+     */
+    public BytePointer(ByteBuffer buffer)
+    {
+        this.buffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        this.offset = 0;
+    }
+    
     public int getOffset()
     {
         return offset;
     }
     
+    /**
+     *  Gets the backing byte array, or null if this pointer is backed by a ByteBuffer.
+     *
+     */
     public byte[] getBaseData()
     {
         return data;
     }
     
+    /**
+     *  Gets the backing ByteBuffer, or null if this pointer is backed by a byte array.
+     *
+     */
+    public ByteBuffer getBaseBuffer()
+    {
+        return buffer;
+    }
+    
     public byte get(int offset)
     {
-        return data[this.offset + offset];
+        if (data != null)
+            return data[this.offset + offset];
+        return buffer.get(this.offset + offset);
     }
     
     public void set(int offset, byte value)
     {
-        data[this.offset + offset] = value;
+        if (data != null)
+        {
+            data[this.offset + offset] = value;
+        }
+        else
+        {
+            buffer.put(this.offset + offset, value);
+        }
+        
     }
     
     public byte toByte()
     {
-        return data[this.offset];
+        return this.get(0);
     }
     
     public short toUInt16LE()
     {
-        return Unsafe.getLE16(data, this.offset);
+        return this.toUInt16LE(0);
     }
     
     public short toUInt16LE(int offset)
     {
-        return Unsafe.getLE16(data, this.offset + offset);
+        if (data != null)
+            return Unsafe.getLE16(data, this.offset + offset);
+        return buffer.getShort(this.offset + offset);
     }
     
     public int toUInt24LE(int offset)
     {
-        return Unsafe.getLE24(data, this.offset + offset);
+        if (data != null)
+            return Unsafe.getLE24(data, this.offset + offset);
+        int p = this.offset + offset;
+        return (0xffff & buffer.getShort(p)) | ((0xff & buffer.get(p + 2)) << 16);
     }
     
     public int toUInt32LE(int offset)
     {
-        return Unsafe.getLE32(data, this.offset + offset);
+        if (data != null)
+            return Unsafe.getLE32(data, this.offset + offset);
+        return buffer.getInt(this.offset + offset);
     }
     
     public long toUInt64LE(int offset)
     {
-        return Unsafe.getLE64(data, this.offset + offset);
+        if (data != null)
+            return Unsafe.getLE64(data, this.offset + offset);
+        return buffer.getLong(this.offset + offset);
     }
     
     public float toSingle(int offset)
     {
-        return Unsafe.getFloat(data, this.offset + offset);
+        if (data != null)
+            return Unsafe.getFloat(data, this.offset + offset);
+        return buffer.getFloat(this.offset + offset);
     }
     
     public boolean isOverflow(int offset)
     {
         int p = offset + this.offset;
-        return p >= data.length || (p < 0);
+        return p >= this.getCapacity() || (p < 0);
+    }
+    
+    private int getCapacity()
+    {
+        if (data != null)
+            return data.length;
+        return buffer == null ? 0 : buffer.limit();
     }
     
     public static BytePointer add(BytePointer ptr, int offset)
     {
-        return new BytePointer(ptr.data, ptr.offset + offset);
+        BytePointer ret = new BytePointer(ptr);
+        ret.offset += offset;
+        return ret;
     }
     
     public void copy(int srcOffset, byte[] dst, int dstOffset, int len)
     {
-        System.arraycopy(data, this.offset + srcOffset, dst, dstOffset, len);
+        if (data != null)
+        {
+            System.arraycopy(data, this.offset + srcOffset, dst, dstOffset, len);
+        }
+        else
+        {
+            ByteBuffer view = buffer.duplicate();
+            // cast to Buffer keeps the compiled call site compatible with Java 8
+            ((Buffer)view).position(this.offset + srcOffset);
+            view.get(dst, dstOffset, len);
+        }
+        
+    }
+    
+    /**
+     *  Reads |count| unsigned bytes starting at |srcOffset| into |dst| from |dstOffset|.
+     *
+     */
+    public void toUInt8Array(int srcOffset, int[] dst, int dstOffset, int count)
+    {
+        if (data != null)
+        {
+            for (int i = dstOffset,  p = this.offset + srcOffset; i < dstOffset + count; i++, p++)
+            {
+                dst[i] = 0xff & data[p];
+            }
+            
+        }
+        else
+        {
+            for (int i = dstOffset,  p = this.offset + srcOffset; i < dstOffset + count; i++, p++)
+            {
+                dst[i] = 0xff & buffer.get(p);
+            }
+            
+        }
+        
+    }
+    
+    /**
+     *  Reads |count| little-endian unsigned 16 bits integers starting at |srcOffset| into |dst| from |dstOffset|.
+     *
+     */
+    public void toUInt16ArrayLE(int srcOffset, int[] dst, int dstOffset, int count)
+    {
+        ByteBuffer view = this.view(srcOffset, count * 2);
+        for (int i = 0; i < count; i++)
+        {
+            dst[dstOffset + i] = 0xffff & view.getShort(i * 2);
+        }
+        
+    }
+    
+    /**
+     *  Reads |count| little-endian 32 bits integers starting at |srcOffset| into |dst|.
+     *
+     */
+    public void toInt32ArrayLE(int srcOffset, int[] dst, int dstOffset, int count)
+    {
+        this.view(srcOffset, count * 4).asIntBuffer().get(dst, dstOffset, count);
+    }
+    
+    /**
+     *  Little-endian view of |length| bytes starting at |srcOffset|, the bulk reads of the typed views
+     *  copy whole words instead of assembling every value from bytes.
+     *
+     */
+    private ByteBuffer view(int srcOffset, int length)
+    {
+        ByteBuffer ret;
+        if (data != null)
+        {
+            ret = ByteBuffer.wrap(data, this.offset + srcOffset, length).slice();
+        }
+        else
+        {
+            ret = buffer.duplicate();
+            // cast to Buffer keeps the compiled call site compatible with Java 8
+            ((Buffer)ret).limit(this.offset + srcOffset + length);
+            ((Buffer)ret).position(this.offset + srcOffset);
+            ret = ret.slice();
+        }
+        
+        return ret.order(ByteOrder.LITTLE_ENDIAN);
     }
     
     @Override
     public String toString()
     {
+        if (buffer != null)
+            return String.format("ByteBuffer[%d]+%d", buffer.limit(), offset);
         return String.format("byte[%d]+%d", data == null ? 0 : data.length, offset);
     }
     
@@ -130,6 +281,7 @@ final class BytePointer implements Struct<BytePointer>, Serializable
     private BytePointer(BytePointer other)
     {
         this.data = other.data;
+        this.buffer = other.buffer;
         this.offset = other.offset;
     }
     
@@ -145,6 +297,7 @@ final class BytePointer implements Struct<BytePointer>, Serializable
         if (src == null)
             return;
         this.data = src.data;
+        this.buffer = src.buffer;
         this.offset = src.offset;
     }
     
@@ -154,6 +307,7 @@ final class BytePointer implements Struct<BytePointer>, Serializable
     {
         HashBuilder builder = new HashBuilder();
         builder.hash(this.data);
+        builder.hash(System.identityHashCode(this.buffer));
         builder.hash(this.offset);
         return builder.hashCode();
     }
@@ -166,6 +320,8 @@ final class BytePointer implements Struct<BytePointer>, Serializable
         BytePointer rhs = (BytePointer)obj;
         if (!AsposeUtils.equals(this.data, rhs.data))
             return false;
+        if (this.buffer != rhs.buffer)
+            return false;
         if (this.offset != rhs.offset)
             return false;
         return true;
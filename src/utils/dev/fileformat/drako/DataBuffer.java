@@ -9,10 +9,22 @@ import java.util.Arrays;
  */
 public class DataBuffer
 {    
+    private static final int CLEAR_BLOCK = 4096;
     private int version;
     private byte[] data;
     private int length;
     private final boolean extendable;
+    /**
+     *  Optional pool that provides the backing arrays of an extendable buffer.
+     *
+     */
+    private ByteArrayPool pool;
+    /**
+     *  Bytes of a pooled array before this offset are zeroed or written by this buffer,
+     *  the rest may still hold data of the array's previous user.
+     *
+     */
+    private int clearedLength;
     public int getVersion()
     {
         return version;
@@ -33,6 +45,18 @@ public class DataBuffer
         this.extendable = true;
     }
     
+    /**
+     *  Construct an extendable buffer whose backing arrays are rented from the pool.
+     *  Call {@link #release()} to return the storage once the buffer is no longer used.
+     *
+     * @param pool The pool to rent backing arrays from
+     */
+    public DataBuffer(ByteArrayPool pool)
+    {
+        this.extendable = true;
+        this.pool = pool;
+    }
+    
     public DataBuffer(byte[] data)
     {
         this.data = data;
@@ -138,13 +162,46 @@ public class DataBuffer
             return;
         if (!extendable)
             throw new IllegalStateException("Cannot extend the fixed-length data buffer.");
-        int newCap = data == null ? 0 : data.length;
-        while (newCap < cap)
+        // Grow geometrically so a sequence of appends costs amortized O(1) per byte.
+        int oldCap = data == null ? 0 : data.length;
+        int newCap = Math.max(cap, oldCap < 1024 ? 1024 : oldCap + (oldCap >> 1));
+        if (newCap < 0)
+        {
+            newCap = Math.max(cap, Integer.MAX_VALUE - 8);
+        }
+        
+        if (pool == null)
+        {
+            this.data = this.data == null ? new byte[newCap] : Arrays.copyOf(this.data, newCap);
+        }
+        else
         {
-            newCap += 1024;
+            // Pooled arrays are dirty, setLength clears them as the buffer grows into them.
+            byte[] newData = pool.rent(newCap);
+            if (this.data != null)
+            {
+                System.arraycopy(this.data, 0, newData, 0, clearedLength);
+                pool.release(this.data);
+            }
+            
+            this.data = newData;
         }
         
-        this.data = this.data == null ? new byte[newCap] : Arrays.copyOf(this.data, newCap);
+    }
+    
+    /**
+     *  Returns the backing array to the pool and empties the buffer.
+     *  Has no effect on buffers that are not created with a pool.
+     *
+     */
+    public void release()
+    {
+        if (pool == null || (data == null))
+            return;
+        pool.release(data);
+        this.data = null;
+        this.length = 0;
+        this.clearedLength = 0;
     }
     
     public void clear()
@@ -161,6 +218,14 @@ public class DataBuffer
     {
         this.length = value;
         this.ensureCapacity(value);
+        if (pool != null && (value > clearedLength))
+        {
+            // Clear a block ahead so appending single bytes doesn't clear on every call.
+            int end = Math.min(data.length, Math.max(value, clearedLength + CLEAR_BLOCK));
+            Arrays.fill(data, clearedLength, end, (byte)0);
+            this.clearedLength = end;
+        }
+        
     }
     
     public byte[] getBuffer()
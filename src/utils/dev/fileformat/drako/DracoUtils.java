@@ -111,14 +111,7 @@ class DracoUtils
      */
     public static int mostSignificantBit(int n)
     {
-        int msb = -1;
-        while ((0xffffffffl & n) != 0)
-        {
-            msb++;
-            n >>= 1;
-        }
-        
-        return msb;
+        return 31 - Integer.numberOfLeadingZeros(n);
     }
     
     public static LongVector3 add(LongVector3 a, LongVector3 b)
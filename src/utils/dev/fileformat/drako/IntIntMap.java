@@ -0,0 +1,144 @@
+package dev.fileformat.drako;
+import java.util.Arrays;
+/**
+ *  Used to replace HashMap&lt;Integer, Integer&gt; for maps keyed by element ids.
+ *  Open addressing with linear probing over flat arrays, keys must be non-negative.
+ *
+ */
+class IntIntMap
+{    
+    private static final int EMPTY = -1;
+    private int[] keys;
+    private int[] values;
+    private int count;
+    private int mask;
+    public IntIntMap()
+    {
+        this(16);
+    }
+    
+    public IntIntMap(int capacity)
+    {
+        int size = 16;
+        while (size < capacity * 2)
+        {
+            size <<= 1;
+        }
+        
+        this.allocate(size);
+    }
+    
+    public int getCount()
+    {
+        return count;
+    }
+    
+    /**
+     *  Returns the value mapped to |key|, or |defaultValue| if there is none.
+     *
+     */
+    public int get(int key, int defaultValue)
+    {
+        for (int i = IntIntMap.slot(key) & mask; ; i = (i + 1) & mask)
+        {
+            int k = keys[i];
+            if (k == key)
+                return values[i];
+            if (k == EMPTY)
+                return defaultValue;
+        }
+        
+    }
+    
+    public boolean containsKey(int key)
+    {
+        for (int i = IntIntMap.slot(key) & mask; ; i = (i + 1) & mask)
+        {
+            int k = keys[i];
+            if (k == key)
+                return true;
+            if (k == EMPTY)
+                return false;
+        }
+        
+    }
+    
+    public void put(int key, int value)
+    {
+        if (key < 0)
+            throw new IllegalArgumentException("Argument key cannot be negative");
+        for (int i = IntIntMap.slot(key) & mask; ; i = (i + 1) & mask)
+        {
+            int k = keys[i];
+            if (k == key)
+            {
+                values[i] = value;
+                return;
+            }
+            
+            if (k == EMPTY)
+            {
+                keys[i] = key;
+                values[i] = value;
+                // Keep the load factor at or below one half.
+                if (++count * 2 > keys.length)
+                {
+                    this.rehash();
+                }
+                
+                return;
+            }
+            
+        }
+        
+    }
+    
+    public void clear()
+    {
+        if (count == 0)
+            return;
+        Arrays.fill(keys, EMPTY);
+        this.count = 0;
+    }
+    
+    private void rehash()
+    {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        this.allocate(keys.length * 2);
+        for (int j = 0; j < oldKeys.length; j++)
+        {
+            int key = oldKeys[j];
+            if (key == EMPTY)
+                continue;
+            int i = IntIntMap.slot(key) & mask;
+            while (keys[i] != EMPTY)
+            {
+                i = (i + 1) & mask;
+            }
+            
+            keys[i] = key;
+            values[i] = oldValues[j];
+        }
+        
+    }
+    
+    private void allocate(int size)
+    {
+        this.keys = new int[size];
+        this.values = new int[size];
+        this.mask = size - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+    
+    /**
+     *  Spreads sequential ids over the table.
+     *
+     */
+    private static int slot(int key)
+    {
+        int h = key * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+    
+}